@@ -0,0 +1,105 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.Locale;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.AllocatedBytesProfiler;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.AllocatedBytesProfilingTransformer;
+
+/**
+ * Measures the overhead that {@link com.gl.vn.me.ko.sample.instrumentation.util.profile.AllocatedBytesProfilingTransformer} adds to
+ * an invocation of an instrumented method. The same method that invokes another method ({@link Workload#apply(long)}) is invoked
+ * as is ({@code plain}) and after both methods were transformed by the profiler and loaded by a separate class loader ({@code profiled}),
+ * the difference is the overhead per two instrumented invocations. Recording must not allocate, i.e. the difference in allocated bytes
+ * must be 0, and the report must attribute the bytes of the inner array to {@code inner} exclusively and to {@code apply} inclusively.
+ * <p>
+ * Usage: {@code ant bench -Dbench=AllocatedBytesProfilerBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class AllocatedBytesProfilerBenchmark {
+  /**
+   * Methods which allocated bytes are profiled. The class is public, because it's loaded by another class loader.
+   * <p>
+   * Instantiability: allowed.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  public final static class Workload implements LongFunction<Object> {
+    /**
+     * Creates a workload.
+     */
+    public Workload() {
+    }
+
+    public final Object apply(final long value) {
+      return new Object[] {inner(value)};
+    }
+
+    private final long[] inner(final long value) {
+      return new long[] {value, value + 1};
+    }
+  }
+
+  private final static int INVOCATIONS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static int INSTRUMENTED_INVOCATIONS_PER_INVOCATION;
+  private final static int SINK_LENGTH;
+
+  static {
+    INVOCATIONS_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 20;
+    MEASUREMENT_ITERATIONS = 20;
+    INSTRUMENTED_INVOCATIONS_PER_INVOCATION = 2;
+    SINK_LENGTH = 1024;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  @SuppressWarnings("unchecked")
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final AllocatedBytesProfilingTransformer transformer = new AllocatedBytesProfilingTransformer(
+        ClassNameFilter.forClasses(Workload.class.getName()
+            .replace('.', '/')), Pattern.compile(".*"));
+    final LongFunction<Object> plain = new Workload();
+    final LongFunction<Object> profiled = (LongFunction<Object>)new TransformingClassLoader(Workload.class, transformer).newInstance();
+    final BenchmarkSupport.Result plainResult = run("plain", plain);
+    final BenchmarkSupport.Result profiledResult = run("profiled", profiled);
+    System.out.println(String.format(Locale.ENGLISH, "Overhead per instrumented invocation: %.1f ns, %.1f B",
+        (profiledResult.nanosPerOp - plainResult.nanosPerOp) / INSTRUMENTED_INVOCATIONS_PER_INVOCATION,
+        (profiledResult.bytesPerOp - plainResult.bytesPerOp) / INSTRUMENTED_INVOCATIONS_PER_INVOCATION));
+    System.out.println(AllocatedBytesProfiler.report());
+  }
+
+  private final static BenchmarkSupport.Result run(final String name, final LongFunction<Object> function) throws Exception {
+    return BenchmarkSupport.run(AllocatedBytesProfilerBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            final Object[] sink = new Object[SINK_LENGTH];// results escape, so allocations are not eliminated by the JIT compiler
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sink[i & (SINK_LENGTH - 1)] = function.apply(i);
+            }
+            if (sink[0] == null) {
+              throw new AssertionError();
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private AllocatedBytesProfilerBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
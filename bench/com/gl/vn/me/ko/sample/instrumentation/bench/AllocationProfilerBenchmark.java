@@ -0,0 +1,102 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.AllocationProfiler;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.AllocationProfilingTransformer;
+
+/**
+ * Measures the overhead that {@link com.gl.vn.me.ko.sample.instrumentation.util.profile.AllocationProfilingTransformer} adds to
+ * allocations. The same method with two allocation sites ({@link Workload#apply(long)}) is invoked as is ({@code plain}) and after it
+ * was transformed by the profiler and loaded by a separate class loader with different sampling intervals ({@code profiled}),
+ * the difference is the overhead per invocation. Counting allocations must not allocate, i.e. the difference in allocated bytes must be 0.
+ * <p>
+ * Usage: {@code ant bench -Dbench=AllocationProfilerBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class AllocationProfilerBenchmark {
+  /**
+   * A method which allocations are counted. The class is public, because it's loaded by another class loader.
+   * <p>
+   * Instantiability: allowed.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  public final static class Workload implements LongFunction<Object> {
+    /**
+     * Creates a workload.
+     */
+    public Workload() {
+    }
+
+    public final Object apply(final long value) {
+      return new Object[] {new AtomicLong(value)};
+    }
+  }
+
+  private final static int INVOCATIONS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static int[] SAMPLING_INTERVALS;
+  private final static int ALLOCATIONS_PER_INVOCATION;
+
+  static {
+    INVOCATIONS_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 20;
+    MEASUREMENT_ITERATIONS = 20;
+    SAMPLING_INTERVALS = new int[] {1, 64};
+    ALLOCATIONS_PER_INVOCATION = 2;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  @SuppressWarnings("unchecked")
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final AllocationProfilingTransformer transformer = new AllocationProfilingTransformer(ClassNameFilter.forClasses(Workload.class.getName()
+        .replace('.', '/')));
+    final LongFunction<Object> plain = new Workload();
+    final LongFunction<Object> profiled = (LongFunction<Object>)new TransformingClassLoader(Workload.class, transformer).newInstance();
+    final BenchmarkSupport.Result plainResult = run("plain", plain);
+    for (final int samplingInterval : SAMPLING_INTERVALS) {
+      AllocationProfiler.setSamplingInterval(samplingInterval);
+      final BenchmarkSupport.Result profiledResult = run("profiled(samplingInterval=" + samplingInterval + ")", profiled);
+      System.out.println(String.format(Locale.ENGLISH, "Overhead per allocation with sampling interval %d: %.1f ns, %.1f B", samplingInterval,
+          (profiledResult.nanosPerOp - plainResult.nanosPerOp) / ALLOCATIONS_PER_INVOCATION,
+          (profiledResult.bytesPerOp - plainResult.bytesPerOp) / ALLOCATIONS_PER_INVOCATION));
+    }
+    System.out.println(AllocationProfiler.report(ALLOCATIONS_PER_INVOCATION));
+  }
+
+  private final static BenchmarkSupport.Result run(final String name, final LongFunction<Object> function) throws Exception {
+    return BenchmarkSupport.run(AllocationProfilerBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            Object last = null;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              last = function.apply(i);
+            }
+            if (last == null) {
+              throw new AssertionError();
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private AllocationProfilerBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
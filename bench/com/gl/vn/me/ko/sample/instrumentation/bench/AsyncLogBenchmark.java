@@ -0,0 +1,117 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.Locale;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Measures the cost of logging a debug message with two arguments (a class name and a {@code long}), like the messages logged
+ * by class file transformers, in the logging thread. The message is logged via {@link Logger#debug(Object)} with string concatenation
+ * ({@code log4j}), via {@link AsyncLog} before {@link AsyncLog#start(int)} ({@code sync}) and after it ({@code async}).
+ * Events are passed to an appender that only counts them, so the cost of I/O is not included, though in the {@code async} case
+ * it would have been paid by the background thread. The target for the {@code async} case is no allocation in the logging thread.
+ * Events that don't fit into the buffer are dropped, the number of dropped events is reported.
+ * <p>
+ * Usage: {@code ant bench -Dbench=AsyncLogBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class AsyncLogBenchmark {
+  /**
+   * Counts events.
+   * <p>
+   * Instantiability: allowed only from inside {@link AsyncLogBenchmark} class.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class CountingAppender extends AppenderSkeleton {
+    private volatile long count;
+
+    private CountingAppender() {
+      count = 0;
+    }
+
+    @Override
+    protected final void append(final LoggingEvent event) {
+      if (event.getRenderedMessage() != null) {
+        count++;// only one thread appends at a time, see AppenderSkeleton#doAppend
+      }
+    }
+
+    public final void close() {
+    }
+
+    public final boolean requiresLayout() {
+      return false;
+    }
+  }
+
+  private final static int MESSAGES_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static int BUFFER_SIZE;
+  private final static String CLASS_NAME;
+
+  static {
+    MESSAGES_PER_ITERATION = 100000;
+    WARMUP_ITERATIONS = 10;
+    MEASUREMENT_ITERATIONS = 10;
+    BUFFER_SIZE = 1 << 16;
+    CLASS_NAME = "com/example/Handler";
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    BasicConfigurator.configure();// the number of dropped messages is logged by AsyncLog to the console
+    final CountingAppender appender = new CountingAppender();
+    final Logger logger = Logger.getLogger(AsyncLogBenchmark.class);
+    logger.setAdditivity(false);
+    logger.addAppender(appender);
+    logger.setLevel(Level.DEBUG);
+    BenchmarkSupport.run(AsyncLogBenchmark.class.getSimpleName() + ".log4j", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            for (int i = 0; i < MESSAGES_PER_ITERATION; i++) {
+              logger.debug("Class '" + CLASS_NAME + "' was transformed in " + i + " ns");
+            }
+            return MESSAGES_PER_ITERATION;
+          }
+        });
+    run("sync", logger);
+    AsyncLog.start(BUFFER_SIZE);
+    final BenchmarkSupport.Result asyncResult = run("async", logger);
+    final long dropped = AsyncLog.getDroppedCount();
+    AsyncLog.stop();
+    System.out.println(String.format(Locale.ENGLISH, "Async: %.1f B per message, the target of no allocation is %s; %d of %d messages were dropped",
+        asyncResult.bytesPerOp, asyncResult.bytesPerOp < 1 ? "met" : "NOT met", dropped,
+        (long)MESSAGES_PER_ITERATION * (WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS)));
+    System.out.println(String.format(Locale.ENGLISH, "%d messages were appended", appender.count));
+  }
+
+  private final static BenchmarkSupport.Result run(final String name, final Logger logger) throws Exception {
+    return BenchmarkSupport.run(AsyncLogBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            for (int i = 0; i < MESSAGES_PER_ITERATION; i++) {
+              AsyncLog.debug(logger, "Class '{}' was transformed in {} ns", CLASS_NAME, i);
+            }
+            return MESSAGES_PER_ITERATION;
+          }
+        });
+  }
+
+  private AsyncLogBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Provides a minimalistic benchmarking harness: warm-up iterations, measurement iterations, time and allocation per operation.
+ * The harness is intentionally simple and is only suitable to compare alternatives within a single run,
+ * it doesn't replace a full-fledged benchmarking framework.
+ * <p>
+ * If the system property {@value #JSON_PROPERTY} specifies a file, every result is also appended to the file as a JSON object
+ * on a separate line (JSON Lines), so results of many runs can be collected in a single file and tracked over time
+ * (see the target {@code bench-all} in {@code build.xml}).
+ * The system property {@value #THREADS_PROPERTY} specifies numbers of threads for multithreaded benchmarks.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+final class BenchmarkSupport {
+  /**
+   * A benchmarked action.
+   */
+  interface Operation {
+    /**
+     * Performs one iteration of the benchmark.
+     *
+     * @return Number of operations performed during the iteration. Must be positive.
+     *
+     * @throws java.lang.Exception If something goes wrong.
+     */
+    long run() throws Exception;
+  }
+
+  /**
+   * Result of a benchmark.
+   * <p>
+   * Instantiability: allowed only from inside {@link BenchmarkSupport} class.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  final static class Result {
+    /**
+     * Name of the benchmark.
+     */
+    final String name;
+    /**
+     * Average time per operation in nanoseconds.
+     */
+    final double nanosPerOp;
+    /**
+     * Average number of bytes allocated by the benchmarking thread per operation.
+     * Is negative if the JVM doesn't support measurement of allocated bytes or if allocation isn't measured by the benchmark.
+     */
+    final double bytesPerOp;
+
+    private Result(final String name, final double nanosPerOp, final double bytesPerOp) {
+      this.name = name;
+      this.nanosPerOp = nanosPerOp;
+      this.bytesPerOp = bytesPerOp;
+    }
+
+    @Override
+    public final String toString() {
+      return String.format(Locale.ENGLISH, "%-60s %14.1f ns/op %14.1f B/op", name, nanosPerOp, bytesPerOp);
+    }
+
+    private final String toJson(final long timestampMillis) {
+      return String.format(Locale.ENGLISH, "{\"timestamp\":%d,\"benchmark\":\"%s\",\"nanosPerOp\":%.3f,\"bytesPerOp\":%.3f,\"java\":\"%s\"}",
+          timestampMillis, name.replace("\\", "\\\\")
+              .replace("\"", "\\\""), nanosPerOp, bytesPerOp, System.getProperty("java.vm.version"));
+    }
+  }
+
+  /**
+   * Name of the system property that specifies a file to which results are appended in JSON Lines format,
+   * e.g. {@code "build/bench/results.jsonl"}.
+   */
+  final static String JSON_PROPERTY = "bench.json";
+  /**
+   * Name of the system property that specifies comma-separated numbers of threads for multithreaded benchmarks, e.g. {@code "1,4,16"}.
+   *
+   * @see #threadCounts()
+   */
+  final static String THREADS_PROPERTY = "bench.threads";
+  private final static com.sun.management.ThreadMXBean THREAD_MX_BEAN;
+
+  static {
+    THREAD_MX_BEAN = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    if (THREAD_MX_BEAN.isThreadAllocatedMemorySupported()) {
+      THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+    }
+  }
+
+  /**
+   * Runs the supplied operation, prints and returns the result.
+   * The result is computed over all measurement iterations, warm-up iterations are ignored.
+   *
+   * @param name Name of the benchmark. Must be not {@code null}.
+   * @param warmupIterations Number of warm-up iterations. Must be non-negative.
+   * @param measurementIterations Number of measurement iterations. Must be positive.
+   * @param operation The benchmarked action. Must be not {@code null}.
+   *
+   * @return Result of the benchmark.
+   *
+   * @throws java.lang.Exception If {@code operation} throws an exception.
+   */
+  final static Result run(final String name, final int warmupIterations, final int measurementIterations, final Operation operation)
+      throws Exception {
+    if (name == null) {
+      throw new NullPointerException("The first argument 'name' is null");
+    } else if (operation == null) {
+      throw new NullPointerException("The fourth argument 'operation' is null");
+    } else if (warmupIterations < 0) {
+      throw new IllegalArgumentException("The second argument 'warmupIterations' must be non-negative");
+    } else if (measurementIterations <= 0) {
+      throw new IllegalArgumentException("The third argument 'measurementIterations' must be positive");
+    }
+    for (int i = 0; i < warmupIterations; i++) {
+      operation.run();
+    }
+    final boolean measureAllocation = THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled();
+    long ops = 0;
+    final long allocatedBytesStart = measureAllocation ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < measurementIterations; i++) {
+      ops += operation.run();
+    }
+    final long durationNanos = System.nanoTime() - start;
+    final long allocatedBytes = measureAllocation ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - allocatedBytesStart : -ops;
+    return report(name, (double)durationNanos / ops, (double)allocatedBytes / ops);
+  }
+
+  /**
+   * Prints and returns a result that was measured by a benchmark on its own, e.g. by a multithreaded benchmark.
+   * The result is also appended to the file specified by the system property {@value #JSON_PROPERTY}, if any.
+   *
+   * @param name Name of the benchmark. Must be not {@code null}.
+   * @param nanosPerOp Average time per operation in nanoseconds, e.g. the reciprocal of throughput.
+   * @param bytesPerOp Average number of bytes allocated per operation, or a negative value if allocation wasn't measured.
+   *
+   * @return Result of the benchmark.
+   */
+  final static Result report(final String name, final double nanosPerOp, final double bytesPerOp) {
+    if (name == null) {
+      throw new NullPointerException("The first argument 'name' is null");
+    }
+    final Result result = new Result(name, nanosPerOp, bytesPerOp);
+    System.out.println(result);
+    final String jsonFile = System.getProperty(JSON_PROPERTY);
+    if ((jsonFile != null) && !jsonFile.isEmpty()) {
+      appendJson(Paths.get(jsonFile), result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns numbers of threads for multithreaded benchmarks: the value of the system property {@value #THREADS_PROPERTY} if specified,
+   * otherwise 1, 2, 4, ... up to twice the number of available processors (but at least up to 4).
+   *
+   * @return Numbers of threads in the order they must be measured.
+   */
+  final static int[] threadCounts() {
+    final String property = System.getProperty(THREADS_PROPERTY);
+    final int[] result;
+    if ((property == null) || property.isEmpty()) {
+      final int max = Math.max(2 * Runtime.getRuntime()
+          .availableProcessors(), 4);
+      result = new int[Integer.SIZE - Integer.numberOfLeadingZeros(max)];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = 1 << i;
+      }
+    } else {
+      final String[] values = property.split(",");
+      result = new int[values.length];
+      for (int i = 0; i < values.length; i++) {
+        result[i] = Integer.parseInt(values[i].trim());
+        if (result[i] <= 0) {
+          throw new IllegalArgumentException("The value '" + property + "' is incorrect for the system property '" + THREADS_PROPERTY + "'");
+        }
+      }
+    }
+    return result;
+  }
+
+  private final static synchronized void appendJson(final Path file, final Result result) {
+    try {
+      final Path directory = file.toAbsolutePath()
+          .getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      Files.write(file, (result.toJson(System.currentTimeMillis()) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Can't append the result to '" + file + "'", e);
+    }
+  }
+
+  private BenchmarkSupport() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
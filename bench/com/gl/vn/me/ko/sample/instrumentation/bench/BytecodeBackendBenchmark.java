@@ -0,0 +1,105 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.example.ExampleA;
+import com.gl.vn.me.ko.sample.instrumentation.example.ExampleB;
+import com.gl.vn.me.ko.sample.instrumentation.example.ExampleC;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleA;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleB;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleC;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleD;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleA;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleB;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleC;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleD;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer;
+
+/**
+ * Compares time and allocation per transformation of
+ * {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer}-based example transformers, which build
+ * a {@link javassist.CtClass} object model, with equivalent
+ * {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractBytecodeTransformer}-based transformers, which edit bytecode directly.
+ * Every operation transforms the original class file of the example class (or of {@link java.lang.String} for example D)
+ * via {@link java.lang.instrument.ClassFileTransformer#transform(ClassLoader, String, Class, java.security.ProtectionDomain, byte[])},
+ * just like the JVM does when it loads the class.
+ * <p>
+ * Usage: {@code ant bench -Dbench=BytecodeBackendBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class BytecodeBackendBenchmark {
+  private final static int OPERATIONS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+
+  static {
+    OPERATIONS_PER_ITERATION = 500;
+    WARMUP_ITERATIONS = 10;
+    MEASUREMENT_ITERATIONS = 10;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);// transformers check the level before building messages
+    compare("A", ExampleA.class, ClassFileTransformerExampleA.INSTANCE, BytecodeTransformerExampleA.INSTANCE);
+    compare("B", ExampleB.class, ClassFileTransformerExampleB.INSTANCE, BytecodeTransformerExampleB.INSTANCE);
+    compare("C", ExampleC.class, ClassFileTransformerExampleC.INSTANCE, BytecodeTransformerExampleC.INSTANCE);
+    compare("D", String.class, ClassFileTransformerExampleD.INSTANCE, BytecodeTransformerExampleD.INSTANCE);
+  }
+
+  private final static void compare(
+      final String example,
+      final Class<?> clazz,
+      final AbstractTransformer javassistTransformer,
+      final AbstractTransformer bytecodeTransformer) throws Exception {
+    final byte[] classfileBuffer = readClassFile(clazz);
+    final BenchmarkSupport.Result javassistResult = run(example + ".javassist", clazz, classfileBuffer, javassistTransformer);
+    final BenchmarkSupport.Result bytecodeResult = run(example + ".bytecode", clazz, classfileBuffer, bytecodeTransformer);
+    System.out.println(String.format(Locale.ENGLISH, "%s: the bytecode backend is %.1f times faster and allocates %.1f times less", example,
+        javassistResult.nanosPerOp / bytecodeResult.nanosPerOp, javassistResult.bytesPerOp / bytecodeResult.bytesPerOp));
+  }
+
+  private final static BenchmarkSupport.Result run(
+      final String name,
+      final Class<?> clazz,
+      final byte[] classfileBuffer,
+      final AbstractTransformer transformer) throws Exception {
+    final ClassLoader classLoader = clazz.getClassLoader();
+    final String className = clazz.getName()
+        .replace('.', '/');
+    return BenchmarkSupport.run(BytecodeBackendBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() throws Exception {
+            for (int i = 0; i < OPERATIONS_PER_ITERATION; i++) {
+              if (transformer.transform(classLoader, className, null, null, classfileBuffer) == null) {
+                throw new AssertionError("Class '" + className + "' wasn't transformed by " + transformer.getClass()
+                    .getSimpleName());
+              }
+            }
+            return OPERATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private final static byte[] readClassFile(final Class<?> clazz) throws IOException {
+    try (final InputStream inputStream = clazz.getResourceAsStream(clazz.getSimpleName() + ".class")) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private BytecodeBackendBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
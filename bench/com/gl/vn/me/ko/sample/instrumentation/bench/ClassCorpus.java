@@ -0,0 +1,123 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A fixed set of class files read from the run-time image of the JVM.
+ * It is used by benchmarks as a large and realistic class corpus that doesn't depend on the content of the project.
+ * <p>
+ * Instantiability: allowed only via {@link #load(String, int)} method.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+final class ClassCorpus {
+  /**
+   * Class file of a single class.
+   * <p>
+   * Instantiability: allowed only from inside {@link ClassCorpus} class.<br>
+   * Mutability: immutable, but {@link #bytes} must not be modified by users.<br>
+   * Thread safety: thread-safe.
+   */
+  final static class Entry {
+    /**
+     * The name of the class in the internal form, for example {@code "java/lang/Object"}.
+     */
+    final String internalName;
+    /**
+     * The name of the class as expected by {@link javassist.ClassPool}, for example {@code "java.lang.Object"}.
+     */
+    final String name;
+    /**
+     * Bytes in class file format.
+     */
+    final byte[] bytes;
+
+    private Entry(final String internalName, final byte[] bytes) {
+      this.internalName = internalName;
+      this.name = internalName.replace('/', '.');
+      this.bytes = bytes;
+    }
+  }
+
+  private final List<Entry> entries;
+
+  private ClassCorpus(final List<Entry> entries) {
+    this.entries = Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Reads class files of the specified module from the run-time image of the JVM.
+   * {@code module-info} and {@code package-info} class files are skipped.
+   *
+   * @param moduleName Name of the module, for example {@code "java.base"}. Must be not {@code null}.
+   * @param maxSize Maximal number of class files to read. Must be positive.
+   *
+   * @return Class files sorted by class name, so the corpus is the same for all runs on the same JVM.
+   *
+   * @throws java.io.IOException If the run-time image can't be read.
+   */
+  final static ClassCorpus load(final String moduleName, final int maxSize) throws IOException {
+    if (moduleName == null) {
+      throw new NullPointerException("The first argument 'moduleName' is null");
+    } else if (maxSize <= 0) {
+      throw new IllegalArgumentException("The second argument 'maxSize' must be positive");
+    }
+    final FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+    final Path moduleRoot = jrt.getPath("modules", moduleName);
+    final List<Path> classFiles = new ArrayList<Path>();
+    try (final Stream<Path> paths = Files.walk(moduleRoot)) {
+      for (final Iterator<Path> pathIterator = paths.iterator(); pathIterator.hasNext(); ) {
+        final Path path = pathIterator.next();
+        final String fileName = path.getFileName()
+            .toString();
+        if (fileName.endsWith(".class") && !fileName.equals("module-info.class") && !fileName.equals("package-info.class")) {
+          classFiles.add(path);
+        }
+      }
+    }
+    Collections.sort(classFiles);
+    final List<Entry> entries = new ArrayList<Entry>(Math.min(classFiles.size(), maxSize));
+    for (final Path classFile : classFiles) {
+      if (entries.size() == maxSize) {
+        break;
+      }
+      final String relativeName = moduleRoot.relativize(classFile)
+          .toString();
+      final String internalName = relativeName.substring(0, relativeName.length() - ".class".length());
+      entries.add(new Entry(internalName, Files.readAllBytes(classFile)));
+    }
+    return new ClassCorpus(entries);
+  }
+
+  /**
+   * Returns class files of the corpus.
+   *
+   * @return Unmodifiable list of class files.
+   */
+  final List<Entry> entries() {
+    return entries;
+  }
+
+  /**
+   * Returns the total size of all class files of the corpus.
+   *
+   * @return Number of bytes.
+   */
+  final long totalBytes() {
+    long result = 0;
+    for (final Entry entry : entries) {
+      result += entry.bytes.length;
+    }
+    return result;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+
+/**
+ * Measures how the latency of a lookup of a class via {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment}
+ * depends on the number of class loaders, e.g. of applications deployed in an application server.
+ * Every application class loader is a child of a shared class loader, which is a child of the system class loader.
+ * The benchmark looks up classes via all application class loaders in turn:
+ * <ul>
+ * <li>a class that is found by the bootstrap class loader ({@code hit});</li>
+ * <li>classes that can't be found by any class loader ({@code miss}), which the first time makes Javassist ask every class loader
+ * in the hierarchy for a resource;</li>
+ * <li>the same missing classes right after {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#renew(boolean)},
+ * i.e. without any cached results ({@code coldMiss}).</li>
+ * </ul>
+ * Latency of {@code hit} and {@code miss} lookups must stay the same regardless of the number of class loaders.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ClassLoaderLookupBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ClassLoaderLookupBenchmark {
+  private final static int[] CLASS_LOADER_COUNTS;
+  private final static int MISSING_CLASSES;
+  private final static int LOOKUPS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+
+  static {
+    CLASS_LOADER_COUNTS = new int[] {10, 100, 1000, 5000};
+    MISSING_CLASSES = 16;
+    LOOKUPS_PER_ITERATION = 100000;
+    WARMUP_ITERATIONS = 5;
+    MEASUREMENT_ITERATIONS = 10;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    final String[] missingClassNames = new String[MISSING_CLASSES];
+    for (int i = 0; i < missingClassNames.length; i++) {
+      missingClassNames[i] = "missing.pkg.MissingClass" + i;
+    }
+    for (final int classLoaderCount : CLASS_LOADER_COUNTS) {
+      JavassistEnvironment.renew(false);
+      final ClassLoader sharedClassLoader = new URLClassLoader(new URL[0], ClassLoaderLookupBenchmark.class.getClassLoader());
+      final ClassLoader[] classLoaders = new ClassLoader[classLoaderCount];
+      for (int i = 0; i < classLoaders.length; i++) {
+        classLoaders[i] = new URLClassLoader(new URL[0], sharedClassLoader);
+      }
+      final String suffix = "[classLoaders=" + classLoaderCount + "]";
+      BenchmarkSupport.run(ClassLoaderLookupBenchmark.class.getSimpleName() + ".coldMiss" + suffix, 0, 1, new BenchmarkSupport.Operation() {
+        public final long run() throws Exception {
+          JavassistEnvironment.renew(false);
+          for (int i = 0; i < classLoaders.length; i++) {
+            lookup(classLoaders[i], missingClassNames[i % missingClassNames.length], false);
+          }
+          return classLoaders.length;
+        }
+      });
+      BenchmarkSupport.run(ClassLoaderLookupBenchmark.class.getSimpleName() + ".hit" + suffix, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+          new BenchmarkSupport.Operation() {
+            public final long run() throws Exception {
+              for (int i = 0; i < LOOKUPS_PER_ITERATION; i++) {
+                lookup(classLoaders[i % classLoaders.length], "java.lang.String", true);
+              }
+              return LOOKUPS_PER_ITERATION;
+            }
+          });
+      BenchmarkSupport.run(ClassLoaderLookupBenchmark.class.getSimpleName() + ".miss" + suffix, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+          new BenchmarkSupport.Operation() {
+            public final long run() throws Exception {
+              for (int i = 0; i < LOOKUPS_PER_ITERATION; i++) {
+                lookup(classLoaders[i % classLoaders.length], missingClassNames[i % missingClassNames.length], false);
+              }
+              return LOOKUPS_PER_ITERATION;
+            }
+          });
+    }
+  }
+
+  private final static void lookup(final ClassLoader classLoader, final String className, final boolean exists) {
+    if ((JavassistEnvironment.getCtClassOrNull(classLoader, className) != null) != exists) {
+      throw new AssertionError("Unexpected result of the lookup of class '" + className + "'");
+    }
+  }
+
+  private ClassLoaderLookupBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.List;
+import javassist.CtClass;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer.CtClassSource;
+import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+
+/**
+ * Compares the cost of obtaining a parsed {@link javassist.CtClass} object for every class of a large class corpus
+ * in {@link CtClassSource#CLASS_POOL} and {@link CtClassSource#CLASSFILE_BUFFER} modes.
+ * The underlying {@link javassist.ClassPool} is recreated before every iteration, so in {@link CtClassSource#CLASS_POOL} mode
+ * every class file is searched in the class path and is read from the run-time image just like it happens
+ * when a class is loaded for the first time.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ClassfileBufferBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ClassfileBufferBenchmark {
+  private final static int CORPUS_SIZE;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+
+  static {
+    CORPUS_SIZE = 5000;
+    WARMUP_ITERATIONS = 3;
+    MEASUREMENT_ITERATIONS = 5;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    final ClassCorpus corpus = ClassCorpus.load("java.base", CORPUS_SIZE);
+    final List<ClassCorpus.Entry> entries = corpus.entries();
+    System.out.println("Corpus: " + entries.size() + " classes, " + corpus.totalBytes() + " bytes");
+    BenchmarkSupport.run(ClassfileBufferBenchmark.class.getSimpleName() + "." + CtClassSource.CLASS_POOL, WARMUP_ITERATIONS,
+        MEASUREMENT_ITERATIONS, new BenchmarkSupport.Operation() {
+          public final long run() throws Exception {
+            JavassistEnvironment.renew(false);
+            for (final ClassCorpus.Entry entry : entries) {
+              final CtClass ctClass = JavassistEnvironment.getCtClass(null, entry.internalName);
+              ctClass.getClassFile2();// CtClass is lazy, this forces reading and parsing of the class file
+            }
+            return entries.size();
+          }
+        });
+    BenchmarkSupport.run(ClassfileBufferBenchmark.class.getSimpleName() + "." + CtClassSource.CLASSFILE_BUFFER, WARMUP_ITERATIONS,
+        MEASUREMENT_ITERATIONS, new BenchmarkSupport.Operation() {
+          public final long run() throws Exception {
+            JavassistEnvironment.renew(false);
+            for (final ClassCorpus.Entry entry : entries) {
+              final CtClass ctClass = JavassistEnvironment.makeCtClass(null, entry.bytes);
+              ctClass.getClassFile2();
+            }
+            return entries.size();
+          }
+        });
+  }
+
+  private ClassfileBufferBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
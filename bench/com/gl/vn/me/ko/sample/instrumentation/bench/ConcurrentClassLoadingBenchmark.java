@@ -0,0 +1,162 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javassist.CtClass;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer.CtClassSource;
+import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+
+/**
+ * Stresses {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment} with many threads that concurrently do
+ * what a transformer does when a class is loaded: obtain a {@link javassist.CtClass} object and convert it to bytes.
+ * Every thread processes all classes of a class corpus, starting from its own offset, so threads mostly work with different classes.
+ * Throughput is measured for 1, 2, 4, ... threads up to twice the number of available processors
+ * (or for numbers of threads specified by the system property {@code bench.threads}, e.g. {@code "1,4,16"}),
+ * in both {@link CtClassSource} modes, and with a concurrent "retransformer" thread that repeatedly locks
+ * a single class via {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#lock(Class[])}
+ * for a millisecond, like {@link com.gl.vn.me.ko.sample.instrumentation.util.InstrumentationEnvironment#retransformClasses(Class[])} does.
+ * Throughput scales with the number of threads as long as there are idle processors
+ * (and doesn't improve beyond the number of available processors). Time per operation is the reciprocal of throughput of all threads.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ConcurrentClassLoadingBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ConcurrentClassLoadingBenchmark {
+  private final static int CORPUS_SIZE;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+
+  static {
+    CORPUS_SIZE = 2000;
+    WARMUP_ITERATIONS = 2;
+    MEASUREMENT_ITERATIONS = 3;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    final ClassCorpus corpus = ClassCorpus.load("java.base", CORPUS_SIZE);
+    final List<ClassCorpus.Entry> entries = corpus.entries();
+    final int processors = Runtime.getRuntime()
+        .availableProcessors();
+    System.out.println("Corpus: " + entries.size() + " classes, available processors: " + processors);
+    for (final CtClassSource ctClassSource : CtClassSource.values()) {// warms up the JVM, so the order of measurements doesn't matter
+      measure(entries, ctClassSource, 2, true);
+    }
+    for (final boolean retransform : new boolean[] {false, true}) {
+      for (final CtClassSource ctClassSource : CtClassSource.values()) {
+        double singleThreadThroughput = 0;
+        for (final int threads : BenchmarkSupport.threadCounts()) {
+          final double throughput = measure(entries, ctClassSource, threads, retransform);
+          if (singleThreadThroughput == 0) {
+            singleThreadThroughput = throughput;
+          }
+          System.out.println(String.format(Locale.ENGLISH, "%-16s retransform=%-5s threads=%3d %12.0f classes/s, speedup %5.2f", ctClassSource,
+              retransform, threads, throughput, throughput / singleThreadThroughput));
+          BenchmarkSupport.report(ConcurrentClassLoadingBenchmark.class.getSimpleName() + "." + ctClassSource + (retransform ? ".retransform" : "") +
+              ".threads" + threads, 1e9 / throughput, -1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns throughput in classes per second.
+   */
+  private final static double measure(
+      final List<ClassCorpus.Entry> entries,
+      final CtClassSource ctClassSource,
+      final int threads,
+      final boolean retransform) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    try {
+      for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+        runIteration(executor, entries, ctClassSource, threads, retransform);
+      }
+      long ops = 0;
+      final long start = System.nanoTime();
+      for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+        ops += runIteration(executor, entries, ctClassSource, threads, retransform);
+      }
+      return ops / ((System.nanoTime() - start) / 1e9);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private final static long runIteration(
+      final ExecutorService executor,
+      final List<ClassCorpus.Entry> entries,
+      final CtClassSource ctClassSource,
+      final int threads,
+      final boolean retransform) throws Exception {
+    JavassistEnvironment.renew(false);
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final AtomicBoolean done = new AtomicBoolean(false);
+    final List<Future<Long>> futures = new ArrayList<Future<Long>>(threads);
+    for (int t = 0; t < threads; t++) {
+      final int offset = t * entries.size() / threads;
+      futures.add(executor.submit(new Callable<Long>() {
+        public final Long call() throws Exception {
+          startLatch.await();
+          for (int i = 0; i < entries.size(); i++) {
+            final ClassCorpus.Entry entry = entries.get((offset + i) % entries.size());
+            final CtClass ctClass = ctClassSource == CtClassSource.CLASSFILE_BUFFER ? JavassistEnvironment.makeCtClass(null, entry.bytes)
+                : JavassistEnvironment.getCtClass(null, entry.internalName);
+            synchronized (ctClass) {
+              if (!ctClass.isFrozen()) {// another thread may have converted the same object to bytes, transformers skip such classes too
+                ctClass.getClassFile();// parses the class file and marks the class as modified, just like a transformation does
+                JavassistEnvironment.getCtBytes(ctClass);
+              }
+            }
+          }
+          return Long.valueOf(entries.size());
+        }
+      }));
+    }
+    final Future<?> retransformer = retransform ? executor.submit(new Callable<Void>() {
+      public final Void call() throws Exception {
+        final Class<?>[] classes = new Class<?>[] {String.class};
+        startLatch.await();
+        while (!done.get()) {
+          JavassistEnvironment.lock(classes);
+          try {
+            Thread.sleep(1);
+          } finally {
+            JavassistEnvironment.unlock(classes);
+          }
+        }
+        return null;
+      }
+    }) : null;
+    startLatch.countDown();
+    long result = 0;
+    for (final Future<Long> future : futures) {
+      result += future.get()
+          .longValue();
+    }
+    done.set(true);
+    if (retransformer != null) {
+      retransformer.get();
+    }
+    return result;
+  }
+
+  private ConcurrentClassLoadingBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
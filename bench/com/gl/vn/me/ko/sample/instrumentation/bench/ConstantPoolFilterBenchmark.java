@@ -0,0 +1,154 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.List;
+import java.util.Locale;
+import javassist.CannotCompileException;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.Modifier;
+import javassist.expr.ExprEditor;
+import javassist.expr.NewExpr;
+import javax.annotation.Nullable;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ConstantPoolFilter;
+
+/**
+ * Measures how much a {@link ConstantPoolFilter} saves for a call-site transformer that is applied broadly.
+ * The benchmark transformer accepts every class of a class corpus, like
+ * {@link com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleB} would if it was applied to all classes,
+ * builds a {@link javassist.CtClass} object from {@code classfileBuffer} and looks for {@code new java.math.BigDecimal(...)} expressions
+ * in all methods without changing anything. The transformer is measured without a filter and with a filter that requires
+ * a reference to {@code java/math/BigDecimal}; {@link ConstantPoolFilter#matches(byte[])} is also measured on its own.
+ * Time and allocation are reported per offered class.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ConstantPoolFilterBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ConstantPoolFilterBenchmark {
+  private final static int CORPUS_SIZE;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static String REFERENCED_CLASS_NAME;
+
+  static {
+    CORPUS_SIZE = 2000;
+    WARMUP_ITERATIONS = 5;
+    MEASUREMENT_ITERATIONS = 5;
+    REFERENCED_CLASS_NAME = "java/math/BigDecimal";
+  }
+
+  /**
+   * A transformer that accepts all classes and finds constructor calls of {@link java.math.BigDecimal}.
+   */
+  private final static class BroadCallSiteTransformer extends AbstractClassFileTransformer {
+    @Nullable
+    private final ConstantPoolFilter constantPoolFilter;
+    private long constructorCalls;
+
+    BroadCallSiteTransformer(@Nullable final ConstantPoolFilter constantPoolFilter) {
+      super(CtClassSource.CLASSFILE_BUFFER);
+      this.constantPoolFilter = constantPoolFilter;
+    }
+
+    @Nullable
+    @Override
+    public final ConstantPoolFilter getConstantPoolFilter() {
+      return constantPoolFilter;
+    }
+
+    @Override
+    protected final boolean acceptClassForTransformation(@Nullable final ClassLoader classLoader, final String className) {
+      return true;
+    }
+
+    @Nullable
+    @Override
+    protected final byte[] doTransform(final CtClass ctClass) throws Exception {
+      synchronized (ctClass) {
+        for (final CtMethod ctMethod : ctClass.getDeclaredMethods()) {
+          if (!Modifier.isNative(ctMethod.getModifiers()) && !Modifier.isAbstract(ctMethod.getModifiers())) {
+            ctMethod.instrument(new ExprEditor() {
+              @Override
+              public final void edit(final NewExpr expr) throws CannotCompileException {
+                if (REFERENCED_CLASS_NAME.equals(expr.getClassName()
+                    .replace('.', '/'))) {
+                  constructorCalls++;
+                }
+              }
+            });
+          }
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final List<ClassCorpus.Entry> entries = ClassCorpus.load("java.base", CORPUS_SIZE)
+        .entries();
+    final ConstantPoolFilter filter = ConstantPoolFilter.forReferences(REFERENCED_CLASS_NAME);
+    int matched = 0;
+    for (final ClassCorpus.Entry entry : entries) {
+      if (filter.matches(entry.bytes)) {
+        matched++;
+      }
+    }
+    final int matchedClasses = matched;
+    System.out.println(String.format(Locale.ENGLISH, "Corpus: %d classes, %d of them reference %s", entries.size(), matchedClasses,
+        REFERENCED_CLASS_NAME));
+    final BroadCallSiteTransformer unfiltered = new BroadCallSiteTransformer(null);
+    final BroadCallSiteTransformer filtered = new BroadCallSiteTransformer(filter);
+    run("unfiltered", entries, unfiltered);
+    run("filtered", entries, filtered);
+    if (unfiltered.constructorCalls / (WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS) != filtered.constructorCalls /
+        (WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS)) {
+      throw new AssertionError("The filter rejected classes that call constructors of " + REFERENCED_CLASS_NAME);
+    }
+    // the filter is cheap, so it needs more iterations to be compiled and measured
+    BenchmarkSupport.run(ConstantPoolFilterBenchmark.class.getSimpleName() + ".matches", 10 * WARMUP_ITERATIONS, 10 * MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            int count = 0;
+            for (final ClassCorpus.Entry entry : entries) {
+              if (filter.matches(entry.bytes)) {
+                count++;
+              }
+            }
+            if (count != matchedClasses) {
+              throw new AssertionError(count);
+            }
+            return entries.size();
+          }
+        });
+  }
+
+  private final static void run(final String name, final List<ClassCorpus.Entry> entries, final AbstractClassFileTransformer transformer)
+      throws Exception {
+    BenchmarkSupport.run(ConstantPoolFilterBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() throws Exception {
+            for (final ClassCorpus.Entry entry : entries) {
+              transformer.transform(null, entry.internalName, null, null, entry.bytes);
+            }
+            return entries.size();
+          }
+        });
+  }
+
+  private ConstantPoolFilterBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
@@ -0,0 +1,187 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.example.proxy.BigDecimalProxyFactoryExampleB;
+import com.gl.vn.me.ko.sample.instrumentation.example.proxy.MapProxyFactoryExampleC;
+
+/**
+ * Measures the per-call overhead of the proxies used by the examples against the same calls of unproxied objects:
+ * <ul>
+ * <li>a CGLib-proxy of {@link java.math.BigDecimal} created by {@link BigDecimalProxyFactoryExampleB}, which uses
+ * {@code MethodInterceptorExampleB}: {@link java.math.BigDecimal#negate()}, which the interceptor intercepts,
+ * and {@link java.math.BigDecimal#scale()}, which it doesn't;</li>
+ * <li>a proxy of {@link java.util.Map} created by {@link MapProxyFactoryExampleC#create(Map)}, which is a hidden class generated by
+ * {@link com.gl.vn.me.ko.sample.instrumentation.util.proxy.DelegatingProxyFactory}: {@link java.util.Map#get(Object)}, which is passed to
+ * {@code InvocationHandlerExampleC} that tricks it, and {@link java.util.Map#size()}, which is delegated to the original map
+ * without the handler and without reflection;</li>
+ * <li>a Java-proxy of {@link java.util.Map} created by {@link MapProxyFactoryExampleC#createJavaProxy(Map)}, which passes both methods
+ * to {@code InvocationHandlerExampleC}: {@link java.util.Map#get(Object)}, which the handler tricks, and {@link java.util.Map#size()},
+ * which it invokes via reflection.</li>
+ * </ul>
+ * Every call site sees at most two receiver classes, the proxy and the original one, so it stays inlinable. That is why the Java-proxy
+ * is measured by call sites of its own.
+ * Calls of {@link java.math.BigDecimal} methods alternate between two objects, so the JIT compiler can't hoist them out of the loop.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ExampleProxyBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ExampleProxyBenchmark {
+  private final static int INVOCATIONS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static Integer KEY;
+
+  static {
+    INVOCATIONS_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 10;
+    MEASUREMENT_ITERATIONS = 10;
+    KEY = 1;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);// the interceptor and the handler check the level before building messages
+    final BigDecimal[] decimals = new BigDecimal[] {new BigDecimal("3.14"), new BigDecimal("2.7")};
+    final BigDecimal[] proxiedDecimals =
+        new BigDecimal[] {BigDecimalProxyFactoryExampleB.create("3.14"), BigDecimalProxyFactoryExampleB.create("2.7")};
+    compare("negate", runNegate("negate.plain", decimals), runNegate("negate.proxied", proxiedDecimals));
+    compare("scale", runScale("scale.plain", decimals), runScale("scale.proxied", proxiedDecimals));
+    final Map<Integer, String> map = new HashMap<Integer, String>();
+    map.put(KEY, "hot");
+    map.put(-KEY, "cold");
+    final Map<Integer, String> proxiedMap = MapProxyFactoryExampleC.create(new HashMap<Integer, String>(map));
+    compare("get", runGet("get.plain", map), runGet("get.proxied", proxiedMap));
+    compare("size", runSize("size.plain", map), runSize("size.proxied", proxiedMap));
+    final Map<Integer, String> javaProxiedMap = MapProxyFactoryExampleC.createJavaProxy(new HashMap<Integer, String>(map));
+    compare("get (Java-proxy)", runJavaProxyGet("get.plain", map), runJavaProxyGet("get.javaProxied", javaProxiedMap));
+    compare("size (Java-proxy)", runJavaProxySize("size.plain", map), runJavaProxySize("size.javaProxied", javaProxiedMap));
+  }
+
+  private final static void compare(final String name, final BenchmarkSupport.Result plain, final BenchmarkSupport.Result proxied) {
+    System.out.println(String.format(Locale.ENGLISH, "%s: overhead per call %.1f ns, %.1f B", name, proxied.nanosPerOp - plain.nanosPerOp,
+        proxied.bytesPerOp - plain.bytesPerOp));
+  }
+
+  private final static BenchmarkSupport.Result runNegate(final String name, final BigDecimal[] decimals) throws Exception {
+    return BenchmarkSupport.run(ExampleProxyBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += decimals[i & 1].negate()
+                  .signum();
+            }
+            if (sum == 0) {
+              throw new AssertionError(sum);
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private final static BenchmarkSupport.Result runScale(final String name, final BigDecimal[] decimals) throws Exception {
+    return BenchmarkSupport.run(ExampleProxyBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += decimals[i & 1].scale();
+            }
+            if (sum == 0) {
+              throw new AssertionError(sum);
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private final static BenchmarkSupport.Result runGet(final String name, final Map<Integer, String> map) throws Exception {
+    return BenchmarkSupport.run(ExampleProxyBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += map.get(KEY)
+                  .length();
+            }
+            if (sum == 0) {
+              throw new AssertionError(sum);
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private final static BenchmarkSupport.Result runSize(final String name, final Map<Integer, String> map) throws Exception {
+    return BenchmarkSupport.run(ExampleProxyBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += map.size();
+            }
+            if (sum == 0) {
+              throw new AssertionError(sum);
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  /**
+   * The same as {@link #runGet(String, Map)}, but with a call site of its own.
+   */
+  private final static BenchmarkSupport.Result runJavaProxyGet(final String name, final Map<Integer, String> map) throws Exception {
+    return BenchmarkSupport.run(ExampleProxyBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += map.get(KEY)
+                  .length();
+            }
+            if (sum == 0) {
+              throw new AssertionError(sum);
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  /**
+   * The same as {@link #runSize(String, Map)}, but with a call site of its own.
+   */
+  private final static BenchmarkSupport.Result runJavaProxySize(final String name, final Map<Integer, String> map) throws Exception {
+    return BenchmarkSupport.run(ExampleProxyBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += map.size();
+            }
+            if (sum == 0) {
+              throw new AssertionError(sum);
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private ExampleProxyBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
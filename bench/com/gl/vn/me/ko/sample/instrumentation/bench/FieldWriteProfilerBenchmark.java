@@ -0,0 +1,101 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.Locale;
+import java.util.function.LongUnaryOperator;
+import java.util.regex.Pattern;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.FieldWriteProfiler;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.FieldWriteProfilingTransformer;
+
+/**
+ * Measures the overhead that {@link com.gl.vn.me.ko.sample.instrumentation.util.profile.FieldWriteProfilingTransformer} adds to
+ * a write of a watched field. The same method that writes a field ({@link Workload#applyAsLong(long)}) is invoked as is ({@code plain})
+ * and after it was transformed by the profiler and loaded by a separate class loader with different sampling intervals ({@code profiled}),
+ * the difference is the overhead per write. Counting writes must not allocate, i.e. the difference in allocated bytes must be 0.
+ * <p>
+ * Usage: {@code ant bench -Dbench=FieldWriteProfilerBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class FieldWriteProfilerBenchmark {
+  /**
+   * A method which writes of a field are counted. The class is public, because it's loaded by another class loader.
+   * <p>
+   * Instantiability: allowed.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: not thread-safe.
+   */
+  public final static class Workload implements LongUnaryOperator {
+    private long value;
+
+    /**
+     * Creates a workload.
+     */
+    public Workload() {
+    }
+
+    public final long applyAsLong(final long operand) {
+      value = value * 31 + operand;
+      return value;
+    }
+  }
+
+  private final static int INVOCATIONS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static int[] SAMPLING_INTERVALS;
+
+  static {
+    INVOCATIONS_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 20;
+    MEASUREMENT_ITERATIONS = 20;
+    SAMPLING_INTERVALS = new int[] {1, 64};
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final FieldWriteProfilingTransformer transformer = new FieldWriteProfilingTransformer(ClassNameFilter.forClasses(Workload.class.getName()
+        .replace('.', '/')), Pattern.compile(".*\\.value"), null);
+    final LongUnaryOperator plain = new Workload();
+    final LongUnaryOperator profiled = (LongUnaryOperator)new TransformingClassLoader(Workload.class, transformer).newInstance();
+    final BenchmarkSupport.Result plainResult = run("plain", plain);
+    for (final int samplingInterval : SAMPLING_INTERVALS) {
+      FieldWriteProfiler.setSamplingInterval(samplingInterval);
+      final BenchmarkSupport.Result profiledResult = run("profiled(samplingInterval=" + samplingInterval + ")", profiled);
+      System.out.println(String.format(Locale.ENGLISH, "Overhead per write with sampling interval %d: %.1f ns, %.1f B", samplingInterval,
+          profiledResult.nanosPerOp - plainResult.nanosPerOp, profiledResult.bytesPerOp - plainResult.bytesPerOp));
+    }
+    System.out.println(FieldWriteProfiler.report(1));
+  }
+
+  private final static BenchmarkSupport.Result run(final String name, final LongUnaryOperator operator) throws Exception {
+    return BenchmarkSupport.run(FieldWriteProfilerBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long value = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              value = operator.applyAsLong(i);
+            }
+            if (value == 0) {
+              throw new AssertionError();
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private FieldWriteProfilerBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.Locale;
+import java.util.function.LongUnaryOperator;
+import java.util.regex.Pattern;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyProfiler;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyProfilingTransformer;
+
+/**
+ * Measures the overhead that {@link com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyProfilingTransformer} adds to
+ * an invocation of an instrumented method. The same trivial method ({@link Workload#applyAsLong(long)}) is invoked
+ * as is ({@code plain}) and after it was transformed by the profiler and loaded by a separate class loader, with every invocation measured
+ * ({@code profiled}) and with invocations sampled (see {@link LatencyProfiler#setSamplingInterval(int)}) with the interval
+ * {@link #SAMPLING_INTERVAL} ({@code sampled}). The difference with {@code plain} is the end-to-end overhead per invocation,
+ * including the clock. The target is less than 30 ns per invocation and no allocation.
+ * <p>
+ * Measuring every invocation costs two invocations of {@link System#nanoTime()}, which cost is measured separately, because it depends
+ * on the clock source of the OS (e.g. it's much higher in some virtual machines) and can't be reduced by the profiler,
+ * so the target is only met with sampling if the clock is slow. The benchmark fails if the sampled overhead misses the target,
+ * and reports whether the overhead of measuring every invocation meets it.
+ * <p>
+ * Usage: {@code ant bench -Dbench=LatencyProfilerBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class LatencyProfilerBenchmark {
+  /**
+   * A method which latency is profiled. The class is public, because it's loaded by another class loader.
+   * <p>
+   * Instantiability: allowed.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  public final static class Workload implements LongUnaryOperator {
+    /**
+     * Creates a workload.
+     */
+    public Workload() {
+    }
+
+    public final long applyAsLong(final long operand) {
+      return operand * 31 + 7;
+    }
+  }
+
+  private final static int INVOCATIONS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static double TARGET_OVERHEAD_NANOS;
+  private final static int SAMPLING_INTERVAL;
+
+  static {
+    INVOCATIONS_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 20;
+    MEASUREMENT_ITERATIONS = 20;
+    TARGET_OVERHEAD_NANOS = 30;
+    SAMPLING_INTERVAL = 16;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final LatencyProfilingTransformer transformer = new LatencyProfilingTransformer(
+        ClassNameFilter.forClasses(Workload.class.getName()
+            .replace('.', '/')), Pattern.compile(".*\\.applyAsLong\\(long\\)"));
+    final LongUnaryOperator plain = new Workload();
+    final LongUnaryOperator profiled = (LongUnaryOperator)new TransformingClassLoader(Workload.class, transformer).newInstance();
+    final BenchmarkSupport.Result nanoTimeResult = BenchmarkSupport.run(LatencyProfilerBenchmark.class.getSimpleName() + ".nanoTime",
+        WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS, new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += System.nanoTime();
+            }
+            if (sum == 0) {
+              throw new AssertionError();
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+    final BenchmarkSupport.Result plainResult = run("plain", plain);
+    LatencyProfiler.setSamplingInterval(1);
+    final BenchmarkSupport.Result profiledResult = run("profiled", profiled);
+    LatencyProfiler.setSamplingInterval(SAMPLING_INTERVAL);
+    final BenchmarkSupport.Result sampledResult = run("sampled", profiled);
+    final double clockNanos = 2 * nanoTimeResult.nanosPerOp;
+    final double profiledOverheadNanos = profiledResult.nanosPerOp - plainResult.nanosPerOp;
+    final double sampledOverheadNanos = sampledResult.nanosPerOp - plainResult.nanosPerOp;
+    final double sampledOverheadBytes = sampledResult.bytesPerOp - plainResult.bytesPerOp;
+    System.out.println(String.format(Locale.ENGLISH,
+        "Overhead per invocation with every invocation measured: %.1f ns, %.1f B, the target of %.0f ns is %s " +
+            "(%.1f ns are 2 invocations of System.nanoTime, which cost depends on the clock source, %.1f ns are spent on recording)",
+        profiledOverheadNanos, profiledResult.bytesPerOp - plainResult.bytesPerOp, TARGET_OVERHEAD_NANOS,
+        profiledOverheadNanos < TARGET_OVERHEAD_NANOS ? "met" : "NOT met", clockNanos, profiledOverheadNanos - clockNanos));
+    System.out.println(String.format(Locale.ENGLISH,
+        "Overhead per invocation with the sampling interval %d: %.1f ns, %.1f B, the target of %.0f ns is %s", SAMPLING_INTERVAL,
+        sampledOverheadNanos, sampledOverheadBytes, TARGET_OVERHEAD_NANOS,
+        sampledOverheadNanos < TARGET_OVERHEAD_NANOS ? "met" : "NOT met"));
+    System.out.println(LatencyProfiler.report());
+    if ((sampledOverheadNanos >= TARGET_OVERHEAD_NANOS) || (sampledOverheadBytes >= 1)) {
+      System.out.println("FAILED");
+      System.exit(1);// any return code different from 0 is treated as abnormal termination
+    }
+    System.out.println("PASSED");
+  }
+
+  private final static BenchmarkSupport.Result run(final String name, final LongUnaryOperator operator) throws Exception {
+    return BenchmarkSupport.run(LatencyProfilerBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long value = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              value = operator.applyAsLong(value);
+            }
+            if (value == 0) {
+              throw new AssertionError();
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private LatencyProfilerBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
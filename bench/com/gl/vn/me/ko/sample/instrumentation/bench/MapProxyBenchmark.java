@@ -0,0 +1,148 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import com.gl.vn.me.ko.sample.instrumentation.util.proxy.DelegatingProxyFactory;
+
+/**
+ * Measures throughput of {@link java.util.Map#get(Object)} invoked on a {@link java.util.HashMap} via different kinds of proxies:
+ * <ul>
+ * <li>no proxy ({@code direct});</li>
+ * <li>{@link java.lang.reflect.Proxy} with a handler that checks the name of the method and invokes it via reflection,
+ * like {@code InvocationHandlerExampleC} used to do ({@code jdkProxy});</li>
+ * <li>{@link com.gl.vn.me.ko.sample.instrumentation.util.proxy.DelegatingProxyFactory} with intercepted {@link java.util.Map#get(Object)}
+ * and a handler that invokes the method directly ({@code delegatingProxy.intercepted});</li>
+ * <li>{@link com.gl.vn.me.ko.sample.instrumentation.util.proxy.DelegatingProxyFactory} without intercepted methods
+ * ({@code delegatingProxy.delegated}).</li>
+ * </ul>
+ * Every kind of proxy is measured in a separate JVM, otherwise the call site {@code map.get(key)} of the benchmark becomes megamorphic
+ * and the JIT compiler can't inline any of the proxies.
+ * <p>
+ * Usage: {@code ant bench -Dbench=MapProxyBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class MapProxyBenchmark {
+  private final static int KEYS;
+  private final static int GETS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static String[] VARIANTS;
+
+  static {
+    KEYS = 64;
+    GETS_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 10;
+    MEASUREMENT_ITERATIONS = 10;
+    VARIANTS = new String[] {"direct", "jdkProxy", "delegatingProxy.intercepted", "delegatingProxy.delegated"};
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Either nothing, in which case every variant is measured in a separate JVM, or a name of the variant to measure
+   * in the current JVM.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    if (args.length == 0) {
+      for (final String variant : VARIANTS) {
+        final List<String> command = new ArrayList<String>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java")
+            .toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean()
+            .getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MapProxyBenchmark.class.getName());
+        command.add(variant);
+        final int exitCode = new ProcessBuilder(command).inheritIO()
+            .start()
+            .waitFor();
+        if (exitCode != 0) {
+          throw new RuntimeException("Measurement of '" + variant + "' failed with exit code " + exitCode);
+        }
+      }
+    } else {
+      measure(args[0]);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private final static void measure(final String variant) throws Exception {
+    final Map<Integer, Integer> map = new HashMap<Integer, Integer>();
+    final Integer[] keys = new Integer[KEYS];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = Integer.valueOf(i);
+      map.put(keys[i], Integer.valueOf(i));
+    }
+    final Method getMethod = Map.class.getMethod("get", Object.class);
+    final InvocationHandler reflectiveHandler = new InvocationHandler() {
+      @Nullable
+      public final Object invoke(final Object proxyObject, final Method method, @Nullable final Object[] methodArgs) throws Throwable {
+        if ("get".equals(method.getName()) && (methodArgs != null) && (methodArgs.length == 1)) {
+          methodArgs[0] = methodArgs[0];// the place where the argument would be replaced
+        }
+        return method.invoke(map, methodArgs);
+      }
+    };
+    final InvocationHandler directHandler = new InvocationHandler() {
+      @Nullable
+      public final Object invoke(final Object proxyObject, final Method method, @Nullable final Object[] methodArgs) {
+        return map.get(methodArgs[0]);// only Map.get is intercepted
+      }
+    };
+    final Map<Integer, Integer> jdkProxy = (Map<Integer, Integer>)Proxy.newProxyInstance(MapProxyBenchmark.class.getClassLoader(),
+        new Class<?>[] {Map.class}, reflectiveHandler);
+    final Map<Integer, Integer> interceptingProxy = DelegatingProxyFactory.newFactory(MethodHandles.lookup(), Map.class, getMethod)
+        .newProxyInstance(map, directHandler);
+    final Map<Integer, Integer> delegatingProxy = DelegatingProxyFactory.newFactory(MethodHandles.lookup(), Map.class)
+        .newProxyInstance(map, directHandler);
+    final Map<Integer, Integer> proxy;
+    if ("direct".equals(variant)) {
+      proxy = map;
+    } else if ("jdkProxy".equals(variant)) {
+      proxy = jdkProxy;
+    } else if ("delegatingProxy.intercepted".equals(variant)) {
+      proxy = interceptingProxy;
+    } else if ("delegatingProxy.delegated".equals(variant)) {
+      proxy = delegatingProxy;
+    } else {
+      throw new IllegalArgumentException("Unknown variant '" + variant + "', known variants are " + Arrays.toString(VARIANTS));
+    }
+    run(variant, proxy, keys);
+  }
+
+  private final static void run(final String name, final Map<Integer, Integer> map, final Integer[] keys) throws Exception {
+    BenchmarkSupport.run(MapProxyBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < GETS_PER_ITERATION; i++) {
+              sum += map.get(keys[i % keys.length])
+                  .intValue();
+            }
+            if (sum < 0) {
+              throw new AssertionError(sum);
+            }
+            return GETS_PER_ITERATION;
+          }
+        });
+  }
+
+  private MapProxyBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.ProbeTable;
+
+/**
+ * Measures the cost of updating counters of {@link ProbeTable}, which live in a memory-mapped file.
+ * {@code increment} counts a hit, {@code record} counts a hit together with its time (the time is not measured by the benchmark).
+ * Updates must not allocate.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ProbeTableBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ProbeTableBenchmark {
+  private final static int UPDATES_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+
+  static {
+    UPDATES_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 20;
+    MEASUREMENT_ITERATIONS = 20;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    final Path file = Files.createTempFile(ProbeTableBenchmark.class.getSimpleName(), ".probes");
+    try {
+      final ProbeTable table = ProbeTable.create(file, 16);
+      final int probeId = table.register(ProbeTableBenchmark.class.getName());
+      BenchmarkSupport.run(ProbeTableBenchmark.class.getSimpleName() + ".increment", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+          new BenchmarkSupport.Operation() {
+            public final long run() {
+              for (int i = 0; i < UPDATES_PER_ITERATION; i++) {
+                table.increment(probeId);
+              }
+              return UPDATES_PER_ITERATION;
+            }
+          });
+      BenchmarkSupport.run(ProbeTableBenchmark.class.getSimpleName() + ".record", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+          new BenchmarkSupport.Operation() {
+            public final long run() {
+              for (int i = 0; i < UPDATES_PER_ITERATION; i++) {
+                table.record(probeId, i & 1023);
+              }
+              return UPDATES_PER_ITERATION;
+            }
+          });
+      System.out.println(table.getName(probeId) + " count=" + table.getCount(probeId) + " max=" + table.getMaxNanos(probeId) + " ns");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private ProbeTableBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.MethodProxy;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodInterceptor;
+import com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy;
+
+/**
+ * Measures throughput of creation of CGLib-proxies of {@link java.math.BigDecimal} (like
+ * {@link com.gl.vn.me.ko.sample.instrumentation.example.proxy.BigDecimalProxyFactoryExampleB} does, but with a method interceptor
+ * that just invokes the original methods) by 1, 2, 4, ... threads
+ * up to twice the number of available processors (or by numbers of threads specified by the system property {@code bench.threads}):
+ * <ul>
+ * <li>via a constructor of a class generated by
+ * {@link com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy#newProxyClass(Class, Class[], net.sf.cglib.proxy.Callback)}
+ * invoked via a constant {@link java.lang.invoke.MethodHandle} ({@code typed});</li>
+ * <li>via {@link com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy#newProxyInstance(Class, Class[], net.sf.cglib.proxy.Callback, Class[], Object[])}
+ * ({@code cached});</li>
+ * <li>via a single shared {@link net.sf.cglib.proxy.Enhancer} guarded by a lock ({@code locked}),
+ * which is how {@link com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy} used to create proxies.</li>
+ * </ul>
+ * Throughput of {@code typed} and {@code cached} scales with the number of threads as long as there are idle processors, while throughput of {@code locked}
+ * doesn't. Time per operation is the reciprocal of throughput of all threads.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ProxyCreationBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ProxyCreationBenchmark {
+  private static enum Mode {
+    TYPED,
+    CACHED,
+    LOCKED
+  }
+
+  private final static int PROXIES_PER_THREAD;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static Class<?>[] CONSTRUCTOR_ARG_TYPES;
+  private final static MethodInterceptor INTERCEPTOR;
+  private final static Enhancer LOCKED_ENHANCER;
+  private final static Object LOCK;
+  private final static MethodHandle TYPED_CONSTRUCTOR;
+
+  static {
+    PROXIES_PER_THREAD = 20000;
+    WARMUP_ITERATIONS = 3;
+    MEASUREMENT_ITERATIONS = 5;
+    CONSTRUCTOR_ARG_TYPES = new Class<?>[] {String.class};
+    INTERCEPTOR = new MethodInterceptor() {
+      public final Object intercept(final Object proxyObject, final Method method, final Object[] methodArgs, final MethodProxy proxyMethod)
+          throws Throwable {
+        return proxyMethod.invokeSuper(proxyObject, methodArgs);
+      }
+    };
+    LOCKED_ENHANCER = new Enhancer();
+    LOCKED_ENHANCER.setUseCache(true);
+    LOCK = new Object();
+    try {
+      TYPED_CONSTRUCTOR = MethodHandles.publicLookup()
+          .findConstructor(Proxy.newProxyClass(BigDecimal.class, null, INTERCEPTOR), MethodType.methodType(Void.TYPE, String.class))
+          .asType(MethodType.methodType(BigDecimal.class, String.class));
+    } catch (final NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final int processors = Runtime.getRuntime()
+        .availableProcessors();
+    System.out.println("Available processors: " + processors);
+    for (final Mode mode : Mode.values()) {
+      double singleThreadThroughput = 0;
+      for (final int threads : BenchmarkSupport.threadCounts()) {
+        final double throughput = measure(mode, threads);
+        if (singleThreadThroughput == 0) {
+          singleThreadThroughput = throughput;
+        }
+        final String modeName = mode.name()
+            .toLowerCase(Locale.ENGLISH);
+        System.out.println(String.format(Locale.ENGLISH, "%-8s threads=%3d %12.0f proxies/s, speedup %5.2f", modeName, threads, throughput,
+            throughput / singleThreadThroughput));
+        BenchmarkSupport.report(ProxyCreationBenchmark.class.getSimpleName() + "." + modeName + ".threads" + threads, 1e9 / throughput, -1);
+      }
+    }
+  }
+
+  /**
+   * Returns throughput in proxies per second.
+   */
+  private final static double measure(final Mode mode, final int threads) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+        runIteration(executor, mode, threads);
+      }
+      long ops = 0;
+      final long start = System.nanoTime();
+      for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+        ops += runIteration(executor, mode, threads);
+      }
+      return ops / ((System.nanoTime() - start) / 1e9);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private final static long runIteration(final ExecutorService executor, final Mode mode, final int threads) throws Exception {
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final List<Future<Long>> futures = new ArrayList<Future<Long>>(threads);
+    for (int t = 0; t < threads; t++) {
+      futures.add(executor.submit(new Callable<Long>() {
+        public final Long call() throws Exception {
+          startLatch.await();
+          for (int i = 0; i < PROXIES_PER_THREAD; i++) {
+            final BigDecimal proxy = create(mode, "1.5");
+            if (proxy.scale() != 1) {
+              throw new AssertionError("Unexpected proxy " + proxy);
+            }
+          }
+          return Long.valueOf(PROXIES_PER_THREAD);
+        }
+      }));
+    }
+    startLatch.countDown();
+    long result = 0;
+    for (final Future<Long> future : futures) {
+      result += future.get()
+          .longValue();
+    }
+    return result;
+  }
+
+  private final static BigDecimal create(final Mode mode, final String value) {
+    final BigDecimal result;
+    if (mode == Mode.TYPED) {
+      try {
+        result = (BigDecimal)TYPED_CONSTRUCTOR.invokeExact(value);
+      } catch (final RuntimeException | Error e) {
+        throw e;
+      } catch (final Throwable e) {
+        throw new RuntimeException(e);
+      }
+    } else if (mode == Mode.CACHED) {
+      result = createCached(new Object[] {value});
+    } else {
+      result = createLocked(new Object[] {value});
+    }
+    return result;
+  }
+
+  private final static BigDecimal createCached(final Object[] constructorArgs) {
+    return Proxy.newProxyInstance(BigDecimal.class, null, INTERCEPTOR, CONSTRUCTOR_ARG_TYPES, constructorArgs);
+  }
+
+  private final static BigDecimal createLocked(final Object[] constructorArgs) {
+    synchronized (LOCK) {
+      LOCKED_ENHANCER.setCallback(INTERCEPTOR);
+      LOCKED_ENHANCER.setSuperclass(BigDecimal.class);
+      return (BigDecimal)LOCKED_ENHANCER.create(CONSTRUCTOR_ARG_TYPES, constructorArgs);
+    }
+  }
+
+  private ProxyCreationBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
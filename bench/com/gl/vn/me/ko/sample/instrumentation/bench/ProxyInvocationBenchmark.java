@@ -0,0 +1,92 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import net.sf.cglib.proxy.MethodProxy;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodInterceptor;
+import com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodSelector;
+import com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy;
+
+/**
+ * Measures the cost of invocations of methods of CGLib-proxies of {@link java.math.BigDecimal} that are created
+ * like {@link com.gl.vn.me.ko.sample.instrumentation.example.proxy.BigDecimalProxyFactoryExampleB} creates them:
+ * <ul>
+ * <li>{@code scale()} and {@code signum()}, which the interceptor doesn't need to intercept;</li>
+ * <li>{@code negate()}, which the interceptor intercepts.</li>
+ * </ul>
+ * Every method is measured for a proxy that intercepts all methods ({@code all}) and for a proxy that intercepts only
+ * methods selected by a {@link com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodSelector} ({@code selected}).
+ * <p>
+ * Usage: {@code ant bench -Dbench=ProxyInvocationBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ProxyInvocationBenchmark {
+  private final static int INVOCATIONS_PER_ITERATION;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+  private final static MethodInterceptor INTERCEPTOR;
+  private final static MethodSelector SELECTOR;
+
+  static {
+    INVOCATIONS_PER_ITERATION = 1000000;
+    WARMUP_ITERATIONS = 10;
+    MEASUREMENT_ITERATIONS = 10;
+    INTERCEPTOR = new MethodInterceptor() {
+      public final Object intercept(final Object proxyObject, final Method method, final Object[] methodArgs, final MethodProxy proxyMethod)
+          throws Throwable {
+        return proxyMethod.invokeSuper(proxyObject, methodArgs);
+      }
+    };
+    SELECTOR = new MethodSelector() {
+      public final boolean select(final Method method) {
+        return method.getReturnType()
+            .isAssignableFrom(BigDecimal.class);
+      }
+    };
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final Class<?>[] constructorArgTypes = new Class<?>[] {String.class};
+    final Object[] constructorArgs = new Object[] {"1.5"};
+    final BigDecimal all = Proxy.newProxyInstance(BigDecimal.class, null, INTERCEPTOR, constructorArgTypes, constructorArgs);
+    final BigDecimal selected = Proxy.newProxyInstance(BigDecimal.class, null, INTERCEPTOR, SELECTOR, constructorArgTypes, constructorArgs);
+    run("scaleAndSignum.all", all, false);
+    run("scaleAndSignum.selected", selected, false);
+    run("negate.all", all, true);
+    run("negate.selected", selected, true);
+  }
+
+  private final static void run(final String name, final BigDecimal proxy, final boolean negate) throws Exception {
+    BenchmarkSupport.run(ProxyInvocationBenchmark.class.getSimpleName() + "." + name, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() {
+            long sum = 0;
+            for (int i = 0; i < INVOCATIONS_PER_ITERATION; i++) {
+              sum += negate ? proxy.negate()
+                  .signum() : proxy.scale() + proxy.signum();
+            }
+            if (sum == 0) {
+              throw new AssertionError(sum);
+            }
+            return INVOCATIONS_PER_ITERATION;
+          }
+        });
+  }
+
+  private ProxyInvocationBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
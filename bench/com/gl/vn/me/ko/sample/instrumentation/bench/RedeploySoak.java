@@ -0,0 +1,160 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javassist.CtClass;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.DuplicateMemberException;
+import javassist.bytecode.FieldInfo;
+import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+
+/**
+ * Simulates repeated redeployments of an application in an application server and checks that
+ * {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment} neither pins class loaders of undeployed applications
+ * nor grows the heap.
+ * <p>
+ * Every deployment writes a set of synthetic classes to a temporary directory and creates a new class loader that serves these classes with names unique to the deployment
+ * (like a new version of an application), obtains {@link javassist.CtClass} objects for all of them via
+ * {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#getCtClass(ClassLoader, String)} and converts them to bytes
+ * via {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#getCtBytes(CtClass)}, then the class loader is dropped.
+ * Used heap is measured after a full GC, and the run fails if it grows by more than {@link #MAX_HEAP_GROWTH_BYTES}
+ * between the end of warmup and the end of the run, or if any class loader of an undeployed application was not collected.
+ * The JVM must clear soft references on every GC (this is the default for {@code ant bench}, see the property {@code bench.jvmargs}),
+ * because class loaders of the JDK softly cache results of resource lookups, and each deployment looks up new names.
+ * <p>
+ * Usage: {@code ant bench -Dbench=RedeploySoak}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class RedeploySoak {
+  private final static int DEPLOYMENTS;
+  private final static int WARMUP_DEPLOYMENTS;
+  private final static int CLASSES_PER_DEPLOYMENT;
+  private final static int FIELDS_PER_CLASS;
+  private final static int MEASUREMENT_PERIOD;// in deployments
+  private final static long MAX_HEAP_GROWTH_BYTES;
+
+  static {
+    DEPLOYMENTS = 300;
+    WARMUP_DEPLOYMENTS = 30;
+    CLASSES_PER_DEPLOYMENT = 500;
+    FIELDS_PER_CLASS = 32;
+    MEASUREMENT_PERIOD = 30;
+    MAX_HEAP_GROWTH_BYTES = 8 * 1024 * 1024;
+  }
+
+  /**
+   * Soak test entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    final Path deploymentsDir = Files.createTempDirectory(RedeploySoak.class.getSimpleName());
+    final List<WeakReference<ClassLoader>> undeployedClassLoaders = new ArrayList<WeakReference<ClassLoader>>();
+    long heapAfterWarmup = -1;
+    long heap = -1;
+    for (int deployment = 1; deployment <= DEPLOYMENTS; deployment++) {
+      undeployedClassLoaders.add(new WeakReference<ClassLoader>(deploy(deploymentsDir, deployment)));
+      if ((deployment == WARMUP_DEPLOYMENTS) || (deployment % MEASUREMENT_PERIOD == 0)) {
+        heap = usedHeapAfterGc();
+        if (deployment == WARMUP_DEPLOYMENTS) {
+          heapAfterWarmup = heap;
+        }
+        System.out.println(String.format(Locale.ENGLISH, "deployments: %4d, used heap after GC: %8.2f MiB, live class loaders: %d", deployment,
+            heap / (1024d * 1024), countLive(undeployedClassLoaders)));
+      }
+    }
+    final long heapGrowth = heap - heapAfterWarmup;
+    final int liveClassLoaders = countLive(undeployedClassLoaders);
+    System.out.println(String.format(Locale.ENGLISH, "Heap growth after warmup: %.2f MiB (max allowed %.2f MiB), live class loaders: %d",
+        heapGrowth / (1024d * 1024), MAX_HEAP_GROWTH_BYTES / (1024d * 1024), liveClassLoaders));
+    if ((heapGrowth > MAX_HEAP_GROWTH_BYTES) || (liveClassLoaders > 0)) {
+      System.out.println("FAILED");
+      System.exit(1);// any return code different from 0 is treated as abnormal termination
+    }
+    System.out.println("PASSED");
+  }
+
+  /**
+   * Returns the class loader of the deployment, which must be dropped by the caller.
+   */
+  private final static ClassLoader deploy(final Path deploymentsDir, final int deployment) throws Exception {
+    final Path deploymentDir = deploymentsDir.resolve("deployment" + deployment);
+    final List<String> classNames = new ArrayList<String>(CLASSES_PER_DEPLOYMENT);
+    final List<Path> classFiles = new ArrayList<Path>(CLASSES_PER_DEPLOYMENT);
+    for (int i = 0; i < CLASSES_PER_DEPLOYMENT; i++) {
+      final String className = "soak.deployment" + deployment + ".Class" + i;
+      final Path classFile = deploymentDir.resolve(className.replace('.', '/') + ".class");
+      Files.createDirectories(classFile.getParent());
+      Files.write(classFile, makeClassFile(className));
+      classNames.add(className);
+      classFiles.add(classFile);
+    }
+    final URLClassLoader classLoader = new URLClassLoader(new URL[] {deploymentDir.toUri()
+        .toURL()}, RedeploySoak.class.getClassLoader());
+    try {
+      for (final String className : classNames) {
+        final CtClass ctClass = JavassistEnvironment.getCtClass(classLoader, className);
+        ctClass.getDeclaredFields();
+        JavassistEnvironment.getCtBytes(ctClass);
+      }
+    } finally {
+      classLoader.close();
+      for (final Path classFile : classFiles) {
+        Files.delete(classFile);
+      }
+    }
+    return classLoader;
+  }
+
+  private final static byte[] makeClassFile(final String className) throws IOException, DuplicateMemberException {
+    final ClassFile classFile = new ClassFile(false, className, null);
+    classFile.setAccessFlags(AccessFlag.PUBLIC);
+    for (int i = 0; i < FIELDS_PER_CLASS; i++) {
+      final FieldInfo field = new FieldInfo(classFile.getConstPool(), "field" + i, "J");
+      field.setAccessFlags(AccessFlag.PRIVATE);
+      classFile.addField(field);
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final DataOutputStream out = new DataOutputStream(bytes)) {
+      classFile.write(out);
+    }
+    return bytes.toByteArray();
+  }
+
+  private final static long usedHeapAfterGc() throws InterruptedException {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private final static int countLive(final List<WeakReference<ClassLoader>> references) {
+    int result = 0;
+    for (final WeakReference<ClassLoader> reference : references.subList(0, Math.max(0, references.size() - 1))) {// the last one may be alive
+      if (reference.get() != null) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  private RedeploySoak() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
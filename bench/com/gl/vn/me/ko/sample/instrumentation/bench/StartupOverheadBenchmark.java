@@ -0,0 +1,336 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.Descriptor;
+import javassist.bytecode.DuplicateMemberException;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import com.gl.vn.me.ko.sample.instrumentation.env.misc.StartupReport;
+import com.gl.vn.me.ko.sample.instrumentation.example.agent.Agent;
+
+/**
+ * Measures how the overhead of the Java-agents at startup scales with the size of the application.
+ * <p>
+ * For every size specified by the system property {@value #CLASSES_PROPERTY} (in thousands of classes) the harness generates
+ * a synthetic class corpus: a JAR-file with classes that have 2-16 fields, a constructor, a getter and a setter for every field
+ * and a few static methods that instantiate other classes of the corpus. Then the harness launches
+ * {@link com.gl.vn.me.ko.sample.instrumentation.env.Main} in a new JVM {@value #RUNS_PROPERTY} times for each of the following configurations:
+ * <ul>
+ * <li>{@code none} - without a Java-agent;</li>
+ * <li>{@code abc} - with {@link com.gl.vn.me.ko.sample.instrumentation.example.agent.AgentExampleAbc} and transformers of examples A, B
+ * and C;</li>
+ * <li>{@code abc-} - with {@link com.gl.vn.me.ko.sample.instrumentation.example.agent.AgentExampleAbc} but without transformers
+ * (see {@link Agent#EXAMPLES_PROPERTY}), i.e. the overhead of the agent itself;</li>
+ * <li>{@code abc-A}, {@code abc-B}, {@code abc-C} - with {@link com.gl.vn.me.ko.sample.instrumentation.example.agent.AgentExampleAbc}
+ * and only the transformer of the specified example;</li>
+ * <li>{@code d} - with {@link com.gl.vn.me.ko.sample.instrumentation.example.agent.AgentExampleD}.</li>
+ * </ul>
+ * The application loads all classes of the corpus (see the command-line argument {@code -classes}) and writes a
+ * {@link StartupReport} right before it runs the example specified by the system property {@value #EXAMPLE_PROPERTY}.
+ * The harness reports medians of the time to the first invocation of {@link com.gl.vn.me.ko.sample.instrumentation.env.Example#run()}
+ * (uptime of the JVM), of the time spent to load the corpus, and the differences of used heap (after a full GC) and used Metaspace
+ * from the configuration {@code none}. A configuration in which the JVM terminates abnormally is reported as failed
+ * together with the file that contains the output of the JVM.
+ * <p>
+ * JAR-files of the project must be built (see the target {@code bin} in {@code build.xml}), the harness doesn't need a network.
+ * The transformer backend can be chosen via the system property {@value #BACKEND_PROPERTY} (see {@link Agent#TRANSFORMER_BACKEND_PROPERTY}).
+ * <p>
+ * Usage: {@code ant bench-startup -Dbench.startup.classes=1,5,10}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class StartupOverheadBenchmark {
+  /**
+   * Name of the system property that specifies comma-separated sizes of the class corpus in thousands of classes, e.g. {@code "1,5,10"}.
+   */
+  final static String CLASSES_PROPERTY = "bench.startup.classes";
+  /**
+   * Name of the system property that specifies how many times the JVM is launched for every configuration.
+   */
+  final static String RUNS_PROPERTY = "bench.startup.runs";
+  /**
+   * Name of the system property that specifies the name of the example that is run by the application, e.g. {@code "A"}.
+   */
+  final static String EXAMPLE_PROPERTY = "bench.startup.example";
+  /**
+   * Name of the system property that specifies the value of {@link Agent#TRANSFORMER_BACKEND_PROPERTY} for the launched JVMs.
+   */
+  final static String BACKEND_PROPERTY = "bench.startup.backend";
+  /**
+   * Name of the system property that specifies the directory with JAR-files of the project.
+   */
+  final static String BUILD_DIRECTORY_PROPERTY = "bench.startup.buildDirectory";
+  private final static String CORPUS_PACKAGE;
+  private final static int MIN_FIELDS;
+  private final static int MAX_FIELDS;
+  private final static int CALLS_PER_CLASS;
+  private final static long SEED;
+  private final static String[] FIELD_DESCRIPTORS;
+
+  static {
+    CORPUS_PACKAGE = "startup.corpus";
+    MIN_FIELDS = 2;
+    MAX_FIELDS = 16;
+    CALLS_PER_CLASS = 3;
+    SEED = 42;
+    FIELD_DESCRIPTORS = new String[] {"I", "J", "Z", "D", "Ljava/lang/String;", "Ljava/util/List;", "Ljava/math/BigDecimal;"};
+  }
+
+  /**
+   * A configuration of the launched JVM.
+   */
+  private final static class Configuration {
+    final String name;
+    final List<String> jvmArgs;
+
+    Configuration(final String name, final String... jvmArgs) {
+      this.name = name;
+      this.jvmArgs = Arrays.asList(jvmArgs);
+    }
+  }
+
+  /**
+   * Medians of metrics of a configuration.
+   */
+  private final static class Metrics {
+    final long uptimeMillis;
+    final long classLoadMillis;
+    final long heapUsedBytes;
+    final long metaspaceUsedBytes;
+
+    Metrics(final long uptimeMillis, final long classLoadMillis, final long heapUsedBytes, final long metaspaceUsedBytes) {
+      this.uptimeMillis = uptimeMillis;
+      this.classLoadMillis = classLoadMillis;
+      this.heapUsedBytes = heapUsedBytes;
+      this.metaspaceUsedBytes = metaspaceUsedBytes;
+    }
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    final Path buildDirectory = Paths.get(System.getProperty(BUILD_DIRECTORY_PROPERTY, "build"))
+        .toAbsolutePath();
+    final int runs = Integer.parseInt(System.getProperty(RUNS_PROPERTY, "5"));
+    final String example = System.getProperty(EXAMPLE_PROPERTY, "A");
+    final String backend = System.getProperty(BACKEND_PROPERTY, "javassist");
+    for (final String jar : new String[] {"main.jar", "example.jar", "agent-abc.jar", "agent-d.jar", "instrumentation-util.jar"}) {
+      if (!Files.isRegularFile(buildDirectory.resolve(jar))) {
+        throw new IllegalStateException("File '" + buildDirectory.resolve(jar) + "' doesn't exist, run 'ant bin' first");
+      }
+    }
+    final String agentAbc = "-javaagent:" + buildDirectory.resolve("agent-abc.jar");
+    final String agentD = "-javaagent:" + buildDirectory.resolve("agent-d.jar");
+    final String examples = "-D" + Agent.EXAMPLES_PROPERTY + "=";
+    final List<Configuration> configurations = Arrays.asList(new Configuration("none"), new Configuration("abc", agentAbc),
+        new Configuration("abc-", agentAbc, examples), new Configuration("abc-A", agentAbc, examples + "A"),
+        new Configuration("abc-B", agentAbc, examples + "B"), new Configuration("abc-C", agentAbc, examples + "C"),
+        new Configuration("d", agentD));
+    final Path workDirectory = Files.createTempDirectory(StartupOverheadBenchmark.class.getSimpleName());
+    System.out.println("Runs per configuration: " + runs + ", example: " + example + ", backend: " + backend + ", work directory: " +
+        workDirectory);
+    for (final String thousands : System.getProperty(CLASSES_PROPERTY, "1,5")
+        .split(",")) {
+      final int size = 1000 * Integer.parseInt(thousands.trim());
+      final Path corpusDirectory = Files.createDirectories(workDirectory.resolve("corpus" + size));
+      final Path corpusJar = corpusDirectory.resolve("corpus.jar");
+      final Path classesFile = corpusDirectory.resolve("classes.txt");
+      generateCorpus(size, corpusJar, classesFile);
+      System.out.println(String.format(Locale.ENGLISH, "Corpus: %d classes, %.2f MiB", size, Files.size(corpusJar) / (1024d * 1024)));
+      System.out.println(String.format(Locale.ENGLISH, "%-8s %14s %14s %16s %20s", "config", "to run, ms", "load, ms", "heap delta, KiB",
+          "metaspace delta, KiB"));
+      Metrics baseline = null;
+      for (final Configuration configuration : configurations) {
+        final List<String> command = new ArrayList<String>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java")
+            .toString());
+        command.add("--add-opens");// CGLib defines proxy classes via ClassLoader.defineClass
+        command.add("java.base/java.lang=ALL-UNNAMED");
+        command.add("-D" + Agent.TRANSFORMER_BACKEND_PROPERTY + "=" + backend);
+        command.addAll(configuration.jvmArgs);
+        command.add("-cp");
+        command.add(buildDirectory.resolve("main.jar") + File.pathSeparator + corpusJar);
+        command.add("com.gl.vn.me.ko.sample.instrumentation.env.Main");
+        command.add("-ex");
+        command.add(example);
+        command.add("-classes");
+        command.add(classesFile.toString());
+        command.add("-startupReport");
+        command.add(corpusDirectory.resolve("report-" + configuration.name + ".properties")
+            .toString());
+        final Metrics metrics = measure(command, corpusDirectory.resolve("output-" + configuration.name + ".txt"), runs);
+        if (metrics == null) {
+          System.out.println(String.format(Locale.ENGLISH, "%-8s failed, see %s", configuration.name,
+              corpusDirectory.resolve("output-" + configuration.name + ".txt")));
+          continue;
+        } else if (baseline == null) {
+          baseline = metrics;
+        }
+        System.out.println(String.format(Locale.ENGLISH, "%-8s %14d %14d %16.1f %20.1f", configuration.name, metrics.uptimeMillis,
+            metrics.classLoadMillis, (metrics.heapUsedBytes - baseline.heapUsedBytes) / 1024d,
+            (metrics.metaspaceUsedBytes - baseline.metaspaceUsedBytes) / 1024d));
+      }
+    }
+  }
+
+  /**
+   * Returns medians of metrics reported by {@code runs} launches of the command, or {@code null} if any launch terminated abnormally.
+   */
+  private final static Metrics measure(final List<String> command, final Path output, final int runs) throws Exception {
+    final Path reportFile = Paths.get(command.get(command.size() - 1));
+    final long[] uptimes = new long[runs];
+    final long[] classLoads = new long[runs];
+    final long[] heaps = new long[runs];
+    final long[] metaspaces = new long[runs];
+    for (int run = 0; run < runs; run++) {
+      Files.deleteIfExists(reportFile);
+      final Process process = new ProcessBuilder(command).redirectErrorStream(true)
+          .redirectOutput(output.toFile())
+          .start();
+      if ((process.waitFor() != 0) || !Files.isRegularFile(reportFile)) {
+        return null;
+      }
+      final Properties report = new Properties();
+      try (final InputStream in = Files.newInputStream(reportFile)) {
+        report.load(in);
+      }
+      uptimes[run] = Long.parseLong(report.getProperty(StartupReport.UPTIME_MILLIS));
+      classLoads[run] = Long.parseLong(report.getProperty(StartupReport.CLASS_LOAD_MILLIS));
+      heaps[run] = Long.parseLong(report.getProperty(StartupReport.HEAP_USED_BYTES));
+      metaspaces[run] = Long.parseLong(report.getProperty(StartupReport.METASPACE_USED_BYTES));
+    }
+    return new Metrics(median(uptimes), median(classLoads), median(heaps), median(metaspaces));
+  }
+
+  private final static long median(final long[] values) {
+    Arrays.sort(values);
+    return values[values.length / 2];
+  }
+
+  /**
+   * Writes {@code size} synthetic classes to {@code corpusJar} and their names to {@code classesFile}.
+   * The corpus is the same for the same {@code size}.
+   */
+  private final static void generateCorpus(final int size, final Path corpusJar, final Path classesFile) throws IOException,
+      DuplicateMemberException {
+    final Random random = new Random(SEED);
+    try (final JarOutputStream jar = new JarOutputStream(Files.newOutputStream(corpusJar));
+        final BufferedWriter classes = Files.newBufferedWriter(classesFile, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < size; i++) {
+        final String className = CORPUS_PACKAGE + ".p" + (i / 100) + ".Class" + i;
+        jar.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+        makeClassFile(className, size, random).write(new DataOutputStream(jar));
+        jar.closeEntry();
+        classes.write(className);
+        classes.newLine();
+      }
+    }
+  }
+
+  private final static ClassFile makeClassFile(final String className, final int size, final Random random) throws DuplicateMemberException {
+    final ClassFile classFile = new ClassFile(false, className, null);
+    classFile.setAccessFlags(AccessFlag.PUBLIC);
+    final ConstPool constPool = classFile.getConstPool();
+    final Bytecode constructor = new Bytecode(constPool, 1, 1);
+    constructor.addAload(0);
+    constructor.addInvokespecial("java.lang.Object", MethodInfo.nameInit, "()V");
+    constructor.addOpcode(Opcode.RETURN);
+    addMethod(classFile, MethodInfo.nameInit, "()V", AccessFlag.PUBLIC, constructor);
+    final int fields = MIN_FIELDS + random.nextInt(MAX_FIELDS - MIN_FIELDS + 1);
+    for (int i = 0; i < fields; i++) {
+      final String name = "field" + i;
+      final String descriptor = FIELD_DESCRIPTORS[random.nextInt(FIELD_DESCRIPTORS.length)];
+      final FieldInfo field = new FieldInfo(constPool, name, descriptor);
+      field.setAccessFlags(AccessFlag.PRIVATE);
+      classFile.addField(field);
+      final int slots = Descriptor.dataSize(descriptor);
+      final Bytecode getter = new Bytecode(constPool, slots, 1);
+      getter.addAload(0);
+      getter.addGetfield(className, name, descriptor);
+      getter.addOpcode(returnOpcode(descriptor));
+      addMethod(classFile, "get" + i, "()" + descriptor, AccessFlag.PUBLIC, getter);
+      final Bytecode setter = new Bytecode(constPool, 1 + slots, 1 + slots);
+      setter.addAload(0);
+      setter.addOpcode(loadOpcode(descriptor));
+      setter.add(1);
+      setter.addPutfield(className, name, descriptor);
+      setter.addOpcode(Opcode.RETURN);
+      addMethod(classFile, "set" + i, "(" + descriptor + ")V", AccessFlag.PUBLIC, setter);
+    }
+    for (int i = 0; i < CALLS_PER_CLASS; i++) {// methods that reference other classes, like real code does
+      final int callee = random.nextInt(size);
+      final Bytecode call = new Bytecode(constPool, 2, 0);
+      call.addNew(CORPUS_PACKAGE + ".p" + (callee / 100) + ".Class" + callee);
+      call.addOpcode(Opcode.DUP);
+      call.addInvokespecial(CORPUS_PACKAGE + ".p" + (callee / 100) + ".Class" + callee, MethodInfo.nameInit, "()V");
+      call.addOpcode(Opcode.ARETURN);
+      addMethod(classFile, "call" + i, "()Ljava/lang/Object;", AccessFlag.PUBLIC | AccessFlag.STATIC, call);
+    }
+    return classFile;
+  }
+
+  private final static int loadOpcode(final String descriptor) {
+    switch (descriptor.charAt(0)) {
+      case 'J':
+        return Opcode.LLOAD;
+      case 'D':
+        return Opcode.DLOAD;
+      case 'L':
+        return Opcode.ALOAD;
+      default:
+        return Opcode.ILOAD;
+    }
+  }
+
+  private final static int returnOpcode(final String descriptor) {
+    switch (descriptor.charAt(0)) {
+      case 'J':
+        return Opcode.LRETURN;
+      case 'D':
+        return Opcode.DRETURN;
+      case 'L':
+        return Opcode.ARETURN;
+      default:
+        return Opcode.IRETURN;
+    }
+  }
+
+  private final static void addMethod(final ClassFile classFile, final String name, final String descriptor, final int accessFlags,
+      final Bytecode bytecode) throws DuplicateMemberException {
+    final MethodInfo method = new MethodInfo(classFile.getConstPool(), name, descriptor);
+    method.setAccessFlags(accessFlags);
+    method.setCodeAttribute(bytecode.toCodeAttribute());
+    classFile.addMethod(method);
+  }
+
+  private StartupOverheadBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
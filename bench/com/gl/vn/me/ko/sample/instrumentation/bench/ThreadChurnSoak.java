@@ -0,0 +1,125 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.util.Locale;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.AllocatedBytesProfiler;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyProfiler;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.MethodAllocation;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.MethodLatency;
+
+/**
+ * Simulates an application that creates short-lived threads (e.g. a thread per request) while methods are profiled by
+ * {@link LatencyProfiler} and {@link AllocatedBytesProfiler} (if it is {@linkplain AllocatedBytesProfiler#isSupported() supported}),
+ * and checks that the profilers release data of terminated threads even if statistics is never read,
+ * and that no recorded invocation is lost when the data is merged.
+ * <p>
+ * Every thread records {@link #INVOCATIONS_PER_THREAD} invocations of a few methods and terminates. Used heap is measured after a full GC,
+ * and the run fails if it grows by more than {@link #MAX_HEAP_GROWTH_BYTES} between the end of warmup and the end of the run
+ * (a thread that was not released retains several kilobytes of histograms), or if a profiler reports a number of invocations
+ * different from the number of recorded ones.
+ * <p>
+ * Usage: {@code ant bench -Dbench=ThreadChurnSoak}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ThreadChurnSoak {
+  private final static int THREADS;
+  private final static int WARMUP_THREADS;
+  private final static int CONCURRENT_THREADS;
+  private final static int METHODS;
+  private final static int INVOCATIONS_PER_THREAD;
+  private final static int MEASUREMENT_PERIOD;// in threads
+  private final static long MAX_HEAP_GROWTH_BYTES;
+
+  static {
+    THREADS = 50000;
+    WARMUP_THREADS = 5000;
+    CONCURRENT_THREADS = 8;
+    METHODS = 4;
+    INVOCATIONS_PER_THREAD = 100;
+    MEASUREMENT_PERIOD = 5000;
+    MAX_HEAP_GROWTH_BYTES = 8 * 1024 * 1024;
+  }
+
+  /**
+   * Soak test entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    final boolean allocatedBytesSupported = AllocatedBytesProfiler.isSupported();
+    final int[] latencyMethodIds = new int[METHODS];
+    final int[] allocatedBytesMethodIds = new int[METHODS];
+    for (int i = 0; i < METHODS; i++) {
+      final String methodName = ThreadChurnSoak.class.getName() + ".method" + i + "()";
+      latencyMethodIds[i] = LatencyProfiler.registerMethod(methodName);
+      allocatedBytesMethodIds[i] = AllocatedBytesProfiler.registerMethod(methodName);
+    }
+    final Runnable work = new Runnable() {
+      public final void run() {
+        for (int i = 0; i < INVOCATIONS_PER_THREAD; i++) {
+          LatencyProfiler.record(latencyMethodIds[i % METHODS], LatencyProfiler.start());
+          if (allocatedBytesSupported) {
+            AllocatedBytesProfiler.exit(allocatedBytesMethodIds[i % METHODS], AllocatedBytesProfiler.enter());
+          }
+        }
+      }
+    };
+    long heapAfterWarmup = -1;
+    long heap = -1;
+    for (int started = 0; started < THREADS; ) {
+      final Thread[] threads = new Thread[CONCURRENT_THREADS];
+      for (int i = 0; i < threads.length; i++) {
+        threads[i] = new Thread(work, "churn-" + (started + i));
+        threads[i].start();
+      }
+      for (final Thread thread : threads) {
+        thread.join();
+      }
+      started += threads.length;
+      if ((started == WARMUP_THREADS) || (started % MEASUREMENT_PERIOD == 0)) {
+        heap = usedHeapAfterGc();
+        if (started == WARMUP_THREADS) {
+          heapAfterWarmup = heap;
+        }
+        System.out.println(String.format(Locale.ENGLISH, "threads: %6d, used heap after GC: %8.2f MiB", started, heap / (1024d * 1024)));
+      }
+    }
+    final long heapGrowth = heap - heapAfterWarmup;
+    long latencyCount = 0;
+    for (final MethodLatency latency : LatencyProfiler.getLatencies()) {
+      latencyCount += latency.getCount();
+    }
+    long allocatedBytesCount = 0;
+    for (final MethodAllocation allocation : AllocatedBytesProfiler.getAllocations()) {
+      allocatedBytesCount += allocation.getCalls();
+    }
+    final long expectedCount = (long)THREADS * INVOCATIONS_PER_THREAD;
+    final long expectedAllocatedBytesCount = allocatedBytesSupported ? expectedCount : 0;
+    System.out.println(String.format(Locale.ENGLISH, "Heap growth after warmup: %.2f MiB (max allowed %.2f MiB)",
+        heapGrowth / (1024d * 1024), MAX_HEAP_GROWTH_BYTES / (1024d * 1024)));
+    System.out.println(String.format(Locale.ENGLISH, "Invocations recorded by %s: %d of %d, by %s: %d of %d",
+        LatencyProfiler.class.getSimpleName(), latencyCount, expectedCount,
+        AllocatedBytesProfiler.class.getSimpleName(), allocatedBytesCount, expectedAllocatedBytesCount));
+    if ((heapGrowth > MAX_HEAP_GROWTH_BYTES) || (latencyCount != expectedCount) || (allocatedBytesCount != expectedAllocatedBytesCount)) {
+      System.out.println("FAILED");
+      System.exit(1);// any return code different from 0 is treated as abnormal termination
+    }
+    System.out.println("PASSED");
+  }
+
+  private final static long usedHeapAfterGc() throws InterruptedException {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private ThreadChurnSoak() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
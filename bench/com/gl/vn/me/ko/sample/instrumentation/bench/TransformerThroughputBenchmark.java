@@ -0,0 +1,94 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.example.ExampleA;
+import com.gl.vn.me.ko.sample.instrumentation.example.ExampleB;
+import com.gl.vn.me.ko.sample.instrumentation.example.ExampleC;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleA;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleB;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleC;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleD;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer;
+
+/**
+ * Measures throughput of {@link AbstractClassFileTransformer#transform(ClassLoader, String, Class, java.security.ProtectionDomain, byte[])}
+ * of every example transformer over a fixed class corpus, i.e. what a transformer registered directly in
+ * {@link java.lang.instrument.Instrumentation} costs the JVM while it loads classes: every class of the corpus is offered to the transformer
+ * and is rejected, and the class the transformer is written for (the example class, or {@link java.lang.String} for example D)
+ * is transformed once per pass. Time and allocation are reported per offered class.
+ * <p>
+ * Usage: {@code ant bench -Dbench=TransformerThroughputBenchmark}
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class TransformerThroughputBenchmark {
+  private final static int CORPUS_SIZE;
+  private final static int WARMUP_ITERATIONS;
+  private final static int MEASUREMENT_ITERATIONS;
+
+  static {
+    CORPUS_SIZE = 2000;
+    WARMUP_ITERATIONS = 10;
+    MEASUREMENT_ITERATIONS = 10;
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args Not used.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);
+    final List<ClassCorpus.Entry> entries = ClassCorpus.load("java.base", CORPUS_SIZE)
+        .entries();
+    System.out.println("Corpus: " + entries.size() + " classes");
+    run("A", entries, ExampleA.class, ClassFileTransformerExampleA.INSTANCE);
+    run("B", entries, ExampleB.class, ClassFileTransformerExampleB.INSTANCE);
+    run("C", entries, ExampleC.class, ClassFileTransformerExampleC.INSTANCE);
+    run("D", entries, String.class, ClassFileTransformerExampleD.INSTANCE);
+  }
+
+  private final static void run(
+      final String example,
+      final List<ClassCorpus.Entry> entries,
+      final Class<?> clazz,
+      final AbstractClassFileTransformer transformer) throws Exception {
+    final ClassLoader classLoader = clazz.getClassLoader();
+    final String className = clazz.getName()
+        .replace('.', '/');
+    final byte[] classfileBuffer = readClassFile(clazz);
+    BenchmarkSupport.run(TransformerThroughputBenchmark.class.getSimpleName() + "." + example, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS,
+        new BenchmarkSupport.Operation() {
+          public final long run() throws Exception {
+            for (final ClassCorpus.Entry entry : entries) {
+              if (!className.equals(entry.internalName)) {
+                transformer.transform(null, entry.internalName, null, null, entry.bytes);
+              }
+            }
+            if (transformer.transform(classLoader, className, null, null, classfileBuffer) == null) {
+              throw new AssertionError("Class '" + className + "' wasn't transformed by " + transformer.getClass()
+                  .getSimpleName());
+            }
+            return entries.size() + 1;
+          }
+        });
+  }
+
+  private final static byte[] readClassFile(final Class<?> clazz) throws IOException {
+    try (final InputStream inputStream = clazz.getResourceAsStream(clazz.getSimpleName() + ".class")) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private TransformerThroughputBenchmark() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
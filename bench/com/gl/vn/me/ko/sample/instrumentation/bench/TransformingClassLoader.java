@@ -0,0 +1,70 @@
+package com.gl.vn.me.ko.sample.instrumentation.bench;
+
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+
+/**
+ * Defines a single class transformed by a {@link ClassFileTransformer} and delegates loading of all other classes,
+ * so benchmarks can compare a class as is with the same class transformed, without a Java-agent.
+ * The transformed class must be public, because it's accessed from the class loader of a benchmark.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+final class TransformingClassLoader extends ClassLoader {
+  private final Class<?> transformedClass;
+  private final ClassFileTransformer transformer;
+
+  /**
+   * Creates a class loader.
+   *
+   * @param transformedClass The class which bytes are transformed and defined by the class loader.
+   * @param transformer The transformer that must transform {@code transformedClass}.
+   */
+  TransformingClassLoader(final Class<?> transformedClass, final ClassFileTransformer transformer) {
+    super(transformedClass.getClassLoader());
+    this.transformedClass = transformedClass;
+    this.transformer = transformer;
+  }
+
+  /**
+   * Creates a new instance of the transformed class via its public no-arg constructor.
+   *
+   * @return A new instance of the transformed class.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  final Object newInstance() throws Exception {
+    return loadClass(transformedClass.getName()).getConstructor()
+        .newInstance();
+  }
+
+  @Override
+  protected final Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+    final Class<?> result;
+    if (transformedClass.getName()
+        .equals(name)) {
+      synchronized (getClassLoadingLock(name)) {
+        final Class<?> loadedClass = findLoadedClass(name);
+        result = loadedClass == null ? defineTransformedClass(name) : loadedClass;
+      }
+    } else {
+      result = super.loadClass(name, resolve);
+    }
+    return result;
+  }
+
+  private final Class<?> defineTransformedClass(final String name) throws ClassNotFoundException {
+    final byte[] transformedBytes;
+    try (final InputStream inputStream = transformedClass.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+      transformedBytes = transformer.transform(this, name.replace('.', '/'), null, null, inputStream.readAllBytes());
+    } catch (final Exception e) {
+      throw new ClassNotFoundException(name, e);
+    }
+    if (transformedBytes == null) {
+      throw new ClassNotFoundException(name + " wasn't transformed");
+    }
+    return defineClass(name, transformedBytes, 0, transformedBytes.length);
+  }
+}
\ No newline at end of file
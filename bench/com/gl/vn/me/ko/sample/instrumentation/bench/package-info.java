@@ -0,0 +1,6 @@
+/**
+ * Contains benchmarks of the reusable code and of the examples.
+ * Benchmarks are not packed into any JAR-file, see {@code bench} target in {@code build.xml}.
+ */
+@javax.annotation.ParametersAreNonnullByDefault
+package com.gl.vn.me.ko.sample.instrumentation.bench;
\ No newline at end of file
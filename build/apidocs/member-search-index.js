@@ -0,0 +1 @@
+memberSearchIndex = [{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractBytecodeTransformer","l":"AbstractBytecodeTransformer()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer","l":"AbstractClassFileTransformer()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer","l":"AbstractClassFileTransformer(AbstractClassFileTransformer.CtClassSource)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer.CtClassSource)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractMethodProfilingTransformer","l":"AbstractMethodProfilingTransformer(ClassNameFilter, Pattern)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter,java.util.regex.Pattern)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractProfilingTransformer","l":"AbstractProfilingTransformer(ClassNameFilter)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractSiteProfilingTransformer","l":"AbstractSiteProfilingTransformer(ClassNameFilter)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"AbstractTransformer()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleA","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleB","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleC","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleD","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleA","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleB","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleC","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleD","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractProfilingTransformer","l":"acceptClassForTransformation(ClassLoader, String)","u":"acceptClassForTransformation(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"add(LatencyHistogram)","u":"add(com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyHistogram)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"StripedCounter","l":"add(long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"addProfilers(AbstractTransformer[])","u":"addProfilers(com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LogHelper","l":"AGENT_DEFAULT_LOGGING_LEVEL"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"Agent()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"ALLOCATED_BYTES_PROFILER_METHODS_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"ALLOCATED_BYTES_PROFILER_PACKAGES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfilingTransformer","l":"AllocatedBytesProfilingTransformer(ClassNameFilter, Pattern)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter,java.util.regex.Pattern)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"ALLOCATION_PROFILER_PACKAGES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"ALLOCATION_PROFILER_SAMPLING_INTERVAL_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"ALLOCATION_PROFILER_TOP_SITES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfilingTransformer","l":"AllocationProfilingTransformer(ClassNameFilter)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationSite","l":"AllocationSite(String, String)","u":"%3Cinit%3E(java.lang.String,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter.ClassLoaderScope","l":"ANY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"appendClassPath(ClassPath)","u":"appendClassPath(javassist.ClassPath)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"appendClassPath(ClassPath)","u":"appendClassPath(javassist.ClassPath)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"appendClassPath(ClassPath)","u":"appendClassPath(javassist.ClassPath)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"appendClassPath(String)","u":"appendClassPath(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"appendSystemPath()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LogHelper","l":"APPLICATION_DEFAULT_LOGGING_LEVEL"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"ASYNC_LOGGING_BUFFER_SIZE_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter.ClassLoaderScope","l":"BOOTSTRAP"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"BoundedClassPool(ClassPool, ClassPath, int, int)","u":"%3Cinit%3E(javassist.ClassPool,javassist.ClassPath,int,int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"cacheCtClass(String, CtClass, boolean)","u":"cacheCtClass(java.lang.String,javassist.CtClass,boolean)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"StartupReport","l":"CLASS_LOAD_MILLIS"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer.CtClassSource","l":"CLASS_POOL"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"classesFile"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer.CtClassSource","l":"CLASSFILE_BUFFER"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassFileTransformerDispatcher","l":"ClassFileTransformerDispatcher(AbstractTransformer[])","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolRegistry","l":"ClassPoolRegistry()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClockCache","l":"clear()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClockCache","l":"ClockCache(int)","u":"%3Cinit%3E(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"close()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"computeKey(String, String, byte[])","u":"computeKey(java.lang.String,java.lang.String,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LogHelper","l":"configure(Level)","u":"configure(org.apache.log4j.Level)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LogHelper","l":"configure(String, boolean)","u":"configure(java.lang.String,boolean)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams.ExampleNameConverter","l":"convert(String)","u":"convert(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams.LogLevelConverter","l":"convert(String)","u":"convert(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationSite","l":"counter"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"BigDecimalProxyFactoryExampleB","l":"create(double)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"MapProxyFactoryExampleC","l":"create(Map<K, V>)","u":"create(java.util.Map)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"create(Path, int)","u":"create(java.nio.file.Path,int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"BigDecimalProxyFactoryExampleB","l":"create(String)","u":"create(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"MapProxyFactoryExampleC","l":"createJavaProxy(Map<K, V>)","u":"createJavaProxy(java.util.Map)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"createTransformers()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"debug(Logger, String)","u":"debug(org.apache.log4j.Logger,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"debug(Logger, String, Object)","u":"debug(org.apache.log4j.Logger,java.lang.String,java.lang.Object)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"debug(Logger, String, Object, long)","u":"debug(org.apache.log4j.Logger,java.lang.String,java.lang.Object,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"debug(Logger, String, Object, Object)","u":"debug(org.apache.log4j.Logger,java.lang.String,java.lang.Object,java.lang.Object)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"debug(Logger, String, Object, Object, long)","u":"debug(org.apache.log4j.Logger,java.lang.String,java.lang.Object,java.lang.Object,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"debug(Logger, String, Object, Throwable)","u":"debug(org.apache.log4j.Logger,java.lang.String,java.lang.Object,java.lang.Throwable)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleA","l":"doTransform(CtClass)","u":"doTransform(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleB","l":"doTransform(CtClass)","u":"doTransform(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleC","l":"doTransform(CtClass)","u":"doTransform(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleD","l":"doTransform(CtClass)","u":"doTransform(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer","l":"doTransform(CtClass)","u":"doTransform(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractMethodProfilingTransformer","l":"doTransform(CtClass)","u":"doTransform(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractSiteProfilingTransformer","l":"doTransform(CtClass)","u":"doTransform(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"LogRingBuffer","l":"drain(StringBuilder)","u":"drain(java.lang.StringBuilder)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"durationSeconds"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfiler","l":"enter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache.Key","l":"equals(Object)","u":"equals(java.lang.Object)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"error(Logger, String, Object, Object, Throwable)","u":"error(org.apache.log4j.Logger,java.lang.String,java.lang.Object,java.lang.Object,java.lang.Throwable)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"error(Logger, String, Object, Throwable)","u":"error(org.apache.log4j.Logger,java.lang.String,java.lang.Object,java.lang.Throwable)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleA","l":"ExampleA()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleB","l":"ExampleB()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleC","l":"ExampleC()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleD","l":"ExampleD()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"exampleName"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams.ExampleNameConverter","l":"ExampleNameConverter()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"EXAMPLES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfiler","l":"exit(int, long)","u":"exit(int,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"FIELD_WRITE_PROFILER_EXCLUDED_FIELDS_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"FIELD_WRITE_PROFILER_FIELDS_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"FIELD_WRITE_PROFILER_PACKAGES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"FIELD_WRITE_PROFILER_SAMPLING_INTERVAL_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"FIELD_WRITE_PROFILER_TOP_FIELDS_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfilingTransformer","l":"FieldWriteProfilingTransformer(ClassNameFilter, Pattern, Pattern)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter,java.util.regex.Pattern,java.util.regex.Pattern)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWrites","l":"FieldWrites(String, long, double, List<FieldWriteSite>)","u":"%3Cinit%3E(java.lang.String,long,double,java.util.List)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteSite","l":"FieldWriteSite(String, long)","u":"%3Cinit%3E(java.lang.String,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeRegistry","l":"FILE_SUFFIX"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"forClasses(String...)","u":"forClasses(java.lang.String...)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"LogRingBuffer","l":"format(StringBuilder, String, Object, Object, Object, long)","u":"format(java.lang.StringBuilder,java.lang.String,java.lang.Object,java.lang.Object,java.lang.Object,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"forPackages(String...)","u":"forPackages(java.lang.String...)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ConstantPoolFilter","l":"forReferences(String...)","u":"forReferences(java.lang.String...)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"fromSystemProperties()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"Proxy","l":"generateProxyClass(Class<?>, Class<?>[], Callback, MethodSelector)","u":"generateProxyClass(java.lang.Class,java.lang.Class[],net.sf.cglib.proxy.Callback,com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodSelector)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ThreadRecorderRegistry","l":"get()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolRegistry","l":"get(ClassLoader)","u":"get(java.lang.ClassLoader)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"IdentifierRegistry","l":"get(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClockCache","l":"get(String)","u":"get(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"get(TransformedClassCache.Key)","u":"get(com.gl.vn.me.ko.sample.instrumentation.util.TransformedClassCache.Key)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"get0(String, boolean)","u":"get0(java.lang.String,boolean)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"IdentifierRegistry","l":"getAll()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfiler","l":"getAllocations()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"getAllStatistics()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"getCached(String)","u":"getCached(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getCalls()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getCapacity()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getClassesAccepted()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getClassesFromCache()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getClassesSeen()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getClassesSkippedFrozen()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getClassesTransformed()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"getClassLoaderScope()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"SlowTransformation","l":"getClassName()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleA","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleB","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleC","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleD","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleA","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleB","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleC","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleD","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractProfilingTransformer","l":"getClassNameFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"getClassNames()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"getClassPool()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"getClassPool(ClassLoader)","u":"getClassPool(java.lang.ClassLoader)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper","l":"getCommandLineParams(String[])","u":"getCommandLineParams(java.lang.String[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"getCompactionCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleB","l":"getConstantPoolFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleB","l":"getConstantPoolFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"getConstantPoolFilter()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LoadDriver.Result","l":"getCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationSite","l":"getCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWrites","l":"getCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteSite","l":"getCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"getCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"getCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getCount(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"getCtBytes(CtClass)","u":"getCtBytes(javassist.CtClass)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"getCtClass(Class<?>)","u":"getCtClass(java.lang.Class)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"getCtClass(ClassLoader, String)","u":"getCtClass(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"getCtClass(String)","u":"getCtClass(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"getCtClassOrNull(ClassLoader, String)","u":"getCtClassOrNull(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"getCtClassOrNull(String)","u":"getCtClassOrNull(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"LogRingBuffer","l":"getDropped()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"getDroppedCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getExclusiveBytes()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getExclusiveBytesPerCall()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getExclusiveBytesPerSecond()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getFailures()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWrites","l":"getFieldName()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfiler","l":"getFieldWrites()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getFile()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"getFile()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"getHitCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getInclusiveBytes()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getInclusiveBytesPerCall()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getInclusiveBytesPerSecond()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getInputBytes()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"InstrumentationEnvironment","l":"getInstrumentation()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfiler","l":"getLatencies()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LoadDriver.Result","l":"getLatencyAtPercentile(double)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"getMax()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"getMax()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LoadDriver.Result","l":"getMaxLatency()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getMaxNanos()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getMaxNanos(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"getMean()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"getMean()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getMeanNanos()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getMedianNanos()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"getMethodName()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"getMethodName()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"getMetrics()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"getMissCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getName(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ConstantPoolFilter","l":"getNames()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"SlowTransformation","l":"getNanos()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LogHelper","l":"getNumberFormat()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getOutputBytes()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"getP50()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"getP99()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"getP999()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getP99Nanos()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"getPackagePrefixes()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getPid()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getProbeCount()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfiler","l":"getSamplingInterval()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfiler","l":"getSamplingInterval()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfiler","l":"getSamplingInterval()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"MethodSelector","l":"getSelectionIdentity(Collection<Method>)","u":"getSelectionIdentity(java.util.Collection)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationSite","l":"getSite()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteSite","l":"getSite()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWrites","l":"getSites()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"getSlowestTransformations()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetricsMXBean","l":"getSlowestTransformations()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getStartMillis()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"getStatistics()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeRegistry","l":"getTable()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LoadDriver.Result","l":"getThroughput()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfiler","l":"getTopSites(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"getTotalNanos(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"getTransformedClassCache()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"SlowTransformation","l":"getTransformerName()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"getTransformerName()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetricsMXBean","l":"getTransformers()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationSite","l":"getType()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"getValueAtPercentile(double)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleA","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleB","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleC","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleA","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleB","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleC","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractProfilingTransformer","l":"getVersionFingerprint()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWrites","l":"getWritesPerSecond()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache.Key","l":"hashCode()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"StartupReport","l":"HEAP_USED_BYTES"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeRegistry","l":"hit(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"IdentifierRegistry","l":"IdentifierRegistry()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"increment(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeRegistry","l":"init(Path, int)","u":"init(java.nio.file.Path,int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"initAsyncLogging()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"initInstrumentationEnvironment(Instrumentation)","u":"initInstrumentationEnvironment(java.lang.instrument.Instrumentation)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"initTransformedClassCache()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"initTransformerMetrics()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"insertClassPath(ClassPath)","u":"insertClassPath(javassist.ClassPath)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"insertClassPath(String)","u":"insertClassPath(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"MethodInterceptorExampleB","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleA","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleB","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleC","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleD","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleA","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleB","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleC","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"ClassFileTransformerExampleD","l":"INSTANCE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractMethodProfilingTransformer","l":"instrument(CtMethod, String)","u":"instrument(javassist.CtMethod,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfilingTransformer","l":"instrument(CtMethod, String)","u":"instrument(javassist.CtMethod,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfilingTransformer","l":"instrument(CtMethod, String)","u":"instrument(javassist.CtMethod,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeProfilingTransformer","l":"instrument(CtMethod, String)","u":"instrument(javassist.CtMethod,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"MethodInterceptorExampleB","l":"intercept(Object, Method, Object[], MethodProxy)","u":"intercept(java.lang.Object,java.lang.reflect.Method,java.lang.Object[],net.sf.cglib.proxy.MethodProxy)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"MethodInterceptor","l":"intercept(Object, Method, Object[], MethodProxy)","u":"intercept(java.lang.Object,java.lang.reflect.Method,java.lang.Object[],net.sf.cglib.proxy.MethodProxy)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"InvocationHandlerExampleC","l":"InvocationHandlerExampleC(Map<?, ?>)","u":"%3Cinit%3E(java.util.Map)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"InvocationHandlerExampleC","l":"invoke(Object, Method, Object[])","u":"invoke(java.lang.Object,java.lang.reflect.Method,java.lang.Object[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"isAnyProfilerEnabled()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"isExampleTransformerEnabled(String)","u":"isExampleTransformerEnabled(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"InstrumentationEnvironment","l":"isInitialized()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"InstrumentationEnvironment","l":"isRetransformClassesSupported()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"isStarted()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfiler","l":"isSupported()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"LATENCY_PROFILER_METHODS_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"LATENCY_PROFILER_PACKAGES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"LATENCY_PROFILER_SAMPLING_INTERVAL_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"LatencyHistogram()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfilingTransformer","l":"LatencyProfilingTransformer(ClassNameFilter, Pattern)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter,java.util.regex.Pattern)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"StartupReport","l":"LOADED_CLASSES"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"Internationalization","l":"LOCALE"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"lock()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"lock(Class<?>[])","u":"lock(java.lang.Class[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"LOGGER"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"logLevel"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams.LogLevelConverter","l":"LogLevelConverter()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams.LogLevelConverter","l":"LogLevelConverter(boolean)","u":"%3Cinit%3E(boolean)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"LogRingBuffer","l":"LogRingBuffer(int)","u":"%3Cinit%3E(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"LogRingBuffer","l":"LONG_ARGUMENT"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env","c":"Main","l":"main(String[])","u":"main(java.lang.String[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"ProxyClassGenerator","l":"main(String[])","u":"main(java.lang.String[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"JarWeaver","l":"main(String[])","u":"main(java.lang.String[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTableReader","l":"main(String[])","u":"main(java.lang.String[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"makeCtClass(ClassLoader, byte[])","u":"makeCtClass(java.lang.ClassLoader,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ConstantPoolFilter","l":"matches(byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"matches(ClassLoader, String)","u":"matches(java.lang.ClassLoader,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"MAX_CACHED_CT_CLASSES"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"MAX_CACHED_CT_CLASSES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"MAX_CACHED_LOOKUPS"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"MAX_CACHED_LOOKUPS_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassFileTransformerDispatcher","l":"MAX_TRANSFORMERS"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"StartupReport","l":"METASPACE_USED_BYTES"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","c":"MethodInterceptorExampleB","l":"METHOD_SELECTOR"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"MethodAllocation(String, long, long, long, double)","u":"%3Cinit%3E(java.lang.String,long,long,long,double)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"MethodLatency(String, LatencyHistogram)","u":"%3Cinit%3E(java.lang.String,com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyHistogram)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.proxy","c":"DelegatingProxyFactory","l":"newFactory(MethodHandles.Lookup, Class<T>, Method...)","u":"newFactory(java.lang.invoke.MethodHandles.Lookup,java.lang.Class,java.lang.reflect.Method...)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"Proxy","l":"newProxyClass(Class<?>, Class<?>[], Callback)","u":"newProxyClass(java.lang.Class,java.lang.Class[],net.sf.cglib.proxy.Callback)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"Proxy","l":"newProxyClass(Class<?>, Class<?>[], Callback, MethodSelector)","u":"newProxyClass(java.lang.Class,java.lang.Class[],net.sf.cglib.proxy.Callback,com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodSelector)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"Proxy","l":"newProxyInstance(Class<?>, Class<?>[], Callback, Class<?>[], Object[])","u":"newProxyInstance(java.lang.Class,java.lang.Class[],net.sf.cglib.proxy.Callback,java.lang.Class[],java.lang.Object[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"Proxy","l":"newProxyInstance(Class<?>, Class<?>[], Callback, MethodSelector, Class<?>[], Object[])","u":"newProxyInstance(java.lang.Class,java.lang.Class[],net.sf.cglib.proxy.Callback,com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodSelector,java.lang.Class[],java.lang.Object[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.proxy","c":"DelegatingProxyFactory","l":"newProxyInstance(T, InvocationHandler)","u":"newProxyInstance(T,java.lang.reflect.InvocationHandler)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ThreadRecorderRegistry.RecorderLifecycle","l":"newRecorder()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractSiteProfilingTransformer","l":"newSiteEditor()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfilingTransformer","l":"newSiteEditor()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfilingTransformer","l":"newSiteEditor()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter.ClassLoaderScope","l":"NOT_BOOTSTRAP"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"OBJECT_NAME"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"LogRingBuffer","l":"offer(Logger, Level, String, Object, Object, Object, long, Throwable)","u":"offer(org.apache.log4j.Logger,org.apache.log4j.Level,java.lang.String,java.lang.Object,java.lang.Object,java.lang.Object,long,java.lang.Throwable)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"open(Path)","u":"open(java.nio.file.Path)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"or(ClassNameFilter)","u":"or(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"AgentExampleAbc","l":"premain(String, Instrumentation)","u":"premain(java.lang.String,java.lang.instrument.Instrumentation)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"AgentExampleD","l":"premain(String, Instrumentation)","u":"premain(java.lang.String,java.lang.instrument.Instrumentation)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"prependClassPath(ClassPath)","u":"prependClassPath(javassist.ClassPath)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"prependClassPath(ClassPath)","u":"prependClassPath(javassist.ClassPath)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper","l":"printAgentUsageAndExit(ParameterException)","u":"printAgentUsageAndExit(com.beust.jcommander.ParameterException)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper","l":"printAppUsageAndExit(ParameterException)","u":"printAppUsageAndExit(com.beust.jcommander.ParameterException)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeProfilingTransformer","l":"ProbeProfilingTransformer(ClassNameFilter, Pattern)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter,java.util.regex.Pattern)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"PROBES_CAPACITY_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"PROBES_DIRECTORY_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"PROBES_METHODS_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"PROBES_PACKAGES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"processArgs(String)","u":"processArgs(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClockCache","l":"put(String, V)","u":"put(java.lang.String,V)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"put(TransformedClassCache.Key, byte[])","u":"put(com.gl.vn.me.ko.sample.instrumentation.util.TransformedClassCache.Key,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolRegistry","l":"putIfAbsent(ClassLoader, ClassPool)","u":"putIfAbsent(java.lang.ClassLoader,javassist.ClassPool)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfiler","l":"record(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfiler","l":"record(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfiler","l":"record(int, long)","u":"record(int,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeRegistry","l":"record(int, long)","u":"record(int,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"record(int, long)","u":"record(int,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"record(long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"record(long, int)","u":"record(long,int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"recordAccepted()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"recordFromCache()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"recordInvocation(String, long, boolean, boolean)","u":"recordInvocation(java.lang.String,long,boolean,boolean)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"recordSkippedFrozen()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"recordTransformed(int, int)","u":"recordTransformed(int,int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClassPoolManager","l":"recreateClassPool(boolean)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"IdentifierRegistry","l":"register(E)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeRegistry","l":"register(String)","u":"register(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"register(String)","u":"register(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"register(String)","u":"register(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"registerClassFileTransformerDispatcher(AbstractTransformer[])","u":"registerClassFileTransformerDispatcher(com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"registerClassFileTransformers(ClassFileTransformer[])","u":"registerClassFileTransformers(java.lang.instrument.ClassFileTransformer[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"registerMBean()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfiler","l":"registerMethod(String)","u":"registerMethod(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfiler","l":"registerMethod(String)","u":"registerMethod(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfiler","l":"registerSite(String, String)","u":"registerSite(java.lang.String,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfiler","l":"registerSite(String, String)","u":"registerSite(java.lang.String,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"ClockCache","l":"remove(String)","u":"remove(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"removeCached(String)","u":"removeCached(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"BoundedClassPool","l":"removeClassPath(ClassPath)","u":"removeClassPath(javassist.ClassPath)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"renew(boolean)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractSiteProfilingTransformer.SiteEditor","l":"replace(Expr, String)","u":"replace(javassist.expr.Expr,java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocatedBytesProfiler","l":"report()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfiler","l":"report()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"report()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetricsMXBean","l":"report()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfiler","l":"report(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfiler","l":"report(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"reports()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ThreadRecorderRegistry.RecorderLifecycle","l":"retire(R)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ThreadRecorderRegistry","l":"retireTerminatedThreads()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"InstrumentationEnvironment","l":"retransformClasses(Class<?>[])","u":"retransformClasses(java.lang.Class[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"InstrumentationEnvironment","l":"retransformLoadedClasses(ClassNameFilter)","u":"retransformLoadedClasses(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env","c":"Example","l":"run()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleA","l":"run()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleB","l":"run()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleC","l":"run()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","c":"ExampleD","l":"run()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LoadDriver","l":"run(Supplier<? extends Example>, int, boolean, long, long)","u":"run(java.util.function.Supplier,int,boolean,long,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","c":"MethodSelector","l":"select(Method)","u":"select(java.lang.reflect.Method)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"InstrumentationEnvironment","l":"setInstrumentation(Instrumentation)","u":"setInstrumentation(java.lang.instrument.Instrumentation)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationProfiler","l":"setSamplingInterval(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteProfiler","l":"setSamplingInterval(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfiler","l":"setSamplingInterval(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"setTransformedClassCache(TransformedClassCache)","u":"setTransformedClassCache(com.gl.vn.me.ko.sample.instrumentation.util.TransformedClassCache)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractSiteProfilingTransformer.SiteEditor","l":"site(Expr)","u":"site(javassist.expr.Expr)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AbstractSiteProfilingTransformer.SiteEditor","l":"SiteEditor()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"size()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerMetrics","l":"SLOWEST_TRANSFORMATIONS"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"SlowTransformation","l":"SlowTransformation(String, String, long)","u":"%3Cinit%3E(java.lang.String,java.lang.String,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationSite","l":"snapshot()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyProfiler","l":"start()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"start(int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"startupReportFile"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","c":"AsyncLog","l":"stop()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"StripedCounter","l":"StripedCounter()","u":"%3Cinit%3E()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"StripedCounter","l":"sum()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ThreadRecorderRegistry","l":"ThreadRecorderRegistry(ThreadRecorderRegistry.RecorderLifecycle<R>)","u":"%3Cinit%3E(com.gl.vn.me.ko.sample.instrumentation.util.profile.ThreadRecorderRegistry.RecorderLifecycle)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"threads"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"LoadDriver.Result","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ConstantPoolFilter","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"AllocationSite","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWrites","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"FieldWriteSite","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"LatencyHistogram","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodAllocation","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"MethodLatency","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProbeTable","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"ProfilerConfiguration","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","c":"StripedCounter","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.proxy","c":"DelegatingProxyFactory","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"SlowTransformation","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache.Key","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"toString()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"transform(ClassLoader, String, Class<?>, ProtectionDomain, byte[])","u":"transform(java.lang.ClassLoader,java.lang.String,java.lang.Class,java.security.ProtectionDomain,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassFileTransformerDispatcher","l":"transform(ClassLoader, String, Class<?>, ProtectionDomain, byte[])","u":"transform(java.lang.ClassLoader,java.lang.String,java.lang.Class,java.security.ProtectionDomain,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractBytecodeTransformer","l":"transformAcceptedClass(ClassLoader, String, byte[])","u":"transformAcceptedClass(java.lang.ClassLoader,java.lang.String,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer","l":"transformAcceptedClass(ClassLoader, String, byte[])","u":"transformAcceptedClass(java.lang.ClassLoader,java.lang.String,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractTransformer","l":"transformAcceptedClass(ClassLoader, String, byte[])","u":"transformAcceptedClass(java.lang.ClassLoader,java.lang.String,byte[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"TRANSFORMED_CLASS_CACHE_FILE_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"TRANSFORMED_CLASS_CACHE_MAX_BYTES_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformedClassCache","l":"TransformedClassCache(Path, long)","u":"%3Cinit%3E(java.nio.file.Path,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"TRANSFORMER_BACKEND_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"TRANSFORMER_METRICS_MBEAN_PROPERTY"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"TransformerStatistics","l":"TransformerStatistics(String, long, long, long, long, long, long, long, long, double, long, long, long)","u":"%3Cinit%3E(java.lang.String,long,long,long,long,long,long,long,long,double,long,long,long)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleA","l":"transformMethod(ClassLoader, ClassFile, MethodInfo)","u":"transformMethod(java.lang.ClassLoader,javassist.bytecode.ClassFile,javassist.bytecode.MethodInfo)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleB","l":"transformMethod(ClassLoader, ClassFile, MethodInfo)","u":"transformMethod(java.lang.ClassLoader,javassist.bytecode.ClassFile,javassist.bytecode.MethodInfo)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleC","l":"transformMethod(ClassLoader, ClassFile, MethodInfo)","u":"transformMethod(java.lang.ClassLoader,javassist.bytecode.ClassFile,javassist.bytecode.MethodInfo)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","c":"BytecodeTransformerExampleD","l":"transformMethod(ClassLoader, ClassFile, MethodInfo)","u":"transformMethod(java.lang.ClassLoader,javassist.bytecode.ClassFile,javassist.bytecode.MethodInfo)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractBytecodeTransformer","l":"transformMethod(ClassLoader, ClassFile, MethodInfo)","u":"transformMethod(java.lang.ClassLoader,javassist.bytecode.ClassFile,javassist.bytecode.MethodInfo)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"unlock()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","c":"JavassistEnvironment","l":"unlock(Class<?>[])","u":"unlock(java.lang.Class[])"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"StartupReport","l":"UPTIME_MILLIS"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","c":"Agent","l":"useBytecodeTransformers()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer.CtClassSource","l":"valueOf(String)","u":"valueOf(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter.ClassLoaderScope","l":"valueOf(String)","u":"valueOf(java.lang.String)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"AbstractClassFileTransformer.CtClassSource","l":"values()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter.ClassLoaderScope","l":"values()"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"virtualThreads"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"CommandLineHelper.CommandLineParams","l":"warmupSeconds"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"JarWeaver","l":"weave(File, File, AbstractTransformer[], int)","u":"weave(java.io.File,java.io.File,com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer[],int)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","c":"ClassNameFilter","l":"withClassLoaderScope(ClassNameFilter.ClassLoaderScope)","u":"withClassLoaderScope(com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter.ClassLoaderScope)"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","c":"StartupReport","l":"write(Path, long)","u":"write(java.nio.file.Path,long)"}];updateSearchResults();
\ No newline at end of file
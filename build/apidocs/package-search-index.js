@@ -0,0 +1 @@
+packageSearchIndex = [{"l":"All Packages","u":"allpackages-index.html"},{"l":"com.gl.vn.me.ko.sample.instrumentation.env"},{"l":"com.gl.vn.me.ko.sample.instrumentation.env.misc"},{"l":"com.gl.vn.me.ko.sample.instrumentation.example"},{"l":"com.gl.vn.me.ko.sample.instrumentation.example.agent"},{"l":"com.gl.vn.me.ko.sample.instrumentation.example.proxy"},{"l":"com.gl.vn.me.ko.sample.instrumentation.example.transform"},{"l":"com.gl.vn.me.ko.sample.instrumentation.util"},{"l":"com.gl.vn.me.ko.sample.instrumentation.util.cglib"},{"l":"com.gl.vn.me.ko.sample.instrumentation.util.javassist"},{"l":"com.gl.vn.me.ko.sample.instrumentation.util.log"},{"l":"com.gl.vn.me.ko.sample.instrumentation.util.profile"},{"l":"com.gl.vn.me.ko.sample.instrumentation.util.proxy"}];updateSearchResults();
\ No newline at end of file
@@ -0,0 +1 @@
+typeSearchIndex = [{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"AbstractBytecodeTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"AbstractClassFileTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AbstractMethodProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AbstractProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AbstractSiteProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"AbstractTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","l":"Agent"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","l":"AgentExampleAbc"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.agent","l":"AgentExampleD"},{"l":"All Classes and Interfaces","u":"allclasses-index.html"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AllocatedBytesProfiler"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AllocatedBytesProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AllocationProfiler"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AllocationProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AllocationSite"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","l":"AsyncLog"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","l":"BigDecimalProxyFactoryExampleB"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","l":"BoundedClassPool"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"BytecodeTransformerExampleA"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"BytecodeTransformerExampleB"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"BytecodeTransformerExampleC"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"BytecodeTransformerExampleD"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"ClassFileTransformerDispatcher"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"ClassFileTransformerExampleA"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"ClassFileTransformerExampleB"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"ClassFileTransformerExampleC"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.transform","l":"ClassFileTransformerExampleD"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"ClassNameFilter.ClassLoaderScope"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"ClassNameFilter"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","l":"ClassPoolManager"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","l":"ClassPoolRegistry"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","l":"ClockCache"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"CommandLineHelper"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"CommandLineHelper.CommandLineParams"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"ConstantPoolFilter"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"AbstractClassFileTransformer.CtClassSource"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.proxy","l":"DelegatingProxyFactory"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env","l":"Example"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","l":"ExampleA"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","l":"ExampleB"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","l":"ExampleC"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example","l":"ExampleD"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"CommandLineHelper.CommandLineParams.ExampleNameConverter"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"FieldWriteProfiler"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"FieldWriteProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"FieldWrites"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"FieldWriteSite"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"IdentifierRegistry"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"InstrumentationEnvironment"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"Internationalization"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","l":"InvocationHandlerExampleC"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"JarWeaver"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.javassist","l":"JavassistEnvironment"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"TransformedClassCache.Key"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"LatencyHistogram"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"LatencyProfiler"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"LatencyProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"LoadDriver"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"LogHelper"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"CommandLineHelper.CommandLineParams.LogLevelConverter"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.log","l":"LogRingBuffer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env","l":"Main"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","l":"MapProxyFactoryExampleC"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"MethodAllocation"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","l":"MethodInterceptor"},{"p":"com.gl.vn.me.ko.sample.instrumentation.example.proxy","l":"MethodInterceptorExampleB"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"MethodLatency"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","l":"MethodSelector"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"ProbeProfilingTransformer"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"ProbeRegistry"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"ProbeTable"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"ProbeTableReader"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"ProfilerConfiguration"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","l":"Proxy"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.cglib","l":"ProxyClassGenerator"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"ThreadRecorderRegistry.RecorderLifecycle"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"LoadDriver.Result"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"AbstractSiteProfilingTransformer.SiteEditor"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"SlowTransformation"},{"p":"com.gl.vn.me.ko.sample.instrumentation.env.misc","l":"StartupReport"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"StripedCounter"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util.profile","l":"ThreadRecorderRegistry"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"TransformedClassCache"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"TransformerMetrics"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"TransformerMetricsMXBean"},{"p":"com.gl.vn.me.ko.sample.instrumentation.util","l":"TransformerStatistics"}];updateSearchResults();
\ No newline at end of file
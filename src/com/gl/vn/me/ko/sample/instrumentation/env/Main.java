@@ -1,12 +1,21 @@
 package com.gl.vn.me.ko.sample.instrumentation.env;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import com.beust.jcommander.ParameterException;
 import com.gl.vn.me.ko.sample.instrumentation.env.misc.CommandLineHelper;
 import com.gl.vn.me.ko.sample.instrumentation.env.misc.CommandLineHelper.CommandLineParams;
+import com.gl.vn.me.ko.sample.instrumentation.env.misc.LoadDriver;
 import com.gl.vn.me.ko.sample.instrumentation.env.misc.LogHelper;
+import com.gl.vn.me.ko.sample.instrumentation.env.misc.StartupReport;
 
 /**
  * The main class of the application.
@@ -16,10 +25,20 @@ import com.gl.vn.me.ko.sample.instrumentation.env.misc.LogHelper;
  */
 public final class Main {
   private final static Logger LOGGER;
+  private final static String EXAMPLE_PACKAGE_NAME;
   private static String exampleName;
+  @Nullable
+  private static String classesFile;
+  @Nullable
+  private static String startupReportFile;
+  private static int threads;
+  private static boolean virtualThreads;
+  private static int warmupSeconds;
+  private static int durationSeconds;
 
   static {
     LOGGER = Logger.getLogger(Main.class);
+    EXAMPLE_PACKAGE_NAME = "com.gl.vn.me.ko.sample.instrumentation.example";
   }
 
   /**
@@ -38,13 +57,55 @@ public final class Main {
   }
 
   private final static void executeExample() {
-    final Example example;
-    final String exampleClassNamePattern = "com.gl.vn.me.ko.sample.instrumentation.example.Example";
+    final long classLoadNanos = classesFile == null ? 0 : loadClasses(classesFile);
+    final Example example = newExample();
+    if (startupReportFile != null) {
+      try {
+        StartupReport.write(Paths.get(startupReportFile), classLoadNanos);
+      } catch (final IOException e) {
+        throw new RuntimeException("Can't write the startup report to '" + startupReportFile + "'", e);
+      }
+    }
+    example.run();
+    if (threads > 0) {// load mode
+      executeLoad();
+    }
+  }
+
+  /**
+   * Runs the example from {@link #threads} threads via {@link LoadDriver} and logs throughput and latency.
+   * Logging of the examples is disabled, otherwise the console rather than the instrumented code would be the bottleneck.
+   */
+  private final static void executeLoad() {
+    Logger.getLogger(EXAMPLE_PACKAGE_NAME)
+        .setLevel(Level.WARN);
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Example '" + exampleName + "' is run by " + threads + (virtualThreads ? " virtual" : " platform") + " threads, warmup " +
+          warmupSeconds + " s, measurement " + durationSeconds + " s");
+    }
+    final LoadDriver.Result result;
+    try {
+      result = LoadDriver.run(new Supplier<Example>() {
+        public final Example get() {
+          return newExample();
+        }
+      }, threads, virtualThreads, TimeUnit.SECONDS.toMillis(warmupSeconds), TimeUnit.SECONDS.toMillis(durationSeconds));
+    } catch (final InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+      throw new RuntimeException("Load mode was interrupted", e);
+    }
+    LOGGER.info(result);
+  }
+
+  private final static Example newExample() {
+    final Example result;
+    final String exampleClassNamePattern = EXAMPLE_PACKAGE_NAME + ".Example";
     String exampleClassName = null;
     try {
       exampleClassName = exampleClassNamePattern + exampleName;
       final Class<?> exampleClass = Class.forName(exampleClassName);
-      example = (Example)exampleClass.getDeclaredConstructor()
+      result = (Example)exampleClass.getDeclaredConstructor()
           .newInstance();
     } catch (final ClassNotFoundException e) {
       throw new RuntimeException("Can't load example class '" + exampleClassName + "' for example '" + exampleName + "'", e);
@@ -58,7 +119,39 @@ public final class Main {
     } catch (final InvocationTargetException e) {
       throw new RuntimeException("Exception in constructor in example class '" + exampleClassName + "' for example '" + exampleName + "'", e);
     }
-    example.run();
+    return result;
+  }
+
+  /**
+   * Loads (but doesn't initialize) classes which names are listed in the specified file.
+   *
+   * @return Time in nanoseconds spent to load the classes.
+   */
+  private final static long loadClasses(final String file) {
+    final long start = System.nanoTime();
+    final ClassLoader classLoader = Main.class.getClassLoader();
+    int count = 0;
+    try {
+      for (final String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+        final String className = line.trim();
+        if (!className.isEmpty()) {
+          try {
+            Class.forName(className, false, classLoader);
+          } catch (final ClassNotFoundException e) {
+            throw new RuntimeException("Can't load class '" + className + "' listed in '" + file + "'", e);
+          }
+          count++;
+        }
+      }
+    } catch (final IOException e) {
+      throw new RuntimeException("Can't read names of classes from '" + file + "'", e);
+    }
+    final long result = System.nanoTime() - start;
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(count + " classes listed in '" + file + "' were loaded in " + LogHelper.getNumberFormat()
+          .format(result / 1e6) + " ms");
+    }
+    return result;
   }
 
   private final static void processArgs(final String[] args) {
@@ -67,6 +160,12 @@ public final class Main {
       final Level logLevel = clParams.logLevel;
       LogHelper.configure(logLevel);
       exampleName = clParams.exampleName;
+      classesFile = clParams.classesFile;
+      startupReportFile = clParams.startupReportFile;
+      threads = clParams.threads;
+      virtualThreads = clParams.virtualThreads;
+      warmupSeconds = clParams.warmupSeconds;
+      durationSeconds = clParams.durationSeconds;
     } catch (final ParameterException e) {
       CommandLineHelper.printAppUsageAndExit(e);
     }
@@ -130,10 +130,54 @@ public final class CommandLineHelper {
         required = true,
         converter = ExampleNameConverter.class)
     public String exampleName;
+    /**
+     * Definition of command-line argument that specifies a file with names of classes that are loaded before the example is launched.
+     */
+    @Parameter(names = {"-classes", "-cls"},
+        description = "Path to a file with binary names of classes (one per line) that are loaded before the example is launched," +
+            " e.g. to simulate startup of a large application")
+    public String classesFile;
+    /**
+     * Definition of command-line argument that specifies a file to which a startup report is written.
+     */
+    @Parameter(names = {"-startupReport", "-sr"},
+        description = "Path to a file to which startup metrics are written right before the example is launched")
+    public String startupReportFile;
+    /**
+     * Definition of command-line argument that specifies the number of threads that run the example in load mode.
+     */
+    @Parameter(names = {"-threads", "-t"},
+        description = "Number of threads that concurrently run the example in a loop (load mode)," +
+            " the example is run once by the main thread if not specified")
+    public int threads;
+    /**
+     * Definition of command-line argument that specifies whether load mode uses virtual threads.
+     */
+    @Parameter(names = {"-virtualThreads", "-vt"},
+        description = "Use virtual threads instead of platform threads in load mode (requires a JVM that supports virtual threads)")
+    public boolean virtualThreads;
+    /**
+     * Definition of command-line argument that specifies duration of the warmup phase of load mode.
+     */
+    @Parameter(names = {"-warmup", "-w"},
+        description = "Duration in seconds of the warmup phase of load mode, invocations are not measured during this phase")
+    public int warmupSeconds;
+    /**
+     * Definition of command-line argument that specifies duration of the measurement phase of load mode.
+     */
+    @Parameter(names = {"-duration", "-d"},
+        description = "Duration in seconds of the measurement phase of load mode")
+    public int durationSeconds;
 
     private CommandLineParams() {
       logLevel = (new LogLevelConverter()).convert(LogHelper.APPLICATION_DEFAULT_LOGGING_LEVEL);
       exampleName = null;
+      classesFile = null;
+      startupReportFile = null;
+      threads = 0;
+      virtualThreads = false;
+      warmupSeconds = 5;
+      durationSeconds = 10;
     }
   }
 
@@ -152,6 +196,13 @@ public final class CommandLineHelper {
     }
     final CommandLineParams clParams = new CommandLineParams();
     @SuppressWarnings("unused") final Object deadStore = new JCommander(clParams, args);
+    if (clParams.threads < 0) {
+      throw new ParameterException("The value " + clParams.threads + " is incorrect for the parameter -threads");
+    } else if (clParams.warmupSeconds < 0) {
+      throw new ParameterException("The value " + clParams.warmupSeconds + " is incorrect for the parameter -warmup");
+    } else if (clParams.durationSeconds <= 0) {
+      throw new ParameterException("The value " + clParams.durationSeconds + " is incorrect for the parameter -duration");
+    }
     return clParams;
   }
 
@@ -0,0 +1,225 @@
+package com.gl.vn.me.ko.sample.instrumentation.env.misc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import com.gl.vn.me.ko.sample.instrumentation.env.Example;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyHistogram;
+
+/**
+ * Runs {@link Example#run()} repeatedly from many threads for a fixed duration after a warmup phase, and measures throughput
+ * and latency of invocations. This allows to observe contention that instrumented code (e.g. proxies, probes and counters)
+ * introduces under real parallelism.
+ * <p>
+ * Every thread uses its own instance of {@link Example}, because examples are not required to be thread-safe.
+ * Every thread records latencies only into its own {@link LatencyHistogram}, so the driver itself doesn't introduce contention;
+ * histograms are merged via {@link LatencyHistogram#add(LatencyHistogram)} after all threads have finished.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class LoadDriver {
+  private final static int WARMUP;
+  private final static int MEASUREMENT;
+  private final static int DONE;
+
+  static {
+    WARMUP = 0;
+    MEASUREMENT = 1;
+    DONE = 2;
+  }
+
+  /**
+   * Result of {@link LoadDriver#run(Supplier, int, boolean, long, long)}.
+   * <p>
+   * Instantiability: allowed only from inside {@link LoadDriver} class.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  public final static class Result {
+    private final int threads;
+    private final boolean virtualThreads;
+    private final long durationNanos;
+    private final LatencyHistogram histogram;
+
+    private Result(final int threads, final boolean virtualThreads, final long durationNanos, final LatencyHistogram histogram) {
+      this.threads = threads;
+      this.virtualThreads = virtualThreads;
+      this.durationNanos = durationNanos;
+      this.histogram = histogram;
+    }
+
+    /**
+     * Returns the number of invocations of {@link Example#run()} completed during the measurement phase.
+     *
+     * @return Number of invocations.
+     */
+    public final long getCount() {
+      return histogram.getCount();
+    }
+
+    /**
+     * Returns throughput of all threads during the measurement phase.
+     *
+     * @return Number of invocations per second.
+     */
+    public final double getThroughput() {
+      return histogram.getCount() * 1e9 / durationNanos;
+    }
+
+    /**
+     * Returns a latency such that {@code percentile} percents of invocations completed no slower,
+     * within the precision of the histogram (1/16 of the value).
+     *
+     * @param percentile A percentile, e.g. {@code 99.9}. Must be within {@code [0, 100]}.
+     *
+     * @return Latency in nanoseconds, or {@code 0} if there were no invocations.
+     */
+    public final long getLatencyAtPercentile(final double percentile) {
+      return histogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Returns the maximal latency.
+     *
+     * @return Latency in nanoseconds, or {@code 0} if there were no invocations.
+     */
+    public final long getMaxLatency() {
+      return histogram.getMax();
+    }
+
+    @Override
+    public final String toString() {
+      return String.format(Locale.ENGLISH,
+          "%d %s threads, %.1f s: %d invocations, %.0f ops/s, latency us: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f", threads,
+          virtualThreads ? "virtual" : "platform", durationNanos / 1e9, getCount(), getThroughput(), getLatencyAtPercentile(50) / 1e3,
+          getLatencyAtPercentile(90) / 1e3, getLatencyAtPercentile(99) / 1e3, getLatencyAtPercentile(99.9) / 1e3, getMaxLatency() / 1e3);
+    }
+  }
+
+  /**
+   * Runs examples from {@code threads} threads: first for {@code warmupMillis} without measurement, then for {@code durationMillis}
+   * with measurement. Every thread creates its own example via {@code exampleFactory} and invokes {@link Example#run()} in a loop.
+   *
+   * @param exampleFactory Creates examples. Must be not {@code null}. Is invoked concurrently.
+   * @param threads Number of threads. Must be positive.
+   * @param virtualThreads Specifies whether virtual threads are used instead of platform threads.
+   * @param warmupMillis Duration of the warmup phase. Must be non-negative.
+   * @param durationMillis Duration of the measurement phase. Must be positive.
+   *
+   * @return Result of the measurement phase.
+   *
+   * @throws java.lang.UnsupportedOperationException If {@code virtualThreads} is {@code true} but the JVM doesn't support virtual threads.
+   * @throws java.lang.RuntimeException If an example failed, the exception thrown by the example is the cause.
+   * @throws java.lang.InterruptedException If the current thread was interrupted, in which case all threads are stopped.
+   */
+  public final static Result run(
+      final Supplier<? extends Example> exampleFactory,
+      final int threads,
+      final boolean virtualThreads,
+      final long warmupMillis,
+      final long durationMillis) throws InterruptedException {
+    if (exampleFactory == null) {
+      throw new NullPointerException("The first argument 'exampleFactory' is null");
+    } else if (threads <= 0) {
+      throw new IllegalArgumentException("The second argument 'threads' must be positive");
+    } else if (warmupMillis < 0) {
+      throw new IllegalArgumentException("The fourth argument 'warmupMillis' must be non-negative");
+    } else if (durationMillis <= 0) {
+      throw new IllegalArgumentException("The fifth argument 'durationMillis' must be positive");
+    }
+    final ThreadFactory threadFactory = virtualThreads ? virtualThreadFactory() : platformThreadFactory();
+    final AtomicInteger phase = new AtomicInteger(WARMUP);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    final LatencyHistogram[] histograms = new LatencyHistogram[threads];
+    final Thread[] workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      final LatencyHistogram histogram = new LatencyHistogram();
+      histograms[i] = histogram;
+      workers[i] = threadFactory.newThread(new Runnable() {
+        public final void run() {
+          try {
+            final Example example = exampleFactory.get();
+            for (int currentPhase = phase.get(); currentPhase != DONE; currentPhase = phase.get()) {
+              final long start = System.nanoTime();
+              example.run();
+              final long latency = System.nanoTime() - start;
+              if (currentPhase == MEASUREMENT) {
+                histogram.record(latency);
+              }
+            }
+          } catch (final Throwable e) {
+            failure.compareAndSet(null, e);
+            phase.set(DONE);
+          }
+        }
+      });
+    }
+    final long start;
+    final long end;
+    try {
+      for (final Thread worker : workers) {
+        worker.start();
+      }
+      TimeUnit.MILLISECONDS.sleep(warmupMillis);
+      phase.compareAndSet(WARMUP, MEASUREMENT);
+      start = System.nanoTime();
+      TimeUnit.MILLISECONDS.sleep(durationMillis);
+      phase.set(DONE);
+      end = System.nanoTime();
+    } finally {
+      phase.set(DONE);
+      for (final Thread worker : workers) {
+        worker.join();
+      }
+    }
+    final Throwable e = failure.get();
+    if (e != null) {
+      throw new RuntimeException("An example failed in load mode", e);
+    }
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (final LatencyHistogram threadHistogram : histograms) {
+      histogram.add(threadHistogram);// workers were joined, so their histograms are visible
+    }
+    return new Result(threads, virtualThreads, end - start, histogram);
+  }
+
+  private final static ThreadFactory platformThreadFactory() {
+    final AtomicInteger counter = new AtomicInteger();
+    return new ThreadFactory() {
+      public final Thread newThread(final Runnable r) {
+        return new Thread(r, "load-" + counter.incrementAndGet());
+      }
+    };
+  }
+
+  /*
+   * Virtual threads are accessed via reflection, so the code can be compiled and run by JVMs that don't support them.
+   */
+  private final static ThreadFactory virtualThreadFactory() {
+    final ThreadFactory result;
+    try {
+      final Object builder = Thread.class.getMethod("ofVirtual")
+          .invoke(null);
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, "load-", 1L);
+      result = (ThreadFactory)builderClass.getMethod("factory")
+          .invoke(builder);
+    } catch (final NoSuchMethodException | ClassNotFoundException | IllegalAccessException e) {
+      throw new UnsupportedOperationException("Virtual threads are not supported by the JVM " + System.getProperty("java.vm.version"), e);
+    } catch (final InvocationTargetException e) {
+      throw new UnsupportedOperationException("Virtual threads are not supported by the JVM " + System.getProperty("java.vm.version") +
+          " (preview features may be disabled)", e.getCause());
+    }
+    return result;
+  }
+
+  private LoadDriver() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
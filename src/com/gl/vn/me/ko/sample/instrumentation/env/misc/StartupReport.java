@@ -0,0 +1,93 @@
+package com.gl.vn.me.ko.sample.instrumentation.env.misc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Writes metrics of startup of the application to a file in {@link java.util.Properties} format, so they can be compared for
+ * different configurations of the JVM, e.g. with and without a Java-agent.
+ * The following properties are written:
+ * <ul>
+ * <li>{@value #UPTIME_MILLIS} - uptime of the JVM at the moment the report is made;</li>
+ * <li>{@value #CLASS_LOAD_MILLIS} - time spent by the application to load classes before it was started;</li>
+ * <li>{@value #LOADED_CLASSES} - number of classes loaded by the JVM;</li>
+ * <li>{@value #HEAP_USED_BYTES} - used heap after a full GC;</li>
+ * <li>{@value #METASPACE_USED_BYTES} - used Metaspace, or {@code -1} if the JVM has no memory pool named {@code "Metaspace"}.</li>
+ * </ul>
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class StartupReport {
+  /**
+   * Name of the property that contains uptime of the JVM in milliseconds.
+   * Value of this constant is {@value} .
+   */
+  public final static String UPTIME_MILLIS = "uptimeMillis";
+  /**
+   * Name of the property that contains time in milliseconds spent to load classes before the application was started.
+   * Value of this constant is {@value} .
+   */
+  public final static String CLASS_LOAD_MILLIS = "classLoadMillis";
+  /**
+   * Name of the property that contains the number of classes loaded by the JVM.
+   * Value of this constant is {@value} .
+   */
+  public final static String LOADED_CLASSES = "loadedClasses";
+  /**
+   * Name of the property that contains the number of bytes of used heap after a full GC.
+   * Value of this constant is {@value} .
+   */
+  public final static String HEAP_USED_BYTES = "heapUsedBytes";
+  /**
+   * Name of the property that contains the number of bytes of used Metaspace.
+   * Value of this constant is {@value} .
+   */
+  public final static String METASPACE_USED_BYTES = "metaspaceUsedBytes";
+
+  /**
+   * Writes the report. Uptime of the JVM is measured before anything else, so the time needed to make the report isn't included.
+   *
+   * @param file The file to write the report to. Is overwritten if exists. Must be not {@code null}.
+   * @param classLoadNanos Time in nanoseconds spent to load classes before the application was started.
+   *
+   * @throws java.io.IOException If the report can't be written.
+   */
+  public final static void write(final Path file, final long classLoadNanos) throws IOException {
+    if (file == null) {
+      throw new NullPointerException("The first argument 'file' is null");
+    }
+    final long uptimeMillis = ManagementFactory.getRuntimeMXBean()
+        .getUptime();
+    final Properties report = new Properties();
+    report.setProperty(UPTIME_MILLIS, Long.toString(uptimeMillis));
+    report.setProperty(CLASS_LOAD_MILLIS, Long.toString(classLoadNanos / 1000000));
+    report.setProperty(LOADED_CLASSES, Long.toString(ManagementFactory.getClassLoadingMXBean()
+        .getTotalLoadedClassCount()));
+    System.gc();
+    report.setProperty(HEAP_USED_BYTES, Long.toString(ManagementFactory.getMemoryMXBean()
+        .getHeapMemoryUsage()
+        .getUsed()));
+    long metaspaceUsedBytes = -1;
+    for (final MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if ("Metaspace".equals(memoryPool.getName())) {
+        metaspaceUsedBytes = memoryPool.getUsage()
+            .getUsed();
+        break;
+      }
+    }
+    report.setProperty(METASPACE_USED_BYTES, Long.toString(metaspaceUsedBytes));
+    try (final OutputStream out = Files.newOutputStream(file)) {
+      report.store(out, "Startup report");
+    }
+  }
+
+  private StartupReport() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
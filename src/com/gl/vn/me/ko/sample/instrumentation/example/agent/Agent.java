@@ -1,13 +1,26 @@
 package com.gl.vn.me.ko.sample.instrumentation.example.agent;
 
+import java.io.IOException;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import javax.annotation.Nonnull;
+import javax.management.JMException;
 import org.apache.log4j.Logger;
 import com.beust.jcommander.ParameterException;
 import com.gl.vn.me.ko.sample.instrumentation.env.misc.CommandLineHelper;
 import com.gl.vn.me.ko.sample.instrumentation.env.misc.LogHelper;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassFileTransformerDispatcher;
 import com.gl.vn.me.ko.sample.instrumentation.util.InstrumentationEnvironment;
+import com.gl.vn.me.ko.sample.instrumentation.util.TransformedClassCache;
+import com.gl.vn.me.ko.sample.instrumentation.util.TransformerMetrics;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.ProbeRegistry;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.ProbeTable;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.ProfilerConfiguration;
 
 /**
  * Provides methods that can be used by Java-agent classes in order to fit an existing execution environment
@@ -24,9 +37,53 @@ public class Agent {
    * @see #processArgs(String)
    */
   protected final static Logger LOGGER;
+  /**
+   * Name of the system property that specifies a path to the file of {@link TransformedClassCache}.
+   * Value of this constant is {@value} .
+   *
+   * @see #initTransformedClassCache()
+   */
+  public final static String TRANSFORMED_CLASS_CACHE_FILE_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.transformedClassCache.file";
+  /**
+   * Name of the system property that specifies the maximal size in bytes of the file of {@link TransformedClassCache}.
+   * Value of this constant is {@value} .
+   *
+   * @see #initTransformedClassCache()
+   */
+  public final static String TRANSFORMED_CLASS_CACHE_MAX_BYTES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.transformedClassCache.maxBytes";
+  /**
+   * Name of the system property that specifies which transformers are registered by agents:
+   * {@code "javassist"} (the default) for transformers based on {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer},
+   * or {@code "bytecode"} for transformers based on {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractBytecodeTransformer}.
+   */
+  public final static String TRANSFORMER_BACKEND_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.transformerBackend";
+  /**
+   * Name of the system property that specifies comma-separated names of examples which transformers are registered by
+   * {@link AgentExampleAbc}, e.g. {@code "A,C"}. Transformers of all examples are registered by default,
+   * and none of them are registered if the value is empty, so the overhead of the agent itself can be measured.
+   *
+   * @see #isExampleTransformerEnabled(String)
+   */
+  public final static String EXAMPLES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.examples";
+  /**
+   * Name of the system property that enables asynchronous logging (see {@link AsyncLog}) and specifies the number of log events
+   * that can wait for the background logging thread, e.g. {@code "8192"}.
+   *
+   * @see #initAsyncLogging()
+   */
+  public final static String ASYNC_LOGGING_BUFFER_SIZE_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.asyncLogging.bufferSize";
+  /**
+   * Name of the system property that enables exposing metrics of class file transformers via JMX (see {@link TransformerMetrics}),
+   * if its value is {@code "true"}.
+   *
+   * @see #initTransformerMetrics()
+   */
+  public final static String TRANSFORMER_METRICS_MBEAN_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.transformerMetrics.mbean";
+  private final static long TRANSFORMED_CLASS_CACHE_DEFAULT_MAX_BYTES;
 
   static {
     LOGGER = Logger.getLogger(Agent.class);
+    TRANSFORMED_CLASS_CACHE_DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
   }
 
   /**
@@ -40,6 +97,197 @@ public class Agent {
     LOGGER.trace("Instrumentation environment was initialized");
   }
 
+  /**
+   * Opens a persistent cache of transformed class files and makes class file transformers use it
+   * (see {@link AbstractTransformer#setTransformedClassCache(TransformedClassCache)}),
+   * if the system property {@value #TRANSFORMED_CLASS_CACHE_FILE_PROPERTY} is specified.
+   * The maximal size of the cache file can be specified via the system property {@value #TRANSFORMED_CLASS_CACHE_MAX_BYTES_PROPERTY},
+   * the default is 64 MiB. Statistics of the cache is logged when the JVM shuts down.
+   * Does nothing if the system property {@value #TRANSFORMED_CLASS_CACHE_FILE_PROPERTY} is not specified.
+   */
+  protected final static void initTransformedClassCache() {
+    final String file = System.getProperty(TRANSFORMED_CLASS_CACHE_FILE_PROPERTY);
+    if (file != null) {
+      final String maxBytesProperty = System.getProperty(TRANSFORMED_CLASS_CACHE_MAX_BYTES_PROPERTY);
+      final long maxBytes;
+      try {
+        maxBytes = maxBytesProperty == null ? TRANSFORMED_CLASS_CACHE_DEFAULT_MAX_BYTES : Long.parseLong(maxBytesProperty);
+      } catch (final NumberFormatException e) {
+        throw new RuntimeException("The value '" + maxBytesProperty + "' is incorrect for the system property '" +
+            TRANSFORMED_CLASS_CACHE_MAX_BYTES_PROPERTY + "'", e);
+      }
+      final TransformedClassCache cache;
+      try {
+        cache = new TransformedClassCache(Paths.get(file), maxBytes);
+      } catch (final IOException e) {
+        throw new RuntimeException("Can't open cache of transformed classes '" + file + "'", e);
+      }
+      AbstractTransformer.setTransformedClassCache(cache);
+      Runtime.getRuntime()
+          .addShutdownHook(new Thread() {
+            @Override
+            public final void run() {
+              LOGGER.info("Cache of transformed classes: " + cache);
+            }
+          });
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Cache of transformed classes was initialized: " + cache);
+      }
+    }
+  }
+
+  /**
+   * Starts asynchronous logging of class file transformers (see {@link AsyncLog#start(int)}),
+   * if the system property {@value #ASYNC_LOGGING_BUFFER_SIZE_PROPERTY} is specified. Asynchronous logging is stopped when the JVM shuts down,
+   * and the number of log events that were dropped because the buffer was full is logged.
+   * Does nothing if the system property {@value #ASYNC_LOGGING_BUFFER_SIZE_PROPERTY} is not specified.
+   */
+  protected final static void initAsyncLogging() {
+    if (System.getProperty(ASYNC_LOGGING_BUFFER_SIZE_PROPERTY) != null) {
+      AsyncLog.start(getPositiveIntProperty(ASYNC_LOGGING_BUFFER_SIZE_PROPERTY, 1));
+      Runtime.getRuntime()
+          .addShutdownHook(new Thread() {
+            @Override
+            public final void run() {
+              try {
+                AsyncLog.stop();
+              } catch (final InterruptedException e) {
+                Thread.currentThread()
+                    .interrupt();
+              }
+            }
+          });
+      LOGGER.trace("Asynchronous logging was started");
+    }
+  }
+
+  /**
+   * Registers {@link com.gl.vn.me.ko.sample.instrumentation.util.TransformerMetricsMXBean} (see {@link TransformerMetrics#registerMBean()}),
+   * if the system property {@value #TRANSFORMER_METRICS_MBEAN_PROPERTY} is {@code "true"}. The report of metrics is logged when the JVM shuts down.
+   * Does nothing if the system property {@value #TRANSFORMER_METRICS_MBEAN_PROPERTY} is not {@code "true"}.
+   */
+  protected final static void initTransformerMetrics() {
+    if (Boolean.getBoolean(TRANSFORMER_METRICS_MBEAN_PROPERTY)) {
+      try {
+        TransformerMetrics.registerMBean();
+      } catch (final JMException e) {
+        throw new RuntimeException("Can't register the MBean '" + TransformerMetrics.OBJECT_NAME + "'", e);
+      }
+      Runtime.getRuntime()
+          .addShutdownHook(new Thread() {
+            @Override
+            public final void run() {
+              LOGGER.info(TransformerMetrics.report());
+            }
+          });
+      LOGGER.trace("Transformer metrics MBean was registered");
+    }
+  }
+
+  /**
+   * Appends transformers of all profilers that are enabled via system properties (see {@link ProfilerConfiguration}) to {@code transformers}.
+   * Reports of the enabled profilers are logged when the JVM shuts down, and the file of the probe table, if any, is deleted.
+   *
+   * @param transformers Transformers that are registered by the agent. Must be not {@code null}.
+   *
+   * @return {@code transformers} if no profilers are enabled, otherwise a new array.
+   */
+  protected final static AbstractTransformer[] addProfilers(final AbstractTransformer[] transformers) {
+    final ProfilerConfiguration configuration = ProfilerConfiguration.fromSystemProperties();
+    final AbstractTransformer[] result;
+    if (configuration.isAnyProfilerEnabled()) {
+      final AbstractTransformer[] profilers;
+      try {
+        profilers = configuration.createTransformers();
+      } catch (final IOException e) {
+        throw new RuntimeException("Can't create probe table", e);
+      }
+      result = Arrays.copyOf(transformers, transformers.length + profilers.length);
+      System.arraycopy(profilers, 0, result, transformers.length, profilers.length);
+      Runtime.getRuntime()
+          .addShutdownHook(new Thread() {
+            @Override
+            public final void run() {
+              for (final String report : configuration.reports()) {
+                LOGGER.info(report);
+              }
+              final ProbeTable table = ProbeRegistry.getTable();
+              if (table != null) {
+                try {
+                  Files.deleteIfExists(table.getFile());
+                } catch (final IOException e) {
+                  LOGGER.warn("Can't delete probe table '" + table.getFile() + "'", e);
+                }
+              }
+            }
+          });
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Profilers were enabled: " + configuration);
+      }
+    } else {
+      result = transformers;
+    }
+    return result;
+  }
+
+  private final static int getPositiveIntProperty(final String name, final int defaultValue) {
+    final String property = System.getProperty(name);
+    final int result;
+    try {
+      result = property == null ? defaultValue : Integer.parseInt(property);
+    } catch (final NumberFormatException e) {
+      throw new RuntimeException("The value '" + property + "' is incorrect for the system property '" + name + "'", e);
+    }
+    if (result <= 0) {
+      throw new RuntimeException("The value '" + property + "' is incorrect for the system property '" + name + "'");
+    }
+    return result;
+  }
+
+  /**
+   * Tells which transformers must be registered, see {@link #TRANSFORMER_BACKEND_PROPERTY}.
+   *
+   * @return {@code true} if transformers based on {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractBytecodeTransformer}
+   * must be registered, {@code false} if transformers based on {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer}
+   * must be registered.
+   */
+  protected final static boolean useBytecodeTransformers() {
+    final String backend = System.getProperty(TRANSFORMER_BACKEND_PROPERTY, "javassist");
+    final boolean result;
+    if ("bytecode".equals(backend)) {
+      result = true;
+    } else if ("javassist".equals(backend)) {
+      result = false;
+    } else {
+      throw new RuntimeException("The value '" + backend + "' is incorrect for the system property '" + TRANSFORMER_BACKEND_PROPERTY + "'");
+    }
+    return result;
+  }
+
+  /**
+   * Tells whether the transformer of the specified example must be registered, see {@link #EXAMPLES_PROPERTY}.
+   *
+   * @param exampleName Name of the example, e.g. {@code "A"}. Must be not {@code null}.
+   *
+   * @return {@code true} if the system property {@value #EXAMPLES_PROPERTY} isn't specified or contains {@code exampleName}.
+   */
+  protected final static boolean isExampleTransformerEnabled(final String exampleName) {
+    if (exampleName == null) {
+      throw new NullPointerException("The argument 'exampleName' is null");
+    }
+    final String examples = System.getProperty(EXAMPLES_PROPERTY);
+    boolean result = examples == null;
+    if (!result) {
+      for (final String example : examples.split(",")) {
+        if (exampleName.equalsIgnoreCase(example.trim())) {
+          result = true;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
   /**
    * Process command-line arguments and configures logging system.
    *
@@ -71,8 +319,9 @@ public class Agent {
     @Nonnull
     // can't be null because InstrumentationEnvironment is initialized
     final Instrumentation inst = InstrumentationEnvironment.getInstrumentation();
+    final boolean canRetransform = inst.isRetransformClassesSupported();// otherwise retransformation falls back to redefinition
     for (final ClassFileTransformer transformer : transformers) {
-      inst.addTransformer(transformer);
+      inst.addTransformer(transformer, canRetransform);
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug("Class transformer '" + transformer.getClass()
             .getSimpleName() + "' was successfully added to instrumentation");
@@ -80,6 +329,29 @@ public class Agent {
     }
   }
 
+  /**
+   * Registers a single {@link com.gl.vn.me.ko.sample.instrumentation.util.ClassFileTransformerDispatcher} that invokes
+   * supplied class file transformers in the order they are presented in the supplied array.
+   * Unlike {@link #registerClassFileTransformers(ClassFileTransformer[])}, the JVM invokes only one transformer for every loaded class,
+   * and the dispatcher decides which of the supplied transformers may accept the class by using a precompiled index of their filters
+   * (see {@link AbstractTransformer#getClassNameFilter()}).
+   * Instrumentation environment must be initialized (see {@link #initInstrumentationEnvironment(Instrumentation)} before using this method.
+   *
+   * @param transformers Array of {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer} instances to register in the
+   * {@link java.lang.instrument.Instrumentation} via a dispatcher.
+   *
+   * @see #initInstrumentationEnvironment(Instrumentation)
+   */
+  protected final static void registerClassFileTransformerDispatcher(final AbstractTransformer[] transformers) {
+    registerClassFileTransformers(new ClassFileTransformer[] {new ClassFileTransformerDispatcher(transformers)});
+    if (LOGGER.isDebugEnabled()) {
+      for (final AbstractTransformer transformer : transformers) {
+        LOGGER.debug("Class transformer '" + transformer.getClass()
+            .getSimpleName() + "' was successfully added to the dispatcher with filter " + transformer.getClassNameFilter());
+      }
+    }
+  }
+
   /**
    * Constructor was made {@code protected} and not {@code private} because the class is supposed to be extended.
    *
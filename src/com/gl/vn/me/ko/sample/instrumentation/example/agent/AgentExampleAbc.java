@@ -1,14 +1,21 @@
 package com.gl.vn.me.ko.sample.instrumentation.example.agent;
 
-import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.List;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleA;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleB;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleC;
 import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleA;
 import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleB;
 import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleC;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer;
 
 /**
  * Java-agent class intended to access an instance of {@link java.lang.instrument.Instrumentation} and register class file transformers
- * for examples A, B and C in it.
+ * for examples A, B and C in it via a single {@link com.gl.vn.me.ko.sample.instrumentation.util.ClassFileTransformerDispatcher}.
+ * Transformers are chosen according to the system properties {@link Agent#TRANSFORMER_BACKEND_PROPERTY} and {@link Agent#EXAMPLES_PROPERTY}.
+ * Profilers can be enabled in addition (see {@link Agent#addProfilers(AbstractTransformer[])}).
  * <p>
  * Instantiability: forbidden.<br>
  * Thread safety: thread-safe.
@@ -25,8 +32,21 @@ public final class AgentExampleAbc extends Agent {
     LOGGER.trace("Invocation");
     try {
       initInstrumentationEnvironment(inst);
-      registerClassFileTransformers(new ClassFileTransformer[] {ClassFileTransformerExampleA.INSTANCE, ClassFileTransformerExampleB.INSTANCE,
-          ClassFileTransformerExampleC.INSTANCE});
+      initAsyncLogging();
+      initTransformerMetrics();
+      initTransformedClassCache();
+      final boolean useBytecodeTransformers = useBytecodeTransformers();
+      final List<AbstractTransformer> transformers = new ArrayList<AbstractTransformer>(3);
+      if (isExampleTransformerEnabled("A")) {
+        transformers.add(useBytecodeTransformers ? BytecodeTransformerExampleA.INSTANCE : ClassFileTransformerExampleA.INSTANCE);
+      }
+      if (isExampleTransformerEnabled("B")) {
+        transformers.add(useBytecodeTransformers ? BytecodeTransformerExampleB.INSTANCE : ClassFileTransformerExampleB.INSTANCE);
+      }
+      if (isExampleTransformerEnabled("C")) {
+        transformers.add(useBytecodeTransformers ? BytecodeTransformerExampleC.INSTANCE : ClassFileTransformerExampleC.INSTANCE);
+      }
+      registerClassFileTransformerDispatcher(addProfilers(transformers.toArray(new AbstractTransformer[transformers.size()])));
     } finally {
       LOGGER.trace("Invocation finished");
     }
@@ -3,12 +3,14 @@ package com.gl.vn.me.ko.sample.instrumentation.example.agent;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
 import java.lang.instrument.UnmodifiableClassException;
+import com.gl.vn.me.ko.sample.instrumentation.example.transform.BytecodeTransformerExampleD;
 import com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleD;
 import com.gl.vn.me.ko.sample.instrumentation.util.InstrumentationEnvironment;
 
 /**
  * Java-agent class intended to access an instance of {@link java.lang.instrument.Instrumentation}
  * and redefine Java SE class {@link java.lang.String}.
+ * The transformer is chosen according to the system property {@link Agent#TRANSFORMER_BACKEND_PROPERTY}.
  * <p>
  * Instantiability: forbidden.<br>
  * Thread safety: thread-safe.
@@ -25,7 +27,10 @@ public final class AgentExampleD extends Agent {
     LOGGER.trace("Invocation");
     try {
       initInstrumentationEnvironment(inst);
-      registerClassFileTransformers(new ClassFileTransformer[] {ClassFileTransformerExampleD.INSTANCE});
+      initAsyncLogging();
+      initTransformerMetrics();
+      registerClassFileTransformers(new ClassFileTransformer[] {useBytecodeTransformers() ? BytecodeTransformerExampleD.INSTANCE
+          : ClassFileTransformerExampleD.INSTANCE});
       retransformClass(String.class);
     } finally {
       LOGGER.trace("Invocation finished");
@@ -1,8 +1,10 @@
 package com.gl.vn.me.ko.sample.instrumentation.example.proxy;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
-import java.util.Arrays;
 import net.sf.cglib.proxy.MethodProxy;
 import org.apache.log4j.Logger;
 import com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy;
@@ -13,6 +15,13 @@ import com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy;
  * {@link java.math.BigDecimal} and perform additional actions (see
  * {@link com.gl.vn.me.ko.sample.instrumentation.example.proxy.MethodInterceptorExampleB#intercept(Object, Method, Object[], MethodProxy)}).
  * <p>
+ * Only methods that can return a {@link java.math.BigDecimal} are intercepted (see {@link MethodInterceptorExampleB#METHOD_SELECTOR}),
+ * other methods of the proxy class are the original methods of {@link java.math.BigDecimal}.
+ * The proxy class is generated once, when this class is initialized (see
+ * {@link com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy#newProxyClass(Class, Class[], net.sf.cglib.proxy.Callback)}),
+ * and every {@code create(...)} method invokes the corresponding constructor of the proxy class via a constant
+ * {@link java.lang.invoke.MethodHandle}, so creation of a proxy object involves neither arrays of arguments, nor boxing, nor reflection, nor locks.
+ * <p>
  * Note that in general case this class would define a {@code create(...)} method for each {@link java.math.BigDecimal}{@code (...)} constructor,
  * however {@link com.gl.vn.me.ko.sample.instrumentation.example.ExampleB} only uses two constructors of {@link java.math.BigDecimal} class, so for
  * simplicity only two corresponding methods are defined ({@link #create(double)} and {@link #create(String)}).
@@ -22,9 +31,15 @@ import com.gl.vn.me.ko.sample.instrumentation.util.cglib.Proxy;
  */
 public final class BigDecimalProxyFactoryExampleB {
   private final static Logger LOGGER;
+  private final static MethodHandle DOUBLE_CONSTRUCTOR;// (double)BigDecimal
+  private final static MethodHandle STRING_CONSTRUCTOR;// (String)BigDecimal
 
   static {
     LOGGER = Logger.getLogger(BigDecimalProxyFactoryExampleB.class);
+    final Class<?> proxyClass = Proxy.newProxyClass(BigDecimal.class, null, MethodInterceptorExampleB.INSTANCE,
+        MethodInterceptorExampleB.METHOD_SELECTOR);
+    DOUBLE_CONSTRUCTOR = findConstructor(proxyClass, Double.TYPE);
+    STRING_CONSTRUCTOR = findConstructor(proxyClass, String.class);
   }
 
   /**
@@ -37,9 +52,18 @@ public final class BigDecimalProxyFactoryExampleB {
    * @see java.math.BigDecimal#BigDecimal(double)
    */
   public final static BigDecimal create(final double value) {
-    final Class<?>[] constructorArgTypes = new Class<?>[] {Double.TYPE};
-    final Object[] constructorArgs = new Object[] {value};
-    return create(constructorArgTypes, constructorArgs);
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("Creating a BigDecimal proxy object from double " + value);
+    }
+    final BigDecimal result;
+    try {
+      result = (BigDecimal)DOUBLE_CONSTRUCTOR.invokeExact(value);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new RuntimeException(e);
+    }
+    return result;
   }
 
   /**
@@ -55,22 +79,30 @@ public final class BigDecimalProxyFactoryExampleB {
     if (value == null) {
       throw new NullPointerException("The argument 'value' is null");
     }
-    final Class<?>[] constructorArgTypes = new Class<?>[] {String.class};
-    final Object[] constructorArgs = new Object[] {value};
-    return create(constructorArgTypes, constructorArgs);
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("Creating a BigDecimal proxy object from String " + value);
+    }
+    final BigDecimal result;
+    try {
+      result = (BigDecimal)STRING_CONSTRUCTOR.invokeExact(value);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new RuntimeException(e);
+    }
+    return result;
   }
 
-  private final static BigDecimal create(final Class<?>[] constructorArgTypes, final Object[] constructorArgs) {
-    if (LOGGER.isTraceEnabled()) {
-      LOGGER.trace("Creating a BigDecimal proxy object using constructor arg types " + Arrays.toString(constructorArgTypes) + " and args " +
-          Arrays.toString(constructorArgs));
+  private final static MethodHandle findConstructor(final Class<?> proxyClass, final Class<?> argType) {
+    final MethodHandle result;
+    try {
+      result = MethodHandles.publicLookup()
+          .findConstructor(proxyClass, MethodType.methodType(Void.TYPE, argType))
+          .asType(MethodType.methodType(BigDecimal.class, argType));
+    } catch (final NoSuchMethodException | IllegalAccessException e) {
+      throw new RuntimeException(e);
     }
-    return Proxy.newProxyInstance(
-        BigDecimal.class,
-        null,
-        MethodInterceptorExampleB.INSTANCE,
-        constructorArgTypes,
-        constructorArgs);
+    return result;
   }
 
   private BigDecimalProxyFactoryExampleB() {
@@ -20,7 +20,7 @@ import org.apache.log4j.Logger;
  */
 final class InvocationHandlerExampleC implements InvocationHandler {
   private final static Logger LOGGER;
-  private final Object proxiedObject;
+  private final Map<?, ?> proxiedObject;
   private final static String METHOD_NAME_TO_TRICK;
   private final static Integer COLD_VALVE;
   private final static Integer HOT_VALVE;
@@ -75,6 +75,7 @@ final class InvocationHandlerExampleC implements InvocationHandler {
    * and the only argument of the method is equal to object that denotes hot or cold faucet
    * valves (see {@link com.gl.vn.me.ko.sample.instrumentation.example.ExampleC}),
    * then the invocation becomes tricky:the value of argument is swapped from hot to cold and vice versa.
+   * Method {@code "get"} is invoked on the proxied object directly, other methods are invoked via reflection.
    *
    * @return Result of the method invocation on the proxied (original) object. The result can be {@code null}.
    */
@@ -83,6 +84,7 @@ final class InvocationHandlerExampleC implements InvocationHandler {
       @SuppressWarnings("null") final Object proxyObject,
       @SuppressWarnings("null") final Method method,
       @Nullable final Object[] methodArgs) {
+    final Object result;
     if (METHOD_NAME_TO_TRICK.equals(method.getName()) && (methodArgs != null) && (methodArgs.length == 1)) {
       final Object originalMethodArg = methodArgs[0];
       Object newMethodArg = null;
@@ -105,14 +107,15 @@ final class InvocationHandlerExampleC implements InvocationHandler {
                   + "' (" + valveToString(newMethodArg) + ")");
         }
       }
-    }
-    final Object result;
-    try {
-      result = invokeOriginalMethod(proxiedObject, method, methodArgs);
-    } catch (final InvocationTargetException e) {
-      throw new RuntimeException(
-          "Proxied method '" + method.toString() + "' invoked on object '" + proxiedObject.toString() + "' have thrown an exception",
-          e);
+      result = proxiedObject.get(methodArgs[0]);
+    } else {
+      try {
+        result = invokeOriginalMethod(proxiedObject, method, methodArgs);
+      } catch (final InvocationTargetException e) {
+        throw new RuntimeException(
+            "Proxied method '" + method.toString() + "' invoked on object '" + proxiedObject.toString() + "' have thrown an exception",
+            e);
+      }
     }
     return result;
   }
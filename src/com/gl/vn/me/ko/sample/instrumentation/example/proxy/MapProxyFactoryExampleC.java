@@ -1,27 +1,40 @@
 package com.gl.vn.me.ko.sample.instrumentation.example.proxy;
 
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Map;
 import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.proxy.DelegatingProxyFactory;
 
 /**
- * The class provides an ability to create a Java-proxy object of type {@link java.util.Map} that can intercept invocation of any method of interface
- * {@link java.util.Map} and perform additional
- * actions (see {@link com.gl.vn.me.ko.sample.instrumentation.example.proxy.InvocationHandlerExampleC#invoke(Object, Method, Object[])}).<br>
+ * The class provides an ability to create a proxy object of type {@link java.util.Map} that intercepts invocations of the method
+ * {@link java.util.Map#get(Object)} and performs additional
+ * actions (see {@link com.gl.vn.me.ko.sample.instrumentation.example.proxy.InvocationHandlerExampleC#invoke(Object, Method, Object[])}).
+ * All other methods are directly delegated to the original object.
+ * A {@link java.lang.reflect.Proxy} that passes invocations of all methods to the same invocation handler can be created too
+ * (see {@link #createJavaProxy(Map)}), e.g. in order to compare the two kinds of proxies.
  * <p>
  * Instantiability: forbidden.<br>
  * Thread safety: thread-safe.
  *
+ * @see com.gl.vn.me.ko.sample.instrumentation.util.proxy.DelegatingProxyFactory
  * @see java.lang.reflect.Proxy
  */
 public final class MapProxyFactoryExampleC {
   private final static Logger LOGGER;
-  private final static Class<?>[] PROXY_INTERFACES;
+  @SuppressWarnings("rawtypes")
+  private final static DelegatingProxyFactory<Map> PROXY_FACTORY;
+  private final static Class<?>[] JAVA_PROXY_INTERFACES;
 
   static {
     LOGGER = Logger.getLogger(MapProxyFactoryExampleC.class);
-    PROXY_INTERFACES = new Class<?>[] {Map.class};
+    JAVA_PROXY_INTERFACES = new Class<?>[] {Map.class};
+    try {
+      PROXY_FACTORY = DelegatingProxyFactory.newFactory(MethodHandles.lookup(), Map.class, Map.class.getMethod("get", Object.class));
+    } catch (final NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
   }
 
   /**
@@ -40,8 +53,30 @@ public final class MapProxyFactoryExampleC {
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace("Creating a Map proxy object for object '" + object.toString() + "'");
     }
+    @SuppressWarnings("unchecked") final Map<K, V> result = PROXY_FACTORY.newProxyInstance(object, new InvocationHandlerExampleC(object));
+    return result;
+  }
+
+  /**
+   * Creates a Java-proxy object for the provided object. The proxy passes invocations of all methods
+   * to the same invocation handler as a proxy created by {@link #create(Map)}, so all methods except for {@link java.util.Map#get(Object)}
+   * are invoked via reflection.
+   *
+   * @param <K> The type of keys maintained by the map.
+   * @param <V> The type of mapped values.
+   * @param object The original object that will be hided behind the proxy. Must be not {@code null}.
+   *
+   * @return Proxy backed by the original object.
+   */
+  public final static <K, V> Map<K, V> createJavaProxy(final Map<K, V> object) {
+    if (object == null) {
+      throw new NullPointerException("The argument 'object' is null");
+    }
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("Creating a Map Java-proxy object for object '" + object.toString() + "'");
+    }
     @SuppressWarnings("unchecked") final Map<K, V> result = (Map<K, V>)Proxy.newProxyInstance(object.getClass()
-        .getClassLoader(), PROXY_INTERFACES, new InvocationHandlerExampleC(object));
+        .getClassLoader(), JAVA_PROXY_INTERFACES, new InvocationHandlerExampleC(object));
     return result;
   }
 
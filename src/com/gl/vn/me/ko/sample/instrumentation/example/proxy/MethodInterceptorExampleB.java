@@ -8,6 +8,7 @@ import net.sf.cglib.proxy.MethodProxy;
 import org.apache.log4j.Logger;
 import com.gl.vn.me.ko.sample.instrumentation.env.misc.LogHelper;
 import com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodInterceptor;
+import com.gl.vn.me.ko.sample.instrumentation.util.cglib.MethodSelector;
 
 /**
  * This class is a method interceptor that is used by {@link com.gl.vn.me.ko.sample.instrumentation.example.proxy.BigDecimalProxyFactoryExampleB}
@@ -23,10 +24,20 @@ final class MethodInterceptorExampleB implements MethodInterceptor {
    * The only instance of the class.
    */
   public final static MethodInterceptorExampleB INSTANCE;
+  /**
+   * Selects methods that can return a {@link java.math.BigDecimal}, i.e. the only methods which invocations this interceptor changes.
+   */
+  public final static MethodSelector METHOD_SELECTOR;
 
   static {
     LOGGER = Logger.getLogger(MethodInterceptorExampleB.class);
     INSTANCE = new MethodInterceptorExampleB();
+    METHOD_SELECTOR = new MethodSelector() {
+      public final boolean select(final Method method) {
+        return method.getReturnType()
+            .isAssignableFrom(BigDecimal.class);
+      }
+    };
   }
 
   @Nullable
@@ -0,0 +1,113 @@
+package com.gl.vn.me.ko.sample.instrumentation.example.transform;
+
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.example.ExampleA;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractBytecodeTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Performs the same transformation of {@link ExampleA} class as {@link ClassFileTransformerExampleA} does,
+ * but edits bytecode directly (see {@link AbstractBytecodeTransformer}).
+ * Every {@code putfield} instruction of an {@code int} field inside the method {@code increment(int)}
+ * <blockquote>
+ *
+ * <pre>
+ * putfield #field // stack: objectref, value
+ * </pre>
+ *
+ * </blockquote>
+ * is prepended with instructions that replace the value being written with the current value of the field incremented by 2
+ * <blockquote>
+ *
+ * <pre>
+ * pop
+ * dup
+ * getfield #field
+ * iconst_2
+ * iadd
+ * putfield #field
+ * </pre>
+ *
+ * </blockquote>
+ * Instantiability: explicit instantiation is forbidden; singleton (see {@link #INSTANCE} field).<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class BytecodeTransformerExampleA extends AbstractBytecodeTransformer {
+  private final static Logger LOGGER;
+  public final static BytecodeTransformerExampleA INSTANCE;
+  private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class that should be transformed
+  private final static ClassNameFilter CLASS_NAME_FILTER;
+  private final static String VERSION_FINGERPRINT;// must be changed whenever the transformation is changed
+  private final static String METHOD_NAME_TO_TRANSFORM;// name of the method that should be transformed
+  private final static String METHOD_DESCRIPTOR_TO_TRANSFORM;// descriptor of the method that should be transformed
+  private final static String JVM_INT_FIELD_SIGNATURE;// signature for int field as specified in "The Java Virtual Machine Specification"
+
+  static {
+    LOGGER = Logger.getLogger(BytecodeTransformerExampleA.class);
+    INSTANCE = new BytecodeTransformerExampleA();
+    CLASS_NAME_TO_TRANSFORM = "com/gl/vn/me/ko/sample/instrumentation/example/ExampleA";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM);
+    VERSION_FINGERPRINT = BytecodeTransformerExampleA.class.getName() + ":1";
+    METHOD_NAME_TO_TRANSFORM = "increment";
+    METHOD_DESCRIPTOR_TO_TRANSFORM = "(I)V";
+    JVM_INT_FIELD_SIGNATURE = "I";
+  }
+
+  private BytecodeTransformerExampleA() {
+  }
+
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
+  }
+
+  @Override
+  public final String getVersionFingerprint() {
+    return VERSION_FINGERPRINT;
+  }
+
+  @Override
+  protected final boolean acceptClassForTransformation(@Nullable final ClassLoader classLoader, final String className) {
+    return CLASS_NAME_TO_TRANSFORM.equals(className);
+  }
+
+  @Override
+  protected final boolean transformMethod(@Nullable final ClassLoader classLoader, final ClassFile classFile, final MethodInfo method)
+      throws BadBytecode {
+    boolean result = false;
+    if (METHOD_NAME_TO_TRANSFORM.equals(method.getName()) && METHOD_DESCRIPTOR_TO_TRANSFORM.equals(method.getDescriptor())) {
+      final ConstPool constPool = classFile.getConstPool();
+      final CodeIterator codeIterator = method.getCodeAttribute()
+          .iterator();
+      while (codeIterator.hasNext()) {
+        final int pos = codeIterator.next();
+        if (codeIterator.byteAt(pos) == Opcode.PUTFIELD) {
+          final int fieldIndex = codeIterator.u16bitAt(pos + 1);
+          if (JVM_INT_FIELD_SIGNATURE.equals(constPool.getFieldrefType(fieldIndex))) {
+            AsyncLog.debug(LOGGER, "Modifying access to the field '{} {}'", constPool.getFieldrefName(fieldIndex), JVM_INT_FIELD_SIGNATURE);
+            final Bytecode bytecode = new Bytecode(constPool);
+            bytecode.addOpcode(Opcode.POP);// the value being written
+            bytecode.addOpcode(Opcode.DUP);// objectref
+            bytecode.addOpcode(Opcode.GETFIELD);
+            bytecode.addIndex(fieldIndex);
+            bytecode.addIconst(2);
+            bytecode.addOpcode(Opcode.IADD);
+            codeIterator.insertAt(pos, bytecode.get());// the iterator skips the inserted code and continues after the putfield instruction
+            result = true;
+          }
+        }
+      }
+    }
+    return result;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.gl.vn.me.ko.sample.instrumentation.example.transform;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import javassist.CannotCompileException;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import javassist.bytecode.StackMapTable;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractBytecodeTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.ConstantPoolFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Performs the same transformation of {@link com.gl.vn.me.ko.sample.instrumentation.example.ExampleB} class as
+ * {@link ClassFileTransformerExampleB} does, but edits bytecode directly (see {@link AbstractBytecodeTransformer}).
+ * Every sequence of instructions that creates a {@link java.math.BigDecimal} object
+ * <blockquote>
+ *
+ * <pre>
+ * new java/math/BigDecimal
+ * dup
+ * ... // pushes constructor arguments
+ * invokespecial java/math/BigDecimal.&lt;init&gt;(arguments)V
+ * </pre>
+ *
+ * </blockquote>
+ * is replaced in place (so the length of the code doesn't change) with
+ * <blockquote>
+ *
+ * <pre>
+ * nop
+ * nop
+ * nop
+ * nop
+ * ... // pushes constructor arguments
+ * invokestatic com/gl/vn/me/ko/sample/instrumentation/example/proxy/BigDecimalProxyFactoryExampleB.create(arguments)Ljava/math/BigDecimal;
+ * </pre>
+ *
+ * </blockquote>
+ * Uninitialized objects created by the removed {@code new} instructions are also removed from the stack map table
+ * (there are frames between {@code new} and {@code invokespecial} if e.g. an argument of the constructor is a conditional expression).
+ * <p>
+ * Instantiability: explicit instantiation is forbidden; singleton (see {@link #INSTANCE} field).<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class BytecodeTransformerExampleB extends AbstractBytecodeTransformer {
+  private final static Logger LOGGER;
+  public final static BytecodeTransformerExampleB INSTANCE;
+  private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class to transform
+  private final static ClassNameFilter CLASS_NAME_FILTER;
+  private final static ConstantPoolFilter CONSTANT_POOL_FILTER;// only classes that reference the class that should be substituted are changed
+  private final static String VERSION_FINGERPRINT;// must be changed whenever the transformation is changed
+  private final static String CLASS_NAME_ORIGINAL;// fully qualified name of the class that should be substituted
+  private final static String CLASS_NAME_TO_SUBSTITUTE_FOR;// fully qualified name of the class that should be used instead the original one
+  private final static String METHOD_NAME_TO_SUBSTITUTE_FOR;// name of the method that should be used instead of the invocation of constructor
+  private final static String CONSTRUCTOR_NAME;
+  private final static String CONSTRUCTOR_RETURN_DESCRIPTOR;
+  private final static String ORIGINAL_TYPE_DESCRIPTOR;
+
+  static {
+    LOGGER = Logger.getLogger(BytecodeTransformerExampleB.class);
+    INSTANCE = new BytecodeTransformerExampleB();
+    CLASS_NAME_TO_TRANSFORM = "com/gl/vn/me/ko/sample/instrumentation/example/ExampleB";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM);
+    VERSION_FINGERPRINT = BytecodeTransformerExampleB.class.getName() + ":1";
+    CLASS_NAME_ORIGINAL = "java.math.BigDecimal";
+    CONSTANT_POOL_FILTER = ConstantPoolFilter.forReferences(CLASS_NAME_ORIGINAL.replace('.', '/'));
+    CLASS_NAME_TO_SUBSTITUTE_FOR = "com.gl.vn.me.ko.sample.instrumentation.example.proxy.BigDecimalProxyFactoryExampleB";
+    METHOD_NAME_TO_SUBSTITUTE_FOR = "create";
+    CONSTRUCTOR_NAME = MethodInfo.nameInit;
+    CONSTRUCTOR_RETURN_DESCRIPTOR = "V";
+    ORIGINAL_TYPE_DESCRIPTOR = "L" + CLASS_NAME_ORIGINAL.replace('.', '/') + ";";
+  }
+
+  private BytecodeTransformerExampleB() {
+  }
+
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
+  }
+
+  @Override
+  public final ConstantPoolFilter getConstantPoolFilter() {
+    return CONSTANT_POOL_FILTER;
+  }
+
+  @Override
+  public final String getVersionFingerprint() {
+    return VERSION_FINGERPRINT;
+  }
+
+  @Override
+  protected final boolean acceptClassForTransformation(@Nullable final ClassLoader classLoader, final String className) {
+    return CLASS_NAME_TO_TRANSFORM.equals(className);
+  }
+
+  @Override
+  protected final boolean transformMethod(@Nullable final ClassLoader classLoader, final ClassFile classFile, final MethodInfo method)
+      throws BadBytecode, CannotCompileException {
+    boolean result = false;
+    final ConstPool constPool = classFile.getConstPool();
+    final CodeAttribute codeAttribute = method.getCodeAttribute();
+    final StackMapTable stackMapTable = (StackMapTable)codeAttribute.getAttribute(StackMapTable.tag);
+    final Deque<Integer> newPositions = new ArrayDeque<Integer>();// positions of 'new' instructions which objects are not yet initialized
+    final CodeIterator codeIterator = codeAttribute.iterator();
+    while (codeIterator.hasNext()) {
+      final int pos = codeIterator.next();
+      final int opcode = codeIterator.byteAt(pos);
+      if ((opcode == Opcode.NEW) && CLASS_NAME_ORIGINAL.equals(constPool.getClassInfo(codeIterator.u16bitAt(pos + 1)))) {
+        newPositions.push(Integer.valueOf(pos));
+      } else if ((opcode == Opcode.INVOKESPECIAL) && !newPositions.isEmpty()) {
+        final int methodIndex = codeIterator.u16bitAt(pos + 1);
+        if (CLASS_NAME_ORIGINAL.equals(constPool.getMethodrefClassName(methodIndex)) &&
+            CONSTRUCTOR_NAME.equals(constPool.getMethodrefName(methodIndex))) {
+          final int newPos = newPositions.pop()
+              .intValue();
+          if (codeIterator.byteAt(newPos + 3) != Opcode.DUP) {
+            AsyncLog.debug(LOGGER, "Constructor call in the method '{}{}' at {} wasn't substituted because 'new' isn't followed by 'dup'",
+                method.getName(), method.getDescriptor(), pos);
+          } else {
+            final String constructorDescriptor = constPool.getMethodrefType(methodIndex);
+            final String methodDescriptor = constructorDescriptor.substring(0, constructorDescriptor.length() - CONSTRUCTOR_RETURN_DESCRIPTOR.length())
+                + ORIGINAL_TYPE_DESCRIPTOR;
+            AsyncLog.debug(LOGGER, "Substituting constructor call with the descriptor '{}' with the factory method invocation with the descriptor '{}'",
+                constructorDescriptor, methodDescriptor);
+            for (int i = newPos; i < newPos + 4; i++) {// 'new' and 'dup'
+              codeIterator.writeByte(Opcode.NOP, i);
+            }
+            codeIterator.writeByte(Opcode.INVOKESTATIC, pos);
+            codeIterator.write16bit(constPool.addMethodrefInfo(constPool.addClassInfo(CLASS_NAME_TO_SUBSTITUTE_FOR), METHOD_NAME_TO_SUBSTITUTE_FOR,
+                methodDescriptor), pos + 1);
+            if (stackMapTable != null) {
+              stackMapTable.removeNew(newPos);// this is what javassist.CodeConverter.replaceNew(...) does
+            }
+            result = true;
+          }
+        }
+      }
+    }
+    return result;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.gl.vn.me.ko.sample.instrumentation.example.transform;
+
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractBytecodeTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Performs the same transformation of {@link com.gl.vn.me.ko.sample.instrumentation.example.ExampleC} class as
+ * {@link ClassFileTransformerExampleC} does, but edits bytecode directly (see {@link AbstractBytecodeTransformer}).
+ * Every {@code areturn} instruction of the method {@code createFaucetColorCodeMap()} is prepended with
+ * <blockquote>
+ *
+ * <pre>
+ * invokestatic com/gl/vn/me/ko/sample/instrumentation/example/proxy/MapProxyFactoryExampleC.create(Ljava/util/Map;)Ljava/util/Map;
+ * </pre>
+ *
+ * </blockquote>
+ * so the method returns a proxy of the original result. Branches to {@code areturn} jump to the inserted instruction.
+ * <p>
+ * Instantiability: explicit instantiation is forbidden; singleton (see {@link #INSTANCE} field).<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class BytecodeTransformerExampleC extends AbstractBytecodeTransformer {
+  private final static Logger LOGGER;
+  public final static BytecodeTransformerExampleC INSTANCE;
+  private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class to transform
+  private final static ClassNameFilter CLASS_NAME_FILTER;
+  private final static String VERSION_FINGERPRINT;// must be changed whenever the transformation is changed
+  private final static String METHOD_NAME_TO_TRANSFORM;// name of the method that should be transformed
+  private final static String METHOD_DESCRIPTOR_TO_TRANSFORM;// descriptor of the method that should be transformed
+  private final static String PROXY_FACTORY_CLASS_NAME;
+  private final static String PROXY_FACTORY_METHOD_NAME;
+  private final static String PROXY_FACTORY_METHOD_DESCRIPTOR;
+
+  static {
+    LOGGER = Logger.getLogger(BytecodeTransformerExampleC.class);
+    INSTANCE = new BytecodeTransformerExampleC();
+    CLASS_NAME_TO_TRANSFORM = "com/gl/vn/me/ko/sample/instrumentation/example/ExampleC";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM);
+    VERSION_FINGERPRINT = BytecodeTransformerExampleC.class.getName() + ":1";
+    METHOD_NAME_TO_TRANSFORM = "createFaucetColorCodeMap";
+    METHOD_DESCRIPTOR_TO_TRANSFORM = "()Ljava/util/Map;";
+    PROXY_FACTORY_CLASS_NAME = "com.gl.vn.me.ko.sample.instrumentation.example.proxy.MapProxyFactoryExampleC";
+    PROXY_FACTORY_METHOD_NAME = "create";
+    PROXY_FACTORY_METHOD_DESCRIPTOR = "(Ljava/util/Map;)Ljava/util/Map;";
+  }
+
+  private BytecodeTransformerExampleC() {
+  }
+
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
+  }
+
+  @Override
+  public final String getVersionFingerprint() {
+    return VERSION_FINGERPRINT;
+  }
+
+  @Override
+  protected final boolean acceptClassForTransformation(@Nullable final ClassLoader classLoader, final String className) {
+    return CLASS_NAME_TO_TRANSFORM.equals(className);
+  }
+
+  @Override
+  protected final boolean transformMethod(@Nullable final ClassLoader classLoader, final ClassFile classFile, final MethodInfo method)
+      throws BadBytecode {
+    boolean result = false;
+    if (METHOD_NAME_TO_TRANSFORM.equals(method.getName()) && METHOD_DESCRIPTOR_TO_TRANSFORM.equals(method.getDescriptor())) {
+      AsyncLog.debug(LOGGER, "Modifying of return value of the method '{}{}'", METHOD_NAME_TO_TRANSFORM, METHOD_DESCRIPTOR_TO_TRANSFORM);
+      final Bytecode bytecode = new Bytecode(classFile.getConstPool());
+      bytecode.addInvokestatic(PROXY_FACTORY_CLASS_NAME, PROXY_FACTORY_METHOD_NAME, PROXY_FACTORY_METHOD_DESCRIPTOR);
+      final byte[] code = bytecode.get();
+      final CodeIterator codeIterator = method.getCodeAttribute()
+          .iterator();
+      while (codeIterator.hasNext()) {
+        final int pos = codeIterator.next();
+        if (codeIterator.byteAt(pos) == Opcode.ARETURN) {
+          codeIterator.insertAt(pos, code);// the iterator skips the inserted code and the areturn instruction
+          result = true;
+        }
+      }
+    }
+    return result;
+  }
+}
\ No newline at end of file
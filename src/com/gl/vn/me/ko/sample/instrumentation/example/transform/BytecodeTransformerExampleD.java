@@ -0,0 +1,96 @@
+package com.gl.vn.me.ko.sample.instrumentation.example.transform;
+
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractBytecodeTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter.ClassLoaderScope;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Performs the same transformation of {@link java.lang.String} class as {@link ClassFileTransformerExampleD} does,
+ * but edits bytecode directly (see {@link AbstractBytecodeTransformer}).
+ * The code of the method {@link java.lang.String#toString()} is replaced with the code that corresponds to
+ * <blockquote>
+ *
+ * <pre>
+ * {
+ * 	System.out.write(("&gt;java.lang.String.toString invocation for '" + this + "'\n").getBytes(StandardCharsets.UTF_8));
+ * 	return new String(this);
+ * }
+ * </pre>
+ *
+ * </blockquote>
+ * Instantiability: explicit instantiation is forbidden; singleton (see {@link #INSTANCE} field).<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class BytecodeTransformerExampleD extends AbstractBytecodeTransformer {
+  private final static Logger LOGGER;
+  public final static BytecodeTransformerExampleD INSTANCE;
+  private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class to transform
+  private final static ClassNameFilter CLASS_NAME_FILTER;
+  private final static String METHOD_NAME_TO_TRANSFORM;// name of the method that should be transformed
+  private final static String METHOD_DESCRIPTOR_TO_TRANSFORM;// descriptor of the method that should be transformed
+  private final static String STRING_BUILDER_CLASS_NAME;
+  private final static String STRING_BUILDER_APPEND_DESCRIPTOR;
+
+  static {
+    LOGGER = Logger.getLogger(BytecodeTransformerExampleD.class);
+    INSTANCE = new BytecodeTransformerExampleD();
+    CLASS_NAME_TO_TRANSFORM = "java/lang/String";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM)
+        .withClassLoaderScope(ClassLoaderScope.BOOTSTRAP);
+    METHOD_NAME_TO_TRANSFORM = "toString";
+    METHOD_DESCRIPTOR_TO_TRANSFORM = "()Ljava/lang/String;";
+    STRING_BUILDER_CLASS_NAME = "java.lang.StringBuilder";
+    STRING_BUILDER_APPEND_DESCRIPTOR = "(Ljava/lang/String;)Ljava/lang/StringBuilder;";
+  }
+
+  private BytecodeTransformerExampleD() {
+  }
+
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
+  }
+
+  @Override
+  protected final boolean acceptClassForTransformation(@Nullable final ClassLoader classLoader, final String className) {
+    return CLASS_NAME_TO_TRANSFORM.equals(className);
+  }
+
+  @Override
+  protected final boolean transformMethod(@Nullable final ClassLoader classLoader, final ClassFile classFile, final MethodInfo method) {
+    boolean result = false;
+    if (METHOD_NAME_TO_TRANSFORM.equals(method.getName()) && METHOD_DESCRIPTOR_TO_TRANSFORM.equals(method.getDescriptor())) {
+      AsyncLog.debug(LOGGER, "Modifying return value of the method '{}{}'", METHOD_NAME_TO_TRANSFORM, METHOD_DESCRIPTOR_TO_TRANSFORM);
+      final Bytecode bytecode = new Bytecode(classFile.getConstPool(), 0, 1);// the only local variable is 'this'
+      bytecode.addGetstatic("java.lang.System", "out", "Ljava/io/PrintStream;");
+      bytecode.addNew(STRING_BUILDER_CLASS_NAME);
+      bytecode.addOpcode(Opcode.DUP);
+      bytecode.addLdc(">java.lang.String.toString invocation for '");
+      bytecode.addInvokespecial(STRING_BUILDER_CLASS_NAME, MethodInfo.nameInit, "(Ljava/lang/String;)V");
+      bytecode.addAload(0);
+      bytecode.addInvokevirtual(STRING_BUILDER_CLASS_NAME, "append", STRING_BUILDER_APPEND_DESCRIPTOR);
+      bytecode.addLdc("'\n");
+      bytecode.addInvokevirtual(STRING_BUILDER_CLASS_NAME, "append", STRING_BUILDER_APPEND_DESCRIPTOR);
+      bytecode.addInvokevirtual(STRING_BUILDER_CLASS_NAME, "toString", "()Ljava/lang/String;");
+      bytecode.addGetstatic("java.nio.charset.StandardCharsets", "UTF_8", "Ljava/nio/charset/Charset;");
+      bytecode.addInvokevirtual("java.lang.String", "getBytes", "(Ljava/nio/charset/Charset;)[B");
+      bytecode.addInvokevirtual("java.io.PrintStream", "write", "([B)V");
+      bytecode.addNew("java.lang.String");
+      bytecode.addOpcode(Opcode.DUP);
+      bytecode.addAload(0);
+      bytecode.addInvokespecial("java.lang.String", MethodInfo.nameInit, "(Ljava/lang/String;)V");
+      bytecode.addOpcode(Opcode.ARETURN);
+      method.setCodeAttribute(bytecode.toCodeAttribute());// the code has no branches, so no stack map table is needed
+      result = true;
+    }
+    return result;
+  }
+}
\ No newline at end of file
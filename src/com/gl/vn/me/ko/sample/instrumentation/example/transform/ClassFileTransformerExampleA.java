@@ -10,7 +10,9 @@ import javax.annotation.Nullable;
 import org.apache.log4j.Logger;
 import com.gl.vn.me.ko.sample.instrumentation.example.ExampleA;
 import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
 import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
 
 /**
  * Transforms {@link ExampleA} class by modifying its {@code private} method {@code incrementCounter()} according to the following algorithm:<br>
@@ -79,9 +81,7 @@ public final class ClassFileTransformerExampleA extends AbstractClassFileTransfo
         final String jvmFieldSignature = fieldAccess.getSignature();// field signature as specified in "The Java Virtual Machine Specification"
         if (JVM_INT_FIELD_SIGNATURE.equals(jvmFieldSignature)) {
           final String fieldName = fieldAccess.getFieldName();
-          if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Modifying access to the field '" + fieldName + " " + jvmFieldSignature + "'");
-          }
+          AsyncLog.debug(LOGGER, "Modifying access to the field '{} {}'", fieldName, jvmFieldSignature);
           fieldAccess.replace("{" + fieldAccess.getFieldName() + " += 2; }");// increment field by 2
         }
       }
@@ -94,6 +94,8 @@ public final class ClassFileTransformerExampleA extends AbstractClassFileTransfo
    */
   public final static ClassFileTransformerExampleA INSTANCE;
   private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class that should be transformed
+  private final static ClassNameFilter CLASS_NAME_FILTER;
+  private final static String VERSION_FINGERPRINT;// must be changed whenever the transformation is changed
   private final static String METHOD_NAME_TO_TRANSFORM;// name of the method that should be transformed
   private final static CtClass[] METHOD_ARG_TYPES;// types of arguments of method that should be transformed
 
@@ -101,6 +103,8 @@ public final class ClassFileTransformerExampleA extends AbstractClassFileTransfo
     LOGGER = Logger.getLogger(ClassFileTransformerExampleA.class);
     INSTANCE = new ClassFileTransformerExampleA();
     CLASS_NAME_TO_TRANSFORM = "com/gl/vn/me/ko/sample/instrumentation/example/ExampleA";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM);
+    VERSION_FINGERPRINT = ClassFileTransformerExampleA.class.getName() + ":1";
     METHOD_NAME_TO_TRANSFORM = "increment";
     try {
       METHOD_ARG_TYPES = new CtClass[] {JavassistEnvironment.getCtClass(Integer.TYPE.getCanonicalName())};
@@ -110,6 +114,23 @@ public final class ClassFileTransformerExampleA extends AbstractClassFileTransfo
   }
 
   private ClassFileTransformerExampleA() {
+    super(CtClassSource.CLASSFILE_BUFFER);
+  }
+
+  /**
+   * Returns a filter that matches only the class {@code com/gl/vn/me/ko/sample/instrumentation/example/ExampleA}.
+   */
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
+  }
+
+  /**
+   * Returns a constant fingerprint, because the transformation only depends on the input class file.
+   */
+  @Override
+  public final String getVersionFingerprint() {
+    return VERSION_FINGERPRINT;
   }
 
   /**
@@ -130,14 +151,10 @@ public final class ClassFileTransformerExampleA extends AbstractClassFileTransfo
     final byte[] result;
     synchronized (ctClass) {
       if (ctClass.isFrozen()) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Class '" + ctClass.getName() + "' wasn't transformed because it's frozen");
-        }
+        AsyncLog.debug(LOGGER, "Class '{}' wasn't transformed because it's frozen", ctClass.getName());
         result = null;
       } else {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Transforming method '" + METHOD_NAME_TO_TRANSFORM + "(...)'");
-        }
+        AsyncLog.debug(LOGGER, "Transforming method '{}(...)'", METHOD_NAME_TO_TRANSFORM);
         final CtMethod ctMethod = ctClass.getDeclaredMethod(METHOD_NAME_TO_TRANSFORM, METHOD_ARG_TYPES);
         ctMethod.instrument(WriteAccessIntExprEditor.INSTANCE);
         result = JavassistEnvironment.getCtBytes(ctClass);
@@ -1,5 +1,6 @@
 package com.gl.vn.me.ko.sample.instrumentation.example.transform;
 
+import javassist.ClassPool;
 import javassist.CodeConverter;
 import javassist.CtClass;
 import javassist.CtMethod;
@@ -7,7 +8,10 @@ import javassist.Modifier;
 import javax.annotation.Nullable;
 import org.apache.log4j.Logger;
 import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.ConstantPoolFilter;
 import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
 
 /**
  * Transforms {@link com.gl.vn.me.ko.sample.instrumentation.example.ExampleB} class by modifying all its declared non-native methods
@@ -57,6 +61,9 @@ public class ClassFileTransformerExampleB extends AbstractClassFileTransformer {
    */
   public final static ClassFileTransformerExampleB INSTANCE;
   private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class to transform
+  private final static ClassNameFilter CLASS_NAME_FILTER;
+  private final static ConstantPoolFilter CONSTANT_POOL_FILTER;// only classes that reference the class that should be substituted are changed
+  private final static String VERSION_FINGERPRINT;// must be changed whenever the transformation is changed
   private final static String CLASS_NAME_ORIGINAL;// fully qualified name of the class that should be substituted
   private final static String CLASS_NAME_TO_SUBSTITUTE_FOR;// fully qualified name of the class that should be used instead the original one
   private final static String METHOD_NAME_TO_SUBSTITUTE_FOR;// name of the method that should be used instead of the invocation of constructor
@@ -65,12 +72,41 @@ public class ClassFileTransformerExampleB extends AbstractClassFileTransformer {
     LOGGER = Logger.getLogger(ClassFileTransformerExampleB.class);
     INSTANCE = new ClassFileTransformerExampleB();
     CLASS_NAME_TO_TRANSFORM = "com/gl/vn/me/ko/sample/instrumentation/example/ExampleB";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM);
+    VERSION_FINGERPRINT = ClassFileTransformerExampleB.class.getName() + ":1";
     CLASS_NAME_ORIGINAL = "java.math.BigDecimal";
+    CONSTANT_POOL_FILTER = ConstantPoolFilter.forReferences(CLASS_NAME_ORIGINAL.replace('.', '/'));
     CLASS_NAME_TO_SUBSTITUTE_FOR = "com.gl.vn.me.ko.sample.instrumentation.example.proxy.BigDecimalProxyFactoryExampleB";
     METHOD_NAME_TO_SUBSTITUTE_FOR = "create";
   }
 
   private ClassFileTransformerExampleB() {
+    super(CtClassSource.CLASSFILE_BUFFER);
+  }
+
+  /**
+   * Returns a filter that matches only the class {@code com/gl/vn/me/ko/sample/instrumentation/example/ExampleB}.
+   */
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
+  }
+
+  /**
+   * Returns a filter that matches only class files that reference {@code java/math/BigDecimal},
+   * because there are no constructor calls to substitute in other classes.
+   */
+  @Override
+  public final ConstantPoolFilter getConstantPoolFilter() {
+    return CONSTANT_POOL_FILTER;
+  }
+
+  /**
+   * Returns a constant fingerprint, because the transformation only depends on the input class file.
+   */
+  @Override
+  public final String getVersionFingerprint() {
+    return VERSION_FINGERPRINT;
   }
 
   /**
@@ -91,19 +127,15 @@ public class ClassFileTransformerExampleB extends AbstractClassFileTransformer {
     final byte[] result;
     synchronized (ctClass) {
       if (ctClass.isFrozen()) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Class '" + ctClass.getName() + "' wasn't transformed because it's frozen");
-        }
+        AsyncLog.debug(LOGGER, "Class '{}' wasn't transformed because it's frozen", ctClass.getName());
         result = null;
       } else {
-        final CtClass originalClass = JavassistEnvironment.getCtClass(CLASS_NAME_ORIGINAL);
-        final CtClass substitutionalClass = JavassistEnvironment.getCtClass(CLASS_NAME_TO_SUBSTITUTE_FOR);
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug(
-              "Substituting constructor calls 'new " + originalClass.getName() + "(...)' with the method '" + substitutionalClass.getName() + "." +
-                  METHOD_NAME_TO_SUBSTITUTE_FOR
-                  + "(...)' invocations");
-        }
+        // classes are resolved via the class pool of the transformed class, so they are visible to the defining loader of the transformed class
+        final ClassPool classPool = ctClass.getClassPool();
+        final CtClass originalClass = classPool.get(CLASS_NAME_ORIGINAL);
+        final CtClass substitutionalClass = classPool.get(CLASS_NAME_TO_SUBSTITUTE_FOR);
+        AsyncLog.debug(LOGGER, "Substituting constructor calls 'new {}(...)' with invocations of the factory method of '{}'", originalClass.getName(),
+            substitutionalClass.getName());
         final CodeConverter codeConvertor = new CodeConverter();
         codeConvertor.replaceNew(originalClass, substitutionalClass, METHOD_NAME_TO_SUBSTITUTE_FOR);
         for (final CtMethod ctMethod : ctClass.getDeclaredMethods()) {
@@ -5,7 +5,9 @@ import javassist.CtClass;
 import javassist.CtMethod;
 import org.apache.log4j.Logger;
 import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
 import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
 
 /**
  * Transforms {@link com.gl.vn.me.ko.sample.instrumentation.example.ExampleC} class by modifying the return value of its {@code private} method
@@ -48,16 +50,37 @@ public final class ClassFileTransformerExampleC extends AbstractClassFileTransfo
    */
   public final static ClassFileTransformerExampleC INSTANCE;
   private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class to transform
+  private final static ClassNameFilter CLASS_NAME_FILTER;
+  private final static String VERSION_FINGERPRINT;// must be changed whenever the transformation is changed
   private final static String METHOD_NAME_TO_TRANSFORM;// name of the method that should be transformed
 
   static {
     LOGGER = Logger.getLogger(ClassFileTransformerExampleC.class);
     INSTANCE = new ClassFileTransformerExampleC();
     CLASS_NAME_TO_TRANSFORM = "com/gl/vn/me/ko/sample/instrumentation/example/ExampleC";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM);
+    VERSION_FINGERPRINT = ClassFileTransformerExampleC.class.getName() + ":1";
     METHOD_NAME_TO_TRANSFORM = "createFaucetColorCodeMap";
   }
 
   private ClassFileTransformerExampleC() {
+    super(CtClassSource.CLASSFILE_BUFFER);
+  }
+
+  /**
+   * Returns a filter that matches only the class {@code com/gl/vn/me/ko/sample/instrumentation/example/ExampleC}.
+   */
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
+  }
+
+  /**
+   * Returns a constant fingerprint, because the transformation only depends on the input class file.
+   */
+  @Override
+  public final String getVersionFingerprint() {
+    return VERSION_FINGERPRINT;
   }
 
   /**
@@ -78,15 +101,11 @@ public final class ClassFileTransformerExampleC extends AbstractClassFileTransfo
     final byte[] result;
     synchronized (ctClass) {
       if (ctClass.isFrozen()) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Class '" + ctClass.getName() + "' wasn't transformed because it's frozen");
-        }
+        AsyncLog.debug(LOGGER, "Class '{}' wasn't transformed because it's frozen", ctClass.getName());
         result = null;
       } else {
         final CtMethod ctMethod = ctClass.getDeclaredMethod(METHOD_NAME_TO_TRANSFORM, null);
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Modifying of return value of the method '" + ctMethod.getLongName() + "'");
-        }
+        AsyncLog.debug(LOGGER, "Modifying of return value of the method '{}'", ctMethod.getLongName());
         //$_ - the resulting value of the method
         final String code = "{$_ = com.gl.vn.me.ko.sample.instrumentation.example.proxy.MapProxyFactoryExampleC.create($_);}";
         ctMethod.insertAfter(code);
@@ -1,11 +1,14 @@
 package com.gl.vn.me.ko.sample.instrumentation.example.transform;
 
 import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter.ClassLoaderScope;
 import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
 import javassist.CtClass;
 import javassist.CtMethod;
 import javax.annotation.Nullable;
 import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
 
 /**
  * Transforms {@link java.lang.String} class by modifying the body of its method {@link java.lang.String#toString()}.
@@ -48,16 +51,28 @@ public final class ClassFileTransformerExampleD extends AbstractClassFileTransfo
    */
   public final static ClassFileTransformerExampleD INSTANCE;
   private final static String CLASS_NAME_TO_TRANSFORM;// internal name of the class to transform
+  private final static ClassNameFilter CLASS_NAME_FILTER;
   private final static String METHOD_NAME_TO_TRANSFORM;// name of the method that should be transformed
 
   static {
     LOGGER = Logger.getLogger(ClassFileTransformerExampleD.class);
     INSTANCE = new ClassFileTransformerExampleD();
     CLASS_NAME_TO_TRANSFORM = "java/lang/String";
+    CLASS_NAME_FILTER = ClassNameFilter.forClasses(CLASS_NAME_TO_TRANSFORM)
+        .withClassLoaderScope(ClassLoaderScope.BOOTSTRAP);
     METHOD_NAME_TO_TRANSFORM = "toString";
   }
 
   private ClassFileTransformerExampleD() {
+    super(CtClassSource.CLASSFILE_BUFFER);
+  }
+
+  /**
+   * Returns a filter that matches only the class {@code java/lang/String} defined by the bootstrap class loader.
+   */
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return CLASS_NAME_FILTER;
   }
 
   /**
@@ -77,15 +92,11 @@ public final class ClassFileTransformerExampleD extends AbstractClassFileTransfo
     final byte[] result;
     synchronized (ctClass) {
       if (ctClass.isFrozen()) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Class '" + ctClass.getName() + "' wasn't transformed because it's frozen");
-        }
+        AsyncLog.debug(LOGGER, "Class '{}' wasn't transformed because it's frozen", ctClass.getName());
         result = null;
       } else {
         final CtMethod ctMethod = ctClass.getDeclaredMethod(METHOD_NAME_TO_TRANSFORM, null);
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Modifying return value of the method '" + ctMethod.getLongName() + "'");
-        }
+        AsyncLog.debug(LOGGER, "Modifying return value of the method '{}'", ctMethod.getLongName());
         ctMethod.setBody("{" +
             "	java.lang.System.out.write((\">java.lang.String.toString invocation for '\" + $0 + \"'\\n\")" +
             ".getBytes(java.nio.charset.StandardCharsets.UTF_8));" +
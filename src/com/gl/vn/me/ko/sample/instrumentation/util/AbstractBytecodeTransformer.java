@@ -0,0 +1,104 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.instrument.IllegalClassFormatException;
+import java.util.List;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.MethodInfo;
+import javax.annotation.Nullable;
+
+/**
+ * Provides an ability to transform class files at the level of bytecode, without building a {@link javassist.CtClass} object model.
+ * <p>
+ * {@link AbstractClassFileTransformer} builds a {@link javassist.CtClass} object with {@link javassist.CtMethod} objects,
+ * resolves classes via {@link javassist.ClassPool}, compiles Java source code and rebuilds the whole class file,
+ * even if only a single method is modified. This class instead reads the supplied class file into a {@link javassist.bytecode.ClassFile}
+ * object, in which the constant pool and attributes are kept almost as they are in the class file
+ * (e.g. the code of a method is a plain array of bytes), and visits every method that has code
+ * (see {@link #transformMethod(ClassLoader, ClassFile, MethodInfo)}), so an implementation edits bytecode directly, e.g. via
+ * {@link javassist.bytecode.CodeIterator}, which also updates branch offsets, the exception table and the stack map table.
+ * Existing entries of the constant pool keep their indices (new entries are appended),
+ * and methods that were not modified are written without any changes.
+ * {@link javassist.ClassPool} is never used, so the transformer neither reads class files from the class path nor caches anything.
+ * <p>
+ * A transformer always transforms the supplied {@code classfileBuffer}, just like {@link AbstractClassFileTransformer}
+ * constructed with {@link AbstractClassFileTransformer.CtClassSource#CLASSFILE_BUFFER} does.
+ * <p>
+ * Instantiability: allowed from inside the derived class.<br>
+ * Mutability: this class itself has nothing that can cause mutability; depends on the implementation of derived class.<br>
+ * Thread safety: this class itself has nothing that can cause thread unsafety. Implementations of derived classes must be thread-safe.<br>
+ * Cloneability: cloning is not forbidden; depends on the implementation of derived class.<br>
+ * Serializability: serialization is not forbidden; depends on the implementation of derived class.
+ */
+public abstract class AbstractBytecodeTransformer extends AbstractTransformer {
+  /**
+   * Performs a part of instantiation process that belongs to {@link AbstractBytecodeTransformer} class.
+   */
+  protected AbstractBytecodeTransformer() {
+  }
+
+  /**
+   * An implementation of this method may modify the supplied method of the class being transformed.
+   * This method is called from method {@link #transform(ClassLoader, String, Class, java.security.ProtectionDomain, byte[])}
+   * for every method that has code (i.e. is neither {@code abstract} nor {@code native})
+   * of every class accepted by {@link #acceptClassForTransformation(ClassLoader, String)}.
+   * <p>
+   * An implementation may add entries to the constant pool of {@code classFile}, but must not modify other methods,
+   * and must keep the stack map table of the method valid (the maximal depth of the operand stack is recomputed by the caller).
+   * The supplied objects are not shared with other threads.
+   *
+   * @param classLoader The defining loader of the class. Can be {@code null} if the bootstrap loader.
+   * @param classFile The class being transformed.
+   * @param method A method of {@code classFile}.
+   *
+   * @return {@code true} if {@code method} was modified, otherwise {@code false}.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  protected abstract boolean transformMethod(@Nullable ClassLoader classLoader, ClassFile classFile, MethodInfo method) throws Exception;
+
+  @Override
+  @Nullable
+  final byte[] transformAcceptedClass(@Nullable final ClassLoader classLoader, final String className, final byte[] classfileBuffer)
+      throws Exception {
+    final ClassFile classFile = readClassFile(className, classfileBuffer);
+    boolean transformed = false;
+    @SuppressWarnings("unchecked")
+    final List<MethodInfo> methods = classFile.getMethods();
+    for (final MethodInfo method : methods) {
+      final CodeAttribute codeAttribute = method.getCodeAttribute();
+      if ((codeAttribute != null) && transformMethod(classLoader, classFile, method)) {
+        method.getCodeAttribute()// the implementation may have replaced the code attribute
+            .computeMaxStack();
+        transformed = true;
+      }
+    }
+    return transformed ? writeClassFile(classFile, classfileBuffer.length) : null;
+  }
+
+  private final static ClassFile readClassFile(final String className, final byte[] classfileBuffer) throws IllegalClassFormatException {
+    final ClassFile result;
+    try {
+      result = new ClassFile(new DataInputStream(new ByteArrayInputStream(classfileBuffer)));
+    } catch (final IOException e) {
+      final IllegalClassFormatException illegalClassFormatException =
+          new IllegalClassFormatException("Can't read class file of the class '" + className + "'");
+      illegalClassFormatException.initCause(e);
+      throw illegalClassFormatException;
+    }
+    return result;
+  }
+
+  private final static byte[] writeClassFile(final ClassFile classFile, final int originalLength) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(originalLength + originalLength / 8);// transformations rarely add much
+    try (final DataOutputStream out = new DataOutputStream(bytes)) {
+      classFile.write(out);
+    }
+    return bytes.toByteArray();
+  }
+}
\ No newline at end of file
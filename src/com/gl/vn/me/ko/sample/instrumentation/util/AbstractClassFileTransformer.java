@@ -1,17 +1,22 @@
 package com.gl.vn.me.ko.sample.instrumentation.util;
 
-import java.lang.instrument.ClassDefinition;
-import java.lang.instrument.ClassFileTransformer;
+import java.io.IOException;
 import java.lang.instrument.IllegalClassFormatException;
 import java.security.ProtectionDomain;
 import javassist.CtClass;
 import javax.annotation.Nullable;
-import org.apache.log4j.Logger;
 import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
 
 /**
  * Provides an ability to transform class files. See methods {@link #transform(ClassLoader, String, Class, ProtectionDomain, byte[])}
  * and {@link #doTransform(CtClass)} for details.
+ * See {@link AbstractBytecodeTransformer} for transformations that don't need a {@link javassist.CtClass} object model.
+ * <p>
+ * The {@code classfileBuffer} supplied to {@link #transform(ClassLoader, String, Class, ProtectionDomain, byte[])} is only transformed
+ * if the transformer was constructed with {@link CtClassSource#CLASSFILE_BUFFER}, otherwise the class file is obtained via Javassist framework
+ * from {@link javassist.ClassPool}, and if one want to chain transformations of the same class,
+ * one should use the same instance of {@link javassist.CtClass} obtained from the same {@link javassist.ClassPool} instance.
+ * Accordingly, an {@link java.lang.instrument.IllegalClassFormatException} can only be thrown in the former case.
  * <p>
  * Derived classes must be thread save.
  * <p>
@@ -21,107 +26,59 @@ import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironmen
  * Cloneability: cloning is not forbidden; depends on the implementation of derived class.<br>
  * Serializability: serialization is not forbidden; depends on the implementation of derived class.
  */
-public abstract class AbstractClassFileTransformer implements ClassFileTransformer {
-  private final static Logger LOGGER;
-
-  static {
-    LOGGER = Logger.getLogger(AbstractClassFileTransformer.class);
+public abstract class AbstractClassFileTransformer extends AbstractTransformer {
+  /**
+   * Specifies how {@link AbstractClassFileTransformer} obtains a {@link javassist.CtClass} object that is passed to
+   * {@link AbstractClassFileTransformer#doTransform(CtClass)} method.
+   */
+  public static enum CtClassSource {
+    /**
+     * {@link javassist.CtClass} object is obtained from the {@link javassist.ClassPool} via
+     * {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#getCtClass(ClassLoader, String)} method,
+     * i.e. the class file is searched in the class path and is read from there, while {@code classfileBuffer} is ignored.
+     * The same {@link javassist.CtClass} object is reused by subsequent transformations of the same class until bytes are obtained from it via
+     * {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#getCtBytes(CtClass)}
+     * or it's evicted from the {@link javassist.ClassPool}.
+     */
+    CLASS_POOL,
+    /**
+     * {@link javassist.CtClass} object is created directly from the {@code classfileBuffer} via
+     * {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#makeCtClass(ClassLoader, byte[])} method,
+     * i.e. the class being defined is never searched in the class path. This mode avoids reading and parsing the class file twice
+     * and preserves modifications made by transformers that were invoked by the JVM before this one.
+     * Every transformation gets a new unfrozen {@link javassist.CtClass} object.
+     */
+    CLASSFILE_BUFFER
   }
 
+  private final CtClassSource ctClassSource;
+
   /**
    * Performs a part of instantiation process that belongs to {@link AbstractClassFileTransformer} class.
+   * Is equivalent to {@code AbstractClassFileTransformer(CtClassSource.CLASS_POOL)}.
    */
   protected AbstractClassFileTransformer() {
+    this(CtClassSource.CLASS_POOL);
   }
 
   /**
-   * Transforms the supplied class file and returns a new replacement class file. This method invokes method {@link #doTransform(CtClass)}.
-   * <p>
-   * Once a transformer has been registered with {@link java.lang.instrument.Instrumentation#addTransformer(ClassFileTransformer)},
-   * the method will be called for every new class definition and every
-   * class redefinition. The request for a new class definition is made with one of {@link java.lang.ClassLoader}{@code .defineClass(...)} methods.
-   * The request for a class redefinition is made with
-   * {@link java.lang.instrument.Instrumentation#redefineClasses(ClassDefinition[])} or its native equivalents.
-   * The transformer is called during the processing of the request, before the class file bytes have been verified or applied.
-   * <p>
-   * While it's possible to create situations where method will be called concurrently for the same class,
-   * such situations must be avoided because they can lead to unpredictable results.
-   * Concurrent invocations for different classes are allowed and correct.
-   * <p>
-   * The method returns {@code null} if no transformation is needed,
-   * otherwise it returns an array of bytes in class file format as specified in "The Java Virtual Machine Specification".
-   *
-   * @param classLoader The defining loader of the class to be transformed, may be {@code null} if the bootstrap loader.
-   * @param className The name of the class in the internal form of fully qualified class and interface names
-   * as defined in "The Java Virtual Machine Specification". For example:
-   * {@code "java/lang/Object"}.
-   * @param classBeingRedefined If this is a redefine, the class being redefined, otherwise {@code null}.
-   * @param protectionDomain The protection domain of the class being defined or redefined. Actually the parameter is not used in this implementation.
-   * @param classfileBuffer The input byte buffer in class file format (stays unmodified). Actually the parameter is not used in this implementation,
-   * because class file is obtained via Javassist framework from
-   * {@link javassist.ClassPool}. So if one want to chain transformations of the same class,
-   * one should use the same instance of {@link javassist.CtClass} obtained from the same {@link javassist.ClassPool} instance.
-   *
-   * @return A well-formed class file buffer (the result of the transform), or {@code null} if no transform is performed.
+   * Performs a part of instantiation process that belongs to {@link AbstractClassFileTransformer} class.
    *
-   * @throws java.lang.instrument.IllegalClassFormatException If the input does not represent a well-formed class file.
-   * Actually {@code classfileBuffer} argument is not used by this implementation so the method will newer throw an
-   * {@link java.lang.instrument.IllegalClassFormatException}.
-   * @see java.lang.instrument.ClassFileTransformer#transform(ClassLoader, String, Class, ProtectionDomain, byte[])
-   * @see #doTransform(CtClass)
+   * @param ctClassSource Specifies how {@link javassist.CtClass} objects are obtained for transformation. Must be not {@code null}.
    */
-  @Nullable
-  public final byte[] transform(
-      @Nullable final ClassLoader classLoader, @SuppressWarnings("null") final String className, @Nullable final Class<?> classBeingRedefined,
-      @SuppressWarnings("null") final ProtectionDomain protectionDomain, @SuppressWarnings("null") final byte[] classfileBuffer) throws
-      IllegalClassFormatException {
-    final byte[] transformedBytes;
-    try {
-      transformedBytes = unsafeTransform(classLoader, className);
-    } catch (final Error e) {
-      throw e;
-    } catch (final RuntimeException e) {
-      LOGGER.error("RuntimeException occurred during transformation of the class '" + className + "'", e);
-      throw e;
-    } catch (final IllegalClassFormatException e) {
-      LOGGER.error("IllegalClassFormatException occurred during transformation of the class '" + className + "'", e);
-      throw e;
-    } catch (final Exception e) {
-      final String msg = "Exception occurred during transformation of the class '" + className + "'";
-      LOGGER.error(msg, e);
-      throw new RuntimeException(msg, e);
-    } catch (final Throwable e) {
-      final String msg = "Problem was encountered during transformation of the class '" + className + "'";
-      LOGGER.error(msg, e);
-      throw new RuntimeException(msg, e);
+  protected AbstractClassFileTransformer(final CtClassSource ctClassSource) {
+    if (ctClassSource == null) {
+      throw new NullPointerException("The argument 'ctClassSource' is null");
     }
-    return transformedBytes;
+    this.ctClassSource = ctClassSource;
   }
 
-  /**
-   * An implementation of the method must decide whether the class can be transformed or not. If the method return {@code true},
-   * transformer will try to obtain corresponded {@link javassist.CtClass}
-   * object from the {@link javassist.ClassPool} and if succeed the method {@link #doTransform(CtClass)} will be called.
-   *
-   * @param classLoader The defining loader of the class to be transformed. Can be {@code null} if the bootstrap loader.
-   * @param className The name of the class in the internal form of fully qualified class and interface names
-   * as defined in "The Java Virtual Machine Specification". For example: {@code "java/lang/Object"}.
-   *
-   * @return <ul>
-   * <li>{@code true} if the class should be transformed.</li>
-   * <li>{@code false} if the class must be skipped without any transformations applied.</li>
-   * </ul>
-   *
-   * @see #doTransform(CtClass)
-   */
-  protected abstract boolean acceptClassForTransformation(@Nullable ClassLoader classLoader, String className);
-
   /**
    * An implementation of this method may transform the supplied class and return an array of transformed bytes in class file format
    * as specified in "The Java Virtual Machine Specification".
    * This method is called from method {@link #transform(ClassLoader, String, Class, ProtectionDomain, byte[])}
    * for any invocation of the method except when class can't pass the filter (see {@link #acceptClassForTransformation(ClassLoader, String)})
-   * or {link javassist.CtClass} object can't be obtained from the {@link javassist.ClassPool}.
+   * or {@link javassist.CtClass} object can't be obtained (see {@link CtClassSource}).
    * <p>
    * Remember that once bytes were obtained from {@link javassist.CtClass} object
    * (see {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#getCtBytes(CtClass)} method),
@@ -143,33 +100,43 @@ public abstract class AbstractClassFileTransformer implements ClassFileTransform
   @Nullable
   protected abstract byte[] doTransform(final CtClass ctClass) throws Exception;
 
+  /**
+   * Obtains a {@link javassist.CtClass} object (see {@link CtClassSource}) and invokes {@link #doTransform(CtClass)}.
+   */
+  @Override
   @Nullable
-  private final byte[] unsafeTransform(
-      @Nullable final ClassLoader classLoader,
-      final String className) throws Exception {
-    final byte[] transformedBytes;
-    if (acceptClassForTransformation(classLoader, className)) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Transforming class '" + className + "'");
-      }
-      final CtClass ctClass = JavassistEnvironment.getCtClass(classLoader, className);
-      /*
-       * It's generally a bad idea to invoke external (unknown at compile-time) methods inside synchronized blocks,
-       * therefore documentation of the method doTransform(CtClass) specifies that the access to an instance of CtClass must be synchronized.
-       */
-      transformedBytes = doTransform(ctClass);
-      if (transformedBytes != null) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Class '" + className + "' was successfully transformed");
-        }
-      } else {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("No transformation was performed for class '" + className + "'");
+  final byte[] transformAcceptedClass(@Nullable final ClassLoader classLoader, final String className, final byte[] classfileBuffer) throws Exception {
+    final CtClass ctClass = ctClassSource == CtClassSource.CLASSFILE_BUFFER
+        ? makeCtClass(classLoader, className, classfileBuffer)
+        : JavassistEnvironment.getCtClass(classLoader, className);
+    /*
+     * It's generally a bad idea to invoke external (unknown at compile-time) methods inside synchronized blocks,
+     * therefore documentation of the method doTransform(CtClass) specifies that the access to an instance of CtClass must be synchronized.
+     */
+    final byte[] result = doTransform(ctClass);
+    if (result == null) {
+      synchronized (ctClass) {
+        if (ctClass.isFrozen()) {
+          getMetrics().recordSkippedFrozen();
         }
       }
-    } else {
-      transformedBytes = null;
     }
-    return transformedBytes;
+    return result;
+  }
+
+  private final static CtClass makeCtClass(
+      @Nullable final ClassLoader classLoader,
+      final String className,
+      final byte[] classfileBuffer) throws IllegalClassFormatException {
+    final CtClass result;
+    try {
+      result = JavassistEnvironment.makeCtClass(classLoader, classfileBuffer);
+    } catch (final IOException e) {
+      final IllegalClassFormatException illegalClassFormatException =
+          new IllegalClassFormatException("Can't read class file of the class '" + className + "'");
+      illegalClassFormatException.initCause(e);
+      throw illegalClassFormatException;
+    }
+    return result;
   }
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.security.ProtectionDomain;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * The common base of class file transformers, which is independent of how a class file is transformed:
+ * {@link AbstractClassFileTransformer} transforms a {@link javassist.CtClass} object model of the class,
+ * and {@link AbstractBytecodeTransformer} edits bytecode directly. The class selects classes for transformation
+ * (see {@link #acceptClassForTransformation(ClassLoader, String)}, {@link #getClassNameFilter()} and {@link #getConstantPoolFilter()}),
+ * caches results (see {@link #setTransformedClassCache(TransformedClassCache)}), records {@linkplain #getMetrics() metrics}
+ * and handles exceptions, so any transformer can be registered in {@link java.lang.instrument.Instrumentation},
+ * in {@link ClassFileTransformerDispatcher} or used by {@link JarWeaver}.
+ * <p>
+ * The class can't be extended directly outside of its package, extend {@link AbstractClassFileTransformer}
+ * or {@link AbstractBytecodeTransformer} instead.
+ * <p>
+ * Instantiability: allowed from inside the derived class.<br>
+ * Mutability: this class itself has nothing that can cause mutability; depends on the implementation of derived class.<br>
+ * Thread safety: this class itself has nothing that can cause thread unsafety. Implementations of derived classes must be thread-safe.<br>
+ * Cloneability: cloning is not forbidden; depends on the implementation of derived class.<br>
+ * Serializability: serialization is not forbidden; depends on the implementation of derived class.
+ */
+public abstract class AbstractTransformer implements ClassFileTransformer {
+  private final static Logger LOGGER;
+  @Nullable
+  private static volatile TransformedClassCache transformedClassCache;
+  private final TransformerMetrics metrics;
+
+  static {
+    LOGGER = Logger.getLogger(AbstractTransformer.class);
+    transformedClassCache = null;
+  }
+
+  /**
+   * Specifies a cache of transformed class files that is used by all transformers that provide a version fingerprint
+   * (see {@link #getVersionFingerprint()}). If a class accepted for transformation is found in the cache,
+   * the cached class file is returned without transforming the class.
+   * Otherwise the result of the transformation, if not {@code null}, is put to the cache.
+   *
+   * @param cache A cache to use, or {@code null} if transformed class files must not be cached.
+   *
+   * @see #getTransformedClassCache()
+   */
+  public final static void setTransformedClassCache(@Nullable final TransformedClassCache cache) {
+    transformedClassCache = cache;
+  }
+
+  /**
+   * Returns the cache of transformed class files.
+   *
+   * @return The cache specified via {@link #setTransformedClassCache(TransformedClassCache)}, or {@code null} if there is no cache.
+   */
+  @Nullable
+  public final static TransformedClassCache getTransformedClassCache() {
+    return transformedClassCache;
+  }
+
+  /**
+   * Performs a part of instantiation process that belongs to {@link AbstractTransformer} class.
+   */
+  AbstractTransformer() {
+    metrics = TransformerMetrics.register(getClass().getName());
+  }
+
+  /**
+   * Returns metrics of the transformer.
+   *
+   * @return Metrics that are updated by {@link #transform(ClassLoader, String, Class, ProtectionDomain, byte[])}.
+   */
+  public final TransformerMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Transforms the supplied class file and returns a new replacement class file.
+   * See {@link AbstractClassFileTransformer#doTransform(javassist.CtClass)} and
+   * {@link AbstractBytecodeTransformer#transformMethod(ClassLoader, javassist.bytecode.ClassFile, javassist.bytecode.MethodInfo)}
+   * for how derived classes transform classes.
+   * <p>
+   * Once a transformer has been registered with {@link java.lang.instrument.Instrumentation#addTransformer(ClassFileTransformer)},
+   * the method will be called for every new class definition and every
+   * class redefinition. The request for a new class definition is made with one of {@link java.lang.ClassLoader}{@code .defineClass(...)} methods.
+   * The request for a class redefinition is made with
+   * {@link java.lang.instrument.Instrumentation#redefineClasses(ClassDefinition[])} or its native equivalents.
+   * If the transformer has been registered with {@link java.lang.instrument.Instrumentation#addTransformer(ClassFileTransformer, boolean)}
+   * as capable of retransformation, the method is also called for every class retransformation requested with
+   * {@link java.lang.instrument.Instrumentation#retransformClasses(Class[])}; in this case {@code classfileBuffer} contains original bytes
+   * of the class supplied by the JVM.
+   * The transformer is called during the processing of the request, before the class file bytes have been verified or applied.
+   * <p>
+   * While it's possible to create situations where method will be called concurrently for the same class,
+   * such situations must be avoided because they can lead to unpredictable results.
+   * Concurrent invocations for different classes are allowed and correct.
+   * <p>
+   * The method returns {@code null} if no transformation is needed,
+   * otherwise it returns an array of bytes in class file format as specified in "The Java Virtual Machine Specification".
+   * <p>
+   * Every invocation, its duration and outcome are recorded in {@linkplain #getMetrics() metrics} of the transformer.
+   * A failure isn't logged by the method, it's propagated to the caller, e.g. {@link ClassFileTransformerDispatcher}, that logs it.
+   *
+   * @param classLoader The defining loader of the class to be transformed, may be {@code null} if the bootstrap loader.
+   * @param className The name of the class in the internal form of fully qualified class and interface names
+   * as defined in "The Java Virtual Machine Specification". For example:
+   * {@code "java/lang/Object"}.
+   * @param classBeingRedefined If this is a redefine, the class being redefined, otherwise {@code null}.
+   * @param protectionDomain The protection domain of the class being defined or redefined. Actually the parameter is not used in this implementation.
+   * @param classfileBuffer The input byte buffer in class file format (stays unmodified).
+   * The parameter is checked by the {@linkplain #getConstantPoolFilter() constant pool filter} of the transformer, if any,
+   * and apart from that is used as specified by the derived class.
+   *
+   * @return A well-formed class file buffer (the result of the transform), or {@code null} if no transform is performed.
+   *
+   * @throws java.lang.instrument.IllegalClassFormatException If the input does not represent a well-formed class file.
+   * @see java.lang.instrument.ClassFileTransformer#transform(ClassLoader, String, Class, ProtectionDomain, byte[])
+   */
+  @Nullable
+  public final byte[] transform(
+      @Nullable final ClassLoader classLoader, @SuppressWarnings("null") final String className, @Nullable final Class<?> classBeingRedefined,
+      @SuppressWarnings("null") final ProtectionDomain protectionDomain, @SuppressWarnings("null") final byte[] classfileBuffer) throws
+      IllegalClassFormatException {
+    final long startNanos = System.nanoTime();
+    boolean accepted = false;
+    boolean failed = true;
+    final byte[] transformedBytes;
+    try {
+      accepted = acceptClassForTransformation(classLoader, className) && acceptClassFile(classfileBuffer);
+      transformedBytes = accepted ? unsafeTransform(classLoader, className, classfileBuffer) : null;
+      failed = false;
+    } catch (final Error e) {
+      throw e;
+    } catch (final RuntimeException e) {
+      throw e;
+    } catch (final IllegalClassFormatException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new RuntimeException("Exception occurred during transformation of the class '" + className + "'", e);
+    } catch (final Throwable e) {
+      throw new RuntimeException("Problem was encountered during transformation of the class '" + className + "'", e);
+    } finally {
+      metrics.recordInvocation(className, System.nanoTime() - startNanos, accepted, failed);
+    }
+    return transformedBytes;
+  }
+
+  /**
+   * Returns a filter that matches all classes that {@link #acceptClassForTransformation(ClassLoader, String)} may accept.
+   * The filter may match more classes than the method accepts, but must not match less.
+   * The filter allows {@link ClassFileTransformerDispatcher} to skip the transformer for classes that it would never accept,
+   * without invoking {@link #transform(ClassLoader, String, Class, ProtectionDomain, byte[])}.
+   * <p>
+   * The implementation returns {@code null}, which means that the transformer doesn't provide a filter and
+   * must be invoked for every class. Derived classes should override the method if the set of accepted classes is known in advance.
+   * The method must always return the same filter.
+   *
+   * @return A filter, or {@code null} if no filter is provided.
+   */
+  @Nullable
+  public ClassNameFilter getClassNameFilter() {
+    return null;
+  }
+
+  /**
+   * Returns a filter that matches all class files that the transformer may change, judging by references in their constant pools.
+   * A class accepted by {@link #acceptClassForTransformation(ClassLoader, String)} is skipped if its {@code classfileBuffer}
+   * isn't matched by the filter, before the class file is parsed, so the filter allows transformers
+   * which match classes broadly (e.g. call-site transformers) to skip classes that don't use what they transform at almost no cost.
+   * <p>
+   * The implementation returns {@code null}, which means that all accepted classes are transformed.
+   * Derived classes should override the method if they only change classes that reference particular classes, methods or fields.
+   * The method must always return the same filter.
+   *
+   * @return A filter, or {@code null} if no filter is provided.
+   */
+  @Nullable
+  public ConstantPoolFilter getConstantPoolFilter() {
+    return null;
+  }
+
+  /**
+   * Returns a version fingerprint of the transformation performed by the transformer.
+   * The fingerprint is a part of the key of entries in {@link TransformedClassCache},
+   * so it must change whenever the transformer may produce a different result for the same input class file.
+   * <p>
+   * The implementation returns {@code null}, which means that results of the transformer must never be cached.
+   * Derived classes which transformations only depend on the input class file should override the method.
+   *
+   * @return A fingerprint, or {@code null} if results of the transformer must not be cached.
+   *
+   * @see #setTransformedClassCache(TransformedClassCache)
+   */
+  @Nullable
+  public String getVersionFingerprint() {
+    return null;
+  }
+
+  /**
+   * An implementation of the method must decide whether the class can be transformed or not. If the method return {@code true},
+   * the class is transformed as specified by the derived class.
+   *
+   * @param classLoader The defining loader of the class to be transformed. Can be {@code null} if the bootstrap loader.
+   * @param className The name of the class in the internal form of fully qualified class and interface names
+   * as defined in "The Java Virtual Machine Specification". For example: {@code "java/lang/Object"}.
+   *
+   * @return <ul>
+   * <li>{@code true} if the class should be transformed.</li>
+   * <li>{@code false} if the class must be skipped without any transformations applied.</li>
+   * </ul>
+   */
+  protected abstract boolean acceptClassForTransformation(@Nullable ClassLoader classLoader, String className);
+
+  /**
+   * Transforms a class that was accepted by {@link #acceptClassForTransformation(ClassLoader, String)} and
+   * wasn't found in the {@linkplain #getTransformedClassCache() cache}.
+   */
+  @Nullable
+  abstract byte[] transformAcceptedClass(@Nullable ClassLoader classLoader, String className, byte[] classfileBuffer) throws Exception;
+
+  private final boolean acceptClassFile(final byte[] classfileBuffer) {
+    final ConstantPoolFilter constantPoolFilter = getConstantPoolFilter();
+    return (constantPoolFilter == null) || constantPoolFilter.matches(classfileBuffer);
+  }
+
+  @Nullable
+  private final byte[] unsafeTransform(
+      @Nullable final ClassLoader classLoader,
+      final String className,
+      final byte[] classfileBuffer) throws Exception {
+    final byte[] transformedBytes;
+    AsyncLog.debug(LOGGER, "Transforming class '{}'", className);
+    metrics.recordAccepted();
+    final TransformedClassCache cache = transformedClassCache;
+    final String versionFingerprint = cache == null ? null : getVersionFingerprint();
+    final TransformedClassCache.Key cacheKey =
+        versionFingerprint == null ? null : TransformedClassCache.computeKey(versionFingerprint, className, classfileBuffer);
+    final byte[] cachedBytes = cacheKey == null ? null : cache.get(cacheKey);
+    if (cachedBytes != null) {
+      AsyncLog.debug(LOGGER, "Class '{}' was found in the cache of transformed classes", className);
+      metrics.recordFromCache();
+      transformedBytes = cachedBytes;
+    } else {
+      transformedBytes = transformAcceptedClass(classLoader, className, classfileBuffer);
+      if ((cacheKey != null) && (transformedBytes != null)) {
+        cache.put(cacheKey, transformedBytes);
+      }
+    }
+    if (transformedBytes != null) {
+      AsyncLog.debug(LOGGER, "Class '{}' was successfully transformed", className);
+      metrics.recordTransformed(classfileBuffer.length, transformedBytes.length);
+    } else {
+      AsyncLog.debug(LOGGER, "No transformation was performed for class '{}'", className);
+    }
+    return transformedBytes;
+  }
+}
@@ -0,0 +1,221 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter.ClassLoaderScope;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * A single {@link java.lang.instrument.ClassFileTransformer} that dispatches class files to many {@link AbstractTransformer}s.
+ * <p>
+ * Registering {@code N} transformers in {@link java.lang.instrument.Instrumentation} separately means that the JVM calls {@code N}
+ * {@link java.lang.instrument.ClassFileTransformer#transform(ClassLoader, String, Class, ProtectionDomain, byte[])} methods
+ * for every loaded class, and each of them checks the class name on its own. The dispatcher instead precompiles
+ * {@linkplain AbstractTransformer#getClassNameFilter() filters} of all transformers into a single index
+ * (a hash map of exact class names, a trie of class name prefixes and masks of class loader scopes),
+ * so transformers that may accept a class are found with one lookup that doesn't allocate objects,
+ * and classes that can't be accepted by any transformer are skipped immediately.
+ * Transformers that don't provide a filter are invoked for every class, just like they would be if registered separately.
+ * <p>
+ * Transformers are invoked in the order they were supplied to the constructor, each transformer gets the result of the previous one
+ * (or the original class file if the previous transformer returned {@code null}).
+ * Transformers are isolated from each other just like they would be if registered separately: if a transformer throws an exception,
+ * the exception is logged, the result of the previous transformers is kept and passed to the next transformer.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ClassFileTransformerDispatcher implements ClassFileTransformer {
+  /**
+   * A node of a trie of class name prefixes.
+   * Children are stored in arrays sorted by character, so lookup doesn't allocate objects.
+   * <p>
+   * Instantiability: allowed only from inside {@link ClassFileTransformerDispatcher} class.<br>
+   * Mutability: mutable while the trie is being built, immutable after the trie is published.<br>
+   * Thread safety: thread-safe after the trie is safely published.
+   */
+  private final static class PrefixTrieNode {
+    private char[] chars;
+    private PrefixTrieNode[] children;
+    /**
+     * Mask of transformers with a prefix that ends at this node.
+     */
+    private long mask;
+
+    private PrefixTrieNode() {
+      chars = new char[0];
+      children = new PrefixTrieNode[0];
+      mask = 0;
+    }
+
+    private final void add(final String prefix, final long transformerMask) {
+      PrefixTrieNode node = this;
+      for (int i = 0; i < prefix.length(); i++) {
+        node = node.getOrCreateChild(prefix.charAt(i));
+      }
+      node.mask |= transformerMask;
+    }
+
+    private final PrefixTrieNode getOrCreateChild(final char c) {
+      final int idx = Arrays.binarySearch(chars, c);
+      final PrefixTrieNode result;
+      if (idx >= 0) {
+        result = children[idx];
+      } else {
+        final int insertionIdx = -(idx + 1);
+        final char[] newChars = new char[chars.length + 1];
+        final PrefixTrieNode[] newChildren = new PrefixTrieNode[children.length + 1];
+        System.arraycopy(chars, 0, newChars, 0, insertionIdx);
+        System.arraycopy(children, 0, newChildren, 0, insertionIdx);
+        System.arraycopy(chars, insertionIdx, newChars, insertionIdx + 1, chars.length - insertionIdx);
+        System.arraycopy(children, insertionIdx, newChildren, insertionIdx + 1, children.length - insertionIdx);
+        result = new PrefixTrieNode();
+        newChars[insertionIdx] = c;
+        newChildren[insertionIdx] = result;
+        chars = newChars;
+        children = newChildren;
+      }
+      return result;
+    }
+
+    /**
+     * Returns mask of transformers with all prefixes of {@code className}.
+     */
+    private final long match(final String className) {
+      long result = mask;
+      PrefixTrieNode node = this;
+      for (int i = 0; i < className.length(); i++) {
+        final int idx = Arrays.binarySearch(node.chars, className.charAt(i));
+        if (idx < 0) {
+          break;
+        }
+        node = node.children[idx];
+        result |= node.mask;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Maximal number of transformers a dispatcher can hold.
+   * Value of this constant is {@value} .
+   */
+  public final static int MAX_TRANSFORMERS = Long.SIZE;
+  private final static Logger LOGGER;
+  private final AbstractTransformer[] transformers;
+  private final Map<String, Long> classNameMasks;
+  private final PrefixTrieNode packagePrefixTrie;
+  private final long unfilteredMask;// transformers that didn't provide a filter
+  private final long bootstrapMask;// transformers that may accept classes defined by the bootstrap class loader
+  private final long notBootstrapMask;// transformers that may accept classes defined by other class loaders
+
+  static {
+    LOGGER = Logger.getLogger(ClassFileTransformerDispatcher.class);
+  }
+
+  /**
+   * Constructs a dispatcher and precompiles filters of the supplied transformers.
+   *
+   * @param transformers Transformers in the order they must be invoked. Must be not {@code null}, must not contain {@code null} elements
+   * and must contain not more than {@link #MAX_TRANSFORMERS} elements.
+   */
+  public ClassFileTransformerDispatcher(final AbstractTransformer[] transformers) {
+    if (transformers == null) {
+      throw new NullPointerException("The argument 'transformers' is null");
+    } else if (transformers.length > MAX_TRANSFORMERS) {
+      throw new IllegalArgumentException("The argument 'transformers' contains more than " + MAX_TRANSFORMERS + " elements");
+    }
+    this.transformers = transformers.clone();
+    classNameMasks = new HashMap<String, Long>();
+    packagePrefixTrie = new PrefixTrieNode();
+    long unfilteredMask = 0;
+    long bootstrapMask = 0;
+    long notBootstrapMask = 0;
+    for (int i = 0; i < this.transformers.length; i++) {
+      final AbstractTransformer transformer = this.transformers[i];
+      if (transformer == null) {
+        throw new NullPointerException("The argument 'transformers' contains null element");
+      }
+      final long transformerMask = 1L << i;
+      final ClassNameFilter filter = transformer.getClassNameFilter();
+      if (filter == null) {
+        unfilteredMask |= transformerMask;
+        bootstrapMask |= transformerMask;
+        notBootstrapMask |= transformerMask;
+      } else {
+        for (final String className : filter.getClassNames()) {
+          final Long mask = classNameMasks.get(className);
+          classNameMasks.put(className, (mask == null ? 0 : mask.longValue()) | transformerMask);
+        }
+        for (final String packagePrefix : filter.getPackagePrefixes()) {
+          packagePrefixTrie.add(packagePrefix, transformerMask);
+        }
+        final ClassLoaderScope classLoaderScope = filter.getClassLoaderScope();
+        if (classLoaderScope != ClassLoaderScope.NOT_BOOTSTRAP) {
+          bootstrapMask |= transformerMask;
+        }
+        if (classLoaderScope != ClassLoaderScope.BOOTSTRAP) {
+          notBootstrapMask |= transformerMask;
+        }
+      }
+    }
+    this.unfilteredMask = unfilteredMask;
+    this.bootstrapMask = bootstrapMask;
+    this.notBootstrapMask = notBootstrapMask;
+  }
+
+  /**
+   * Invokes {@link AbstractTransformer#transform(ClassLoader, String, Class, ProtectionDomain, byte[])}
+   * of all transformers that may accept the class, passing the result of each transformer to the next one.
+   * A transformer that throws anything is skipped, i.e. the exception is logged and never propagated by the method.
+   *
+   * @return The result of the chain of transformations, or {@code null} if no transformer has transformed the class.
+   *
+   * @see AbstractTransformer#transform(ClassLoader, String, Class, ProtectionDomain, byte[])
+   */
+  @Nullable
+  public final byte[] transform(
+      @Nullable final ClassLoader classLoader, @Nullable final String className, @Nullable final Class<?> classBeingRedefined,
+      @SuppressWarnings("null") final ProtectionDomain protectionDomain, @SuppressWarnings("null") final byte[] classfileBuffer) {
+    long mask = match(classLoader, className);
+    byte[] result = null;
+    while (mask != 0) {
+      final int idx = Long.numberOfTrailingZeros(mask);
+      mask &= mask - 1;// clear the lowest set bit
+      final AbstractTransformer transformer = transformers[idx];
+      try {
+        final byte[] transformedBytes =
+            transformer.transform(classLoader, className, classBeingRedefined, protectionDomain, result == null ? classfileBuffer : result);
+        if (transformedBytes != null) {
+          result = transformedBytes;
+        }
+      } catch (final Throwable e) {// the JVM ignores exceptions thrown by separately registered transformers in the same way
+        AsyncLog.error(LOGGER, "Transformer '{}' has failed to transform the class '{}', its result is ignored", transformer.getClass()
+            .getName(), className, e);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a mask of transformers that may accept the class, the lowest bit corresponds to the first transformer.
+   * The method doesn't allocate objects.
+   */
+  private final long match(@Nullable final ClassLoader classLoader, @Nullable final String className) {
+    long result = unfilteredMask;
+    if (className != null) {// the JVM doesn't supply names of some classes, e.g. hidden classes
+      final Long classNameMask = classNameMasks.get(className);
+      if (classNameMask != null) {
+        result |= classNameMask.longValue();
+      }
+      result |= packagePrefixTrie.match(className);
+    }
+    return result & (classLoader == null ? bootstrapMask : notBootstrapMask);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Describes a superset of classes that an {@link AbstractTransformer} may accept for transformation
+ * (see {@link AbstractTransformer#getClassNameFilter()}).
+ * A filter consists of exact class names, prefixes of class names (usually package prefixes) and a scope of defining class loaders.
+ * Filters are declarative, so {@link ClassFileTransformerDispatcher} is able to precompile filters of many transformers into a single index.
+ * <p>
+ * All class names are in the internal form of fully qualified class and interface names
+ * as defined in "The Java Virtual Machine Specification", for example {@code "java/lang/Object"}.
+ * A package prefix must also be in the internal form and should end with {@code '/'}, for example {@code "java/util/"}
+ * matches all classes from the package {@code java.util} and all its subpackages.
+ * <p>
+ * Instantiability: allowed via static factory methods.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ClassNameFilter {
+  /**
+   * Specifies defining class loaders of classes that match a {@link ClassNameFilter}.
+   */
+  public static enum ClassLoaderScope {
+    /**
+     * Classes defined by any class loader.
+     */
+    ANY,
+    /**
+     * Classes defined by the bootstrap class loader.
+     */
+    BOOTSTRAP,
+    /**
+     * Classes defined by any class loader except for the bootstrap class loader.
+     */
+    NOT_BOOTSTRAP
+  }
+
+  private final Set<String> classNames;
+  private final Set<String> packagePrefixes;
+  private final ClassLoaderScope classLoaderScope;
+
+  private ClassNameFilter(final Set<String> classNames, final Set<String> packagePrefixes, final ClassLoaderScope classLoaderScope) {
+    this.classNames = Collections.unmodifiableSet(classNames);
+    this.packagePrefixes = Collections.unmodifiableSet(packagePrefixes);
+    this.classLoaderScope = classLoaderScope;
+  }
+
+  /**
+   * Creates a filter that matches only the specified classes defined by any class loader.
+   *
+   * @param classNames Names of classes in the internal form. Must be not {@code null} and must not contain {@code null} elements.
+   *
+   * @return A new filter.
+   */
+  public final static ClassNameFilter forClasses(final String... classNames) {
+    if (classNames == null) {
+      throw new NullPointerException("The argument 'classNames' is null");
+    }
+    return new ClassNameFilter(toSet(classNames, "classNames"), Collections.<String>emptySet(), ClassLoaderScope.ANY);
+  }
+
+  /**
+   * Creates a filter that matches all classes which names start with any of the specified prefixes and are defined by any class loader.
+   *
+   * @param packagePrefixes Prefixes of class names in the internal form. Must be not {@code null} and must not contain {@code null} elements.
+   *
+   * @return A new filter.
+   */
+  public final static ClassNameFilter forPackages(final String... packagePrefixes) {
+    if (packagePrefixes == null) {
+      throw new NullPointerException("The argument 'packagePrefixes' is null");
+    }
+    return new ClassNameFilter(Collections.<String>emptySet(), toSet(packagePrefixes, "packagePrefixes"), ClassLoaderScope.ANY);
+  }
+
+  private final static Set<String> toSet(final String[] elements, final String argName) {
+    final Set<String> result = new LinkedHashSet<String>(Arrays.asList(elements));
+    if (result.contains(null)) {
+      throw new NullPointerException("The argument '" + argName + "' contains null element");
+    }
+    return result;
+  }
+
+  /**
+   * Creates a filter that matches the same classes as this filter, and also all classes that are matched by {@code filter}.
+   * The scope of class loaders of the new filter is the same as of this filter.
+   *
+   * @param filter A filter to merge with this one. Must be not {@code null}.
+   *
+   * @return A new filter.
+   */
+  public final ClassNameFilter or(final ClassNameFilter filter) {
+    if (filter == null) {
+      throw new NullPointerException("The argument 'filter' is null");
+    }
+    final Set<String> classNames = new LinkedHashSet<String>(this.classNames);
+    classNames.addAll(filter.classNames);
+    final Set<String> packagePrefixes = new LinkedHashSet<String>(this.packagePrefixes);
+    packagePrefixes.addAll(filter.packagePrefixes);
+    return new ClassNameFilter(classNames, packagePrefixes, classLoaderScope);
+  }
+
+  /**
+   * Creates a filter that matches the same class names as this filter, but only for classes defined by class loaders from the specified scope.
+   *
+   * @param classLoaderScope Scope of defining class loaders. Must be not {@code null}.
+   *
+   * @return A new filter.
+   */
+  public final ClassNameFilter withClassLoaderScope(final ClassLoaderScope classLoaderScope) {
+    if (classLoaderScope == null) {
+      throw new NullPointerException("The argument 'classLoaderScope' is null");
+    }
+    return new ClassNameFilter(new LinkedHashSet<String>(classNames), new LinkedHashSet<String>(packagePrefixes), classLoaderScope);
+  }
+
+  /**
+   * Returns exact names of classes matched by the filter.
+   *
+   * @return Unmodifiable set of class names in the internal form.
+   */
+  public final Set<String> getClassNames() {
+    return classNames;
+  }
+
+  /**
+   * Returns prefixes of names of classes matched by the filter.
+   *
+   * @return Unmodifiable set of prefixes in the internal form.
+   */
+  public final Set<String> getPackagePrefixes() {
+    return packagePrefixes;
+  }
+
+  /**
+   * Returns the scope of defining class loaders of classes matched by the filter.
+   *
+   * @return Scope of defining class loaders.
+   */
+  public final ClassLoaderScope getClassLoaderScope() {
+    return classLoaderScope;
+  }
+
+  /**
+   * Checks if the specified class is matched by the filter. The check is linear in the number of prefixes,
+   * use {@link ClassFileTransformerDispatcher} in order to check many filters at once.
+   *
+   * @param classLoader The defining loader of the class, {@code null} if the bootstrap loader.
+   * @param className The name of the class in the internal form. Must be not {@code null}.
+   *
+   * @return {@code true} if the class is matched by the filter.
+   */
+  public final boolean matches(@Nullable final ClassLoader classLoader, final String className) {
+    if (className == null) {
+      throw new NullPointerException("The second argument 'className' is null");
+    }
+    final boolean result;
+    if ((classLoaderScope == ClassLoaderScope.BOOTSTRAP && classLoader != null) ||
+        (classLoaderScope == ClassLoaderScope.NOT_BOOTSTRAP && classLoader == null)) {
+      result = false;
+    } else if (classNames.contains(className)) {
+      result = true;
+    } else {
+      boolean prefixMatched = false;
+      for (final String packagePrefix : packagePrefixes) {
+        if (className.startsWith(packagePrefix)) {
+          prefixMatched = true;
+          break;
+        }
+      }
+      result = prefixMatched;
+    }
+    return result;
+  }
+
+  @Override
+  public final String toString() {
+    return getClass().getSimpleName() + "(classNames=" + classNames + ", packagePrefixes=" + packagePrefixes + ", classLoaderScope=" +
+        classLoaderScope + ")";
+  }
+}
\ No newline at end of file
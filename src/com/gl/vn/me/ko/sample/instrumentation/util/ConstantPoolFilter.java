@@ -0,0 +1,180 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Describes references that a class file must contain in order to be worth transforming by an {@link AbstractTransformer}
+ * (see {@link AbstractTransformer#getConstantPoolFilter()}), e.g. a call-site transformer that substitutes
+ * {@code new java.math.BigDecimal(...)} expressions has nothing to do in a class that doesn't reference {@code java/math/BigDecimal}.
+ * <p>
+ * A filter consists of names: names of classes in the internal form of fully qualified class and interface names
+ * as defined in "The Java Virtual Machine Specification" (as they are referenced by {@code CONSTANT_Class} entries,
+ * for example {@code "java/math/BigDecimal"}), and names of methods and fields (as they are referenced by {@code CONSTANT_NameAndType}
+ * entries, for example {@code "toString"}). A class file is matched if its constant pool contains a {@code CONSTANT_Utf8} entry
+ * equal to any of the names. So a filter may match more class files than reference the names, e.g. because of an equal string literal,
+ * but never less.
+ * <p>
+ * {@link #matches(byte[])} scans only the constant pool of the class file, doesn't build any object model and doesn't allocate,
+ * so a class file can be rejected at a tiny fraction of the cost of building a {@link javassist.CtClass} object.
+ * Names must not contain the null character or supplementary characters, because their encoding in class files
+ * (modified UTF-8) differs from UTF-8.
+ * <p>
+ * Instantiability: allowed via static factory methods.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ConstantPoolFilter {
+  private final static int MAGIC;
+  private final static int CONSTANT_UTF8;
+  private final static int CONSTANT_INTEGER;
+  private final static int CONSTANT_FLOAT;
+  private final static int CONSTANT_LONG;
+  private final static int CONSTANT_DOUBLE;
+  private final static int CONSTANT_CLASS;
+  private final static int CONSTANT_STRING;
+  private final static int CONSTANT_FIELDREF;
+  private final static int CONSTANT_METHODREF;
+  private final static int CONSTANT_INTERFACE_METHODREF;
+  private final static int CONSTANT_NAME_AND_TYPE;
+  private final static int CONSTANT_METHOD_HANDLE;
+  private final static int CONSTANT_METHOD_TYPE;
+  private final static int CONSTANT_DYNAMIC;
+  private final static int CONSTANT_INVOKE_DYNAMIC;
+  private final static int CONSTANT_MODULE;
+  private final static int CONSTANT_PACKAGE;
+  private final Set<String> names;
+  private final byte[][] encodedNames;
+
+  static {
+    MAGIC = 0xCAFEBABE;
+    CONSTANT_UTF8 = 1;
+    CONSTANT_INTEGER = 3;
+    CONSTANT_FLOAT = 4;
+    CONSTANT_LONG = 5;
+    CONSTANT_DOUBLE = 6;
+    CONSTANT_CLASS = 7;
+    CONSTANT_STRING = 8;
+    CONSTANT_FIELDREF = 9;
+    CONSTANT_METHODREF = 10;
+    CONSTANT_INTERFACE_METHODREF = 11;
+    CONSTANT_NAME_AND_TYPE = 12;
+    CONSTANT_METHOD_HANDLE = 15;
+    CONSTANT_METHOD_TYPE = 16;
+    CONSTANT_DYNAMIC = 17;
+    CONSTANT_INVOKE_DYNAMIC = 18;
+    CONSTANT_MODULE = 19;
+    CONSTANT_PACKAGE = 20;
+  }
+
+  private ConstantPoolFilter(final Set<String> names) {
+    this.names = Collections.unmodifiableSet(names);
+    encodedNames = new byte[names.size()][];
+    int i = 0;
+    for (final String name : names) {
+      encodedNames[i++] = name.getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Creates a filter that matches class files which reference any of the specified classes, methods or fields.
+   *
+   * @param names Names of classes in the internal form, or names of methods or fields (see {@link ConstantPoolFilter}).
+   * Must be not {@code null}, must not be empty and must not contain {@code null} elements.
+   *
+   * @return A new filter.
+   */
+  public final static ConstantPoolFilter forReferences(final String... names) {
+    if (names == null) {
+      throw new NullPointerException("The argument 'names' is null");
+    } else if (names.length == 0) {
+      throw new IllegalArgumentException("The argument 'names' is empty");
+    }
+    final Set<String> result = new LinkedHashSet<String>(Arrays.asList(names));
+    if (result.contains(null)) {
+      throw new NullPointerException("The argument 'names' contains null element");
+    }
+    return new ConstantPoolFilter(result);
+  }
+
+  /**
+   * Returns names of classes, methods and fields which references are looked for by the filter.
+   *
+   * @return Unmodifiable set of names.
+   */
+  public final Set<String> getNames() {
+    return names;
+  }
+
+  /**
+   * Checks if the constant pool of the specified class file references any of the names of the filter.
+   * The method neither allocates nor parses anything beyond the constant pool.
+   *
+   * @param classfileBuffer Bytes in class file format. Must be not {@code null}.
+   *
+   * @return {@code true} if the class file is matched by the filter, or if it is malformed (so the transformer can report the problem).
+   */
+  public final boolean matches(final byte[] classfileBuffer) {
+    if (classfileBuffer == null) {
+      throw new NullPointerException("The argument 'classfileBuffer' is null");
+    }
+    boolean result = (classfileBuffer.length < 10) || (readInt(classfileBuffer, 0) != MAGIC);
+    final int constantPoolCount = result ? 0 : readUnsignedShort(classfileBuffer, 8);
+    int offset = 10;
+    for (int i = 1; (i < constantPoolCount) && !result; i++) {
+      final int tag = offset < classfileBuffer.length ? classfileBuffer[offset] : -1;
+      if (tag == CONSTANT_UTF8) {
+        final int length = offset + 3 <= classfileBuffer.length ? readUnsignedShort(classfileBuffer, offset + 1) : classfileBuffer.length;
+        offset += 3;
+        result = (offset + length > classfileBuffer.length) || matchesName(classfileBuffer, offset, length);
+        offset += length;
+      } else if ((tag == CONSTANT_CLASS) || (tag == CONSTANT_STRING) || (tag == CONSTANT_METHOD_TYPE) || (tag == CONSTANT_MODULE) ||
+          (tag == CONSTANT_PACKAGE)) {
+        offset += 3;
+      } else if (tag == CONSTANT_METHOD_HANDLE) {
+        offset += 4;
+      } else if ((tag == CONSTANT_INTEGER) || (tag == CONSTANT_FLOAT) || (tag == CONSTANT_FIELDREF) || (tag == CONSTANT_METHODREF) ||
+          (tag == CONSTANT_INTERFACE_METHODREF) || (tag == CONSTANT_NAME_AND_TYPE) || (tag == CONSTANT_DYNAMIC) ||
+          (tag == CONSTANT_INVOKE_DYNAMIC)) {
+        offset += 5;
+      } else if ((tag == CONSTANT_LONG) || (tag == CONSTANT_DOUBLE)) {
+        offset += 9;
+        i++;// takes two entries of the constant pool
+      } else {// the class file is truncated or has an unknown tag, e.g. from a newer class file format
+        result = true;
+      }
+    }
+    return result;
+  }
+
+  private final boolean matchesName(final byte[] classfileBuffer, final int offset, final int length) {
+    boolean result = false;
+    for (int n = 0; (n < encodedNames.length) && !result; n++) {
+      final byte[] encodedName = encodedNames[n];
+      if (encodedName.length == length) {
+        int i = 0;
+        while ((i < length) && (encodedName[i] == classfileBuffer[offset + i])) {
+          i++;
+        }
+        result = i == length;
+      }
+    }
+    return result;
+  }
+
+  private final static int readUnsignedShort(final byte[] bytes, final int offset) {
+    return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+  }
+
+  private final static int readInt(final byte[] bytes, final int offset) {
+    return (readUnsignedShort(bytes, offset) << 16) | readUnsignedShort(bytes, offset + 2);
+  }
+
+  @Override
+  public final String toString() {
+    return getClass().getSimpleName() + "(names=" + names + ")";
+  }
+}
@@ -4,6 +4,8 @@ import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.Instrumentation;
 import java.lang.instrument.UnmodifiableClassException;
 import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
 import javassist.CtClass;
 import javax.annotation.Nullable;
 import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
@@ -23,8 +25,9 @@ import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironmen
  * }
  * </pre>
  *
- * </blockquote> The class also provides a {@link #retransformClasses(Class[])} method similar to
- * {@link java.lang.instrument.Instrumentation}{@code .retransformClasses(Class[])} method that was added in Java SE 6.
+ * </blockquote> The class also provides a {@link #retransformClasses(Class[])} method that retransforms classes via
+ * {@link java.lang.instrument.Instrumentation#retransformClasses(Class[])} if the agent is capable of it,
+ * and falls back to redefinition of classes with bytes read from the class path otherwise.
  * <p>
  * Instantiability: forbidden.<br>
  * Thread safety: thread-safe.
@@ -65,33 +68,62 @@ public final class InstrumentationEnvironment {
   }
 
   /**
-   * Retransforms the supplied set of classes.
-   * This method was made similar to method {@code java.lang.instrument.Instrumentation.retransformClasses(Class<?>...)} that was added in Java SE 6,
-   * but this method can be compiled and run on Java SE 5.
+   * Checks if the JVM supports retransformation of classes, i.e. if {@link #retransformClasses(Class[])} lets the JVM supply original bytes of
+   * classes instead of reading them from the class path. Retransformation is supported if the JVM is capable of it and the agent
+   * JAR-file has {@code Can-Retransform-Classes: true} attribute in the manifest.
+   *
+   * @return <ul>
+   * <li>{@code true} if retransformation is supported.</li>
+   * <li>{@code false} if retransformation isn't supported or instrumentation environment wasn't initialized.</li>
+   * </ul>
+   */
+  public final static boolean isRetransformClassesSupported() {
+    final Instrumentation instrumentation = InstrumentationEnvironment.instrumentation;
+    return (instrumentation != null) && instrumentation.isRetransformClassesSupported();
+  }
+
+  /**
+   * Retransforms the supplied set of classes, so modifications can be made by class file transformers.
    * <p>
-   * The method just reads original bytes of classes and calls {@link java.lang.instrument.Instrumentation#redefineClasses(ClassDefinition[])},
-   * so modifications can be made by class file transformers. A separate private instance of {@link javassist.ClassPool} is used to read bytecode.
+   * If retransformation is supported (see {@link #isRetransformClassesSupported()}), the method just calls
+   * {@link java.lang.instrument.Instrumentation#retransformClasses(Class[])} once for all supplied classes:
+   * the JVM supplies original bytes of each class (including classes which bytes can't be found in any class path, e.g. generated classes)
+   * to transformers registered as capable of retransformation, and then redefines all classes in a single operation.
+   * Neither class files are read, nor {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment} is locked.
    * <p>
-   * Note that it doesn't support hierarchy of class loaders.
-   * It means that the method is not applicable for cases when classes with the same name are loaded with different class loaders.
+   * Otherwise the method reads original bytes of classes and calls {@link java.lang.instrument.Instrumentation#redefineClasses(ClassDefinition[])}.
+   * Original bytes are read via {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#getCtClass(Class)},
+   * i.e. from the {@link javassist.ClassPool} object of the defining class loader of each class, while the classes are locked via
+   * {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#lock(Class[])}.
    *
    * @param classes Array of classes to retransform. Must be not {@code null}. A zero-length array is allowed, in this case, this method does nothing.
    *
-   * @throws UnmodifiableClassException If a redefined class can't be modified.
-   * Primitive classes (for example, {@link java.lang.Integer#TYPE}) and array classes are never modifiable. In Java SE 6 there is a method
-   * {@link java.lang.instrument.Instrumentation}{@code .isModifiableClass(Class)} that allows to check if the class is modifiable.
+   * @throws UnmodifiableClassException If a class can't be modified.
+   * Primitive classes (for example, {@link java.lang.Integer#TYPE}) and array classes are never modifiable,
+   * see {@link java.lang.instrument.Instrumentation#isModifiableClass(Class)}.
+   * @see java.lang.instrument.Instrumentation#retransformClasses(Class[])
    * @see java.lang.instrument.Instrumentation#redefineClasses(ClassDefinition[])
-   * @see com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer#transform(ClassLoader, String, Class, ProtectionDomain, byte[])
+   * @see com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer#transform(ClassLoader, String, Class, ProtectionDomain, byte[])
    */
   public final static void retransformClasses(final Class<?>[] classes) throws UnmodifiableClassException {
     if (classes == null) {
       throw new NullPointerException("The argument 'classes' is null");
     } else if (!isInitialized()) {
       throw new IllegalStateException("Instrumentation environment wasn't initialized");
-    } else if (!instrumentation.isRedefineClassesSupported()) {
-      throw new RuntimeException("Redefinition is not supported by the current JVM configuration");
     }
-    JavassistEnvironment.lock();
+    if (classes.length > 0) {
+      if (instrumentation.isRetransformClassesSupported()) {
+        instrumentation.retransformClasses(classes);
+      } else if (instrumentation.isRedefineClassesSupported()) {
+        redefineClassesFromClassPath(classes);
+      } else {
+        throw new RuntimeException("Neither retransformation nor redefinition is supported by the current JVM configuration");
+      }
+    }
+  }
+
+  private final static void redefineClassesFromClassPath(final Class<?>[] classes) throws UnmodifiableClassException {
+    JavassistEnvironment.lock(classes);
     try {
       final ClassDefinition[] classDefinitions = new ClassDefinition[classes.length];
       final byte[][] classFileBytes = getOriginalBytes(classes);
@@ -104,8 +136,37 @@ public final class InstrumentationEnvironment {
         throw new RuntimeException(e);
       }
     } finally {
-      JavassistEnvironment.unlock();
+      JavassistEnvironment.unlock(classes);
+    }
+  }
+
+  /**
+   * Retransforms all currently loaded modifiable classes that match the supplied filter via {@link #retransformClasses(Class[])},
+   * i.e. with a single call to the JVM if retransformation is supported. This allows to apply a newly registered transformer
+   * to hundreds of already loaded classes at once.
+   *
+   * @param filter Filter of classes to retransform, e.g. {@link AbstractTransformer#getClassNameFilter()}.
+   *
+   * @return Number of retransformed classes.
+   *
+   * @throws UnmodifiableClassException If a class can't be modified.
+   * @see java.lang.instrument.Instrumentation#getAllLoadedClasses()
+   */
+  public final static int retransformLoadedClasses(final ClassNameFilter filter) throws UnmodifiableClassException {
+    if (filter == null) {
+      throw new NullPointerException("The argument 'filter' is null");
+    } else if (!isInitialized()) {
+      throw new IllegalStateException("Instrumentation environment wasn't initialized");
+    }
+    final List<Class<?>> classes = new ArrayList<Class<?>>();
+    for (final Class<?> clazz : instrumentation.getAllLoadedClasses()) {
+      if (instrumentation.isModifiableClass(clazz) && filter.matches(clazz.getClassLoader(), clazz.getName()
+          .replace('.', '/'))) {
+        classes.add(clazz);
+      }
     }
+    retransformClasses(classes.toArray(new Class<?>[classes.size()]));
+    return classes.size();
   }
 
   /**
@@ -128,7 +189,7 @@ public final class InstrumentationEnvironment {
   }
 
   /**
-   * Invocations must be synchronized using {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#lock()} method.
+   * Invocations must be synchronized using {@link com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment#lock(Class[])} method.
    */
   private final static byte[][] getOriginalBytes(final Class<?>[] classes) {
     final byte[][] result = new byte[classes.length][];
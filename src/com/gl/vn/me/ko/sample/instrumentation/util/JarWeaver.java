@@ -0,0 +1,302 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import javax.annotation.Nullable;
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Applies {@link AbstractTransformer}s to all classes of a JAR-file at build time and writes an already instrumented JAR-file,
+ * so an application started with the woven JAR-file needs neither a Java-agent nor Javassist framework at run time.
+ * Classes are transformed in parallel, transformers are chained via {@link ClassFileTransformerDispatcher}
+ * just like they would be chained by a Java-agent.
+ * <p>
+ * While running, the tool measures the time spent on transformations. This is the time an agent-based run of the application would spend
+ * on transformations during class loading, so the tool reports it as an estimate of startup time saved by weaving.
+ * <p>
+ * Usage:<br>
+ * {@code java com.gl.vn.me.ko.sample.instrumentation.util.JarWeaver <input JAR-file> <output JAR-file> <transformer class name>...}<br>
+ * A transformer class must either have a {@code public static} field {@code INSTANCE} of the transformer type
+ * (as example transformers do), or a {@code public} no-arguments constructor. The class path of the tool must contain
+ * transformer classes and all classes that transformers need (Javassist framework, classes referenced by injected code, etc.).
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class JarWeaver {
+  /**
+   * Result of processing of a single entry of the input JAR-file.
+   */
+  private final static class WovenEntry {
+    private final JarEntry entry;
+    private final byte[] bytes;
+    private final boolean transformed;
+    private final long transformationNanos;
+
+    private WovenEntry(final JarEntry entry, final byte[] bytes, final boolean transformed, final long transformationNanos) {
+      this.entry = entry;
+      this.bytes = bytes;
+      this.transformed = transformed;
+      this.transformationNanos = transformationNanos;
+    }
+  }
+
+  private final static String CLASS_FILE_SUFFIX;
+  private final static String INSTANCE_FIELD_NAME;
+
+  static {
+    CLASS_FILE_SUFFIX = ".class";
+    INSTANCE_FIELD_NAME = "INSTANCE";
+  }
+
+  /**
+   * Tool entry point. See {@link JarWeaver} for the description of arguments.
+   *
+   * @param args Command-line arguments.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    if (args.length < 3) {
+      System.err.println("Usage: java " + JarWeaver.class.getName() + " <input JAR-file> <output JAR-file> <transformer class name>...");
+      System.exit(1);// any return code different from 0 is treated as abnormal termination
+    }
+    BasicConfigurator.configure();
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);// only problems are interesting for a build tool, not details of each transformation
+    final long initializationStart = System.nanoTime();
+    final AbstractTransformer[] transformers = new AbstractTransformer[args.length - 2];
+    for (int i = 0; i < transformers.length; i++) {
+      transformers[i] = instantiateTransformer(args[i + 2]);
+    }
+    final long initializationNanos = System.nanoTime() - initializationStart;
+    weave(new File(args[0]), new File(args[1]), transformers, Runtime.getRuntime()
+        .availableProcessors(), initializationNanos);
+  }
+
+  /**
+   * Applies {@code transformers} to all classes of {@code input} and writes the result to {@code output}.
+   * Entries that are not class files are copied as is, except for signature files, because they become invalid.
+   *
+   * @param input The input JAR-file. Must be not {@code null}.
+   * @param output The output JAR-file. Must be not {@code null} and must differ from {@code input}.
+   * @param transformers Transformers in the order they must be applied. Must be not {@code null}.
+   * @param threads Number of threads used to transform classes. Must be positive.
+   *
+   * @return Total time in nanoseconds spent on transformations by all threads.
+   *
+   * @throws java.io.IOException If {@code input} can't be read or {@code output} can't be written.
+   * @throws java.lang.RuntimeException If any transformation has failed, e.g. because a class file in {@code input} is malformed.
+   * The output JAR-file is not written in this case.
+   */
+  public final static long weave(final File input, final File output, final AbstractTransformer[] transformers, final int threads)
+      throws IOException {
+    return weave(input, output, transformers, threads, 0);
+  }
+
+  private final static long weave(
+      final File input,
+      final File output,
+      final AbstractTransformer[] transformers,
+      final int threads,
+      final long initializationNanos) throws IOException {
+    if (input == null) {
+      throw new NullPointerException("The first argument 'input' is null");
+    } else if (output == null) {
+      throw new NullPointerException("The second argument 'output' is null");
+    } else if (transformers == null) {
+      throw new NullPointerException("The third argument 'transformers' is null");
+    } else if (threads <= 0) {
+      throw new IllegalArgumentException("The fourth argument 'threads' must be positive");
+    } else if (input.getCanonicalFile()
+        .equals(output.getCanonicalFile())) {
+      throw new IllegalArgumentException("The input and the output JAR-files are the same file '" + input + "'");
+    }
+    final ClassFileTransformerDispatcher dispatcher = new ClassFileTransformerDispatcher(transformers);
+    final long failuresBefore = countFailures(transformers);
+    final long start = System.nanoTime();
+    final List<WovenEntry> wovenEntries;
+    final Manifest manifest;
+    try (final JarFile jarFile = new JarFile(input);
+        final URLClassLoader classLoader = new URLClassLoader(new URL[] {input.toURI()
+            .toURL()}, JarWeaver.class.getClassLoader())) {
+      manifest = jarFile.getManifest();
+      wovenEntries = weaveEntries(jarFile, classLoader, dispatcher, threads);
+    }
+    final long wallNanos = System.nanoTime() - start;
+    final long failures = countFailures(transformers) - failuresBefore;
+    if (failures > 0) {// the dispatcher logs and skips failed transformations, but a woven JAR-file must not silently miss them
+      throw new RuntimeException(failures + " transformations of classes from '" + input + "' have failed, see the log for details");
+    }
+    writeJar(output, manifest, wovenEntries);
+    long transformationNanos = 0;
+    int classes = 0;
+    int transformedClasses = 0;
+    for (final WovenEntry wovenEntry : wovenEntries) {
+      transformationNanos += wovenEntry.transformationNanos;
+      if (wovenEntry.entry.getName()
+          .endsWith(CLASS_FILE_SUFFIX)) {
+        classes++;
+      }
+      if (wovenEntry.transformed) {
+        transformedClasses++;
+      }
+    }
+    System.out.println(String.format(Locale.ENGLISH,
+        "Woven '%s' into '%s': %d of %d classes transformed using %d threads in %.1f ms%n" +
+            "Estimated startup time saved compared with the agent-based run: %.1f ms " +
+            "(%.1f ms spent on transformations, %.1f ms spent on initialization of transformers)",
+        input, output, transformedClasses, classes, threads, wallNanos / 1e6,
+        (transformationNanos + initializationNanos) / 1e6, transformationNanos / 1e6, initializationNanos / 1e6));
+    return transformationNanos;
+  }
+
+  private final static long countFailures(final AbstractTransformer[] transformers) {
+    long result = 0;
+    for (final AbstractTransformer transformer : transformers) {
+      result += transformer.getMetrics()
+          .getStatistics()
+          .getFailures();
+    }
+    return result;
+  }
+
+  private final static List<WovenEntry> weaveEntries(
+      final JarFile jarFile,
+      final ClassLoader classLoader,
+      final ClassFileTransformerDispatcher dispatcher,
+      final int threads) throws IOException {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final List<Future<WovenEntry>> futures = new ArrayList<Future<WovenEntry>>();
+    try {
+      for (final Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+        final JarEntry entry = entries.nextElement();
+        final String entryName = entry.getName();
+        if (entry.isDirectory() || isSignatureFile(entryName) || JarFile.MANIFEST_NAME.equalsIgnoreCase(entryName)) {
+          continue;
+        }
+        final byte[] bytes = readFully(jarFile, entry);
+        futures.add(executor.submit(new Callable<WovenEntry>() {
+          public final WovenEntry call() {
+            return weaveEntry(entry, bytes, classLoader, dispatcher);
+          }
+        }));
+      }
+      final List<WovenEntry> result = new ArrayList<WovenEntry>(futures.size());
+      for (final Future<WovenEntry> future : futures) {
+        try {
+          result.add(future.get());
+        } catch (final InterruptedException e) {
+          Thread.currentThread()
+              .interrupt();
+          throw new RuntimeException("Weaving was interrupted", e);
+        } catch (final ExecutionException e) {
+          throw new RuntimeException("Weaving has failed", e.getCause());
+        }
+      }
+      return result;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private final static WovenEntry weaveEntry(
+      final JarEntry entry,
+      final byte[] bytes,
+      final ClassLoader classLoader,
+      final ClassFileTransformerDispatcher dispatcher) {
+    final String entryName = entry.getName();
+    final WovenEntry result;
+    if (entryName.endsWith(CLASS_FILE_SUFFIX)) {
+      final String className = entryName.substring(0, entryName.length() - CLASS_FILE_SUFFIX.length());
+      final long start = System.nanoTime();
+      final byte[] transformedBytes = dispatcher.transform(classLoader, className, null, null, bytes);
+      final long transformationNanos = System.nanoTime() - start;
+      result = transformedBytes == null ? new WovenEntry(entry, bytes, false, transformationNanos)
+          : new WovenEntry(entry, transformedBytes, true, transformationNanos);
+    } else {
+      result = new WovenEntry(entry, bytes, false, 0);
+    }
+    return result;
+  }
+
+  private final static void writeJar(final File output, @Nullable final Manifest manifest, final List<WovenEntry> wovenEntries)
+      throws IOException {
+    final File parent = output.getAbsoluteFile()
+        .getParentFile();
+    if ((parent != null) && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Can't create directory '" + parent + "'");
+    }
+    try (final OutputStream fileOutputStream = new FileOutputStream(output);
+        final JarOutputStream jarOutputStream = manifest == null ? new JarOutputStream(fileOutputStream)
+            : new JarOutputStream(fileOutputStream, manifest)) {
+      for (final WovenEntry wovenEntry : wovenEntries) {
+        final JarEntry outputEntry = new JarEntry(wovenEntry.entry.getName());
+        outputEntry.setTime(wovenEntry.entry.getTime());
+        jarOutputStream.putNextEntry(outputEntry);
+        jarOutputStream.write(wovenEntry.bytes);
+        jarOutputStream.closeEntry();
+      }
+    }
+  }
+
+  private final static AbstractTransformer instantiateTransformer(final String className) throws Exception {
+    final Class<?> transformerClass = Class.forName(className);
+    if (!AbstractTransformer.class.isAssignableFrom(transformerClass)) {
+      throw new IllegalArgumentException("Class '" + className + "' is not a subclass of " + AbstractTransformer.class.getName());
+    }
+    Field instanceField = null;
+    try {
+      instanceField = transformerClass.getField(INSTANCE_FIELD_NAME);
+    } catch (final NoSuchFieldException e) {
+      // the transformer is instantiated via the constructor
+    }
+    final Object result;
+    if ((instanceField != null) && Modifier.isStatic(instanceField.getModifiers())) {
+      result = instanceField.get(null);
+    } else {
+      result = transformerClass.getConstructor()
+          .newInstance();
+    }
+    return (AbstractTransformer)result;
+  }
+
+  private final static boolean isSignatureFile(final String entryName) {
+    final String upperCaseEntryName = entryName.toUpperCase(Locale.ENGLISH);
+    return upperCaseEntryName.startsWith("META-INF/") &&
+        (upperCaseEntryName.endsWith(".SF") || upperCaseEntryName.endsWith(".RSA") || upperCaseEntryName.endsWith(".DSA") ||
+            upperCaseEntryName.endsWith(".EC"));
+  }
+
+  private final static byte[] readFully(final JarFile jarFile, final JarEntry entry) throws IOException {
+    try (final InputStream inputStream = jarFile.getInputStream(entry)) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private JarWeaver() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.util.Locale;
+
+/**
+ * A transformation that is among the slowest ones observed by {@link TransformerMetrics} (see {@link TransformerMetrics#getSlowestTransformations()}).
+ * The class follows the rules of JMX MXBeans, so it's exposed via {@link TransformerMetricsMXBean} as {@code CompositeData}.
+ * <p>
+ * Instantiability: allowed only from inside {@link com.gl.vn.me.ko.sample.instrumentation.util} package.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class SlowTransformation {
+  private final String transformerName;
+  private final String className;
+  private final long nanos;
+
+  SlowTransformation(final String transformerName, final String className, final long nanos) {
+    this.transformerName = transformerName;
+    this.className = className;
+    this.nanos = nanos;
+  }
+
+  /**
+   * Returns the name of the class of the transformer.
+   *
+   * @return The fully qualified name of the class.
+   */
+  public final String getTransformerName() {
+    return transformerName;
+  }
+
+  /**
+   * Returns the name of the transformed class.
+   *
+   * @return The name of the class in the internal form, e.g. {@code "java/lang/Object"}.
+   */
+  public final String getClassName() {
+    return className;
+  }
+
+  /**
+   * Returns the duration of the transformation.
+   *
+   * @return The duration in nanoseconds.
+   */
+  public final long getNanos() {
+    return nanos;
+  }
+
+  @Override
+  public final String toString() {
+    return String.format(Locale.ENGLISH, "%d ns %s by %s", nanos, className, transformerName);
+  }
+}
\ No newline at end of file
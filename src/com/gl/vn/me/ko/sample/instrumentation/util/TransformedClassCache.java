@@ -0,0 +1,542 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+
+/**
+ * Persistent cache of transformed class files that survives JVM restarts and can be shared by many JVMs on the same host.
+ * See {@link AbstractTransformer#setTransformedClassCache(TransformedClassCache)}.
+ * <p>
+ * An entry is identified by a {@link Key} which is a hash of a version fingerprint of a transformer, a class name and bytes of the original class file,
+ * so an entry never becomes stale: if either the transformer or the original class changes, the key changes as well.
+ * <p>
+ * Entries are stored in an append-only file. The whole size bound of the file is memory-mapped once when the file is opened
+ * (the file is extended to the bound, but stays sparse), and the in-memory index only holds offsets of records in the mapping,
+ * so the number of mappings doesn't depend on the number of entries. Appending and compaction are coordinated between JVMs
+ * via an exclusive {@link java.nio.channels.FileLock} on a separate lock file (the name of the cache file with {@code ".lock"} suffix).
+ * Hits and misses are served from the index without locking and without system calls. Entries appended by other JVMs are discovered lazily:
+ * a miss only takes the lock if the mapping shows a record right after the indexed ones, and an append always indexes all new records first.
+ * When the file is about to exceed the size bound, it's compacted: the most recently appended entries that fit into a half of the bound
+ * are copied to a new file which atomically replaces the old one, and the header of the old file is marked as replaced.
+ * JVMs that still map the old file continue to read from it safely, notice the mark by reading their mapping without system calls,
+ * and switch to the new file on their next access.
+ * <p>
+ * A JVM must not create more than one instance of {@link TransformedClassCache} for the same file.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class TransformedClassCache implements Closeable {
+  /**
+   * Identifies an entry of {@link TransformedClassCache}.
+   * <p>
+   * Instantiability: allowed only via {@link TransformedClassCache#computeKey(String, String, byte[])}.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  public final static class Key {
+    private final long high;
+    private final long low;
+
+    private Key(final long high, final long low) {
+      this.high = high;
+      this.low = low;
+    }
+
+    @Override
+    public final boolean equals(@Nullable final Object obj) {
+      final boolean result;
+      if (this == obj) {
+        result = true;
+      } else if (obj instanceof Key) {
+        final Key key = (Key)obj;
+        result = (high == key.high) && (low == key.low);
+      } else {
+        result = false;
+      }
+      return result;
+    }
+
+    @Override
+    public final int hashCode() {
+      return (int)(low ^ (low >>> 32));
+    }
+
+    @Override
+    public final String toString() {
+      return String.format("%016x%016x", high, low);
+    }
+  }
+
+  /**
+   * A mapping of the cache file together with offsets of indexed records in it.
+   * A new generation is created whenever the cache file is opened, e.g. after compaction, so a reader that has obtained a generation
+   * reads records from the same mapping they were indexed in, even if the cache file was replaced afterwards.
+   */
+  private final static class Generation {
+    private final MappedByteBuffer mapping;
+    private final ConcurrentMap<Key, Integer> offsets;
+
+    private Generation(final MappedByteBuffer mapping) {
+      this.mapping = mapping;
+      offsets = new ConcurrentHashMap<Key, Integer>();
+    }
+
+    private final int dataLength(final int offset) {
+      return mapping.getInt(offset + 4);
+    }
+  }
+
+  private final static long FILE_MAGIC;
+  private final static int FORMAT_VERSION;
+  private final static int HEADER_SIZE;// file magic, format version, replaced flag
+  private final static int REPLACED_FLAG_OFFSET;// non-zero if the file was replaced by a compacted one
+  private final static int RECORD_MAGIC;
+  private final static int RECORD_HEADER_SIZE;// record magic, data length, data CRC32, reserved, key high, key low
+  private final static String LOCK_FILE_SUFFIX;
+  private final Path file;
+  private final long maxBytes;
+  private final FileChannel lockChannel;
+  private final AtomicLong hitCount;
+  private final AtomicLong missCount;
+  private final AtomicLong compactionCount;
+  // all modifications of the following fields must be synchronized via this object
+  private FileChannel channel;
+  @Nullable
+  private Object fileKey;
+  private volatile Generation generation;
+  private volatile int scannedUpTo;// offset of the first byte that wasn't scanned yet, also the end of valid records
+
+  static {
+    FILE_MAGIC = 0x4a49544343414348L;// "JITCCACH"
+    FORMAT_VERSION = 1;
+    HEADER_SIZE = 16;
+    REPLACED_FLAG_OFFSET = 12;
+    RECORD_MAGIC = 0x54434352;// "TCCR"
+    RECORD_HEADER_SIZE = 32;
+    LOCK_FILE_SUFFIX = ".lock";
+  }
+
+  /**
+   * Opens the cache stored in the specified file, the file is created if doesn't exist.
+   *
+   * @param file Path to the cache file. Must be not {@code null}.
+   * @param maxBytes Maximal size of the cache file in bytes. Must be greater than 1024 and not greater than {@link Integer#MAX_VALUE}.
+   *
+   * @throws java.io.IOException If the file can't be opened or has incompatible format.
+   */
+  public TransformedClassCache(final Path file, final long maxBytes) throws IOException {
+    if (file == null) {
+      throw new NullPointerException("The first argument 'file' is null");
+    } else if ((maxBytes <= 1024) || (maxBytes > Integer.MAX_VALUE)) {
+      throw new IllegalArgumentException("The second argument 'maxBytes' must be in the range (1024, " + Integer.MAX_VALUE + "]");
+    }
+    this.file = file.toAbsolutePath();
+    this.maxBytes = maxBytes;
+    hitCount = new AtomicLong();
+    missCount = new AtomicLong();
+    compactionCount = new AtomicLong();
+    final Path parent = this.file.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    lockChannel = FileChannel.open(this.file.resolveSibling(this.file.getFileName() + LOCK_FILE_SUFFIX), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    synchronized (this) {
+      final FileLock lock = lockChannel.lock();
+      try {
+        openUnsync();
+      } finally {
+        lock.release();
+      }
+    }
+  }
+
+  /**
+   * Computes a key of an entry.
+   *
+   * @param transformerFingerprint Version fingerprint of the transformer (see {@link AbstractTransformer#getVersionFingerprint()}).
+   * Must be not {@code null}.
+   * @param className Name of the class. Must be not {@code null}.
+   * @param classfileBuffer Original bytes of the class file. Must be not {@code null}.
+   *
+   * @return A new key.
+   */
+  public final static Key computeKey(final String transformerFingerprint, final String className, final byte[] classfileBuffer) {
+    if (transformerFingerprint == null) {
+      throw new NullPointerException("The first argument 'transformerFingerprint' is null");
+    } else if (className == null) {
+      throw new NullPointerException("The second argument 'className' is null");
+    } else if (classfileBuffer == null) {
+      throw new NullPointerException("The third argument 'classfileBuffer' is null");
+    }
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new RuntimeException("SHA-256 is not supported by the JVM", e);
+    }
+    digest.update(transformerFingerprint.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte)0);
+    digest.update(className.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte)0);
+    digest.update(classfileBuffer);
+    final ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+    return new Key(hash.getLong(), hash.getLong());
+  }
+
+  /**
+   * Returns a cached transformed class file.
+   * The method doesn't lock unless another JVM has appended entries since the last scan or has replaced the cache file.
+   *
+   * @param key Key of the entry. Must be not {@code null}.
+   *
+   * @return A new array with bytes of the transformed class file, or {@code null} if there is no such entry.
+   *
+   * @throws java.io.IOException If the cache file can't be read.
+   */
+  @Nullable
+  public final byte[] get(final Key key) throws IOException {
+    if (key == null) {
+      throw new NullPointerException("The argument 'key' is null");
+    }
+    if (isReplaced()) {
+      synchronized (this) {// another JVM has compacted the cache
+        final FileLock lock = lockChannel.lock();
+        try {
+          reopenIfReplacedUnsync();
+        } finally {
+          lock.release();
+        }
+      }
+    }
+    byte[] result = read(generation, key);
+    if ((result == null) && hasUnscannedRecord()) {
+      synchronized (this) {// another JVM has appended entries
+        final FileLock lock = lockChannel.lock(0, Long.MAX_VALUE, true);
+        try {
+          scanUnsync();
+        } finally {
+          lock.release();
+        }
+      }
+      result = read(generation, key);
+    }
+    if (result == null) {
+      missCount.incrementAndGet();
+    } else {
+      hitCount.incrementAndGet();
+    }
+    return result;
+  }
+
+  /**
+   * Appends an entry to the cache. Does nothing if the entry is already cached.
+   * Compacts the cache if its size is going to exceed the bound.
+   *
+   * @param key Key of the entry. Must be not {@code null}.
+   * @param transformedBytes Bytes of the transformed class file. Must be not {@code null}.
+   *
+   * @throws java.io.IOException If the cache file can't be written.
+   */
+  public final void put(final Key key, final byte[] transformedBytes) throws IOException {
+    if (key == null) {
+      throw new NullPointerException("The first argument 'key' is null");
+    } else if (transformedBytes == null) {
+      throw new NullPointerException("The second argument 'transformedBytes' is null");
+    }
+    final long recordSize = RECORD_HEADER_SIZE + transformedBytes.length;
+    if (HEADER_SIZE + recordSize > maxBytes / 2) {
+      return;// the entry is too large to be cached
+    }
+    synchronized (this) {
+      final FileLock lock = lockChannel.lock();
+      try {
+        reopenIfReplacedUnsync();
+        scanUnsync();
+        if (!generation.offsets.containsKey(key)) {
+          if (scannedUpTo + recordSize > maxBytes) {
+            compactUnsync();
+          }
+          final CRC32 crc = new CRC32();
+          crc.update(transformedBytes);
+          final boolean endMarker = scannedUpTo + recordSize + 4 <= generation.mapping.capacity();
+          final ByteBuffer record = ByteBuffer.allocate((int)recordSize + (endMarker ? 4 : 0));
+          record.putInt(RECORD_MAGIC)
+              .putInt(transformedBytes.length)
+              .putInt((int)crc.getValue())
+              .putInt(0)
+              .putLong(key.high)
+              .putLong(key.low)
+              .put(transformedBytes);
+          if (endMarker) {
+            /*
+             * The file is never truncated because other JVMs map it, so a partially written record left by a crashed JVM
+             * is overwritten instead, and the zero after the record guarantees that no remainder of it is mistaken for a record.
+             */
+            record.putInt(0);
+          }
+          record.flip();
+          writeFully(channel, record, scannedUpTo);
+          scanUnsync();
+        }
+      } finally {
+        lock.release();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of {@link #get(Key)} invocations that found an entry.
+   *
+   * @return Number of hits.
+   */
+  public final long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of {@link #get(Key)} invocations that didn't find an entry.
+   *
+   * @return Number of misses.
+   */
+  public final long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the number of compactions performed by this instance.
+   *
+   * @return Number of compactions.
+   */
+  public final long getCompactionCount() {
+    return compactionCount.get();
+  }
+
+  /**
+   * Returns the number of entries known to this instance.
+   *
+   * @return Number of entries.
+   */
+  public final int size() {
+    return generation.offsets.size();
+  }
+
+  /**
+   * Returns the path to the cache file.
+   *
+   * @return Absolute path.
+   */
+  public final Path getFile() {
+    return file;
+  }
+
+  /**
+   * Closes the cache file. Entries are not removed.
+   *
+   * @throws java.io.IOException If an I/O error occurs.
+   */
+  public final void close() throws IOException {
+    synchronized (this) {
+      try {
+        channel.close();
+      } finally {
+        lockChannel.close();
+      }
+    }
+  }
+
+  @Override
+  public final String toString() {
+    return getClass().getSimpleName() + "(file=" + file + ", entries=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() +
+        ", compactions=" + getCompactionCount() + ")";
+  }
+
+  @Nullable
+  private final static byte[] read(final Generation generation, final Key key) {
+    final Integer offset = generation.offsets.get(key);
+    final byte[] result;
+    if (offset == null) {
+      result = null;
+    } else {
+      result = new byte[generation.dataLength(offset.intValue())];
+      final ByteBuffer buffer = generation.mapping.duplicate();
+      buffer.position(offset.intValue() + RECORD_HEADER_SIZE);
+      buffer.get(result);
+    }
+    return result;
+  }
+
+  /**
+   * Checks without locking whether the mapping contains the magic of a record right after the indexed records,
+   * i.e. whether another JVM has probably appended a record. Reads memory only.
+   */
+  private final boolean hasUnscannedRecord() {
+    final Generation generation = this.generation;
+    final int offset = scannedUpTo;
+    return (offset + RECORD_HEADER_SIZE <= generation.mapping.capacity()) && (generation.mapping.getInt(offset) == RECORD_MAGIC);
+  }
+
+  /**
+   * Checks without locking whether the mapped cache file was marked as replaced by a compaction. Reads memory only.
+   */
+  private final boolean isReplaced() {
+    return generation.mapping.getInt(REPLACED_FLAG_OFFSET) != 0;
+  }
+
+  /**
+   * Must be invoked inside {@code synchronized (this)} block while holding {@link #lockChannel} lock.
+   */
+  private final void openUnsync() throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    fileKey = Files.readAttributes(file, BasicFileAttributes.class)
+        .fileKey();
+    final long size = channel.size();
+    if (size < HEADER_SIZE) {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putLong(FILE_MAGIC)
+          .putInt(FORMAT_VERSION)
+          .putInt(0)
+          .flip();
+      channel.truncate(0);
+      writeFully(channel, header, 0);
+    } else {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      channel.read(header, 0);
+      header.flip();
+      if ((header.getLong() != FILE_MAGIC) || (header.getInt() != FORMAT_VERSION)) {
+        throw new IOException("File '" + file + "' is not a cache file or has incompatible format");
+      }
+    }
+    /*
+     * The mapping covers the whole size bound (or the whole file if another JVM uses a greater bound) and is never remapped,
+     * mapping in MapMode.READ_WRITE extends the file if needed. Nothing is written via the mapping.
+     */
+    final long mappingSize = Math.min(Math.max(maxBytes, channel.size()), Integer.MAX_VALUE);
+    scannedUpTo = HEADER_SIZE;
+    generation = new Generation(channel.map(MapMode.READ_WRITE, 0, mappingSize));
+    scanUnsync();
+  }
+
+  /**
+   * Must be invoked inside {@code synchronized (this)} block while holding {@link #lockChannel} lock.
+   */
+  private final void reopenIfReplacedUnsync() throws IOException {
+    final Object actualFileKey = Files.readAttributes(file, BasicFileAttributes.class)
+        .fileKey();
+    if (isReplaced() || ((actualFileKey != null) && !actualFileKey.equals(fileKey))) {// the file was compacted by another JVM
+      channel.close();
+      openUnsync();
+    }
+  }
+
+  /**
+   * Indexes records appended since the last scan. Stops at the first incomplete or corrupted record.
+   * Must be invoked inside {@code synchronized (this)} block while holding {@link #lockChannel} lock.
+   */
+  private final void scanUnsync() {
+    final Generation generation = this.generation;
+    final MappedByteBuffer buffer = generation.mapping;
+    final long size = buffer.capacity();
+    long offset = scannedUpTo;
+    while (offset + RECORD_HEADER_SIZE <= size) {
+      final int recordOffset = (int)offset;
+      final int dataLength = buffer.getInt(recordOffset + 4);
+      if ((buffer.getInt(recordOffset) != RECORD_MAGIC) || (dataLength < 0) || (offset + RECORD_HEADER_SIZE + dataLength > size)) {
+        break;
+      }
+      final ByteBuffer dataBuffer = buffer.duplicate();
+      dataBuffer.position(recordOffset + RECORD_HEADER_SIZE)
+          .limit(recordOffset + RECORD_HEADER_SIZE + dataLength);
+      final CRC32 crc = new CRC32();
+      crc.update(dataBuffer);
+      if ((int)crc.getValue() != buffer.getInt(recordOffset + 8)) {
+        break;
+      }
+      generation.offsets.put(new Key(buffer.getLong(recordOffset + 16), buffer.getLong(recordOffset + 24)), Integer.valueOf(recordOffset));
+      offset += RECORD_HEADER_SIZE + dataLength;
+    }
+    scannedUpTo = (int)offset;
+  }
+
+  /**
+   * Copies the most recent records that fit into a half of {@link #maxBytes} to a new file that atomically replaces the cache file.
+   * Must be invoked inside {@code synchronized (this)} block while holding an exclusive {@link #lockChannel} lock.
+   */
+  private final void compactUnsync() throws IOException {
+    final Generation generation = this.generation;
+    final List<Integer> offsets = new ArrayList<Integer>(generation.offsets.values());
+    Collections.sort(offsets);
+    final List<Integer> retainedOffsets = new ArrayList<Integer>();
+    long retainedBytes = HEADER_SIZE;
+    for (int i = offsets.size() - 1; i >= 0; i--) {// the most recent records are at the end of the file
+      final int offset = offsets.get(i)
+          .intValue();
+      final long recordSize = RECORD_HEADER_SIZE + generation.dataLength(offset);
+      if (retainedBytes + recordSize > maxBytes / 2) {
+        break;
+      }
+      retainedOffsets.add(Integer.valueOf(offset));
+      retainedBytes += recordSize;
+    }
+    Collections.reverse(retainedOffsets);
+    final Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (final FileChannel tmpChannel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE)) {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putLong(FILE_MAGIC)
+          .putInt(FORMAT_VERSION)
+          .putInt(0)
+          .flip();
+      long position = writeFully(tmpChannel, header, 0);
+      for (final Integer offset : retainedOffsets) {
+        final ByteBuffer record = generation.mapping.duplicate();
+        record.position(offset.intValue())
+            .limit(offset.intValue() + RECORD_HEADER_SIZE + generation.dataLength(offset.intValue()));
+        position = writeFully(tmpChannel, record, position);
+      }
+      tmpChannel.force(true);
+    }
+    Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    final ByteBuffer replacedFlag = ByteBuffer.allocate(4);
+    replacedFlag.putInt(1)
+        .flip();
+    writeFully(channel, replacedFlag, REPLACED_FLAG_OFFSET);// other JVMs see the flag in their mappings of the old file
+    channel.close();
+    openUnsync();
+    compactionCount.incrementAndGet();
+  }
+
+  /**
+   * Returns the position after the last written byte.
+   */
+  private final static long writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    long currentPosition = position;
+    while (buffer.hasRemaining()) {
+      currentPosition += channel.write(buffer, currentPosition);
+    }
+    return currentPosition;
+  }
+}
\ No newline at end of file
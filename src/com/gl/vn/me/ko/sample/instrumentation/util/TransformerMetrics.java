@@ -0,0 +1,285 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyHistogram;
+import com.gl.vn.me.ko.sample.instrumentation.util.profile.ThreadRecorderRegistry;
+
+/**
+ * Metrics of a single {@link AbstractTransformer}: how many classes it has seen, accepted, transformed and skipped
+ * because their {@link javassist.CtClass} objects were frozen, sizes of class files before and after transformation,
+ * and a {@link LatencyHistogram} of durations of transformations, i.e. how much latency the transformer adds to class loading.
+ * Every transformer gets its metrics when it's created (see {@link AbstractTransformer#getMetrics()}),
+ * and metrics of all transformers can be read at any time via {@link #getAllStatistics()}.
+ * The {@value #SLOWEST_TRANSFORMATIONS} slowest transformations of all transformers are tracked too (see {@link #getSlowestTransformations()}).
+ * <p>
+ * Classes may be loaded by many threads concurrently, so recording neither locks nor contends: every thread records durations
+ * into its own histogram, histograms are merged when statistics is read (see {@link ThreadRecorderRegistry}),
+ * and a transformation that may be among the slowest ones replaces the fastest of them via compare-and-swap.
+ * <p>
+ * Metrics are exposed via JMX after {@link #registerMBean()} was invoked. The growth of the footprint caused by transformed classes
+ * is estimated by the difference of {@link TransformerStatistics#getOutputBytes()} and {@link TransformerStatistics#getInputBytes()}.
+ * <p>
+ * Instantiability: allowed only from inside {@link AbstractTransformer} class.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class TransformerMetrics {
+  /**
+   * Implementation of {@link TransformerMetricsMXBean}.
+   * <p>
+   * Instantiability: allowed only from inside {@link TransformerMetrics} class.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class MXBean implements TransformerMetricsMXBean {
+    private MXBean() {
+    }
+
+    public final List<TransformerStatistics> getTransformers() {
+      return getAllStatistics();
+    }
+
+    public final List<SlowTransformation> getSlowestTransformations() {
+      return TransformerMetrics.getSlowestTransformations();
+    }
+
+    public final String report() {
+      return TransformerMetrics.report();
+    }
+  }
+
+  /**
+   * The name under which {@link TransformerMetricsMXBean} is registered in the platform {@link javax.management.MBeanServer}.
+   */
+  public final static String OBJECT_NAME = "com.gl.vn.me.ko.sample.instrumentation:type=TransformerMetrics";
+  /**
+   * The number of the slowest transformations that are tracked.
+   */
+  public final static int SLOWEST_TRANSFORMATIONS = 20;
+  private final static Comparator<SlowTransformation> SLOWER_FIRST;
+  private final static AtomicReferenceArray<SlowTransformation> SLOWEST;// unordered, null elements are free slots
+  private final static AtomicLong SLOWEST_THRESHOLD_NANOS;// transformations that are not slower can't get to SLOWEST, only grows
+  private static volatile TransformerMetrics[] registered;
+  private final String transformerName;
+  private final AtomicLong classesSeen;
+  private final AtomicLong classesAccepted;
+  private final AtomicLong classesTransformed;
+  private final AtomicLong classesSkippedFrozen;
+  private final AtomicLong classesFromCache;
+  private final AtomicLong failures;
+  private final AtomicLong inputBytes;
+  private final AtomicLong outputBytes;
+  private final LatencyHistogram terminatedThreadsLatency;
+  private final ThreadRecorderRegistry<LatencyHistogram> latencies;// its monitor guards terminatedThreadsLatency
+
+  static {
+    SLOWER_FIRST = new Comparator<SlowTransformation>() {
+      public final int compare(final SlowTransformation transformation1, final SlowTransformation transformation2) {
+        return Long.compare(transformation2.getNanos(), transformation1.getNanos());
+      }
+    };
+    SLOWEST = new AtomicReferenceArray<SlowTransformation>(SLOWEST_TRANSFORMATIONS);
+    SLOWEST_THRESHOLD_NANOS = new AtomicLong();
+    registered = new TransformerMetrics[0];
+  }
+
+  private TransformerMetrics(final String transformerName) {
+    this.transformerName = transformerName;
+    classesSeen = new AtomicLong();
+    classesAccepted = new AtomicLong();
+    classesTransformed = new AtomicLong();
+    classesSkippedFrozen = new AtomicLong();
+    classesFromCache = new AtomicLong();
+    failures = new AtomicLong();
+    inputBytes = new AtomicLong();
+    outputBytes = new AtomicLong();
+    terminatedThreadsLatency = new LatencyHistogram();
+    latencies = new ThreadRecorderRegistry<LatencyHistogram>(new ThreadRecorderRegistry.RecorderLifecycle<LatencyHistogram>() {
+      public final LatencyHistogram newRecorder() {
+        return new LatencyHistogram();
+      }
+
+      public final void retire(final LatencyHistogram recorder) {
+        terminatedThreadsLatency.add(recorder);
+      }
+    });
+  }
+
+  final static synchronized TransformerMetrics register(final String transformerName) {
+    final TransformerMetrics result = new TransformerMetrics(transformerName);
+    final TransformerMetrics[] registered = Arrays.copyOf(TransformerMetrics.registered, TransformerMetrics.registered.length + 1);
+    registered[registered.length - 1] = result;
+    TransformerMetrics.registered = registered;
+    return result;
+  }
+
+  /**
+   * Registers {@link TransformerMetricsMXBean} in the platform {@link javax.management.MBeanServer} under the name {@value #OBJECT_NAME}.
+   * Does nothing if the MBean is already registered.
+   *
+   * @throws javax.management.JMException If the MBean can't be registered.
+   */
+  public final static synchronized void registerMBean() throws JMException {
+    final ObjectName objectName = new ObjectName(OBJECT_NAME);
+    if (!ManagementFactory.getPlatformMBeanServer()
+        .isRegistered(objectName)) {
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(new MXBean(), objectName);
+    }
+  }
+
+  /**
+   * Returns statistics of all transformers.
+   *
+   * @return Statistics of transformers in the order the transformers were created.
+   */
+  public final static List<TransformerStatistics> getAllStatistics() {
+    final TransformerMetrics[] registered = TransformerMetrics.registered;
+    final List<TransformerStatistics> result = new ArrayList<TransformerStatistics>(registered.length);
+    for (final TransformerMetrics metrics : registered) {
+      result.add(metrics.getStatistics());
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns the {@value #SLOWEST_TRANSFORMATIONS} slowest transformations of all transformers.
+   * Only invocations that were accepted for transformation are taken into account.
+   *
+   * @return Transformations in the descending order of durations.
+   */
+  public final static List<SlowTransformation> getSlowestTransformations() {
+    final List<SlowTransformation> result = new ArrayList<SlowTransformation>(SLOWEST_TRANSFORMATIONS);
+    for (int i = 0; i < SLOWEST.length(); i++) {
+      final SlowTransformation transformation = SLOWEST.get(i);
+      if (transformation != null) {
+        result.add(transformation);
+      }
+    }
+    Collections.sort(result, SLOWER_FIRST);
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns a human-readable report of {@link #getAllStatistics()} and {@link #getSlowestTransformations()}, one item per line.
+   * Transformers that haven't seen any class are omitted.
+   *
+   * @return The report.
+   */
+  public final static String report() {
+    final StringBuilder result = new StringBuilder("Transformers:");
+    for (final TransformerStatistics statistics : getAllStatistics()) {
+      if (statistics.getClassesSeen() > 0) {
+        result.append(System.lineSeparator())
+            .append(statistics);
+      }
+    }
+    result.append(System.lineSeparator())
+        .append("Slowest transformations:");
+    for (final SlowTransformation transformation : getSlowestTransformations()) {
+      result.append(System.lineSeparator())
+          .append(transformation);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Returns the current snapshot of the metrics.
+   *
+   * @return Statistics of the transformer.
+   */
+  public final TransformerStatistics getStatistics() {
+    final LatencyHistogram latency = new LatencyHistogram();
+    synchronized (latencies) {
+      final List<LatencyHistogram> recorders = latencies.retireTerminatedThreads();
+      latency.add(terminatedThreadsLatency);
+      for (final LatencyHistogram recorder : recorders) {
+        latency.add(recorder);
+      }
+    }
+    return new TransformerStatistics(transformerName, classesSeen.get(), classesAccepted.get(), classesTransformed.get(),
+        classesSkippedFrozen.get(), classesFromCache.get(), failures.get(), inputBytes.get(), outputBytes.get(), latency.getMean(),
+        latency.getValueAtPercentile(50), latency.getValueAtPercentile(99), latency.getMax());
+  }
+
+  final void recordAccepted() {
+    classesAccepted.incrementAndGet();
+  }
+
+  final void recordFromCache() {
+    classesFromCache.incrementAndGet();
+  }
+
+  final void recordSkippedFrozen() {
+    classesSkippedFrozen.incrementAndGet();
+  }
+
+  final void recordTransformed(final int inputBytes, final int outputBytes) {
+    classesTransformed.incrementAndGet();
+    this.inputBytes.addAndGet(inputBytes);
+    this.outputBytes.addAndGet(outputBytes);
+  }
+
+  /**
+   * Records an invocation of {@link AbstractTransformer#transform(ClassLoader, String, Class, java.security.ProtectionDomain, byte[])}.
+   *
+   * @param accepted Whether the class was accepted for transformation, only such invocations may get to {@link #getSlowestTransformations()}.
+   * @param failed Whether the transformation failed with an exception.
+   */
+  final void recordInvocation(final String className, final long nanos, final boolean accepted, final boolean failed) {
+    classesSeen.incrementAndGet();
+    if (failed) {
+      failures.incrementAndGet();
+    }
+    latencies.get()
+        .record(nanos);
+    if (accepted && (nanos > SLOWEST_THRESHOLD_NANOS.get())) {
+      recordSlow(new SlowTransformation(transformerName, className, nanos));
+    }
+  }
+
+  /**
+   * Replaces the fastest of {@link #SLOWEST} transformations (or a free slot) with the specified transformation if it's slower,
+   * and raises {@link #SLOWEST_THRESHOLD_NANOS} once all slots are taken. A concurrent replacement of the same slot makes the method retry.
+   */
+  private final static void recordSlow(final SlowTransformation transformation) {
+    boolean done = false;
+    while (!done) {
+      int fastestIndex = -1;
+      SlowTransformation fastest = null;
+      for (int i = 0; (i < SLOWEST.length()) && ((fastestIndex < 0) || (fastest != null)); i++) {
+        final SlowTransformation slow = SLOWEST.get(i);
+        if ((fastestIndex < 0) || (slow == null) || (slow.getNanos() < fastest.getNanos())) {
+          fastestIndex = i;
+          fastest = slow;
+        }
+      }
+      if ((fastest != null) && (fastest.getNanos() >= transformation.getNanos())) {// all slots are taken by slower transformations
+        raiseSlowestThreshold(fastest.getNanos());
+        done = true;
+      } else {
+        done = SLOWEST.compareAndSet(fastestIndex, fastest, transformation);
+      }
+    }
+  }
+
+  /**
+   * Sets {@link #SLOWEST_THRESHOLD_NANOS} to {@code nanos} unless it's already not lower, so concurrent invocations never lower the threshold.
+   */
+  private final static void raiseSlowestThreshold(final long nanos) {
+    boolean done = false;
+    while (!done) {
+      final long threshold = SLOWEST_THRESHOLD_NANOS.get();
+      done = (threshold >= nanos) || SLOWEST_THRESHOLD_NANOS.compareAndSet(threshold, nanos);
+    }
+  }
+}
\ No newline at end of file
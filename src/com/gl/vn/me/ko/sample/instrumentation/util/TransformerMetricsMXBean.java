@@ -0,0 +1,31 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.util.List;
+
+/**
+ * The management interface of {@link TransformerMetrics}, see {@link TransformerMetrics#registerMBean()}.
+ * <p>
+ * Thread safety: implementations must be thread-safe.
+ */
+public interface TransformerMetricsMXBean {
+  /**
+   * Returns statistics of all transformers, see {@link TransformerMetrics#getAllStatistics()}.
+   *
+   * @return Statistics of transformers in the order the transformers were created.
+   */
+  List<TransformerStatistics> getTransformers();
+
+  /**
+   * Returns the slowest transformations, see {@link TransformerMetrics#getSlowestTransformations()}.
+   *
+   * @return Transformations in the descending order of durations.
+   */
+  List<SlowTransformation> getSlowestTransformations();
+
+  /**
+   * Returns a human-readable report, see {@link TransformerMetrics#report()}.
+   *
+   * @return The report.
+   */
+  String report();
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.gl.vn.me.ko.sample.instrumentation.util;
+
+import java.util.Locale;
+
+/**
+ * A snapshot of {@link TransformerMetrics} of a single {@link AbstractTransformer}.
+ * The class follows the rules of JMX MXBeans, so snapshots are exposed via {@link TransformerMetricsMXBean} as {@code CompositeData}.
+ * <p>
+ * Instantiability: allowed only from inside {@link com.gl.vn.me.ko.sample.instrumentation.util} package.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class TransformerStatistics {
+  private final String transformerName;
+  private final long classesSeen;
+  private final long classesAccepted;
+  private final long classesTransformed;
+  private final long classesSkippedFrozen;
+  private final long classesFromCache;
+  private final long failures;
+  private final long inputBytes;
+  private final long outputBytes;
+  private final double meanNanos;
+  private final long medianNanos;
+  private final long p99Nanos;
+  private final long maxNanos;
+
+  TransformerStatistics(final String transformerName, final long classesSeen, final long classesAccepted, final long classesTransformed,
+      final long classesSkippedFrozen, final long classesFromCache, final long failures, final long inputBytes, final long outputBytes,
+      final double meanNanos, final long medianNanos, final long p99Nanos, final long maxNanos) {
+    this.transformerName = transformerName;
+    this.classesSeen = classesSeen;
+    this.classesAccepted = classesAccepted;
+    this.classesTransformed = classesTransformed;
+    this.classesSkippedFrozen = classesSkippedFrozen;
+    this.classesFromCache = classesFromCache;
+    this.failures = failures;
+    this.inputBytes = inputBytes;
+    this.outputBytes = outputBytes;
+    this.meanNanos = meanNanos;
+    this.medianNanos = medianNanos;
+    this.p99Nanos = p99Nanos;
+    this.maxNanos = maxNanos;
+  }
+
+  /**
+   * Returns the name of the class of the transformer.
+   *
+   * @return The fully qualified name of the class.
+   */
+  public final String getTransformerName() {
+    return transformerName;
+  }
+
+  /**
+   * Returns the number of invocations of
+   * {@link AbstractTransformer#transform(ClassLoader, String, Class, java.security.ProtectionDomain, byte[])}.
+   *
+   * @return The number of classes the transformer has seen.
+   */
+  public final long getClassesSeen() {
+    return classesSeen;
+  }
+
+  /**
+   * Returns the number of classes accepted by {@link AbstractTransformer#acceptClassForTransformation(ClassLoader, String)}.
+   *
+   * @return The number of accepted classes.
+   */
+  public final long getClassesAccepted() {
+    return classesAccepted;
+  }
+
+  /**
+   * Returns the number of classes for which the transformer returned a class file, including classes found in
+   * the {@link TransformedClassCache}.
+   *
+   * @return The number of transformed classes.
+   */
+  public final long getClassesTransformed() {
+    return classesTransformed;
+  }
+
+  /**
+   * Returns the number of accepted classes that weren't transformed because their {@link javassist.CtClass} objects were frozen.
+   *
+   * @return The number of skipped classes.
+   */
+  public final long getClassesSkippedFrozen() {
+    return classesSkippedFrozen;
+  }
+
+  /**
+   * Returns the number of accepted classes that were found in the {@link TransformedClassCache}.
+   *
+   * @return The number of cache hits.
+   */
+  public final long getClassesFromCache() {
+    return classesFromCache;
+  }
+
+  /**
+   * Returns the number of transformations that failed with an exception.
+   *
+   * @return The number of failures.
+   */
+  public final long getFailures() {
+    return failures;
+  }
+
+  /**
+   * Returns the total size of class files of transformed classes before transformation.
+   *
+   * @return The number of bytes.
+   */
+  public final long getInputBytes() {
+    return inputBytes;
+  }
+
+  /**
+   * Returns the total size of class files of transformed classes after transformation.
+   * The difference with {@link #getInputBytes()} estimates how much the transformer grows the footprint of transformed classes.
+   *
+   * @return The number of bytes.
+   */
+  public final long getOutputBytes() {
+    return outputBytes;
+  }
+
+  /**
+   * Returns the mean duration of a transformation.
+   *
+   * @return The mean duration in nanoseconds.
+   */
+  public final double getMeanNanos() {
+    return meanNanos;
+  }
+
+  /**
+   * Returns the median duration of a transformation (see {@link com.gl.vn.me.ko.sample.instrumentation.util.profile.LatencyHistogram}).
+   *
+   * @return The median duration in nanoseconds.
+   */
+  public final long getMedianNanos() {
+    return medianNanos;
+  }
+
+  /**
+   * Returns the 99th percentile of the duration of a transformation.
+   *
+   * @return The 99th percentile in nanoseconds.
+   */
+  public final long getP99Nanos() {
+    return p99Nanos;
+  }
+
+  /**
+   * Returns the maximal duration of a transformation.
+   *
+   * @return The maximal duration in nanoseconds.
+   */
+  public final long getMaxNanos() {
+    return maxNanos;
+  }
+
+  @Override
+  public final String toString() {
+    return String.format(Locale.ENGLISH,
+        "%s: seen %d, accepted %d, transformed %d (%d from cache), skipped frozen %d, failed %d, %d -> %d bytes, " +
+            "mean %.0f ns, p50 %d ns, p99 %d ns, max %d ns",
+        transformerName, classesSeen, classesAccepted, classesTransformed, classesFromCache, classesSkippedFrozen, failures, inputBytes,
+        outputBytes, meanNanos, medianNanos, p99Nanos, maxNanos);
+  }
+}
\ No newline at end of file
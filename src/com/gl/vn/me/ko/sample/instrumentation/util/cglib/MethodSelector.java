@@ -0,0 +1,57 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.cglib;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Selects methods of a proxy class that are intercepted by the callback
+ * (see {@link Proxy#newProxyInstance(Class, Class[], net.sf.cglib.proxy.Callback, MethodSelector, Class[], Object[])}).
+ * Methods that aren't selected are not overridden by the proxy class at all (see {@link net.sf.cglib.proxy.NoOp}),
+ * so their invocations cost exactly as much as invocations of the original methods.
+ * <p>
+ * Proxy classes are cached per selector, so an implementation must either be a singleton,
+ * or override {@link Object#equals(Object)} and {@link Object#hashCode()} methods.
+ * The cache refers to selectors weakly, so a cached proxy class is reused only while a selector equal to the one it was generated for
+ * is reachable, e.g. is stored in a {@code static final} field.
+ * Names of proxy classes are derived from the methods a selector selects (see {@link #getSelectionIdentity(Collection)})
+ * rather than from the class of the selector, so the selection must depend only on the method and the state of the selector.
+ * <p>
+ * Thread safety: implementations must be thread-safe.
+ */
+public interface MethodSelector {
+  /**
+   * Checks if the method must be intercepted.
+   *
+   * @param method A method of the proxy class that can be intercepted, i.e. a non-final and non-private method.
+   *
+   * @return {@code true} if the callback must be invoked instead of {@code method}, {@code false} if {@code method} must be invoked as is.
+   */
+  boolean select(Method method);
+
+  /**
+   * Returns a description of the selection that is the same in every JVM run, so it can be a part of the name of a proxy class
+   * (see {@link Proxy}). Selectors that select the same methods have the same identity regardless of their classes,
+   * and a selector that is configured differently has a different identity.
+   * There is rarely a reason to override this method.
+   *
+   * @param methods Methods of a proxy class that can be intercepted. Must be not {@code null}.
+   *
+   * @return Sorted signatures (the name and the method descriptor) of the methods selected by {@link #select(Method)} among {@code methods}.
+   */
+  default String getSelectionIdentity(final Collection<Method> methods) {
+    if (methods == null) {
+      throw new NullPointerException("The argument 'methods' is null");
+    }
+    final SortedSet<String> signatures = new TreeSet<String>();
+    for (final Method method : methods) {
+      if (select(method)) {
+        signatures.add(method.getName() + MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+            .toMethodDescriptorString());
+      }
+    }
+    return String.join(";", signatures);
+  }
+}
\ No newline at end of file
@@ -1,8 +1,42 @@
 package com.gl.vn.me.ko.sample.instrumentation.util.cglib;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nullable;
+import net.sf.cglib.core.ClassNameReader;
+import net.sf.cglib.core.CodeGenerationException;
+import net.sf.cglib.core.DefaultGeneratorStrategy;
+import net.sf.cglib.core.NamingPolicy;
+import net.sf.cglib.core.Predicate;
 import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Dispatcher;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.FixedValue;
+import net.sf.cglib.proxy.InvocationHandler;
+import net.sf.cglib.proxy.LazyLoader;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.NoOp;
+import net.sf.cglib.proxy.ProxyRefDispatcher;
+import org.objectweb.asm.ClassReader;
 
 /**
  * Provides static methods for creating dynamic proxy instances by using CGLib framework.
@@ -38,22 +72,283 @@ import net.sf.cglib.proxy.Enhancer;
  * </pre>
  *
  * </blockquote>
+ * A proxy class is generated only once for each combination of the superclass, the interfaces, the kind of the callback
+ * (e.g. {@link net.sf.cglib.proxy.MethodInterceptor}) and the {@link MethodSelector}.
+ * Only the generated class and handles of its constructors are cached, and instances are created by invoking the constructors
+ * with callbacks passed via {@code CGLIB$SET_THREAD_CALLBACKS} (see {@link net.sf.cglib.proxy.Enhancer#registerCallbacks(Class, Callback[])}),
+ * without any locks, reflection or invocations of CGLib generation machinery. So neither proxy instances nor callbacks are retained
+ * by the cache, and the cache doesn't refer to classes of callbacks. The cached classes are associated (see {@link java.lang.ClassValue})
+ * with the class which class loader defines them, i.e. the superclass, or the first interface if the superclass is {@link Object},
+ * and are retained as long as that class is. {@link MethodSelector}s are referenced weakly, so the cache never retains a selector
+ * or its class loader.
+ * <p>
+ * Names of generated classes don't depend on the JVM run: the name of a proxy class is derived from the names of the superclass,
+ * the interfaces, the kinds of callbacks and the methods selected by the {@link MethodSelector}
+ * (see {@link MethodSelector#getSelectionIdentity(java.util.Collection)}), and the name of a {@link net.sf.cglib.reflect.FastClass}
+ * is derived from the name of the class it serves. So proxy classes and their {@link net.sf.cglib.reflect.FastClass} companions
+ * can be generated at build time (see {@link ProxyClassGenerator}) and packaged together with the application.
+ * Before generating a class this class tries to load the class with the same name, and generates it only if the class can't be loaded,
+ * so with prebuilt classes on the class path neither CGLib nor ASM generate anything at run time.
+ * Prebuilt classes are only valid for the versions of the superclass, the interfaces and CGLib they were generated with.
+ * <p>
  * Instantiability: forbidden.<br>
  * Thread safety: thread-safe.
  */
-/*
- * For simplicity thread-safety is implemented in far not the best way,
- * so if one intend to use this class in performance-critical multithreading environment,
- * one should consider to use more than one instance of Enhancer and refactor the synchronization with lock striping technique.
- */
 public final class Proxy {
-  private final static Enhancer ENHANCER;
-  private final static Object LOCK;
+  /**
+   * Routes methods selected by a {@link MethodSelector} to the callback with index 0, and other methods to {@link net.sf.cglib.proxy.NoOp}
+   * callback with index 1.
+   * Instances are equal if their selectors are equal, so CGLib reuses proxy classes generated for equal selectors.
+   * <p>
+   * Instantiability: allowed only from inside {@link Proxy} class.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class SelectingCallbackFilter implements CallbackFilter {
+    private final MethodSelector methodSelector;
+
+    private SelectingCallbackFilter(final MethodSelector methodSelector) {
+      this.methodSelector = methodSelector;
+    }
+
+    public final int accept(final Method method) {
+      return methodSelector.select(method) ? 0 : 1;
+    }
+
+    @Override
+    public final boolean equals(@Nullable final Object object) {
+      return (object instanceof SelectingCallbackFilter) && methodSelector.equals(((SelectingCallbackFilter)object).methodSelector);
+    }
+
+    @Override
+    public final int hashCode() {
+      return methodSelector.hashCode();
+    }
+  }
+
+  /**
+   * Initializes a generated class while CGLib treats this enhancer as the current generator (see
+   * {@link net.sf.cglib.core.AbstractClassGenerator#getCurrent()}). The static initializer of a proxy class creates
+   * {@link net.sf.cglib.reflect.FastClass}es for intercepted methods, and generators of {@link net.sf.cglib.reflect.FastClass}es
+   * inherit the naming policy, the generator strategy and the "attempt load" setting only from the current generator.
+   * <p>
+   * Instantiability: allowed only from inside {@link Proxy} class.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: not thread-safe.
+   */
+  private final static class ProxyEnhancer extends Enhancer {
+    private ProxyEnhancer() {
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected final Object firstInstance(final Class type) throws Exception {
+      Class.forName(type.getName(), true, type.getClassLoader());
+      return super.firstInstance(type);
+    }
+  }
+
+  /**
+   * Produces names that are the same in every JVM run (see {@link Proxy}), unlike {@link net.sf.cglib.core.DefaultNamingPolicy},
+   * which uses hash codes of generator keys.
+   * A name of a proxy class is given out only once per class loader that defines proxy classes, even if the class was loaded
+   * rather than generated, because {@link Proxy#newProxyClass(Class, Class[], Callback, MethodSelector)} binds callbacks to the class,
+   * so two invocations must never share a class. The second class with the same properties in the same class loader gets the suffix
+   * {@code _2}, and so on. Names given out in one class loader don't affect names in another one.
+   * <p>
+   * Instantiability: allowed only from inside {@link Proxy} class.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class StableNamingPolicy implements NamingPolicy {
+    private final String discriminator;
+    private final Set<String> claimedNames;// names of proxy classes given out in the class loader of the generated class
+
+    private StableNamingPolicy(final String discriminator, final Set<String> claimedNames) {
+      this.discriminator = discriminator;
+      this.claimedNames = claimedNames;
+    }
+
+    public final String getClassName(@Nullable final String prefix, final String source, final Object key, final Predicate names) {
+      final String baseName = ((prefix == null) ? DEFAULT_CLASS_NAME_PREFIX : (prefix.startsWith("java") ? "$" + prefix : prefix)) + "$$" +
+          source.substring(source.lastIndexOf('.') + 1) + "ByCGLIB";
+      String result;
+      if (ENHANCER_SOURCE.equals(source)) {
+        final String proxyClassName = baseName + "$$" + discriminator;
+        result = proxyClassName;
+        for (int i = 2; names.evaluate(result) || !claimedNames.add(result); i++) {
+          result = proxyClassName + "_" + i;
+        }
+      } else {// a FastClass has no state, so a loaded one is shared, and cglib caches it per class loader
+        result = baseName;
+        for (int i = 2; names.evaluate(result); i++) {
+          result = baseName + "_" + i;
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public final boolean equals(@Nullable final Object object) {
+      return (object instanceof StableNamingPolicy) && discriminator.equals(((StableNamingPolicy)object).discriminator);
+    }
+
+    @Override
+    public final int hashCode() {
+      return discriminator.hashCode();
+    }
+  }
+
+  /**
+   * Identifies a proxy class among proxy classes defined for the same class (see {@link Proxy#owner(Class, Class[])}).
+   * The interfaces are visible from the class loader that defines the proxy class, so they don't prolong the life of any class loader,
+   * while the selector may come from any class loader and is therefore referenced weakly. A key which selector was collected
+   * is equal only to itself, so it's never found again and is removed when the next proxy class is generated for the same class.
+   * <p>
+   * Instantiability: allowed only from inside {@link Proxy} class.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class Key {
+    private final Class<?>[] interfaces;
+    private final Class<? extends Callback> callbackType;
+    @Nullable
+    private final WeakReference<MethodSelector> methodSelector;
+    private final int hashCode;
+
+    private Key(final Class<?>[] interfaces, final Class<? extends Callback> callbackType, @Nullable final MethodSelector methodSelector) {
+      this.interfaces = interfaces;
+      this.callbackType = callbackType;
+      this.methodSelector = methodSelector == null ? null : new WeakReference<MethodSelector>(methodSelector);
+      hashCode = 31 * (31 * Arrays.hashCode(interfaces) + callbackType.hashCode()) + (methodSelector == null ? 0 : methodSelector.hashCode());
+    }
+
+    /**
+     * Checks if the selector of the key was collected, i.e. if the key can't be found anymore.
+     */
+    private final boolean isCleared() {
+      return (methodSelector != null) && (methodSelector.get() == null);
+    }
+
+    @Override
+    public final boolean equals(@Nullable final Object object) {
+      final boolean result;
+      if (this == object) {
+        result = true;
+      } else if (object instanceof Key) {
+        final Key key = (Key)object;
+        if ((callbackType == key.callbackType) && Arrays.equals(interfaces, key.interfaces)) {
+          if ((methodSelector == null) || (key.methodSelector == null)) {
+            result = methodSelector == key.methodSelector;
+          } else {
+            final MethodSelector selector = methodSelector.get();
+            result = (selector != null) && selector.equals(key.methodSelector.get());
+          }
+        } else {
+          result = false;
+        }
+      } else {
+        result = false;
+      }
+      return result;
+    }
+
+    @Override
+    public final int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * A generated proxy class and handles of its constructors. A constructor of a proxy class takes callbacks from a thread-local variable
+   * that is set by the static method {@code CGLIB$SET_THREAD_CALLBACKS} of the class, so the callbacks are passed this way
+   * and are never retained.
+   * <p>
+   * Instantiability: allowed only from inside {@link Proxy} class.<br>
+   * Mutability: mutable (constructor handles are cached lazily).<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class ProxyClass {
+    private final Class<?> type;
+    private final MethodHandle setThreadCallbacks;// (Callback[])void
+    private final ConcurrentMap<List<Class<?>>, MethodHandle> constructors;// argument types -> (Object[])Object
+
+    private ProxyClass(final Class<?> type) {
+      this.type = type;
+      try {
+        setThreadCallbacks = MethodHandles.publicLookup()
+            .findStatic(type, SET_THREAD_CALLBACKS_NAME, MethodType.methodType(void.class, Callback[].class));
+      } catch (final NoSuchMethodException | IllegalAccessException e) {
+        throw new CodeGenerationException(e);
+      }
+      constructors = new ConcurrentHashMap<List<Class<?>>, MethodHandle>();
+    }
+
+    private final Object newInstance(final Callback[] callbacks, final Class<?>[] constructorArgTypes, final Object[] constructorArgs) {
+      final MethodHandle constructor = constructor(constructorArgTypes);
+      final Object result;
+      try {
+        setThreadCallbacks.invokeExact(callbacks);
+        try {
+          result = (Object)constructor.invokeExact(constructorArgs);
+        } finally {
+          setThreadCallbacks.invokeExact((Callback[])null);
+        }
+      } catch (final RuntimeException | Error e) {
+        throw e;
+      } catch (final Throwable e) {
+        throw new CodeGenerationException(e);
+      }
+      return result;
+    }
+
+    private final MethodHandle constructor(final Class<?>[] constructorArgTypes) {
+      MethodHandle result = constructors.get(Arrays.asList(constructorArgTypes));
+      if (result == null) {
+        try {
+          result = MethodHandles.publicLookup()
+              .findConstructor(type, MethodType.methodType(void.class, constructorArgTypes))
+              .asSpreader(Object[].class, constructorArgTypes.length)
+              .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+          throw new IllegalArgumentException("The superclass of " + type.getName() + " has no accessible constructor with arguments of types " +
+              Arrays.toString(constructorArgTypes), e);
+        }
+        final MethodHandle existing = constructors.putIfAbsent(Arrays.asList(constructorArgTypes.clone()), result);
+        if (existing != null) {
+          result = existing;
+        }
+      }
+      return result;
+    }
+  }
+
+  private final static Class<?>[] EMPTY_CLASS_ARRAY;
+  private final static Object[] EMPTY_OBJECT_ARRAY;
+  private final static Class<?>[] CALLBACK_TYPES;// the kinds of callbacks that CGLib distinguishes when generating a proxy class
+  private final static String SET_THREAD_CALLBACKS_NAME;
+  private final static ClassValue<ConcurrentMap<Key, ProxyClass>> PROXY_CLASSES;// owner -> (interfaces, callback type, selector) -> class
+  private final static String DEFAULT_CLASS_NAME_PREFIX;// the same as CGLib uses if there is no prefix
+  private final static String ENHANCER_SOURCE;// the name of the source (see NamingPolicy) of proxy classes
+  private final static Map<ClassLoader, Set<String>> CLAIMED_PROXY_CLASS_NAMES;// weak keys, so class loaders are not retained
+  private final static int DISCRIMINATOR_BYTES;// the number of bytes of the digest that are used in names of proxy classes
 
   static {
-    ENHANCER = new Enhancer();
-    ENHANCER.setUseCache(true);
-    LOCK = new Object();
+    EMPTY_CLASS_ARRAY = new Class<?>[0];
+    EMPTY_OBJECT_ARRAY = new Object[0];
+    CALLBACK_TYPES = new Class<?>[] {NoOp.class, MethodInterceptor.class, InvocationHandler.class, LazyLoader.class, Dispatcher.class,
+        FixedValue.class, ProxyRefDispatcher.class};
+    SET_THREAD_CALLBACKS_NAME = "CGLIB$SET_THREAD_CALLBACKS";
+    PROXY_CLASSES = new ClassValue<ConcurrentMap<Key, ProxyClass>>() {
+      @Override
+      protected final ConcurrentMap<Key, ProxyClass> computeValue(final Class<?> owner) {
+        return new ConcurrentHashMap<Key, ProxyClass>();
+      }
+    };
+    DEFAULT_CLASS_NAME_PREFIX = "net.sf.cglib.empty.Object";
+    ENHANCER_SOURCE = Enhancer.class.getName();
+    CLAIMED_PROXY_CLASS_NAMES = new WeakHashMap<ClassLoader, Set<String>>();
+    DISCRIMINATOR_BYTES = 8;
   }
 
   /**
@@ -62,7 +357,8 @@ public final class Proxy {
    * Provided {@code callback} will be used for every invocation of any non-final and non-private method inherited from
    * {@code superclass} and {@code interfaces}.
    * <p>
-   * Note that if required proxy class was already generated, it will be reused (see {@link net.sf.cglib.proxy.Enhancer#setUseCache(boolean)} method).
+   * Note that if required proxy class was already generated, it will be reused and its instance will be created without any locks
+   * (see {@link Proxy}).
    *
    * @param <T> A type/supertype of {@code superclass} or type/supertype of any interface in {@code interfaces}.
    * The returned object can be explicitly cast to any type that is allowed to be used as {@code T}.
@@ -81,6 +377,34 @@ public final class Proxy {
    * delegate calls to the original object, CGLib-proxies are self-sufficient objects that can have some additional logic besides the original one.
    * This is why CGLib-proxies sometimes called enhanced objects.
    */
+  public final static <T> T newProxyInstance(
+      final Class<?> superclass,
+      @Nullable final Class<?>[] interfaces,
+      final Callback callback,
+      @Nullable final Class<?>[] constructorArgTypes,
+      @Nullable final Object[] constructorArgs) {
+    return newProxyInstance(superclass, interfaces, callback, null, constructorArgTypes, constructorArgs);
+  }
+
+  /**
+   * Acts like {@link #newProxyInstance(Class, Class[], Callback, Class[], Object[])}, but {@code callback} is used only for methods
+   * selected by {@code methodSelector}. Other methods aren't overridden by the proxy class, so their invocations cost nothing extra.
+   * Proxy classes are generated and cached per {@code methodSelector} (see {@link MethodSelector}).
+   *
+   * @param <T> A type/supertype of {@code superclass} or type/supertype of any interface in {@code interfaces}.
+   * @param superclass A class which the generated class will extend.
+   * Must be not {@code null} and must have accessible constructor suitable for provided {@code constructorArgTypes} and {@code constructorArgs}.
+   * @param interfaces Interfaces to implement. Can be {@code null} or empty.
+   * @param callback A callback to use in the generated proxy class for selected methods. Must be not {@code null}.
+   * @param methodSelector Selects methods that are intercepted by {@code callback}.
+   * Can be {@code null}, in this case all methods are intercepted.
+   * @param constructorArgTypes Types of constructor arguments of {@code superclass}.
+   * Can be {@code null} or empty for the no-arguments constructor, must be the same length as {@code constructorArgs}.
+   * @param constructorArgs Constructor arguments of {@code superclass}.
+   * Can be {@code null} or empty for the no-arguments constructor, must be the same length as {@code constructorArgType}.
+   *
+   * @return Proxy (enhanced) object.
+   */
   @edu.umd.cs.findbugs.annotations.SuppressWarnings(value = {"RCN_REDUNDANT_NULLCHECK_WOULD_HAVE_BEEN_A_NPE",
       "NP_PARAMETER_MUST_BE_NONNULL_BUT_MARKED_AS_NULLABLE", "NP_NULL_ON_SOME_PATH"},
       justification = "FindBugs incorrectly analyzes check of preconditions in this method")
@@ -88,44 +412,314 @@ public final class Proxy {
       final Class<?> superclass,
       @Nullable final Class<?>[] interfaces,
       final Callback callback,
+      @Nullable final MethodSelector methodSelector,
       @Nullable final Class<?>[] constructorArgTypes,
       @Nullable final Object[] constructorArgs) {
     if (superclass == null) {
-      throw new NullPointerException("The first argument 'superclass' is null");
+      throw new NullPointerException("The argument 'superclass' is null");
     } else if (callback == null) {
-      throw new NullPointerException("The second argument 'methodInterceptor' is null");
+      throw new NullPointerException("The argument 'callback' is null");
     } else if ((constructorArgTypes == null) && (constructorArgs != null)) {
-      throw new NullPointerException("The fourth argument 'constructorArgTypes' is null and the fifth argument 'constructorArgs' is not null");
+      throw new NullPointerException("The argument 'constructorArgTypes' is null and the argument 'constructorArgs' is not null");
     } else if ((constructorArgTypes != null) && (constructorArgs == null)) {
-      throw new NullPointerException("The fourth argument 'constructorArgTypes' is not null and the fifth argument 'constructorArgs' is null");
+      throw new NullPointerException("The argument 'constructorArgTypes' is not null and the argument 'constructorArgs' is null");
     } else if ((constructorArgTypes != null) && (constructorArgs != null) && (constructorArgTypes.length != constructorArgs.length)) {
       throw new NullPointerException(
-          "The length of the fourth argument 'constructorArgTypes' is not the same as the length of the fifth argument 'constructorArgs'");
+          "The length of the argument 'constructorArgTypes' is not the same as the length of the argument 'constructorArgs'");
     }
     @SuppressWarnings("null")
     // because of preconditions checks null pointer access is impossible
     final boolean useNoArgConstructor =
         ((constructorArgTypes == null) && (constructorArgs == null)) || ((constructorArgTypes.length == 0) && (constructorArgs.length == 0));
-    final T result;
-    synchronized (LOCK) {
-      ENHANCER.setCallback(callback);
-      ENHANCER.setSuperclass(superclass);
-      if (interfaces != null) {
-        if (interfaces.length > 0) {
-          ENHANCER.setInterfaces(interfaces);
+    final Key key = new Key(((interfaces == null) || (interfaces.length == 0)) ? EMPTY_CLASS_ARRAY : interfaces.clone(),
+        callbackType(callback), methodSelector);
+    final Callback[] callbacks = callbacks(callback, methodSelector);
+    final ConcurrentMap<Key, ProxyClass> proxyClasses = PROXY_CLASSES.get(owner(superclass, key.interfaces));
+    ProxyClass proxyClass = proxyClasses.get(key);
+    if (proxyClass == null) {
+      proxyClass = generateSharedProxyClass(superclass, key, callbacks, methodSelector, proxyClasses);
+    }
+    @SuppressWarnings("unchecked") final T result = (T)(useNoArgConstructor ? proxyClass.newInstance(callbacks, EMPTY_CLASS_ARRAY,
+        EMPTY_OBJECT_ARRAY) : proxyClass.newInstance(callbacks, constructorArgTypes, constructorArgs));
+    return result;
+  }
+
+  /**
+   * Generates (or loads) a proxy class for {@code key} unless another thread has already done so.
+   * Generation is rare, so it's simply serialized per owner, which guarantees a single class per key,
+   * and keys which selectors were collected are removed at this point.
+   */
+  private final static ProxyClass generateSharedProxyClass(
+      final Class<?> superclass,
+      final Key key,
+      final Callback[] callbacks,
+      @Nullable final MethodSelector methodSelector,
+      final ConcurrentMap<Key, ProxyClass> proxyClasses) {
+    ProxyClass result;
+    synchronized (proxyClasses) {
+      result = proxyClasses.get(key);
+      if (result == null) {
+        for (final Iterator<Key> iterator = proxyClasses.keySet()
+            .iterator(); iterator.hasNext();) {
+          if (iterator.next()
+              .isCleared()) {
+            iterator.remove();
+          }
         }
+        final Enhancer enhancer = newEnhancer(superclass, key.interfaces, callbacks, methodSelector);
+        enhancer.setUseCache(false);// the class is cached by this class, CGLib cache would retain the callback filter
+        enhancer.setCallbackTypes(callbackTypes(callbacks));
+        result = new ProxyClass(enhancer.createClass());
+        proxyClasses.put(key, result);
       }
-      if (useNoArgConstructor) {
-        @SuppressWarnings("unchecked") final T enhancedObject = (T)ENHANCER.create();
-        result = enhancedObject;
-      } else {
-        @SuppressWarnings("unchecked") final T enhancedObject = (T)ENHANCER.create(constructorArgTypes, constructorArgs);
-        result = enhancedObject;
+    }
+    return result;
+  }
+
+  /**
+   * Generates a new proxy class that extends provided {@code superclass} and implements {@code interfaces},
+   * and binds provided {@code callback} to the class (see {@link net.sf.cglib.proxy.Enhancer#registerStaticCallbacks(Class, Callback[])}),
+   * so instances of the class can be created by invoking its constructors directly, e.g. via a {@link java.lang.invoke.MethodHandle}
+   * that is stored in a {@code static final} field:
+   * <blockquote>
+   *
+   * <pre>
+   * Class&lt;?&gt; proxyClass = Proxy.newProxyClass(MyClass.class, null, new MyMethodInterceptor());
+   * MethodHandle constructor = MethodHandles.publicLookup().findConstructor(proxyClass, MethodType.methodType(void.class, int.class))
+   * 		.asType(MethodType.methodType(MyClass.class, int.class));
+   * ...
+   * MyClass proxy = (MyClass)constructor.invokeExact(1);
+   * </pre>
+   *
+   * </blockquote>
+   * Unlike {@link #newProxyInstance(Class, Class[], Callback, Class[], Object[])}, which needs arrays of constructor arguments
+   * and their types, creation of an instance this way needs neither arrays, nor boxing, nor reflection.
+   * <p>
+   * Every invocation of this method generates a new class (because the callback is bound to the class), so the caller is responsible
+   * for reusing the returned class.
+   *
+   * @param superclass A class which the generated class will extend. Must be not {@code null}.
+   * @param interfaces Interfaces to implement. Can be {@code null} or empty.
+   * {@link net.sf.cglib.proxy.Factory} interface will always be implemented regardless of what is specified here.
+   * @param callback A callback to use in all instances of the generated proxy class. Must be not {@code null}.
+   *
+   * @return A public proxy class that has the same constructors as {@code superclass} has.
+   */
+  public final static Class<?> newProxyClass(final Class<?> superclass, @Nullable final Class<?>[] interfaces, final Callback callback) {
+    return newProxyClass(superclass, interfaces, callback, null);
+  }
+
+  /**
+   * Acts like {@link #newProxyClass(Class, Class[], Callback)}, but {@code callback} is used only for methods selected by
+   * {@code methodSelector}. Other methods aren't overridden by the proxy class, so their invocations cost nothing extra.
+   *
+   * @param superclass A class which the generated class will extend. Must be not {@code null}.
+   * @param interfaces Interfaces to implement. Can be {@code null} or empty.
+   * @param callback A callback to use in all instances of the generated proxy class for selected methods. Must be not {@code null}.
+   * @param methodSelector Selects methods that are intercepted by {@code callback}.
+   * Can be {@code null}, in this case all methods are intercepted.
+   *
+   * @return A public proxy class that has the same constructors as {@code superclass} has.
+   */
+  public final static Class<?> newProxyClass(
+      final Class<?> superclass,
+      @Nullable final Class<?>[] interfaces,
+      final Callback callback,
+      @Nullable final MethodSelector methodSelector) {
+    if (superclass == null) {
+      throw new NullPointerException("The argument 'superclass' is null");
+    } else if (callback == null) {
+      throw new NullPointerException("The argument 'callback' is null");
+    }
+    final Callback[] callbacks = callbacks(callback, methodSelector);
+    final Enhancer enhancer = newEnhancer(superclass, interfaces, callbacks, methodSelector);
+    enhancer.setUseCache(false);// the class must not be shared, because the callback is bound to it
+    enhancer.setCallbackTypes(callbackTypes(callbacks));
+    final Class<?> result = enhancer.createClass();
+    Enhancer.registerStaticCallbacks(result, callbacks);
+    return result;
+  }
+
+  /**
+   * Generates the same classes that {@link #newProxyClass(Class, Class[], Callback, MethodSelector)} would load or generate
+   * (a proxy class and {@link net.sf.cglib.reflect.FastClass}es), but always generates them and returns their class files.
+   * {@link net.sf.cglib.reflect.FastClass}es that were already generated in this JVM run are not generated again.
+   *
+   * @return Class files of generated classes mapped to binary names of the classes.
+   */
+  final static Map<String, byte[]> generateProxyClass(
+      final Class<?> superclass,
+      @Nullable final Class<?>[] interfaces,
+      final Callback callback,
+      @Nullable final MethodSelector methodSelector) {
+    final Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+    final Callback[] callbacks = callbacks(callback, methodSelector);
+    final Enhancer enhancer = newEnhancer(superclass, interfaces, callbacks, methodSelector);
+    enhancer.setUseCache(false);
+    enhancer.setAttemptLoad(false);// classes must be generated even if they are already on the class path
+    enhancer.setStrategy(new DefaultGeneratorStrategy() {
+      @Override
+      protected final byte[] transform(final byte[] bytes) {
+        result.put(ClassNameReader.getClassName(new ClassReader(bytes)), bytes);
+        return bytes;
+      }
+    });
+    enhancer.setCallbackTypes(callbackTypes(callbacks));
+    enhancer.createClass();
+    return result;
+  }
+
+  private final static Enhancer newEnhancer(
+      final Class<?> superclass,
+      @Nullable final Class<?>[] interfaces,
+      final Callback[] callbacks,
+      @Nullable final MethodSelector methodSelector) {
+    final Enhancer result = new ProxyEnhancer();// Enhancer is mutable, so every generation uses its own instance
+    result.setAttemptLoad(true);// a prebuilt class is loaded instead of being generated
+    result.setSuperclass(superclass);
+    if ((interfaces != null) && (interfaces.length > 0)) {
+      result.setInterfaces(interfaces);
+    }
+    result.setNamingPolicy(new StableNamingPolicy(discriminator(superclass, interfaces, callbacks, methodSelector),
+        claimedProxyClassNames(result.getClassLoader())));
+    if (methodSelector != null) {
+      result.setCallbackFilter(new SelectingCallbackFilter(methodSelector));
+    }
+    return result;
+  }
+
+  /**
+   * Returns names of proxy classes given out in {@code classLoader}. The set is retained as long as the class loader is.
+   */
+  private final static Set<String> claimedProxyClassNames(@Nullable final ClassLoader classLoader) {
+    Set<String> result;
+    synchronized (CLAIMED_PROXY_CLASS_NAMES) {
+      result = CLAIMED_PROXY_CLASS_NAMES.get(classLoader);
+      if (result == null) {
+        result = ConcurrentHashMap.newKeySet();
+        CLAIMED_PROXY_CLASS_NAMES.put(classLoader, result);
       }
     }
     return result;
   }
 
+  /**
+   * Returns the class which class loader defines proxy classes for {@code superclass} and {@code interfaces}
+   * (see {@link net.sf.cglib.proxy.Enhancer#getDefaultClassLoader()}), so the cached proxy classes don't outlive their class loader.
+   */
+  private final static Class<?> owner(final Class<?> superclass, final Class<?>[] interfaces) {
+    return ((superclass == Object.class) && (interfaces.length > 0)) ? interfaces[0] : superclass;
+  }
+
+  /**
+   * Returns callbacks that correspond to {@link SelectingCallbackFilter} if {@code methodSelector} is not {@code null}.
+   */
+  private final static Callback[] callbacks(final Callback callback, @Nullable final MethodSelector methodSelector) {
+    return methodSelector == null ? new Callback[] {callback} : new Callback[] {callback, NoOp.INSTANCE};
+  }
+
+  private final static Class<?>[] callbackTypes(final Callback[] callbacks) {
+    final Class<?>[] result = new Class<?>[callbacks.length];
+    for (int i = 0; i < callbacks.length; i++) {
+      result[i] = callbackType(callbacks[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the kind of the callback that determines the generated code (see {@link #CALLBACK_TYPES}) rather than the class
+   * of the callback, so proxy classes are shared by callbacks of different classes and don't refer to the classes of callbacks.
+   */
+  private final static Class<? extends Callback> callbackType(final Callback callback) {
+    Class<? extends Callback> result = null;
+    for (int i = 0; (i < CALLBACK_TYPES.length) && (result == null); i++) {
+      if (CALLBACK_TYPES[i].isInstance(callback)) {
+        result = CALLBACK_TYPES[i].asSubclass(Callback.class);
+      }
+    }
+    if (result == null) {
+      throw new IllegalArgumentException("The callback " + callback.getClass().getName() + " is of unknown kind");
+    }
+    return result;
+  }
+
+  /**
+   * Returns a part of the name of the proxy class that identifies the class among proxy classes with the same superclass.
+   * The part is a hexadecimal representation of a prefix of the SHA-256 digest of names of all types that determine the proxy class
+   * and of signatures of the methods selected by {@code methodSelector}, so it's the same in every JVM run.
+   */
+  private final static String discriminator(
+      final Class<?> superclass,
+      @Nullable final Class<?>[] interfaces,
+      final Callback[] callbacks,
+      @Nullable final MethodSelector methodSelector) {
+    final StringBuilder description = new StringBuilder(superclass.getName()).append('|');
+    if (interfaces != null) {
+      for (final Class<?> anInterface : interfaces) {
+        description.append(anInterface.getName())
+            .append(',');
+      }
+    }
+    description.append('|');
+    for (final Callback callback : callbacks) {
+      description.append(callbackType(callback).getName())
+          .append(',');
+    }
+    description.append('|')
+        .append(methodSelector == null ? "" : methodSelector.getSelectionIdentity(interceptableMethods(superclass, interfaces)));
+    final byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256")
+          .digest(description.toString()
+              .getBytes(StandardCharsets.UTF_8));
+    } catch (final NoSuchAlgorithmException e) {
+      throw new RuntimeException("SHA-256 is supported by every implementation of the Java platform", e);
+    }
+    final StringBuilder result = new StringBuilder(2 * DISCRIMINATOR_BYTES);
+    for (int i = 0; i < DISCRIMINATOR_BYTES; i++) {
+      result.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+          .append(Character.forDigit(digest[i] & 0xF, 16));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Returns methods that a proxy class can override: non-static, non-private and non-final methods of {@code superclass},
+   * its superclasses and the interfaces, one per signature, the most specific first.
+   */
+  private final static Collection<Method> interceptableMethods(final Class<?> superclass, @Nullable final Class<?>[] interfaces) {
+    final Map<String, Method> methods = new LinkedHashMap<String, Method>();// signature -> the most specific method
+    for (Class<?> clazz = superclass; clazz != null; clazz = clazz.getSuperclass()) {
+      addMethods(clazz.getDeclaredMethods(), methods);
+    }
+    addMethods(superclass.getMethods(), methods);// methods of implemented interfaces
+    if (interfaces != null) {
+      for (final Class<?> anInterface : interfaces) {
+        addMethods(anInterface.getMethods(), methods);
+      }
+    }
+    final Collection<Method> result = new ArrayList<Method>(methods.size());
+    for (final Method method : methods.values()) {
+      if (!Modifier.isFinal(method.getModifiers())) {
+        result.add(method);
+      }
+    }
+    return result;
+  }
+
+  private final static void addMethods(final Method[] methods, final Map<String, Method> signatureToMethod) {
+    for (final Method method : methods) {
+      final int modifiers = method.getModifiers();
+      if (!Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers)) {
+        final String signature = method.getName() + MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+            .toMethodDescriptorString();
+        if (!signatureToMethod.containsKey(signature)) {// a final method hides the overridden one
+          signatureToMethod.put(signature, method);
+        }
+      }
+    }
+  }
+
   private Proxy() {
     throw new UnsupportedOperationException("The class is not designed to be instantiated");
   }
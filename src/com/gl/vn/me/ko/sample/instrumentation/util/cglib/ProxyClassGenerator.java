@@ -0,0 +1,140 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.cglib;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+import net.sf.cglib.proxy.Callback;
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Generates CGLib-proxy classes and their {@link net.sf.cglib.reflect.FastClass} companions at build time
+ * and writes their class files to a directory, so the classes can be packaged together with the application.
+ * At run time {@link Proxy} loads such prebuilt classes instead of generating them, which removes CGLib bytecode generation
+ * from the startup of the application.
+ * A proxy class is generated exactly like {@link Proxy#newProxyClass(Class, Class[], Callback, MethodSelector)} would generate it,
+ * and the prebuilt class is used by both {@link Proxy#newProxyClass(Class, Class[], Callback, MethodSelector)} and
+ * {@link Proxy#newProxyInstance(Class, Class[], Callback, MethodSelector, Class[], Object[])}.
+ * Proxy classes are generated in the order of specifications; each specification results in one proxy class,
+ * so the same specification must be repeated if the application creates more than one such proxy class (see {@link Proxy}).
+ * <p>
+ * Usage:<br>
+ * {@code java com.gl.vn.me.ko.sample.instrumentation.util.cglib.ProxyClassGenerator <output directory> <specification>...}<br>
+ * where a specification is {@code <superclass>:<callback>[:<method selector>]}, and the callback and the method selector are specified
+ * either as {@code <class name>#<field name>} of a {@code static} field, or as a class name. A class must either have
+ * a {@code static} field {@code INSTANCE} of the class type, or a no-arguments constructor. Access modifiers of classes, fields
+ * and constructors don't matter, because callbacks are usually not a part of an API. Only the kind of the callback
+ * (e.g. {@link net.sf.cglib.proxy.MethodInterceptor}) matters for the generated class, and only the methods the method selector selects
+ * (see {@link MethodSelector#getSelectionIdentity(java.util.Collection)}) matter.
+ * The class path of the tool must contain the specified classes, CGLib framework and the classes they need.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ProxyClassGenerator {
+  private final static String CLASS_FILE_SUFFIX;
+  private final static String INSTANCE_FIELD_NAME;
+  private final static char SPECIFICATION_SEPARATOR;
+  private final static char FIELD_SEPARATOR;
+
+  static {
+    CLASS_FILE_SUFFIX = ".class";
+    INSTANCE_FIELD_NAME = "INSTANCE";
+    SPECIFICATION_SEPARATOR = ':';
+    FIELD_SEPARATOR = '#';
+  }
+
+  /**
+   * Tool entry point. See {@link ProxyClassGenerator} for the description of arguments.
+   *
+   * @param args Command-line arguments.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: java " + ProxyClassGenerator.class.getName() +
+          " <output directory> <superclass>:<callback>[:<method selector>]...");
+      System.exit(1);// any return code different from 0 is treated as abnormal termination
+    }
+    BasicConfigurator.configure();
+    Logger.getRootLogger()
+        .setLevel(Level.WARN);// only problems are interesting for a build tool
+    final File outputDirectory = new File(args[0]);
+    final long start = System.nanoTime();
+    final Map<String, byte[]> classFiles = new LinkedHashMap<String, byte[]>();
+    for (int i = 1; i < args.length; i++) {
+      classFiles.putAll(generate(args[i]));
+    }
+    final long generationNanos = System.nanoTime() - start;
+    for (final Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+      write(outputDirectory, classFile.getKey(), classFile.getValue());
+    }
+    System.out.println(String.format(Locale.ENGLISH,
+        "Generated %d classes for %d proxy specifications into '%s' in %.1f ms, this time is no longer spent at run time",
+        classFiles.size(), args.length - 1, outputDirectory, generationNanos / 1e6));
+  }
+
+  private final static Map<String, byte[]> generate(final String specification) throws Exception {
+    final String[] parts = specification.split(String.valueOf(SPECIFICATION_SEPARATOR));
+    if ((parts.length < 2) || (parts.length > 3)) {
+      throw new IllegalArgumentException("The specification '" + specification + "' doesn't match <superclass>:<callback>[:<method selector>]");
+    }
+    final Class<?> superclass = Class.forName(parts[0]);
+    final Callback callback = resolve(parts[1], Callback.class);
+    @Nullable
+    final MethodSelector methodSelector = (parts.length == 3) ? resolve(parts[2], MethodSelector.class) : null;
+    return Proxy.generateProxyClass(superclass, null, callback, methodSelector);
+  }
+
+  private final static <T> T resolve(final String reference, final Class<T> type) throws Exception {
+    final int fieldSeparatorIndex = reference.indexOf(FIELD_SEPARATOR);
+    final Class<?> clazz = Class.forName(fieldSeparatorIndex < 0 ? reference : reference.substring(0, fieldSeparatorIndex));
+    Field field = null;
+    try {
+      field = clazz.getDeclaredField(fieldSeparatorIndex < 0 ? INSTANCE_FIELD_NAME : reference.substring(fieldSeparatorIndex + 1));
+    } catch (final NoSuchFieldException e) {
+      if (fieldSeparatorIndex >= 0) {
+        throw e;
+      }
+      // the object is instantiated via the constructor
+    }
+    final Object result;
+    if ((field != null) && Modifier.isStatic(field.getModifiers())) {
+      field.setAccessible(true);
+      result = field.get(null);
+    } else {
+      final Constructor<?> constructor = clazz.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      result = constructor.newInstance();
+    }
+    if (!type.isInstance(result)) {
+      throw new IllegalArgumentException("'" + reference + "' doesn't refer to " + type.getName());
+    }
+    return type.cast(result);
+  }
+
+  private final static void write(final File outputDirectory, final String className, final byte[] bytes) throws IOException {
+    final File file = new File(outputDirectory, className.replace('.', File.separatorChar) + CLASS_FILE_SUFFIX);
+    final File directory = file.getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Can't create the directory '" + directory + "'");
+    }
+    try (final OutputStream outputStream = new FileOutputStream(file)) {
+      outputStream.write(bytes);
+    }
+  }
+
+  private ProxyClassGenerator() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.javassist;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.ClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.NotFoundException;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link javassist.ClassPool} that caches not more than the specified number of {@link javassist.CtClass} objects.
+ * When the bound is exceeded, a not recently used object is evicted from the cache (see {@link ClockCache}),
+ * so the next request of the same class reads the class file from the class path again.
+ * <p>
+ * {@link javassist.ClassPool} stores all cached objects in {@link javassist.ClassPool#classes} table,
+ * but accesses the table only via {@link javassist.ClassPool#getCached(String)}, {@link javassist.ClassPool#cacheCtClass(String, CtClass, boolean)}
+ * and {@link javassist.ClassPool#removeCached(String)} methods (except for the constructor which puts primitive types to the table),
+ * so the class overrides these methods and keeps objects in its own concurrent cache instead.
+ * <p>
+ * {@link javassist.ClassPool#get0(String, boolean)} is {@code synchronized}, so all threads that request classes from the same
+ * {@link javassist.ClassPool} object (and from its children, because a class pool delegates to its parent) are serialized.
+ * This class overrides the method and finds cached objects in the hierarchy of class pools without acquiring any monitor,
+ * only a cache miss falls back to the {@code synchronized} method of {@link javassist.ClassPool}.
+ * <p>
+ * A cache miss makes {@link javassist.ClassPool} search the class path of every class pool in the hierarchy, which is expensive
+ * (e.g. {@link javassist.LoaderClassPath} asks a class loader for a resource), and is repeated every time a class that doesn't exist is requested.
+ * So the class also caches results of lookups of a bounded number of names: either the class pool which owns the class,
+ * so the next lookup goes directly to the class path of the owner, or the fact that the class can't be found, so the next lookup doesn't search at all.
+ * These results are invalidated when the search path of any {@link BoundedClassPool} is modified.
+ * <p>
+ * Instantiability: allowed from inside the package.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ */
+final class BoundedClassPool extends ClassPool {
+  /**
+   * A result of a lookup of a class in the hierarchy of class pools.
+   */
+  private final static class Lookup {
+    /**
+     * {@code null} if the class can't be found.
+     */
+    @Nullable
+    private final BoundedClassPool owner;
+    private final int classPathVersion;
+
+    private Lookup(@Nullable final BoundedClassPool owner, final int classPathVersion) {
+      this.owner = owner;
+      this.classPathVersion = classPathVersion;
+    }
+  }
+
+  /**
+   * Is incremented every time the search path of any {@link BoundedClassPool} is modified.
+   * A {@link Lookup} is only valid if it was started when the version was the same as the current one.
+   */
+  private final static AtomicInteger CLASS_PATH_VERSION;
+  private final ClockCache<CtClass> cachedCtClasses;
+  private final ClockCache<Lookup> cachedLookups;
+
+  static {
+    CLASS_PATH_VERSION = new AtomicInteger();
+  }
+
+  /**
+   * Creates a class pool with the specified parent.
+   *
+   * @param parent The parent class pool, or {@code null} if the class pool is a root.
+   * @param classPath The only element of the search path of the new class pool, or {@code null} if the search path must be empty.
+   * Unlike {@link #appendClassPath(ClassPath)}, this doesn't invalidate cached lookups, because no lookups were made via a new class pool.
+   * @param maxCachedCtClasses Maximal number of cached {@link javassist.CtClass} objects. Must be positive.
+   * @param maxCachedLookups Maximal number of cached results of lookups. Must be positive.
+   */
+  BoundedClassPool(
+      @Nullable final ClassPool parent,
+      @Nullable final ClassPath classPath,
+      final int maxCachedCtClasses,
+      final int maxCachedLookups) {
+    super(parent);
+    if (maxCachedCtClasses <= 0) {
+      throw new IllegalArgumentException("The third argument 'maxCachedCtClasses' must be positive");
+    } else if (maxCachedLookups <= 0) {
+      throw new IllegalArgumentException("The fourth argument 'maxCachedLookups' must be positive");
+    }
+    cachedCtClasses = new ClockCache<CtClass>(maxCachedCtClasses);
+    cachedLookups = new ClockCache<Lookup>(maxCachedLookups);
+    if (classPath != null) {
+      super.appendClassPath(classPath);
+    }
+  }
+
+  @Override
+  public final ClassPath appendClassPath(final ClassPath classPath) {
+    final ClassPath result = super.appendClassPath(classPath);
+    CLASS_PATH_VERSION.incrementAndGet();
+    return result;
+  }
+
+  @Override
+  public final ClassPath appendClassPath(final String pathname) throws NotFoundException {
+    final ClassPath result = super.appendClassPath(pathname);
+    CLASS_PATH_VERSION.incrementAndGet();
+    return result;
+  }
+
+  @Override
+  public final ClassPath appendSystemPath() {
+    final ClassPath result = super.appendSystemPath();
+    CLASS_PATH_VERSION.incrementAndGet();
+    return result;
+  }
+
+  @Override
+  public final ClassPath insertClassPath(final ClassPath classPath) {
+    final ClassPath result = super.insertClassPath(classPath);
+    CLASS_PATH_VERSION.incrementAndGet();
+    return result;
+  }
+
+  @Override
+  public final ClassPath insertClassPath(final String pathname) throws NotFoundException {
+    final ClassPath result = super.insertClassPath(pathname);
+    CLASS_PATH_VERSION.incrementAndGet();
+    return result;
+  }
+
+  @Override
+  public final void removeClassPath(final ClassPath classPath) {
+    super.removeClassPath(classPath);
+    CLASS_PATH_VERSION.incrementAndGet();
+  }
+
+  @Override
+  @Nullable
+  protected final CtClass get0(final String className, final boolean useCache) throws NotFoundException {
+    CtClass result = useCache ? getCachedInHierarchy(className) : null;
+    if (result == null) {
+      final int classPathVersion = CLASS_PATH_VERSION.get();// must be read before the lookup
+      final Lookup lookup = cachedLookups.get(className);
+      final boolean knownAbsent;
+      if ((lookup != null) && (lookup.classPathVersion == classPathVersion)) {
+        knownAbsent = lookup.owner == null;
+        if (!knownAbsent) {
+          result = lookup.owner.getOwn(className, useCache);
+        }
+      } else {
+        knownAbsent = false;
+      }
+      if ((result == null) && !knownAbsent) {// either the lookup isn't cached, or the owner can no longer find the class
+        result = super.get0(className, useCache);
+        final ClassPool owner = result == null ? null : result.getClassPool();
+        if ((result == null) || (owner instanceof BoundedClassPool)) {
+          cachedLookups.put(className, new Lookup((BoundedClassPool)owner, classPathVersion));
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  @Nullable
+  protected final CtClass getCached(final String className) {
+    final CtClass result = cachedCtClasses.get(className);
+    return result == null ? super.getCached(className)// primitive types
+        : result;
+  }
+
+  @Override
+  protected final void cacheCtClass(final String className, @Nullable final CtClass ctClass, final boolean dynamic) {
+    if (ctClass != null) {// CtClass.detach() caches null if the detached object wasn't cached
+      cachedCtClasses.put(className, ctClass);
+    }
+  }
+
+  @Override
+  @Nullable
+  protected final CtClass removeCached(final String className) {
+    return cachedCtClasses.remove(className);
+  }
+
+  /**
+   * Acts like {@link javassist.ClassPool#get0(String, boolean)} would act if all class pools in the hierarchy only had cached objects.
+   */
+  @Nullable
+  private final CtClass getCachedInHierarchy(final String className) {
+    CtClass result = null;
+    ClassPool classPool = this;
+    while (classPool instanceof BoundedClassPool) {
+      final BoundedClassPool boundedClassPool = (BoundedClassPool)classPool;
+      result = boundedClassPool.getCached(className);
+      if ((result != null) || boundedClassPool.childFirstLookup) {// a child-first class pool searches its class path before the parent
+        break;
+      }
+      classPool = boundedClassPool.parent;
+    }
+    return result;
+  }
+
+  /**
+   * Acts like {@link javassist.ClassPool#get0(String, boolean)} would act if the parent had no class with the specified name.
+   * Is used when this class pool is known to own the class, so there is no need to ask the parent.
+   */
+  @Nullable
+  private final synchronized CtClass getOwn(final String className, final boolean useCache) {
+    CtClass result = useCache ? getCached(className) : null;
+    if (result == null) {
+      result = createCtClass(className, useCache);
+      if ((result != null) && useCache) {
+        cacheCtClass(result.getName(), result, false);
+      }
+    }
+    return result;
+  }
+}
\ No newline at end of file
@@ -4,20 +4,54 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 import javassist.ClassPath;
 import javassist.ClassPool;
+import javassist.LoaderClassPath;
+import javax.annotation.Nullable;
 
 /**
- * Provides a convenient API of creating and reusing an instance of {@link javassist.ClassPool}.
+ * Provides a convenient API of creating and reusing instances of {@link javassist.ClassPool}.
  * <p>
- * Note that it doesn't support hierarchy of class loaders.
- * It means that the class is not applicable for cases when classes with the same name are loaded with different class loaders.
+ * The manager maintains a tree of {@link javassist.ClassPool} objects that mirrors delegation of class loaders.
+ * The root class pool (see {@link #getClassPool()}) searches the system class path and class path elements
+ * prepended/appended via {@link #prependClassPath(ClassPath)}/{@link #appendClassPath(ClassPath)}, it's used for the bootstrap class loader.
+ * Any other class loader gets its own class pool (see {@link #getClassPool(ClassLoader)}) which searches classes via the class loader
+ * and is a child of the class pool of the parent class loader, so the class pool first delegates to its parent, just like the class loader does.
+ * The manager references class loaders weakly, and class pools reference their class loaders weakly too,
+ * so a class pool is discarded when its class loader is collected.
+ * Class pools of class loaders are kept in a concurrent identity-keyed registry (see {@link ClassPoolRegistry}),
+ * so obtaining the class pool of a class loader doesn't block and doesn't depend on the number of class loaders.
+ * <p>
+ * Every class pool caches not more than {@link #MAX_CACHED_CT_CLASSES} {@link javassist.CtClass} objects
+ * and not more than {@link #MAX_CACHED_LOOKUPS} results of lookups of classes (see {@link BoundedClassPool}),
+ * the least recently used objects are evicted.
  * <p>
  * Instantiability: forbidden.<br>
  * Thread safety: thread-safe.
  */
 final class ClassPoolManager {
   /**
-   * Modifications of {@link #classPool}, {@link #preserveClassPath}, {@link #PREPENDED_CLASSPATH_ELEMENTS}, {@link #APPENDED_CLASSPATH_ELEMENTS}
-   * must be synchronized via this object.
+   * Name of the system property that specifies {@link #MAX_CACHED_CT_CLASSES}.
+   * Value of this constant is {@value} .
+   */
+  final static String MAX_CACHED_CT_CLASSES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.javassist.maxCachedCtClasses";
+  /**
+   * Maximal number of {@link javassist.CtClass} objects cached by a single class pool.
+   * Is specified by the system property {@link #MAX_CACHED_CT_CLASSES_PROPERTY}, the default value is 1024.
+   */
+  final static int MAX_CACHED_CT_CLASSES;
+  /**
+   * Name of the system property that specifies {@link #MAX_CACHED_LOOKUPS}.
+   * Value of this constant is {@value} .
+   */
+  final static String MAX_CACHED_LOOKUPS_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.javassist.maxCachedLookups";
+  /**
+   * Maximal number of results of lookups of classes (either the owning class pool, or the fact that a class can't be found)
+   * cached by a single class pool.
+   * Is specified by the system property {@link #MAX_CACHED_LOOKUPS_PROPERTY}, the default value is 4096.
+   */
+  final static int MAX_CACHED_LOOKUPS;
+  /**
+   * Modifications of {@link #classPool}, {@link #classPoolRegistry}, {@link #preserveClassPath}, {@link #PREPENDED_CLASSPATH_ELEMENTS}
+   * and {@link #APPENDED_CLASSPATH_ELEMENTS} must be synchronized via this object.
    */
   private final static Object LOCK;
   /**
@@ -31,13 +65,27 @@ final class ClassPoolManager {
   private static boolean preserveClassPath;// all reads and writes are inside synchronized blocks, so volatile modifier isn't required
   // must be volatile because there are reads of the field outside synchronized blocks (see getClassPool() method)
   private static volatile ClassPool classPool;
+  /**
+   * Class pools of class loaders except for the bootstrap class loader, they are descendants of {@link #classPool}.
+   * Is replaced with a new registry when {@link #classPool} is recreated.
+   */
+  private static volatile ClassPoolRegistry classPoolRegistry;
 
   static {
+    MAX_CACHED_CT_CLASSES = Integer.getInteger(MAX_CACHED_CT_CLASSES_PROPERTY, 1024);
+    if (MAX_CACHED_CT_CLASSES <= 0) {
+      throw new IllegalArgumentException("The system property '" + MAX_CACHED_CT_CLASSES_PROPERTY + "' must be positive");
+    }
+    MAX_CACHED_LOOKUPS = Integer.getInteger(MAX_CACHED_LOOKUPS_PROPERTY, 4096);
+    if (MAX_CACHED_LOOKUPS <= 0) {
+      throw new IllegalArgumentException("The system property '" + MAX_CACHED_LOOKUPS_PROPERTY + "' must be positive");
+    }
     LOCK = new Object();
     PREPENDED_CLASSPATH_ELEMENTS = new LinkedHashSet<ClassPath>();
     APPENDED_CLASSPATH_ELEMENTS = new LinkedHashSet<ClassPath>();
     preserveClassPath = false;
     classPool = null;
+    classPoolRegistry = new ClassPoolRegistry();
     ClassPool.doPruning = false;
     ClassPool.releaseUnmodifiedClassFile = true;
   }
@@ -58,7 +106,8 @@ final class ClassPoolManager {
   }
 
   /**
-   * Returns an instance of {@link javassist.ClassPool}. Always returns the same object until {@link #recreateClassPool(boolean)} method is called.
+   * Returns the root instance of {@link javassist.ClassPool}.
+   * Always returns the same object until {@link #recreateClassPool(boolean)} method is called.
    *
    * @return An instance of {@link javassist.ClassPool}.
    *
@@ -78,6 +127,38 @@ final class ClassPoolManager {
     return result;
   }
 
+  /**
+   * Returns an instance of {@link javassist.ClassPool} that searches classes via the specified class loader.
+   * Always returns the same object for the same class loader until either the class loader is collected
+   * or {@link #recreateClassPool(boolean)} method is called.
+   *
+   * @param classLoader A class loader, or {@code null} if the bootstrap class loader.
+   *
+   * @return The root class pool (see {@link #getClassPool()}) if {@code classLoader} is {@code null},
+   * otherwise a class pool which parent is the class pool of the parent of {@code classLoader}.
+   */
+  final static ClassPool getClassPool(@Nullable final ClassLoader classLoader) {
+    ClassPool result;
+    if (classLoader == null) {
+      result = getClassPool();
+    } else {
+      final ClassPoolRegistry registry = classPoolRegistry;
+      result = registry.get(classLoader);
+      if (result == null) {
+        /*
+         * Concurrent threads may create class pools for the same class loader, but only one of them is registered and used.
+         * A class pool registered after the recreation of the root class pool (see recreateClassPool(boolean)) is registered
+         * in the registry that has already been discarded, so it's never used again.
+         */
+        // LoaderClassPath references the class loader weakly
+        final ClassPool newClassPool = new BoundedClassPool(getClassPool(classLoader.getParent()), new LoaderClassPath(classLoader),
+            MAX_CACHED_CT_CLASSES, MAX_CACHED_LOOKUPS);
+        result = registry.putIfAbsent(classLoader, newClassPool);
+      }
+    }
+    return result;
+  }
+
   /**
    * Prepends {@code classPath} to the head of the search path of the {@link javassist.ClassPool} object.
    *
@@ -105,6 +186,7 @@ final class ClassPoolManager {
   final static void recreateClassPool(final boolean preserveClassPath) {
     synchronized (LOCK) {
       classPool = null;
+      classPoolRegistry = new ClassPoolRegistry();// class pools of class loaders are descendants of the root class pool
       ClassPoolManager.preserveClassPath = preserveClassPath;
     }
   }
@@ -113,7 +195,8 @@ final class ClassPoolManager {
    * Must be only invoked inside {@code synchronized (LOCK)} block.
    */
   private final static void initClassPoolUnsync() {
-    final ClassPool classPool = new ClassPool(true);
+    final ClassPool classPool = new BoundedClassPool(null, null, MAX_CACHED_CT_CLASSES, MAX_CACHED_LOOKUPS);
+    classPool.appendSystemPath();
     if (preserveClassPath) {
       final Set<ClassPath> prependedClassPathElementsCopy = new LinkedHashSet<ClassPath>(PREPENDED_CLASSPATH_ELEMENTS);
       PREPENDED_CLASSPATH_ELEMENTS.clear();
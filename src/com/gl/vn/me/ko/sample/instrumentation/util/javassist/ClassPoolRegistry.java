@@ -0,0 +1,92 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.javassist;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javassist.ClassPool;
+import javax.annotation.Nullable;
+
+/**
+ * A concurrent map from class loaders to their {@link javassist.ClassPool} objects.
+ * Class loaders are compared by identity (a class loader may override {@link Object#equals(Object)}, but it's still a distinct loader)
+ * and are referenced weakly, so an entry is removed after its class loader has been collected.
+ * Lookups never block and don't depend on the number of registered class loaders.
+ * <p>
+ * Instantiability: allowed from inside the package.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ */
+final class ClassPoolRegistry {
+  /**
+   * A weak reference to a class loader that is equal to another key if both reference the same class loader,
+   * or if both are the same key (this is required to remove a key which referent has been cleared).
+   */
+  private final static class Key extends WeakReference<ClassLoader> {
+    private final int hash;
+
+    private Key(final ClassLoader classLoader, @Nullable final ReferenceQueue<ClassLoader> queue) {
+      super(classLoader, queue);
+      hash = System.identityHashCode(classLoader);
+    }
+
+    @Override
+    public final int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+      final boolean result;
+      if (this == o) {
+        result = true;
+      } else if (o instanceof Key) {
+        final ClassLoader classLoader = get();
+        result = (classLoader != null) && (classLoader == ((Key)o).get());
+      } else {
+        result = false;
+      }
+      return result;
+    }
+  }
+
+  private final ConcurrentMap<Key, ClassPool> classPools;
+  private final ReferenceQueue<ClassLoader> collectedClassLoaders;
+
+  ClassPoolRegistry() {
+    classPools = new ConcurrentHashMap<Key, ClassPool>();
+    collectedClassLoaders = new ReferenceQueue<ClassLoader>();
+  }
+
+  /**
+   * @param classLoader A class loader. Must be not {@code null}.
+   *
+   * @return The class pool registered for {@code classLoader}, or {@code null} if there is no such class pool.
+   */
+  @Nullable
+  final ClassPool get(final ClassLoader classLoader) {
+    return classPools.get(new Key(classLoader, null));
+  }
+
+  /**
+   * Registers {@code classPool} for {@code classLoader} unless another class pool is already registered for it.
+   * Also removes entries of collected class loaders.
+   *
+   * @param classLoader A class loader. Must be not {@code null}.
+   * @param classPool A class pool. Must be not {@code null}.
+   *
+   * @return The class pool registered for {@code classLoader}: either {@code classPool}, or a class pool registered previously.
+   */
+  final ClassPool putIfAbsent(final ClassLoader classLoader, final ClassPool classPool) {
+    expungeCollected();
+    final ClassPool registeredClassPool = classPools.putIfAbsent(new Key(classLoader, collectedClassLoaders), classPool);
+    return registeredClassPool == null ? classPool : registeredClassPool;
+  }
+
+  private final void expungeCollected() {
+    for (Reference<? extends ClassLoader> key = collectedClassLoaders.poll(); key != null; key = collectedClassLoaders.poll()) {
+      classPools.remove(key);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.javassist;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+
+/**
+ * A concurrent cache that holds not more than the specified number of entries.
+ * When the bound is exceeded, a not recently used entry is evicted (the CLOCK approximation of LRU):
+ * every access sets the reference flag of an entry, and the eviction gives a second chance to entries which flags are set.
+ * Reads never block, and only one thread evicts entries at a time while other threads don't wait for it.
+ * The clock hand keeps its position between evictions and wraps around when it passes the last entry,
+ * so every entry gets its second chance before the hand returns to it.
+ * <p>
+ * Instantiability: allowed from inside the package.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ *
+ * @param <V> Type of cached values.
+ */
+final class ClockCache<V> {
+  /**
+   * An entry of the cache.
+   */
+  private final static class Entry<V> {
+    private final V value;
+    private volatile boolean referenced;
+
+    private Entry(final V value) {
+      this.value = value;
+      referenced = true;
+    }
+  }
+
+  private final int maxSize;
+  private final ConcurrentMap<String, Entry<V>> entries;
+  private final Lock evictionLock;
+  private Iterator<Entry<V>> hand;// guarded by evictionLock
+
+  /**
+   * @param maxSize Maximal number of cached entries. Must be positive.
+   */
+  ClockCache(final int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The argument 'maxSize' must be positive");
+    }
+    this.maxSize = maxSize;
+    entries = new ConcurrentHashMap<String, Entry<V>>();
+    evictionLock = new ReentrantLock();
+    hand = entries.values()
+        .iterator();
+  }
+
+  /**
+   * Returns the cached value and marks it as recently used.
+   *
+   * @param key A key. Must be not {@code null}.
+   *
+   * @return The value, or {@code null} if there is no value cached for {@code key}.
+   */
+  @Nullable
+  final V get(final String key) {
+    final Entry<V> entry = entries.get(key);
+    final V result;
+    if (entry == null) {
+      result = null;
+    } else {
+      if (!entry.referenced) {// avoids writing to the shared memory if possible
+        entry.referenced = true;
+      }
+      result = entry.value;
+    }
+    return result;
+  }
+
+  /**
+   * Caches {@code value} and evicts not recently used entries if the cache is full.
+   *
+   * @param key A key. Must be not {@code null}.
+   * @param value A value. Must be not {@code null}.
+   */
+  final void put(final String key, final V value) {
+    entries.put(key, new Entry<V>(value));
+    if (entries.size() > maxSize) {
+      evict();
+    }
+  }
+
+  /**
+   * Removes the value cached for {@code key}.
+   *
+   * @param key A key. Must be not {@code null}.
+   *
+   * @return The removed value, or {@code null} if there was no value cached for {@code key}.
+   */
+  @Nullable
+  final V remove(final String key) {
+    final Entry<V> entry = entries.remove(key);
+    return entry == null ? null : entry.value;
+  }
+
+  /**
+   * Removes all cached values.
+   */
+  final void clear() {
+    entries.clear();
+  }
+
+  private final void evict() {
+    if (evictionLock.tryLock()) {
+      try {
+        while (entries.size() > maxSize) {
+          if (!hand.hasNext()) {// wraps the hand around
+            hand = entries.values()
+                .iterator();
+            if (!hand.hasNext()) {// entries were concurrently removed
+              break;
+            }
+          }
+          final Entry<V> entry = hand.next();
+          if (entry.referenced) {
+            entry.referenced = false;
+          } else {
+            hand.remove();
+          }
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+}
\ No newline at end of file
@@ -1,25 +1,39 @@
 package com.gl.vn.me.ko.sample.instrumentation.util.javassist;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javassist.CannotCompileException;
 import javassist.ClassPath;
 import javassist.ClassPool;
 import javassist.CtClass;
-import javassist.LoaderClassPath;
 import javassist.NotFoundException;
+import javassist.bytecode.AttributeInfo;
 import javax.annotation.Nullable;
 
 /**
  * Provides API to work with Javassist framework.
  * It also facilitates the creation/recreation of an underlying {@link javassist.ClassPool} object.
  * <p>
- * Note that it doesn't support hierarchy of class loaders.
- * It means that the class is not applicable for cases when classes with the same name are loaded with different class loaders
- * (don't be disoriented by the method {@link #getCtClass(ClassLoader, String)}).
+ * Classes of different class loaders are searched in different {@link javassist.ClassPool} objects that form a tree mirroring delegation of
+ * class loaders (see {@link #getCtClass(ClassLoader, String)}), so classes with the same name loaded with different class loaders are supported.
+ * A {@link javassist.ClassPool} object of a class loader is discarded when the class loader is collected.
+ * Each {@link javassist.ClassPool} object caches a bounded number of {@link javassist.CtClass} objects (1024 by default, can be changed
+ * via the system property {@code com.gl.vn.me.ko.sample.instrumentation.javassist.maxCachedCtClasses}), the least recently used objects are evicted.
+ * Each {@link javassist.ClassPool} object also caches a bounded number of results of lookups of classes (4096 by default, can be changed
+ * via the system property {@code com.gl.vn.me.ko.sample.instrumentation.javassist.maxCachedLookups}): the {@link javassist.ClassPool} object
+ * which owns a class, or the fact that a class can't be found. So a class that can't be found is searched in the class path only once
+ * until either the class path is modified (see {@link #appendClassPath(ClassPath)}, {@link #prependClassPath(ClassPath)})
+ * or {@link #renew(boolean)} is called, and the cost of a lookup doesn't depend on the number of class loaders.
  * <p>
- * The class provides an ability to obtain an exclusive access to its methods, see {@link #lock()} and {@link #unlock()} methods.
+ * The class provides an ability to obtain an exclusive access to its methods, see {@link #lock()} and {@link #unlock()} methods,
+ * or only to methods that work with particular classes, see {@link #lock(Class[])} and {@link #unlock(Class[])} methods.
+ * Methods that work with different classes don't block each other, because locks are striped by class name.
  * <p>
  * Note also that {@link javassist.CtClass} is not thread-safe,
  * so all operations with the class must be explicitly synchronized in case of concurrent access. Unfortunately it's impossible to hide the
@@ -41,18 +55,30 @@ public final class JavassistEnvironment {
   private final static char PACKAGE_SEPARATOR_CHAR;// example: java.lang.Class
   private final static char INTERNAL_PACKAGE_SEPARATOR_CHAR;// example: java/lang/Class
   /**
-   * All public methods, except {@link JavassistEnvironment#lock()}/{@link JavassistEnvironment#unlock()},
-   * must acquire {@link JavassistEnvironment#SHARED_LOCK} in the beginning and release this lock before completion.
+   * Locks striped by class name. Methods that work with a particular class must acquire the read lock of the stripe of the class
+   * (see {@link #sharedLock(String)}) in the beginning and release this lock before completion. Methods that modify class pools
+   * (e.g. {@link #renew(boolean)}) must acquire read locks of all stripes (see {@link #lockAllShared()}).
+   * Write locks are only acquired via {@link #lock()} and {@link #lock(Class[])} methods.
+   * <p>
+   * Locks are not fair, because fairness forces a reader to wait for every queued reader and writer,
+   * which serializes concurrent class loading, while writers are rare.
+   */
+  private final static ReentrantReadWriteLock[] STRIPES;
+  /**
+   * Names of attributes that refer to the constant pool but are unknown to Javassist 3.22, which copies such attributes as is.
+   * A class file with any of these attributes must not be rebuilt (see {@link javassist.CtClass#rebuildClassFile()}),
+   * because rebuilding renumbers entries of the constant pool.
    */
-  private final static Lock SHARED_LOCK;
-  private final static Lock EXCLUSIVE_LOCK;
+  private final static Set<String> CONSTANT_POOL_DEPENDENT_UNKNOWN_ATTRIBUTES;
 
   static {
     PACKAGE_SEPARATOR_CHAR = '.';
     INTERNAL_PACKAGE_SEPARATOR_CHAR = '/';
-    final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock(true);
-    SHARED_LOCK = rwLock.readLock();
-    EXCLUSIVE_LOCK = rwLock.writeLock();
+    STRIPES = new ReentrantReadWriteLock[64];// must be a power of 2
+    for (int i = 0; i < STRIPES.length; i++) {
+      STRIPES[i] = new ReentrantReadWriteLock(false);
+    }
+    CONSTANT_POOL_DEPENDENT_UNKNOWN_ATTRIBUTES = new HashSet<String>(Arrays.asList("NestHost", "NestMembers", "PermittedSubclasses", "Record"));
   }
 
   /**
@@ -70,11 +96,11 @@ public final class JavassistEnvironment {
       throw new NullPointerException("The argument 'classPath' is null");
     }
     final boolean result;
-    SHARED_LOCK.lock();
+    lockAllShared();
     try {
       result = ClassPoolManager.appendClassPath(classPath);
     } finally {
-      SHARED_LOCK.unlock();
+      unlockAllShared();
     }
     return result;
   }
@@ -82,6 +108,11 @@ public final class JavassistEnvironment {
   /**
    * Converts provided class object to a class file.
    * Once this method is called, the class object becomes frozen and further modifications are not possible till the defrost procedure.
+   * Unused entries of the constant pool are removed (see {@link javassist.CtClass#rebuildClassFile()}), unless the class file has attributes
+   * that refer to the constant pool and are unknown to Javassist (e.g. {@code NestMembers} of classes compiled for Java 11+).
+   * The class object is also detached from its {@link javassist.ClassPool} object, so the next time the class is requested,
+   * a new {@link javassist.CtClass} object is read from the class path, while the detached object can be collected as soon as the caller
+   * no longer needs it.
    *
    * @param ctClass Class object to convert. Must be not {@code null}.
    *
@@ -90,15 +121,19 @@ public final class JavassistEnvironment {
    * @throws javassist.CannotCompileException When bytecode transformation has failed.
    * @see javassist.CtClass#isFrozen()
    * @see javassist.CtClass#defrost()
+   * @see javassist.CtClass#detach()
    */
   public final static byte[] getCtBytes(final CtClass ctClass) throws CannotCompileException {
     if (ctClass == null) {
       throw new NullPointerException("The argument 'ctClass' is null");
     }
     final byte[] bytes;
-    SHARED_LOCK.lock();
+    final Lock sharedLock = sharedLock(ctClass.getName());
+    sharedLock.lock();
     try {
-      ctClass.rebuildClassFile();
+      if (isRebuildable(ctClass)) {
+        ctClass.rebuildClassFile();
+      }
       try {
         bytes = ctClass.toBytecode();
       } catch (final CannotCompileException e) {
@@ -106,12 +141,27 @@ public final class JavassistEnvironment {
       } catch (final IOException e) {
         throw new RuntimeException("Exception occurred while trying to get bytecode from class '" + ctClass.getName() + "'", e);
       }
+      ctClass.detach();
     } finally {
-      SHARED_LOCK.unlock();
+      sharedLock.unlock();
     }
     return bytes;
   }
 
+  private final static boolean isRebuildable(final CtClass ctClass) {
+    boolean result = true;
+    @SuppressWarnings("unchecked")
+    final List<AttributeInfo> attributes = ctClass.getClassFile2()
+        .getAttributes();
+    for (final AttributeInfo attribute : attributes) {
+      if (CONSTANT_POOL_DEPENDENT_UNKNOWN_ATTRIBUTES.contains(attribute.getName())) {
+        result = false;
+        break;
+      }
+    }
+    return result;
+  }
+
   /**
    * Acts just like {@link #getCtClass(ClassLoader, String)} considering that supplied instance of {@link java.lang.Class}
    * have information about defining class loader and class name.
@@ -131,42 +181,25 @@ public final class JavassistEnvironment {
     final String classNameToSearchInClassPool = className.replace(INTERNAL_PACKAGE_SEPARATOR_CHAR, PACKAGE_SEPARATOR_CHAR);
     final ClassLoader classLoader = clazz.getClassLoader();
     final CtClass result;
-    SHARED_LOCK.lock();
+    final Lock sharedLock = sharedLock(classNameToSearchInClassPool);
+    sharedLock.lock();
     try {
       result = getCtClassUnsync(classLoader, classNameToSearchInClassPool);
       processCtClassBeforeReturnUnsync(result);
     } finally {
-      SHARED_LOCK.unlock();
+      sharedLock.unlock();
     }
     return result;
   }
 
   /**
    * Reads a class file from the source and returns a reference to the {@link javassist.CtClass} object representing that class file.
-   * This method is equivalent to {@link #getCtClass(String)} except that it tries to get {@link javassist.CtClass} object using known class path
-   * (see {@link #getCtClassOrNull(String)}) and in case
-   * of failure it appends class path obtained from the provided class loader and tries to get the class once again (see {@link #getCtClass(String)}).
-   * In other words the method does something like<br>
-   * <blockquote>
-   *
-   * <pre>
-   * {
-   * 	CtClass result;
-   * 	if (classLoader == null) {// bootstrap class loader
-   * 		result = JavassistEnvironment.getCtClass(className);
-   *  } else {
-   * 		// try to get CtClass using known class path
-   * 		result = JavassistEnvironment.getCtClassOrNull(className);
-   * 		if (result == null) {// class wasn't found in the known class path
-   * 			JavassistEnvironment.appendClassPath(new LoaderClassPath(classLoader));
-   * 			result = JavassistEnvironment.getCtClassUnsync(className);
-   *    }
-   *  }
-   * 	return result;
-   * }
-   * </pre>
-   *
-   * </blockquote>
+   * This method is equivalent to {@link #getCtClass(String)} if {@code classLoader} is {@code null}.
+   * Otherwise the class is searched in the {@link javassist.ClassPool} object of the provided class loader,
+   * which first delegates the search to the {@link javassist.ClassPool} object of the parent class loader,
+   * and then searches the class via the provided class loader.
+   * The {@link javassist.ClassPool} object of the root of the hierarchy searches the system class path and class path elements
+   * prepended/appended via {@link #prependClassPath(ClassPath)}/{@link #appendClassPath(ClassPath)}.
    *
    * @param classLoader The defining loader of the class (should be {@code null} if the bootstrap loader).
    * @param className A fully-qualified class name. Must be not {@code null}.
@@ -182,12 +215,13 @@ public final class JavassistEnvironment {
     }
     final String classNameToSearchInClassPool = className.replace(INTERNAL_PACKAGE_SEPARATOR_CHAR, PACKAGE_SEPARATOR_CHAR);
     final CtClass result;
-    SHARED_LOCK.lock();
+    final Lock sharedLock = sharedLock(classNameToSearchInClassPool);
+    sharedLock.lock();
     try {
       result = getCtClassUnsync(classLoader, classNameToSearchInClassPool);
       processCtClassBeforeReturnUnsync(result);
     } finally {
-      SHARED_LOCK.unlock();
+      sharedLock.unlock();
     }
     return result;
   }
@@ -214,12 +248,13 @@ public final class JavassistEnvironment {
     }
     final String classNameToSearchInClassPool = className.replace(INTERNAL_PACKAGE_SEPARATOR_CHAR, PACKAGE_SEPARATOR_CHAR);
     final CtClass result;
-    SHARED_LOCK.lock();
+    final Lock sharedLock = sharedLock(classNameToSearchInClassPool);
+    sharedLock.lock();
     try {
       result = getCtClassUnsync(classNameToSearchInClassPool);
       processCtClassBeforeReturnUnsync(result);
     } finally {
-      SHARED_LOCK.unlock();
+      sharedLock.unlock();
     }
     return result;
   }
@@ -242,13 +277,74 @@ public final class JavassistEnvironment {
     }
     final String classNameToSearchInClassPool = className.replace(INTERNAL_PACKAGE_SEPARATOR_CHAR, PACKAGE_SEPARATOR_CHAR);
     final CtClass result;
-    SHARED_LOCK.lock();
+    final Lock sharedLock = sharedLock(classNameToSearchInClassPool);
+    sharedLock.lock();
     try {
       result = getCtClassOrNullUnsync(classNameToSearchInClassPool);
       processCtClassBeforeReturnUnsync(result);
     } finally {
-      SHARED_LOCK.unlock();
+      sharedLock.unlock();
+    }
+    return result;
+  }
+
+  /**
+   * Acts just like {@link #getCtClass(ClassLoader, String)}
+   * except that it returns {@code null} when a class file is not found and it never throws an exception.
+   *
+   * @param classLoader The defining loader of the class (should be {@code null} if the bootstrap loader).
+   * @param className A fully-qualified class name. Must be not {@code null}.
+   *
+   * @return A {@link javassist.CtClass} object representing specified class or {@code null}.
+   *
+   * @see #getCtClass(ClassLoader, String)
+   */
+  @Nullable
+  public final static CtClass getCtClassOrNull(@Nullable final ClassLoader classLoader, final String className) {
+    if (className == null) {
+      throw new NullPointerException("The second argument 'className' is null");
+    }
+    final String classNameToSearchInClassPool = className.replace(INTERNAL_PACKAGE_SEPARATOR_CHAR, PACKAGE_SEPARATOR_CHAR);
+    final CtClass result;
+    final Lock sharedLock = sharedLock(classNameToSearchInClassPool);
+    sharedLock.lock();
+    try {
+      result = getCtClassOrNullUnsync(classLoader, classNameToSearchInClassPool);
+      processCtClassBeforeReturnUnsync(result);
+    } finally {
+      sharedLock.unlock();
+    }
+    return result;
+  }
+
+  /**
+   * Creates a {@link javassist.CtClass} object directly from the supplied class file bytes
+   * without searching the class in the class path of the underlying {@link javassist.ClassPool} object.
+   * <p>
+   * The returned object belongs to a new short-lived {@link javassist.ClassPool} object that is a child of the {@link javassist.ClassPool} object
+   * of the supplied class loader (see {@link #getCtClass(ClassLoader, String)}), so classes referenced by the returned object are resolved
+   * the same way {@link #getCtClass(ClassLoader, String)} resolves them. The returned object is never cached by the underlying {@link javassist.ClassPool} object,
+   * so every invocation of the method returns a new unfrozen object.
+   * <p>
+   * Returned object always have pruning turned off.
+   *
+   * @param classLoader The defining loader of the class (should be {@code null} if the bootstrap loader).
+   * @param classfileBuffer Bytes in class file format as specified in "The Java Virtual Machine Specification". Must be not {@code null}.
+   * The array stays unmodified.
+   *
+   * @return A {@link javassist.CtClass} object representing the supplied class file.
+   *
+   * @throws java.io.IOException When the supplied bytes can't be read as a class file.
+   */
+  public final static CtClass makeCtClass(@Nullable final ClassLoader classLoader, final byte[] classfileBuffer) throws IOException {
+    if (classfileBuffer == null) {
+      throw new NullPointerException("The second argument 'classfileBuffer' is null");
     }
+    // no lock is required, because the returned object is not shared and the class pool of the class loader is only read
+    final ClassPool classPool = new ClassPool(ClassPoolManager.getClassPool(classLoader));
+    // ifNotFrozen == false because a frozen class with the same name in the parent class pool must not prevent creation of a new object
+    final CtClass result = classPool.makeClass(new ByteArrayInputStream(classfileBuffer), false);
+    processCtClassBeforeReturnUnsync(result);
     return result;
   }
 
@@ -280,7 +376,43 @@ public final class JavassistEnvironment {
    * @see #unlock()
    */
   public final static void lock() {
-    EXCLUSIVE_LOCK.lock();
+    for (final ReentrantReadWriteLock stripe : STRIPES) {
+      stripe.writeLock()
+          .lock();
+    }
+  }
+
+  /**
+   * Acts just like {@link #lock()} but only blocks methods that work with the specified classes (and classes that share lock stripes with them)
+   * and methods that modify the underlying {@link javassist.ClassPool} objects,
+   * while methods that work with other classes may be invoked concurrently.
+   * The following idiom should be used
+   * <blockquote>
+   *
+   * <pre>
+   * JavassistEnvironment.lock(classes);
+   * try {
+   * 	// exclusive work with the classes
+   * } finally {
+   * 	JavassistEnvironment.unlock(classes);
+   * }
+   * </pre>
+   *
+   * </blockquote>
+   *
+   * @param classes Classes to lock. Must be not {@code null} and must not contain {@code null} elements.
+   *
+   * @see #unlock(Class[])
+   */
+  public final static void lock(final Class<?>[] classes) {
+    if (classes == null) {
+      throw new NullPointerException("The argument 'classes' is null");
+    }
+    final int[] stripeIndices = stripeIndices(classes);
+    for (int i = 0; i < stripeIndices.length; i++) {// stripes are always locked in the same order, so there are no deadlocks
+      STRIPES[stripeIndices[i]].writeLock()
+          .lock();
+    }
   }
 
   /**
@@ -298,11 +430,11 @@ public final class JavassistEnvironment {
       throw new NullPointerException("The argument 'classPath' is null");
     }
     final boolean result;
-    SHARED_LOCK.lock();
+    lockAllShared();
     try {
       result = ClassPoolManager.prependClassPath(classPath);
     } finally {
-      SHARED_LOCK.unlock();
+      unlockAllShared();
     }
     return result;
   }
@@ -315,11 +447,11 @@ public final class JavassistEnvironment {
    * in a new instance of {@link javassist.ClassPool}.
    */
   public final static void renew(final boolean preserveClassPath) {
-    SHARED_LOCK.lock();
+    lockAllShared();
     try {
       ClassPoolManager.recreateClassPool(preserveClassPath);
     } finally {
-      SHARED_LOCK.unlock();
+      unlockAllShared();
     }
   }
 
@@ -332,41 +464,108 @@ public final class JavassistEnvironment {
    * @see #lock()
    */
   public final static void unlock() {
-    EXCLUSIVE_LOCK.unlock();
+    for (int i = STRIPES.length - 1; i >= 0; i--) {
+      STRIPES[i].writeLock()
+          .unlock();
+    }
   }
 
   /**
-   * Invocations must be synchronized using {@link #SHARED_LOCK} object.
+   * Releases the lock acquired via {@link #lock(Class[])}.
+   * If the current thread is not the holder of this lock then {@link java.lang.IllegalMonitorStateException} is thrown.
+   *
+   * @param classes Classes to unlock. Must be the same classes that were specified to {@link #lock(Class[])}.
+   *
+   * @see #lock(Class[])
    */
-  @Nullable
-  private final static CtClass getCtClassOrNullUnsync(final String className) {
-    final ClassPool classPool = ClassPoolManager.getClassPool();
-    return classPool.getOrNull(className);
+  public final static void unlock(final Class<?>[] classes) {
+    if (classes == null) {
+      throw new NullPointerException("The argument 'classes' is null");
+    }
+    final int[] stripeIndices = stripeIndices(classes);
+    for (int i = stripeIndices.length - 1; i >= 0; i--) {
+      STRIPES[stripeIndices[i]].writeLock()
+          .unlock();
+    }
+  }
+
+  private final static Lock sharedLock(final String className) {
+    return STRIPES[stripeIndex(className)].readLock();
+  }
+
+  private final static int stripeIndex(final String className) {
+    final int hash = className.hashCode();
+    return (hash ^ (hash >>> 16)) & (STRIPES.length - 1);
   }
 
   /**
-   * Invocations must be synchronized using {@link #SHARED_LOCK} object.
+   * Returns sorted distinct indices of stripes of the classes.
    */
-  private final static CtClass getCtClassUnsync(@Nullable final ClassLoader classLoader, final String className) throws NotFoundException {
-    CtClass result;
-    if (classLoader == null) {// bootstrap class loader
-      result = getCtClassUnsync(className);
-    } else {
-      result = getCtClassOrNullUnsync(className);// try to get CtClass using known class path
-      if (result == null) {// class wasn't found in the known class path
-        final ClassPath classPath = new LoaderClassPath(classLoader);
-        appendClassPath(classPath);
-        result = getCtClassUnsync(className);
+  private final static int[] stripeIndices(final Class<?>[] classes) {
+    final boolean[] stripes = new boolean[STRIPES.length];
+    int count = 0;
+    for (final Class<?> clazz : classes) {
+      if (clazz == null) {
+        throw new NullPointerException("The argument 'classes' contains null element");
+      }
+      final int idx = stripeIndex(clazz.getName());
+      if (!stripes[idx]) {
+        stripes[idx] = true;
+        count++;
+      }
+    }
+    final int[] result = new int[count];
+    for (int i = 0, j = 0; i < stripes.length; i++) {
+      if (stripes[i]) {
+        result[j++] = i;
       }
     }
     return result;
   }
 
+  private final static void lockAllShared() {
+    for (final ReentrantReadWriteLock stripe : STRIPES) {
+      stripe.readLock()
+          .lock();
+    }
+  }
+
+  private final static void unlockAllShared() {
+    for (int i = STRIPES.length - 1; i >= 0; i--) {
+      STRIPES[i].readLock()
+          .unlock();
+    }
+  }
+
   /**
-   * Invocations must be synchronized using {@link #SHARED_LOCK} object.
+   * Invocations must be synchronized using the read lock of the stripe of the class (see {@link #sharedLock(String)}).
+   */
+  @Nullable
+  private final static CtClass getCtClassOrNullUnsync(final String className) {
+    return getCtClassOrNullUnsync(null, className);
+  }
+
+  /**
+   * Invocations must be synchronized using the read lock of the stripe of the class (see {@link #sharedLock(String)}).
+   */
+  @Nullable
+  private final static CtClass getCtClassOrNullUnsync(@Nullable final ClassLoader classLoader, final String className) {
+    final ClassPool classPool = ClassPoolManager.getClassPool(classLoader);
+    return classPool.getOrNull(className);
+  }
+
+  /**
+   * Invocations must be synchronized using the read lock of the stripe of the class (see {@link #sharedLock(String)}).
    */
   private final static CtClass getCtClassUnsync(final String className) throws NotFoundException {
-    final ClassPool classPool = ClassPoolManager.getClassPool();
+    return getCtClassUnsync(null, className);
+  }
+
+  /**
+   * Invocations must be synchronized using the read lock of the stripe of the class (see {@link #sharedLock(String)}).
+   */
+  private final static CtClass getCtClassUnsync(@Nullable final ClassLoader classLoader, final String className) throws NotFoundException {
+    final ClassPool classPool = ClassPoolManager.getClassPool(classLoader);
     final CtClass result;
     try {
       result = classPool.get(className);
@@ -377,7 +576,8 @@ public final class JavassistEnvironment {
   }
 
   /**
-   * Invocations must be synchronized using {@link #SHARED_LOCK} object.
+   * Invocations must be synchronized using the read lock of the stripe of the class (see {@link #sharedLock(String)})
+   * unless {@code ctClass} is not shared with other threads.
    */
   private final static void processCtClassBeforeReturnUnsync(@Nullable final CtClass ctClass) {
     if (ctClass != null) {
@@ -0,0 +1,266 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.log;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Logs events without formatting messages and doing I/O in the logging thread. This matters for code that is executed while
+ * classes are loaded (e.g. {@link java.lang.instrument.ClassFileTransformer}s), because class loading is often serialized
+ * by class loading locks, so a slow appender slows down all threads that load classes.
+ * <p>
+ * Messages are specified by patterns with placeholders {@code "{}"} (e.g. {@code "Transforming class '{}' took {} ns"})
+ * and up to three arguments (one of which may be a {@code long}, which is not boxed), and are formatted only if the level of the logger
+ * is enabled. If {@link #start(int)} was invoked, an event is stored in a preallocated ring buffer and is formatted and passed to
+ * appenders by a background daemon thread, so logging doesn't allocate. If the buffer is full, the event is dropped and counted
+ * (see {@link #getDroppedCount()}) instead of blocking the logging thread; the number of dropped events is logged periodically
+ * by the background thread. If {@link #start(int)} wasn't invoked, or after {@link #stop()}, events are formatted and logged synchronously.
+ * <p>
+ * Asynchronously logged events have the timestamp and the thread name of the logging thread,
+ * but location information (e.g. the class and the method that log the event) is replaced by the name of the logger.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class AsyncLog {
+  private final static Logger LOGGER;
+  private final static String FQCN;
+  private final static long PARK_NANOS;// how long the background thread sleeps if there are no events
+  private final static long DROPPED_REPORT_INTERVAL_NANOS;
+  @Nullable
+  private static volatile LogRingBuffer buffer;
+  @Nullable
+  private static Thread drainer;// guarded by AsyncLog.class
+
+  static {
+    LOGGER = Logger.getLogger(AsyncLog.class);
+    FQCN = AsyncLog.class.getName();
+    PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    DROPPED_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    buffer = null;
+    drainer = null;
+  }
+
+  /**
+   * Starts asynchronous logging. Does nothing if asynchronous logging is already started.
+   *
+   * @param capacity The minimal number of events that can wait for the background thread, it's rounded up to a power of two.
+   * Must be positive.
+   */
+  public final static synchronized void start(final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The argument 'capacity' must be positive");
+    }
+    if (drainer == null) {
+      final LogRingBuffer buffer = new LogRingBuffer(capacity);
+      final Thread drainer = new Thread(new Runnable() {
+        public final void run() {
+          drain(buffer);
+        }
+      }, "async-log");
+      drainer.setDaemon(true);
+      AsyncLog.buffer = buffer;
+      AsyncLog.drainer = drainer;
+      drainer.start();
+    }
+  }
+
+  /**
+   * Stops asynchronous logging and waits until all buffered events are logged. Does nothing if asynchronous logging isn't started.
+   * Events that are logged concurrently with this method may be lost.
+   *
+   * @throws InterruptedException If the current thread was interrupted while waiting.
+   */
+  public final static synchronized void stop() throws InterruptedException {
+    final Thread drainer = AsyncLog.drainer;
+    if (drainer != null) {
+      buffer = null;
+      AsyncLog.drainer = null;
+      drainer.interrupt();
+      drainer.join();
+    }
+  }
+
+  /**
+   * Tells if asynchronous logging is started.
+   *
+   * @return {@code true} if {@link #start(int)} was invoked and {@link #stop()} wasn't.
+   */
+  public final static boolean isStarted() {
+    return buffer != null;
+  }
+
+  /**
+   * Returns the number of events that were dropped because the buffer was full.
+   *
+   * @return The number of dropped events since the last {@link #start(int)}, or {@code 0} if asynchronous logging isn't started.
+   */
+  public final static long getDroppedCount() {
+    final LogRingBuffer buffer = AsyncLog.buffer;
+    return buffer == null ? 0 : buffer.getDropped();
+  }
+
+  /**
+   * Logs a message with the {@link Level#DEBUG} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param message Must be not {@code null}.
+   */
+  public final static void debug(final Logger logger, final String message) {
+    if (logger.isDebugEnabled()) {
+      log(logger, Level.DEBUG, message, null, null, null, 0, null);
+    }
+  }
+
+  /**
+   * Logs a message with the {@link Level#DEBUG} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param pattern A pattern with a placeholder {@code "{}"}. Must be not {@code null}.
+   * @param argument The argument for the placeholder.
+   */
+  public final static void debug(final Logger logger, final String pattern, @Nullable final Object argument) {
+    if (logger.isDebugEnabled()) {
+      log(logger, Level.DEBUG, pattern, argument, null, null, 0, null);
+    }
+  }
+
+  /**
+   * Logs a message with the {@link Level#DEBUG} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param pattern A pattern with placeholders {@code "{}"}. Must be not {@code null}.
+   * @param argument1 The argument for the first placeholder.
+   * @param argument2 The argument for the second placeholder.
+   */
+  public final static void debug(final Logger logger, final String pattern, @Nullable final Object argument1,
+      @Nullable final Object argument2) {
+    if (logger.isDebugEnabled()) {
+      log(logger, Level.DEBUG, pattern, argument1, argument2, null, 0, null);
+    }
+  }
+
+  /**
+   * Logs a message with the {@link Level#DEBUG} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param pattern A pattern with placeholders {@code "{}"}. Must be not {@code null}.
+   * @param argument1 The argument for the first placeholder.
+   * @param argument2 The argument for the second placeholder, it's not boxed.
+   */
+  public final static void debug(final Logger logger, final String pattern, @Nullable final Object argument1, final long argument2) {
+    if (logger.isDebugEnabled()) {
+      log(logger, Level.DEBUG, pattern, argument1, LogRingBuffer.LONG_ARGUMENT, null, argument2, null);
+    }
+  }
+
+  /**
+   * Logs a message with the {@link Level#DEBUG} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param pattern A pattern with placeholders {@code "{}"}. Must be not {@code null}.
+   * @param argument1 The argument for the first placeholder.
+   * @param argument2 The argument for the second placeholder.
+   * @param argument3 The argument for the third placeholder, it's not boxed.
+   */
+  public final static void debug(final Logger logger, final String pattern, @Nullable final Object argument1,
+      @Nullable final Object argument2, final long argument3) {
+    if (logger.isDebugEnabled()) {
+      log(logger, Level.DEBUG, pattern, argument1, argument2, LogRingBuffer.LONG_ARGUMENT, argument3, null);
+    }
+  }
+
+  /**
+   * Logs a message and a {@link Throwable} with the {@link Level#DEBUG} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param pattern A pattern with a placeholder {@code "{}"}. Must be not {@code null}.
+   * @param argument The argument for the placeholder.
+   * @param throwable Must be not {@code null}.
+   */
+  public final static void debug(final Logger logger, final String pattern, @Nullable final Object argument, final Throwable throwable) {
+    if (logger.isDebugEnabled()) {
+      log(logger, Level.DEBUG, pattern, argument, null, null, 0, throwable);
+    }
+  }
+
+  /**
+   * Logs a message and a {@link Throwable} with the {@link Level#ERROR} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param pattern A pattern with a placeholder {@code "{}"}. Must be not {@code null}.
+   * @param argument The argument for the placeholder.
+   * @param throwable Must be not {@code null}.
+   */
+  public final static void error(final Logger logger, final String pattern, @Nullable final Object argument, final Throwable throwable) {
+    if (logger.isEnabledFor(Level.ERROR)) {
+      log(logger, Level.ERROR, pattern, argument, null, null, 0, throwable);
+    }
+  }
+
+  /**
+   * Logs a message and a {@link Throwable} with the {@link Level#ERROR} level.
+   *
+   * @param logger Must be not {@code null}.
+   * @param pattern A pattern with placeholders {@code "{}"}. Must be not {@code null}.
+   * @param argument1 The argument for the first placeholder.
+   * @param argument2 The argument for the second placeholder.
+   * @param throwable Must be not {@code null}.
+   */
+  public final static void error(final Logger logger, final String pattern, @Nullable final Object argument1,
+      @Nullable final Object argument2, final Throwable throwable) {
+    if (logger.isEnabledFor(Level.ERROR)) {
+      log(logger, Level.ERROR, pattern, argument1, argument2, null, 0, throwable);
+    }
+  }
+
+  private final static void log(final Logger logger, final Level level, final String pattern, @Nullable final Object argument1,
+      @Nullable final Object argument2, @Nullable final Object argument3, final long longArgument, @Nullable final Throwable throwable) {
+    final LogRingBuffer buffer = AsyncLog.buffer;
+    if (buffer == null) {
+      final StringBuilder message = new StringBuilder(pattern.length() + 64);
+      LogRingBuffer.format(message, pattern, argument1, argument2, argument3, longArgument);
+      logger.log(FQCN, level, message.toString(), throwable);
+    } else {
+      buffer.offer(logger, level, pattern, argument1, argument2, argument3, longArgument, throwable);
+    }
+  }
+
+  private final static void drain(final LogRingBuffer buffer) {
+    final StringBuilder message = new StringBuilder();
+    long reportedDropped = 0;
+    long reportedNanos = System.nanoTime();
+    boolean stopped = false;
+    while (!stopped) {
+      final int drained = buffer.drain(message);
+      if ((System.nanoTime() - reportedNanos) >= DROPPED_REPORT_INTERVAL_NANOS) {
+        reportedDropped = reportDropped(buffer, reportedDropped);
+        reportedNanos = System.nanoTime();
+      }
+      if (Thread.currentThread()
+          .isInterrupted()) {
+        buffer.drain(message);
+        reportDropped(buffer, reportedDropped);
+        stopped = true;
+      } else if (drained == 0) {
+        LockSupport.parkNanos(PARK_NANOS);
+      }
+    }
+  }
+
+  private final static long reportDropped(final LogRingBuffer buffer, final long reportedDropped) {
+    final long dropped = buffer.getDropped();
+    if (dropped > reportedDropped) {
+      LOGGER.warn(String.format(Locale.ENGLISH, "%d log events were dropped because the buffer was full, %d in total",
+          dropped - reportedDropped, dropped));
+    }
+    return dropped;
+  }
+
+  private AsyncLog() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
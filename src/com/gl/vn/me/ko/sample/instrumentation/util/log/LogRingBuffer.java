@@ -0,0 +1,189 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LocationInfo;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
+
+/**
+ * A bounded multi-producer single-consumer queue of log events used by {@link AsyncLog}.
+ * Slots are preallocated as parallel arrays, and an event is stored as references to its logger, level, pattern, arguments and throwable,
+ * plus a {@code long} argument, so enqueuing an event neither formats, nor allocates. A producer claims a slot via a single CAS
+ * and publishes it by updating the sequence number of the slot (the algorithm of D. Vyukov's bounded MPMC queue);
+ * if there is no free slot, the event is dropped and counted, so producers never block.
+ * The consumer formats events and passes them to appenders of their loggers.
+ * <p>
+ * Instantiability: allowed only from inside {@link com.gl.vn.me.ko.sample.instrumentation.util.log} package.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: {@link #offer(Logger, Level, String, Object, Object, Object, long, Throwable)} is thread-safe,
+ * {@link #drain(StringBuilder)} must be invoked by a single thread at a time.
+ */
+final class LogRingBuffer {
+  /**
+   * An argument that marks the position of the {@code long} argument.
+   */
+  final static Object LONG_ARGUMENT;
+  private final static String PLACEHOLDER;
+  private final int mask;
+  private final AtomicLongArray sequences;// the slot is free if the sequence is equal to the position, and is published if it's position + 1
+  private final AtomicLong tail;// the next position to claim
+  private final AtomicLong dropped;
+  private final Logger[] loggers;
+  private final Level[] levels;
+  private final String[] patterns;
+  private final Object[] arguments1;
+  private final Object[] arguments2;
+  private final Object[] arguments3;
+  private final long[] longArguments;
+  private final Throwable[] throwables;
+  private final String[] threadNames;
+  private final long[] timestamps;
+  private long head;// the next position to consume, accessed only by the consumer
+
+  static {
+    LONG_ARGUMENT = new Object();
+    PLACEHOLDER = "{}";
+  }
+
+  /**
+   * Creates a buffer.
+   *
+   * @param capacity The minimal number of events the buffer can hold, it's rounded up to a power of two. Must be positive.
+   */
+  LogRingBuffer(final int capacity) {
+    if ((capacity <= 0) || (capacity > (1 << 30))) {
+      throw new IllegalArgumentException("The argument 'capacity' must be positive and not greater than 2^30");
+    }
+    final int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    mask = slots - 1;
+    sequences = new AtomicLongArray(slots);
+    for (int i = 0; i < slots; i++) {
+      sequences.set(i, i);
+    }
+    tail = new AtomicLong();
+    dropped = new AtomicLong();
+    loggers = new Logger[slots];
+    levels = new Level[slots];
+    patterns = new String[slots];
+    arguments1 = new Object[slots];
+    arguments2 = new Object[slots];
+    arguments3 = new Object[slots];
+    longArguments = new long[slots];
+    throwables = new Throwable[slots];
+    threadNames = new String[slots];
+    timestamps = new long[slots];
+    head = 0;
+  }
+
+  /**
+   * Enqueues an event if there is a free slot, otherwise drops it. Never blocks and never allocates.
+   *
+   * @return {@code true} if the event was enqueued, {@code false} if it was dropped.
+   */
+  final boolean offer(final Logger logger, final Level level, final String pattern, @Nullable final Object argument1,
+      @Nullable final Object argument2, @Nullable final Object argument3, final long longArgument, @Nullable final Throwable throwable) {
+    boolean result = false;
+    boolean done = false;
+    long position = tail.get();
+    while (!done) {
+      final int index = (int)position & mask;
+      final long sequence = sequences.get(index);
+      if (sequence == position) {
+        if (tail.compareAndSet(position, position + 1)) {
+          loggers[index] = logger;
+          levels[index] = level;
+          patterns[index] = pattern;
+          arguments1[index] = argument1;
+          arguments2[index] = argument2;
+          arguments3[index] = argument3;
+          longArguments[index] = longArgument;
+          throwables[index] = throwable;
+          threadNames[index] = Thread.currentThread()
+              .getName();
+          timestamps[index] = System.currentTimeMillis();
+          sequences.lazySet(index, position + 1);// publishes the event to the consumer
+          result = true;
+          done = true;
+        } else {
+          position = tail.get();// another producer has claimed the slot
+        }
+      } else if (sequence < position) {// the slot wasn't consumed yet, the buffer is full
+        dropped.incrementAndGet();
+        done = true;
+      } else {
+        position = tail.get();// another producer has claimed the slot and the position is stale
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Passes all published events to appenders of their loggers.
+   *
+   * @param buffer A buffer that is used to format messages.
+   *
+   * @return The number of passed events.
+   */
+  final int drain(final StringBuilder buffer) {
+    int result = 0;
+    while (sequences.get((int)head & mask) == head + 1) {
+      final int index = (int)head & mask;
+      final Logger logger = loggers[index];
+      buffer.setLength(0);
+      format(buffer, patterns[index], arguments1[index], arguments2[index], arguments3[index], longArguments[index]);
+      final Throwable throwable = throwables[index];
+      final LoggingEvent event = new LoggingEvent(AsyncLog.class.getName(), logger, timestamps[index], levels[index], buffer.toString(),
+          threadNames[index], throwable == null ? null : new ThrowableInformation(throwable), null,
+          new LocationInfo(LocationInfo.NA, logger.getName(), LocationInfo.NA, LocationInfo.NA), null);// the location is unknown
+      loggers[index] = null;// references are cleared, so the buffer doesn't retain objects
+      patterns[index] = null;
+      arguments1[index] = null;
+      arguments2[index] = null;
+      arguments3[index] = null;
+      throwables[index] = null;
+      threadNames[index] = null;
+      sequences.lazySet(index, head + mask + 1);// frees the slot for the position in the next round
+      head++;
+      logger.callAppenders(event);
+      result++;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of events that were dropped because the buffer was full.
+   *
+   * @return The number of dropped events.
+   */
+  final long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Appends {@code pattern} with placeholders {@code "{}"} replaced by arguments in order. {@link #LONG_ARGUMENT} is replaced by
+   * {@code longArgument}. Placeholders without arguments are appended as is, arguments without placeholders are ignored.
+   */
+  final static void format(final StringBuilder buffer, final String pattern, @Nullable final Object argument1, @Nullable final Object argument2,
+      @Nullable final Object argument3, final long longArgument) {
+    int start = 0;
+    for (int i = 0; i < 3; i++) {
+      final int placeholder = pattern.indexOf(PLACEHOLDER, start);
+      if (placeholder < 0) {
+        break;
+      }
+      buffer.append(pattern, start, placeholder);
+      final Object argument = i == 0 ? argument1 : (i == 1 ? argument2 : argument3);
+      if (argument == LONG_ARGUMENT) {
+        buffer.append(longArgument);
+      } else {
+        buffer.append(argument);
+      }
+      start = placeholder + PLACEHOLDER.length();
+    }
+    buffer.append(pattern, start, pattern.length());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+/**
+ * Contains logging utilities that keep logging off the critical path of class loading
+ * and can be reused as is or with modifications for other applications.
+ */
+@javax.annotation.ParametersAreNonnullByDefault
+package com.gl.vn.me.ko.sample.instrumentation.util.log;
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.regex.Pattern;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.Modifier;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Selects methods to profile and lets subclasses inject profiling code into them. Every declared non-abstract and non-native method
+ * (constructors and static initializers are not instrumented) of a class matched by the {@link ClassNameFilter},
+ * which long name (see {@link javassist.CtMethod#getLongName()}, e.g. {@code "com.example.Handler.handle(java.lang.String,int)"})
+ * matches the pattern, is passed to {@link #instrument(CtMethod, String)}.
+ * <p>
+ * Instantiability: allowed only for subclasses.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+abstract class AbstractMethodProfilingTransformer extends AbstractProfilingTransformer {
+  private final static Logger LOGGER;
+  private final Pattern methodPattern;
+
+  static {
+    LOGGER = Logger.getLogger(AbstractMethodProfilingTransformer.class);
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes which methods are profiled. Must be not {@code null}.
+   * @param methodPattern Specifies methods to profile, must match the whole long name of a method. Must be not {@code null}.
+   */
+  AbstractMethodProfilingTransformer(final ClassNameFilter classNameFilter, final Pattern methodPattern) {
+    super(classNameFilter);
+    if (methodPattern == null) {
+      throw new NullPointerException("The argument 'methodPattern' is null");
+    }
+    this.methodPattern = methodPattern;
+  }
+
+  @Nullable
+  @Override
+  protected final byte[] doTransform(final CtClass ctClass) throws Exception {
+    final byte[] result;
+    synchronized (ctClass) {
+      if (ctClass.isFrozen() || ctClass.isInterface()) {
+        AsyncLog.debug(LOGGER, "Class '{}' wasn't transformed because it's frozen or is an interface", ctClass.getName());
+        result = null;
+      } else {
+        boolean transformed = false;
+        for (final CtMethod ctMethod : ctClass.getDeclaredMethods()) {
+          final int modifiers = ctMethod.getModifiers();
+          final String methodName = ctMethod.getLongName();
+          if (!Modifier.isAbstract(modifiers) && !Modifier.isNative(modifiers) && methodPattern.matcher(methodName)
+              .matches()) {
+            instrument(ctMethod, methodName);
+            transformed = true;
+          }
+        }
+        result = transformed ? JavassistEnvironment.getCtBytes(ctClass) : null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Injects profiling code into the method.
+   *
+   * @param ctMethod The method to instrument.
+   * @param methodName The long name of the method.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  abstract void instrument(CtMethod ctMethod, String methodName) throws Exception;
+}
\ No newline at end of file
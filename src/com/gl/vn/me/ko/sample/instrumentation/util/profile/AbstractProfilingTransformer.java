@@ -0,0 +1,56 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import javax.annotation.Nullable;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractClassFileTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+
+/**
+ * A transformer that injects calls of a profiler of this package into classes matched by the {@link ClassNameFilter},
+ * except for classes of this package, and which results are never cached (see {@link com.gl.vn.me.ko.sample.instrumentation.util.profile}).
+ * <p>
+ * Instantiability: allowed only for subclasses.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+abstract class AbstractProfilingTransformer extends AbstractClassFileTransformer {
+  private final static String PROFILER_PACKAGE;// internal name of the package of profilers
+  private final ClassNameFilter classNameFilter;
+
+  static {
+    PROFILER_PACKAGE = AbstractProfilingTransformer.class.getPackage()
+        .getName()
+        .replace('.', '/') + "/";
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes to profile. Must be not {@code null}.
+   */
+  AbstractProfilingTransformer(final ClassNameFilter classNameFilter) {
+    super(CtClassSource.CLASSFILE_BUFFER);
+    if (classNameFilter == null) {
+      throw new NullPointerException("The argument 'classNameFilter' is null");
+    }
+    this.classNameFilter = classNameFilter;
+  }
+
+  @Override
+  public final ClassNameFilter getClassNameFilter() {
+    return classNameFilter;
+  }
+
+  /**
+   * Returns {@code null}, because identifiers embedded into transformed classes are valid only in the current process.
+   */
+  @Nullable
+  @Override
+  public final String getVersionFingerprint() {
+    return null;
+  }
+
+  @Override
+  protected final boolean acceptClassForTransformation(@Nullable final ClassLoader classLoader, final String className) {
+    return classNameFilter.matches(classLoader, className) && !className.startsWith(PROFILER_PACKAGE);
+  }
+}
@@ -0,0 +1,104 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import javassist.CannotCompileException;
+import javassist.CtClass;
+import javassist.expr.Expr;
+import javassist.expr.ExprEditor;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.javassist.JavassistEnvironment;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Lets subclasses inject profiling code around expressions (sites), e.g. {@code new} expressions or writes of fields, in all methods,
+ * constructors and static initializers of a class. Every class is scanned by a {@link SiteEditor} created by {@link #newSiteEditor()},
+ * and the class is transformed only if the editor replaced at least one expression.
+ * <p>
+ * Instantiability: allowed only for subclasses.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+abstract class AbstractSiteProfilingTransformer extends AbstractProfilingTransformer {
+  /**
+   * Finds sites of a single class and replaces them via {@link #replace(Expr, String)}.
+   * <p>
+   * Instantiability: allowed only for subclasses.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: not thread-safe.
+   */
+  abstract static class SiteEditor extends ExprEditor {
+    private boolean transformed;
+
+    /**
+     * Creates an editor that hasn't replaced any expression.
+     */
+    SiteEditor() {
+      transformed = false;
+    }
+
+    /**
+     * Replaces the expression and marks the class as transformed.
+     *
+     * @param expr The expression of the site.
+     * @param statement The replacement (see {@link Expr#replace(String)}).
+     *
+     * @throws javassist.CannotCompileException If {@code statement} can't be compiled.
+     */
+    final void replace(final Expr expr, final String statement) throws CannotCompileException {
+      expr.replace(statement);
+      transformed = true;
+    }
+
+    /**
+     * Describes the site of the expression, e.g. {@code "com.example.Handler.handle(java.lang.String):42"}.
+     *
+     * @param expr The expression of the site.
+     *
+     * @return The long name of the method that contains the expression followed by the line number of the expression.
+     */
+    final static String site(final Expr expr) {
+      return expr.where()
+          .getLongName() + ":" + expr.getLineNumber();
+    }
+  }
+
+  private final static Logger LOGGER;
+
+  static {
+    LOGGER = Logger.getLogger(AbstractSiteProfilingTransformer.class);
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes to profile. Must be not {@code null}.
+   */
+  AbstractSiteProfilingTransformer(final ClassNameFilter classNameFilter) {
+    super(classNameFilter);
+  }
+
+  @Nullable
+  @Override
+  protected final byte[] doTransform(final CtClass ctClass) throws Exception {
+    final byte[] result;
+    synchronized (ctClass) {
+      if (ctClass.isFrozen()) {
+        AsyncLog.debug(LOGGER, "Class '{}' wasn't transformed because it's frozen", ctClass.getName());
+        result = null;
+      } else {
+        final SiteEditor siteEditor = newSiteEditor();
+        ctClass.instrument(siteEditor);
+        result = siteEditor.transformed ? JavassistEnvironment.getCtBytes(ctClass) : null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates an editor that finds and replaces sites of a single class.
+   *
+   * @return A new editor.
+   */
+  abstract SiteEditor newSiteEditor();
+}
@@ -0,0 +1,246 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+
+/**
+ * Attributes bytes allocated by threads to methods instrumented by {@link AllocatedBytesProfilingTransformer}.
+ * The number of bytes allocated by the current thread is read via {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}
+ * when an instrumented method is entered (see {@link #enter()}) and when it completes (see {@link #exit(int, long)}).
+ * The difference is the inclusive number of bytes of the invocation, i.e. bytes allocated by the method and by all methods it invoked.
+ * The exclusive number of bytes excludes bytes attributed to instrumented methods invoked by the method, which are tracked via a stack
+ * of active invocations of the thread. Bytes allocated by methods that are not instrumented are attributed to the nearest instrumented caller.
+ * Bytes of recursive invocations are counted in the inclusive number of bytes of every invocation.
+ * <p>
+ * A method is registered once, when its class is transformed (see {@link #registerMethod(String)}), and gets an integer identifier
+ * that is embedded into the injected code. Every thread records into its own counters, so recording involves neither locks,
+ * nor atomic read-modify-write operations, nor contention between threads. Counters and the stack of a thread grow
+ * when needed, all other recordings don't allocate, so they don't distort the numbers they record.
+ * Counters of all threads are merged when statistics is read (see {@link #getAllocations()}), which can be done at any time by any thread.
+ * Counters of terminated threads are merged into shared counters and are released (see {@link ThreadRecorderRegistry}),
+ * so memory is not leaked when threads come and go, even if statistics is never read.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class AllocatedBytesProfiler {
+  /**
+   * Counters and the stack of active invocations of a single thread.
+   * <p>
+   * Instantiability: allowed only from inside {@link AllocatedBytesProfiler} class.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: a single writer (the owning thread) and multiple readers are allowed for {@link #counters},
+   * all other state is accessed only by the owning thread.
+   */
+  private final static class ThreadRecorder {
+    private volatile AtomicLongArray counters;// COUNTERS_PER_METHOD counters per method identifier, replaced only by the owning thread
+    private long[] childrenBytes;// bytes attributed to instrumented methods invoked by each active invocation
+    private int depth;// index of the innermost active invocation in childrenBytes
+
+    private ThreadRecorder() {
+      counters = new AtomicLongArray(0);
+      childrenBytes = new long[INITIAL_STACK_DEPTH];
+      depth = -1;
+    }
+
+    private final void enter() {
+      depth++;
+      if (depth == childrenBytes.length) {
+        childrenBytes = Arrays.copyOf(childrenBytes, 2 * childrenBytes.length);
+      }
+      childrenBytes[depth] = 0;
+    }
+
+    private final void exit(final int methodId, final long inclusiveBytes) {
+      final long exclusiveBytes = inclusiveBytes - childrenBytes[depth];
+      depth--;
+      if (depth >= 0) {
+        childrenBytes[depth] += inclusiveBytes;
+      }
+      final AtomicLongArray counters = counters(methodId);
+      final int index = methodId * COUNTERS_PER_METHOD;
+      counters.lazySet(index + CALLS, counters.get(index + CALLS) + 1);// there is a single writer
+      counters.lazySet(index + INCLUSIVE_BYTES, counters.get(index + INCLUSIVE_BYTES) + inclusiveBytes);
+      counters.lazySet(index + EXCLUSIVE_BYTES, counters.get(index + EXCLUSIVE_BYTES) + exclusiveBytes);
+    }
+
+    private final AtomicLongArray counters(final int methodId) {
+      final AtomicLongArray counters = this.counters;
+      return methodId * COUNTERS_PER_METHOD < counters.length() ? counters : newCounters(methodId);
+    }
+
+    private final AtomicLongArray newCounters(final int methodId) {
+      final int methods = Math.max(methodId + 1, 2 * counters.length() / COUNTERS_PER_METHOD);
+      final AtomicLongArray result = new AtomicLongArray(methods * COUNTERS_PER_METHOD);
+      for (int i = 0; i < counters.length(); i++) {
+        result.set(i, counters.get(i));
+      }
+      counters = result;// publishes the new counters to readers
+      return result;
+    }
+  }
+
+  private final static int COUNTERS_PER_METHOD;
+  private final static int CALLS;
+  private final static int INCLUSIVE_BYTES;
+  private final static int EXCLUSIVE_BYTES;
+  private final static int INITIAL_STACK_DEPTH;
+  @Nullable
+  private final static com.sun.management.ThreadMXBean THREAD_MX_BEAN;// null if the JVM doesn't support measurement of allocated bytes
+  private final static long START_NANOS;
+  private final static ThreadRecorderRegistry<ThreadRecorder> RECORDERS;// its monitor guards terminatedThreadsCounters
+  private final static IdentifierRegistry<String> METHOD_NAMES;
+  private static long[] terminatedThreadsCounters;
+
+  static {
+    COUNTERS_PER_METHOD = 3;
+    CALLS = 0;
+    INCLUSIVE_BYTES = 1;
+    EXCLUSIVE_BYTES = 2;
+    INITIAL_STACK_DEPTH = 16;
+    final java.lang.management.ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+    if ((threadMxBean instanceof com.sun.management.ThreadMXBean) && ((com.sun.management.ThreadMXBean)threadMxBean)
+        .isThreadAllocatedMemorySupported()) {
+      THREAD_MX_BEAN = (com.sun.management.ThreadMXBean)threadMxBean;
+      if (!THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled()) {
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+      }
+    } else {
+      THREAD_MX_BEAN = null;
+    }
+    START_NANOS = System.nanoTime();
+    RECORDERS = new ThreadRecorderRegistry<ThreadRecorder>(new ThreadRecorderRegistry.RecorderLifecycle<ThreadRecorder>() {
+      public final ThreadRecorder newRecorder() {
+        return new ThreadRecorder();
+      }
+
+      public final void retire(final ThreadRecorder recorder) {
+        final AtomicLongArray counters = recorder.counters;
+        if (terminatedThreadsCounters.length < counters.length()) {
+          terminatedThreadsCounters = Arrays.copyOf(terminatedThreadsCounters, counters.length());
+        }
+        for (int i = 0; i < counters.length(); i++) {
+          terminatedThreadsCounters[i] += counters.get(i);
+        }
+      }
+    });
+    METHOD_NAMES = new IdentifierRegistry<String>();
+    terminatedThreadsCounters = new long[0];
+  }
+
+  /**
+   * Tells whether the JVM supports measurement of bytes allocated by threads. If it doesn't, methods must not be instrumented.
+   *
+   * @return {@code true} if the profiler can be used.
+   */
+  public final static boolean isSupported() {
+    return THREAD_MX_BEAN != null;
+  }
+
+  /**
+   * Registers a method and returns its identifier. Every invocation registers a new method, even if the name was already registered,
+   * e.g. because a class with the same name was loaded by another class loader.
+   *
+   * @param methodName A name of the method that is used in statistics. Must be not {@code null}.
+   *
+   * @return The identifier of the method that must be passed to {@link #exit(int, long)}.
+   */
+  public final static int registerMethod(final String methodName) {
+    if (methodName == null) {
+      throw new NullPointerException("The argument 'methodName' is null");
+    }
+    return METHOD_NAMES.register(methodName);
+  }
+
+  /**
+   * Marks the start of an invocation of an instrumented method. This method is invoked by the code injected by
+   * {@link AllocatedBytesProfilingTransformer} when an instrumented method is entered.
+   * Every invocation of this method must be followed by an invocation of {@link #exit(int, long)} by the same thread.
+   *
+   * @return The number of bytes allocated by the current thread that must be passed to {@link #exit(int, long)}.
+   */
+  @SuppressWarnings("null")
+  public final static long enter() {
+    RECORDERS.get()
+        .enter();
+    return THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();// read after the recorder is obtained, so its creation is not attributed
+  }
+
+  /**
+   * Records bytes allocated by an invocation of the method. This method is invoked by the code injected by
+   * {@link AllocatedBytesProfilingTransformer} when an instrumented method completes, either normally or abruptly.
+   *
+   * @param methodId The identifier of the method (see {@link #registerMethod(String)}).
+   * @param startBytes The value returned by the corresponding invocation of {@link #enter()}.
+   */
+  @SuppressWarnings("null")
+  public final static void exit(final int methodId, final long startBytes) {
+    final long inclusiveBytes = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - startBytes;
+    RECORDERS.get()
+        .exit(methodId, inclusiveBytes);
+  }
+
+  /**
+   * Merges counters of all threads and returns statistics of all methods that completed at least once.
+   * Invocations that are being recorded concurrently with this method may be not taken into account.
+   * Rates are calculated over the time since the profiler was initialized.
+   *
+   * @return Statistics in the order methods were registered.
+   */
+  public final static List<MethodAllocation> getAllocations() {
+    final List<String> methodNames = METHOD_NAMES.getAll();
+    final long[] merged = new long[methodNames.size() * COUNTERS_PER_METHOD];
+    final double seconds;
+    synchronized (RECORDERS) {
+      final List<ThreadRecorder> recorders = RECORDERS.retireTerminatedThreads();
+      System.arraycopy(terminatedThreadsCounters, 0, merged, 0, Math.min(terminatedThreadsCounters.length, merged.length));
+      for (final ThreadRecorder recorder : recorders) {
+        final AtomicLongArray counters = recorder.counters;
+        for (int i = 0; i < Math.min(counters.length(), merged.length); i++) {
+          merged[i] += counters.get(i);
+        }
+      }
+      seconds = (System.nanoTime() - START_NANOS) / 1e9;
+    }
+    final List<MethodAllocation> result = new ArrayList<MethodAllocation>();
+    for (int i = 0; i < methodNames.size(); i++) {
+      final int index = i * COUNTERS_PER_METHOD;
+      if (merged[index + CALLS] > 0) {
+        result.add(new MethodAllocation(methodNames.get(i), merged[index + CALLS], merged[index + INCLUSIVE_BYTES], merged[index + EXCLUSIVE_BYTES],
+            seconds));
+      }
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns a human-readable report of {@link #getAllocations()}, one method per line,
+   * in the descending order of inclusive numbers of bytes.
+   *
+   * @return The report.
+   */
+  public final static String report() {
+    final List<MethodAllocation> allocations = new ArrayList<MethodAllocation>(getAllocations());
+    Collections.sort(allocations, new Comparator<MethodAllocation>() {
+      public final int compare(final MethodAllocation allocation1, final MethodAllocation allocation2) {
+        return Long.compare(allocation2.getInclusiveBytes(), allocation1.getInclusiveBytes());
+      }
+    });
+    final StringBuilder result = new StringBuilder("Bytes allocated by methods:");
+    for (final MethodAllocation allocation : allocations) {
+      result.append(System.lineSeparator())
+          .append(allocation);
+    }
+    return result.toString();
+  }
+
+  private AllocatedBytesProfiler() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
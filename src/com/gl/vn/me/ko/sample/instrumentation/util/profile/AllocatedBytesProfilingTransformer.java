@@ -0,0 +1,75 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.regex.Pattern;
+import javassist.CtClass;
+import javassist.CtMethod;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Injects attribution of allocated bytes into methods selected by a pattern. Methods are selected as described in
+ * {@link LatencyProfilingTransformer}, every selected method is registered in {@link AllocatedBytesProfiler} and its body is transformed to
+ * something like
+ * <blockquote>
+ *
+ * <pre>
+ * {
+ * 	long startBytes = AllocatedBytesProfiler.enter();
+ * 	try {
+ * 		...// the original body
+ * 	} finally {
+ * 		AllocatedBytesProfiler.exit(methodId, startBytes);
+ * 	}
+ * }
+ * </pre>
+ *
+ * </blockquote>
+ * where {@code methodId} is a constant.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class AllocatedBytesProfilingTransformer extends AbstractMethodProfilingTransformer {
+  private final static Logger LOGGER;
+  private final static String PROFILER_CLASS_NAME;
+  private final static String START_VARIABLE_NAME;// name of the local variable that holds the number of bytes at the start of an invocation
+
+  static {
+    LOGGER = Logger.getLogger(AllocatedBytesProfilingTransformer.class);
+    PROFILER_CLASS_NAME = AllocatedBytesProfiler.class.getName();
+    START_VARIABLE_NAME = "$allocatedBytesProfilerStart";
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes which methods are profiled. Must be not {@code null}.
+   * Classes that can't see {@link AllocatedBytesProfiler} (e.g. classes defined by the bootstrap class loader
+   * if the profiler is not on the boot class path) must not be matched.
+   * @param methodPattern Specifies methods to profile, must match the whole long name of a method. Must be not {@code null}.
+   *
+   * @throws java.lang.IllegalStateException If the JVM doesn't support measurement of allocated bytes
+   * (see {@link AllocatedBytesProfiler#isSupported()}).
+   */
+  public AllocatedBytesProfilingTransformer(final ClassNameFilter classNameFilter, final Pattern methodPattern) throws IllegalStateException {
+    super(classNameFilter, methodPattern);
+    if (!AllocatedBytesProfiler.isSupported()) {
+      throw new IllegalStateException("The JVM doesn't support measurement of bytes allocated by threads");
+    }
+  }
+
+  /**
+   * Transformation is described in the description of {@link AllocatedBytesProfilingTransformer} class.
+   */
+  @Override
+  final void instrument(final CtMethod ctMethod, final String methodName) throws Exception {
+    final int methodId = AllocatedBytesProfiler.registerMethod(methodName);
+    AsyncLog.debug(LOGGER, "Profiling bytes allocated by the method '{}' with identifier {}", methodName, methodId);
+    ctMethod.addLocalVariable(START_VARIABLE_NAME, CtClass.longType);
+    // the finally block is inserted first, so it doesn't cover the code that initializes the variable, otherwise the class fails verification
+    ctMethod.insertAfter(PROFILER_CLASS_NAME + ".exit(" + methodId + ", " + START_VARIABLE_NAME + ");", true);
+    ctMethod.insertBefore(START_VARIABLE_NAME + " = " + PROFILER_CLASS_NAME + ".enter();");
+  }
+}
\ No newline at end of file
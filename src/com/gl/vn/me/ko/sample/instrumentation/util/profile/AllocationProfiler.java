@@ -0,0 +1,138 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts allocations at allocation sites instrumented by {@link AllocationProfilingTransformer}.
+ * An allocation site is a {@code new} expression (or an array creation expression) of a particular type in a particular line of a method.
+ * A site is registered once, when its class is transformed (see {@link #registerSite(String, String)}), and gets an integer identifier
+ * that is embedded into the injected code, so counting an allocation (see {@link #record(int)}) involves neither names, nor maps,
+ * nor boxing, and never allocates. Every site has its own {@link StripedCounter}, so concurrent allocations at the same site don't contend.
+ * <p>
+ * Allocations may be sampled (see {@link #setSamplingInterval(int)}): with the sampling interval {@code N},
+ * an allocation is counted with the probability {@code 1/N} and is counted as {@code N} allocations,
+ * so counts are unbiased estimates, and frequent sites, which are the interesting ones, are estimated precisely.
+ * Sampling reduces contention on counters, but not the cost of the check whether an allocation is sampled.
+ * <p>
+ * Counts can be read at any time by any thread (see {@link #getTopSites(int)}).
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class AllocationProfiler {
+  private final static IdentifierRegistry<AllocationSite> SITES;
+  private static volatile int samplingInterval;
+
+  static {
+    SITES = new IdentifierRegistry<AllocationSite>();
+    samplingInterval = 1;
+  }
+
+  /**
+   * Registers an allocation site and returns its identifier.
+   *
+   * @param site Description of the site, e.g. {@code "com.example.Handler.handle(java.lang.String):42"}. Must be not {@code null}.
+   * @param type The name of the allocated type, e.g. {@code "java.lang.StringBuilder"} or {@code "byte[]"}. Must be not {@code null}.
+   *
+   * @return The identifier of the site that must be passed to {@link #record(int)}.
+   */
+  public final static int registerSite(final String site, final String type) {
+    if (site == null) {
+      throw new NullPointerException("The argument 'site' is null");
+    } else if (type == null) {
+      throw new NullPointerException("The argument 'type' is null");
+    }
+    return SITES.register(new AllocationSite(site, type));
+  }
+
+  /**
+   * Counts an allocation at the site. This method is invoked by the code injected by {@link AllocationProfilingTransformer}
+   * before every allocation.
+   *
+   * @param siteId The identifier of the site (see {@link #registerSite(String, String)}).
+   */
+  public final static void record(final int siteId) {
+    final int samplingInterval = AllocationProfiler.samplingInterval;
+    if ((samplingInterval == 1) || (ThreadLocalRandom.current()
+        .nextInt(samplingInterval) == 0)) {
+      SITES.get(siteId).counter.add(samplingInterval);
+    }
+  }
+
+  /**
+   * Specifies the sampling interval, see {@link AllocationProfiler}. Can be changed at any time, the default is {@code 1}.
+   *
+   * @param samplingInterval {@code 1} if every allocation must be counted, otherwise the mean number of allocations per counted one.
+   * Must be positive.
+   */
+  public final static void setSamplingInterval(final int samplingInterval) {
+    if (samplingInterval <= 0) {
+      throw new IllegalArgumentException("The argument 'samplingInterval' must be positive");
+    }
+    AllocationProfiler.samplingInterval = samplingInterval;
+  }
+
+  /**
+   * Returns the sampling interval.
+   *
+   * @return The sampling interval.
+   *
+   * @see #setSamplingInterval(int)
+   */
+  public final static int getSamplingInterval() {
+    return samplingInterval;
+  }
+
+  /**
+   * Returns allocation sites with the highest numbers of allocations.
+   *
+   * @param n The maximal number of sites to return. Must be non-negative.
+   *
+   * @return Sites that have at least one allocation, in the descending order of numbers of allocations.
+   */
+  public final static List<AllocationSite> getTopSites(final int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("The argument 'n' must be non-negative");
+    }
+    final List<AllocationSite> snapshots = new ArrayList<AllocationSite>();
+    for (final AllocationSite site : SITES.getAll()) {
+      final AllocationSite snapshot = site.snapshot();
+      if (snapshot.getCount() > 0) {
+        snapshots.add(snapshot);
+      }
+    }
+    Collections.sort(snapshots, new Comparator<AllocationSite>() {
+      public final int compare(final AllocationSite site1, final AllocationSite site2) {
+        return Long.compare(site2.getCount(), site1.getCount());
+      }
+    });
+    return Collections.unmodifiableList(new ArrayList<AllocationSite>(snapshots.subList(0, Math.min(n, snapshots.size()))));
+  }
+
+  /**
+   * Returns a human-readable report of {@link #getTopSites(int)}, one site per line.
+   *
+   * @param n The maximal number of sites to report. Must be non-negative.
+   *
+   * @return The report.
+   */
+  public final static String report(final int n) {
+    final StringBuilder result = new StringBuilder("Top ").append(n)
+        .append(" allocation sites (sampling interval ")
+        .append(samplingInterval)
+        .append("):");
+    for (final AllocationSite site : getTopSites(n)) {
+      result.append(System.lineSeparator())
+          .append(site);
+    }
+    return result.toString();
+  }
+
+  private AllocationProfiler() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import javassist.CannotCompileException;
+import javassist.CtClass;
+import javassist.NotFoundException;
+import javassist.expr.Expr;
+import javassist.expr.NewArray;
+import javassist.expr.NewExpr;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Injects counting of allocations into all methods, constructors and static initializers of classes matched by the {@link ClassNameFilter}.
+ * {@link com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleB} intercepts {@code new} expressions of a single
+ * type via {@link javassist.CodeConverter#replaceNew(CtClass, CtClass, String)}, which needs a factory method for every intercepted type.
+ * This transformer intercepts {@code new} expressions and array creation expressions of all types via {@link javassist.expr.ExprEditor}:
+ * every such expression is registered as an allocation site in {@link AllocationProfiler}, and is transformed to something like
+ * <blockquote>
+ *
+ * <pre>
+ * {
+ * 	AllocationProfiler.record(siteId);
+ * 	$_ = $proceed($$);// the original allocation
+ * }
+ * </pre>
+ *
+ * </blockquote>
+ * where {@code siteId} is a constant.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class AllocationProfilingTransformer extends AbstractSiteProfilingTransformer {
+  /**
+   * Registers allocation sites of a single class and injects counting of allocations.
+   * <p>
+   * Instantiability: allowed only from inside {@link AllocationProfilingTransformer} class.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: not thread-safe.
+   */
+  private final static class AllocationSiteEditor extends SiteEditor {
+    private AllocationSiteEditor() {
+    }
+
+    @Override
+    public final void edit(final NewExpr newExpr) throws CannotCompileException {
+      instrument(site(newExpr), newExpr.getClassName(), newExpr);
+    }
+
+    @Override
+    public final void edit(final NewArray newArray) throws CannotCompileException {
+      final String site = site(newArray);
+      try {
+        instrument(site, newArray.getComponentType()
+            .getName() + "[]".repeat(newArray.getDimension()), newArray);
+      } catch (final NotFoundException e) {
+        AsyncLog.debug(LOGGER, "The allocation site '{}' wasn't instrumented because the type of the array can't be found", site, e);
+      }
+    }
+
+    private final void instrument(final String site, final String type, final Expr expr) throws CannotCompileException {
+      final int siteId = AllocationProfiler.registerSite(site, type);
+      AsyncLog.debug(LOGGER, "Counting allocations of '{}' at '{}' with identifier {}", type, site, siteId);
+      replace(expr, "{ " + PROFILER_CLASS_NAME + ".record(" + siteId + "); $_ = $proceed($$); }");
+    }
+  }
+
+  private final static Logger LOGGER;
+  private final static String PROFILER_CLASS_NAME;
+
+  static {
+    LOGGER = Logger.getLogger(AllocationProfilingTransformer.class);
+    PROFILER_CLASS_NAME = AllocationProfiler.class.getName();
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes which allocations are counted. Must be not {@code null}.
+   * Classes that can't see {@link AllocationProfiler} (e.g. classes defined by the bootstrap class loader
+   * if the profiler is not on the boot class path) must not be matched.
+   */
+  public AllocationProfilingTransformer(final ClassNameFilter classNameFilter) {
+    super(classNameFilter);
+  }
+
+  /**
+   * Transformation is described in the description of {@link AllocationProfilingTransformer} class.
+   */
+  @Override
+  final SiteEditor newSiteEditor() {
+    return new AllocationSiteEditor();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import javax.annotation.Nullable;
+
+/**
+ * An allocation site registered in {@link AllocationProfiler}: a place in code and a type of allocated objects.
+ * Objects returned by {@link AllocationProfiler#getTopSites(int)} are snapshots, their counts don't change.
+ * <p>
+ * Instantiability: allowed only from inside {@link AllocationProfiler} class.<br>
+ * Mutability: immutable, except for the counter of a registered site, which is not exposed.<br>
+ * Thread safety: thread-safe.
+ */
+public final class AllocationSite {
+  private final String site;
+  private final String type;
+  @Nullable
+  final StripedCounter counter;// null for snapshots
+  private final long count;
+
+  AllocationSite(final String site, final String type) {
+    this.site = site;
+    this.type = type;
+    counter = new StripedCounter();
+    count = 0;
+  }
+
+  private AllocationSite(final String site, final String type, final long count) {
+    this.site = site;
+    this.type = type;
+    counter = null;
+    this.count = count;
+  }
+
+  final AllocationSite snapshot() {
+    return new AllocationSite(site, type, counter == null ? count : counter.sum());
+  }
+
+  /**
+   * Returns the description of the place in code.
+   *
+   * @return Description of the site, e.g. {@code "com.example.Handler.handle(java.lang.String):42"}.
+   */
+  public final String getSite() {
+    return site;
+  }
+
+  /**
+   * Returns the type of allocated objects.
+   *
+   * @return The name of the type, e.g. {@code "java.lang.StringBuilder"} or {@code "byte[]"}.
+   */
+  public final String getType() {
+    return type;
+  }
+
+  /**
+   * Returns the number of allocations (an estimate if allocations are sampled, see {@link AllocationProfiler}).
+   *
+   * @return The number of allocations at the moment the snapshot was taken.
+   */
+  public final long getCount() {
+    return count;
+  }
+
+  @Override
+  public final String toString() {
+    return count + " x " + type + " at " + site;
+  }
+}
\ No newline at end of file
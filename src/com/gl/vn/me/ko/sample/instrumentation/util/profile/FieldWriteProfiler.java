@@ -0,0 +1,186 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts writes of fields watched by {@link FieldWriteProfilingTransformer}. A write site is an assignment to a particular field
+ * in a particular line of a method. A site is registered once, when its class is transformed (see {@link #registerSite(String, String)}),
+ * and gets an integer identifier that is embedded into the injected code, so counting a write (see {@link #record(int)}) involves
+ * neither names, nor maps, nor boxing, and never allocates. Every site has its own {@link StripedCounter}, so concurrent writes
+ * don't contend on counters even if they contend on the field. The number of writes of a field is the sum over its sites,
+ * which is calculated when statistics is read (see {@link #getFieldWrites()}), so a write updates a single counter.
+ * <p>
+ * Writes may be sampled (see {@link #setSamplingInterval(int)}) the same way as allocations in {@link AllocationProfiler}.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class FieldWriteProfiler {
+  /**
+   * A registered write site.
+   * <p>
+   * Instantiability: allowed only from inside {@link FieldWriteProfiler} class.<br>
+   * Mutability: immutable, except for the counter.<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class RegisteredSite {
+    private final String fieldName;
+    private final String site;
+    private final StripedCounter counter;
+
+    private RegisteredSite(final String fieldName, final String site) {
+      this.fieldName = fieldName;
+      this.site = site;
+      counter = new StripedCounter();
+    }
+  }
+
+  private final static long START_NANOS;
+  private final static IdentifierRegistry<RegisteredSite> SITES;
+  private static volatile int samplingInterval;
+
+  static {
+    START_NANOS = System.nanoTime();
+    SITES = new IdentifierRegistry<RegisteredSite>();
+    samplingInterval = 1;
+  }
+
+  /**
+   * Registers a write site and returns its identifier.
+   *
+   * @param fieldName The name of the class that declares the field and the name of the field, e.g. {@code "com.example.Handler.requests"}.
+   * Must be not {@code null}.
+   * @param site Description of the site, e.g. {@code "com.example.Handler.handle(java.lang.String):42"}. Must be not {@code null}.
+   *
+   * @return The identifier of the site that must be passed to {@link #record(int)}.
+   */
+  public final static int registerSite(final String fieldName, final String site) {
+    if (fieldName == null) {
+      throw new NullPointerException("The argument 'fieldName' is null");
+    } else if (site == null) {
+      throw new NullPointerException("The argument 'site' is null");
+    }
+    return SITES.register(new RegisteredSite(fieldName, site));
+  }
+
+  /**
+   * Counts a write at the site. This method is invoked by the code injected by {@link FieldWriteProfilingTransformer}
+   * before every write of a watched field.
+   *
+   * @param siteId The identifier of the site (see {@link #registerSite(String, String)}).
+   */
+  public final static void record(final int siteId) {
+    final int samplingInterval = FieldWriteProfiler.samplingInterval;
+    if ((samplingInterval == 1) || (ThreadLocalRandom.current()
+        .nextInt(samplingInterval) == 0)) {
+      SITES.get(siteId).counter.add(samplingInterval);
+    }
+  }
+
+  /**
+   * Specifies the sampling interval. Can be changed at any time, the default is {@code 1}.
+   *
+   * @param samplingInterval {@code 1} if every write must be counted, otherwise the mean number of writes per counted one.
+   * Must be positive.
+   *
+   * @see AllocationProfiler#setSamplingInterval(int)
+   */
+  public final static void setSamplingInterval(final int samplingInterval) {
+    if (samplingInterval <= 0) {
+      throw new IllegalArgumentException("The argument 'samplingInterval' must be positive");
+    }
+    FieldWriteProfiler.samplingInterval = samplingInterval;
+  }
+
+  /**
+   * Returns the sampling interval.
+   *
+   * @return The sampling interval.
+   *
+   * @see #setSamplingInterval(int)
+   */
+  public final static int getSamplingInterval() {
+    return samplingInterval;
+  }
+
+  /**
+   * Returns statistics of all fields that were written at least once. Writes that are counted concurrently with this method
+   * may be not taken into account. Rates are calculated over the time since the profiler was initialized.
+   *
+   * @return Fields in the descending order of numbers of writes.
+   */
+  public final static List<FieldWrites> getFieldWrites() {
+    final double seconds = (System.nanoTime() - START_NANOS) / 1e9;
+    final Map<String, List<FieldWriteSite>> fieldSites = new LinkedHashMap<String, List<FieldWriteSite>>();
+    for (final RegisteredSite site : SITES.getAll()) {
+      final long count = site.counter.sum();
+      if (count > 0) {
+        List<FieldWriteSite> snapshots = fieldSites.get(site.fieldName);
+        if (snapshots == null) {
+          snapshots = new ArrayList<FieldWriteSite>();
+          fieldSites.put(site.fieldName, snapshots);
+        }
+        snapshots.add(new FieldWriteSite(site.site, count));
+      }
+    }
+    final Comparator<FieldWriteSite> siteComparator = new Comparator<FieldWriteSite>() {
+      public final int compare(final FieldWriteSite site1, final FieldWriteSite site2) {
+        return Long.compare(site2.getCount(), site1.getCount());
+      }
+    };
+    final List<FieldWrites> result = new ArrayList<FieldWrites>();
+    for (final Map.Entry<String, List<FieldWriteSite>> entry : fieldSites.entrySet()) {
+      final List<FieldWriteSite> snapshots = entry.getValue();
+      Collections.sort(snapshots, siteComparator);
+      long count = 0;
+      for (final FieldWriteSite snapshot : snapshots) {
+        count += snapshot.getCount();
+      }
+      result.add(new FieldWrites(entry.getKey(), count, seconds, Collections.unmodifiableList(snapshots)));
+    }
+    Collections.sort(result, new Comparator<FieldWrites>() {
+      public final int compare(final FieldWrites fieldWrites1, final FieldWrites fieldWrites2) {
+        return Long.compare(fieldWrites2.getCount(), fieldWrites1.getCount());
+      }
+    });
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns a human-readable report of the most written fields, one field per line followed by its sites.
+   *
+   * @param n The maximal number of fields to report. Must be non-negative.
+   *
+   * @return The report.
+   */
+  public final static String report(final int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("The argument 'n' must be non-negative");
+    }
+    final List<FieldWrites> fieldWrites = getFieldWrites();
+    final StringBuilder result = new StringBuilder("Top ").append(n)
+        .append(" written fields (sampling interval ")
+        .append(samplingInterval)
+        .append("):");
+    for (final FieldWrites writes : fieldWrites.subList(0, Math.min(n, fieldWrites.size()))) {
+      result.append(System.lineSeparator())
+          .append(writes);
+      for (final FieldWriteSite site : writes.getSites()) {
+        result.append(System.lineSeparator())
+            .append("  ")
+            .append(site);
+      }
+    }
+    return result.toString();
+  }
+
+  private FieldWriteProfiler() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.regex.Pattern;
+import javassist.CannotCompileException;
+import javassist.Modifier;
+import javassist.NotFoundException;
+import javassist.expr.FieldAccess;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Injects counting of writes of watched fields into all methods, constructors and static initializers of classes matched by the
+ * {@link ClassNameFilter}. {@link com.gl.vn.me.ko.sample.instrumentation.example.transform.ClassFileTransformerExampleA} finds writes of
+ * {@code int} fields of a single method via {@link javassist.expr.ExprEditor#edit(FieldAccess)}, this transformer applies the same technique
+ * to fields of any type. A field is watched if its name (the name of the class that declares the field and the name of the field,
+ * e.g. {@code "com.example.Handler.requests"}) matches the include pattern and doesn't match the exclude pattern.
+ * Writes of {@code final} fields are not watched, because they only initialize fields.
+ * Every write of a watched field is registered as a write site in {@link FieldWriteProfiler}, and is transformed to something like
+ * <blockquote>
+ *
+ * <pre>
+ * {
+ * 	FieldWriteProfiler.record(siteId);
+ * 	$proceed($$);// the original write
+ * }
+ * </pre>
+ *
+ * </blockquote>
+ * where {@code siteId} is a constant.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class FieldWriteProfilingTransformer extends AbstractSiteProfilingTransformer {
+  /**
+   * Registers write sites of a single class and injects counting of writes.
+   * <p>
+   * Instantiability: allowed only from inside {@link FieldWriteProfilingTransformer} class.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: not thread-safe.
+   */
+  private final class WriteSiteEditor extends SiteEditor {
+    private WriteSiteEditor() {
+    }
+
+    @Override
+    public final void edit(final FieldAccess fieldAccess) throws CannotCompileException {
+      if (fieldAccess.isWriter()) {
+        final String fieldName = fieldAccess.getClassName() + "." + fieldAccess.getFieldName();
+        if (isWatched(fieldName) && !isFinal(fieldAccess)) {
+          final String site = site(fieldAccess);
+          final int siteId = FieldWriteProfiler.registerSite(fieldName, site);
+          AsyncLog.debug(LOGGER, "Counting writes of '{}' at '{}' with identifier {}", fieldName, site, siteId);
+          replace(fieldAccess, "{ " + PROFILER_CLASS_NAME + ".record(" + siteId + "); $proceed($$); }");
+        }
+      }
+    }
+
+    private final boolean isFinal(final FieldAccess fieldAccess) {
+      boolean result;
+      try {
+        result = Modifier.isFinal(fieldAccess.getField()
+            .getModifiers());
+      } catch (final NotFoundException e) {
+        result = false;// a write of a final field can only be in the declaring class, which is being transformed and therefore is found
+      }
+      return result;
+    }
+  }
+
+  private final static Logger LOGGER;
+  private final static String PROFILER_CLASS_NAME;
+  private final Pattern includedFieldsPattern;
+  @Nullable
+  private final Pattern excludedFieldsPattern;
+
+  static {
+    LOGGER = Logger.getLogger(FieldWriteProfilingTransformer.class);
+    PROFILER_CLASS_NAME = FieldWriteProfiler.class.getName();
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes which writes are counted. Must be not {@code null}.
+   * Classes that can't see {@link FieldWriteProfiler} (e.g. classes defined by the bootstrap class loader
+   * if the profiler is not on the boot class path) must not be matched.
+   * @param includedFieldsPattern Specifies watched fields, must match the whole name of a field. Must be not {@code null}.
+   * @param excludedFieldsPattern Specifies fields that are not watched even if they match {@code includedFieldsPattern},
+   * must match the whole name of a field. May be {@code null} if no fields are excluded.
+   */
+  public FieldWriteProfilingTransformer(final ClassNameFilter classNameFilter, final Pattern includedFieldsPattern,
+      @Nullable final Pattern excludedFieldsPattern) {
+    super(classNameFilter);
+    if (includedFieldsPattern == null) {
+      throw new NullPointerException("The argument 'includedFieldsPattern' is null");
+    }
+    this.includedFieldsPattern = includedFieldsPattern;
+    this.excludedFieldsPattern = excludedFieldsPattern;
+  }
+
+  /**
+   * Transformation is described in the description of {@link FieldWriteProfilingTransformer} class.
+   */
+  @Override
+  final SiteEditor newSiteEditor() {
+    return new WriteSiteEditor();
+  }
+
+  private final boolean isWatched(final String fieldName) {
+    return includedFieldsPattern.matcher(fieldName)
+        .matches() && ((excludedFieldsPattern == null) || !excludedFieldsPattern.matcher(fieldName)
+            .matches());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+/**
+ * A place in code that writes a field watched by {@link FieldWriteProfiler}, and the number of writes at the moment a snapshot was taken.
+ * <p>
+ * Instantiability: allowed only from inside {@link FieldWriteProfiler} class.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class FieldWriteSite {
+  private final String site;
+  private final long count;
+
+  FieldWriteSite(final String site, final long count) {
+    this.site = site;
+    this.count = count;
+  }
+
+  /**
+   * Returns the description of the place in code.
+   *
+   * @return Description of the site, e.g. {@code "com.example.Handler.handle(java.lang.String):42"}.
+   */
+  public final String getSite() {
+    return site;
+  }
+
+  /**
+   * Returns the number of writes (an estimate if writes are sampled, see {@link FieldWriteProfiler}).
+   *
+   * @return The number of writes.
+   */
+  public final long getCount() {
+    return count;
+  }
+
+  @Override
+  public final String toString() {
+    return count + " at " + site;
+  }
+}
\ No newline at end of file
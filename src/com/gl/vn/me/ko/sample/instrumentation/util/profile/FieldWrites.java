@@ -0,0 +1,66 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes of a field watched by {@link FieldWriteProfiler} at the moment a snapshot was taken.
+ * <p>
+ * Instantiability: allowed only from inside {@link FieldWriteProfiler} class.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class FieldWrites {
+  private final String fieldName;
+  private final long count;
+  private final double seconds;
+  private final List<FieldWriteSite> sites;
+
+  FieldWrites(final String fieldName, final long count, final double seconds, final List<FieldWriteSite> sites) {
+    this.fieldName = fieldName;
+    this.count = count;
+    this.seconds = seconds;
+    this.sites = sites;
+  }
+
+  /**
+   * Returns the name of the field.
+   *
+   * @return The name of the class that declares the field and the name of the field, e.g. {@code "com.example.Handler.requests"}.
+   */
+  public final String getFieldName() {
+    return fieldName;
+  }
+
+  /**
+   * Returns the number of writes at all sites (an estimate if writes are sampled, see {@link FieldWriteProfiler}).
+   *
+   * @return The number of writes.
+   */
+  public final long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the write rate over the time since the profiler was initialized.
+   *
+   * @return Writes per second.
+   */
+  public final double getWritesPerSecond() {
+    return seconds > 0 ? count / seconds : 0;
+  }
+
+  /**
+   * Returns sites that wrote the field at least once.
+   *
+   * @return An unmodifiable list of sites in the descending order of numbers of writes.
+   */
+  public final List<FieldWriteSite> getSites() {
+    return sites;
+  }
+
+  @Override
+  public final String toString() {
+    return String.format(Locale.ENGLISH, "%d writes (%.1f/s) of %s", count, getWritesPerSecond(), fieldName);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gives elements registered by a profiler (e.g. instrumented methods or sites) consecutive integer identifiers,
+ * so the code injected into an instrumented class can refer to an element by its identifier (see {@link #get(int)}).
+ * <p>
+ * Elements are registered when classes are transformed, so there may be an element per method or per expression of an application.
+ * Elements are stored in an array that grows geometrically, so registration of {@code n} elements costs {@code O(n)} in total.
+ * A registered element is never moved within the array that is read by other threads, and it's published by a volatile write,
+ * so neither {@link #get(int)} nor {@link #getAll()} involve locks or copying.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ *
+ * @param <E> A type of elements.
+ */
+final class IdentifierRegistry<E> {
+  private final static int INITIAL_CAPACITY;
+  private volatile Object[] elements;// identifier -> element, the array is replaced only when it's full
+  private volatile int size;
+
+  static {
+    INITIAL_CAPACITY = 16;
+  }
+
+  /**
+   * Creates an empty registry.
+   */
+  IdentifierRegistry() {
+    elements = new Object[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Registers an element and returns its identifier. Every invocation registers a new element, even if an equal one was already registered.
+   *
+   * @param element An element to register. Must be not {@code null}.
+   *
+   * @return The identifier of the element, which is the number of elements registered before it.
+   */
+  final synchronized int register(final E element) {
+    if (element == null) {
+      throw new NullPointerException("The argument 'element' is null");
+    }
+    final int result = size;
+    final Object[] elements = result < this.elements.length ? this.elements : Arrays.copyOf(this.elements, 2 * this.elements.length);
+    elements[result] = element;
+    this.elements = elements;// publishes the element to readers that obtained its identifier
+    size = result + 1;// publishes the element to readers of getAll()
+    return result;
+  }
+
+  /**
+   * Returns the element with the specified identifier.
+   *
+   * @param id The identifier of the element (see {@link #register(Object)}).
+   *
+   * @return The registered element.
+   */
+  @SuppressWarnings("unchecked")
+  final E get(final int id) {
+    return (E)elements[id];
+  }
+
+  /**
+   * Returns all elements registered before the method was invoked. Elements registered later are not included.
+   *
+   * @return Unmodifiable list of elements in the order of their identifiers.
+   */
+  @SuppressWarnings("unchecked")
+  final List<E> getAll() {
+    final int size = this.size;// read before the array, so the array contains at least size elements
+    final List<?> result = Arrays.asList(elements)
+        .subList(0, size);
+    return Collections.unmodifiableList((List<E>)result);
+  }
+}
@@ -0,0 +1,182 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of non-negative {@code long} values, e.g. latencies in nanoseconds.
+ * Values below {@code 16} are counted exactly; every other power-of-two range {@code [2^e, 2^(e+1))} is split into {@code 16} equal buckets,
+ * so a value reported by the histogram exceeds the recorded value by no more than 1/16 (6.25%) of it.
+ * All buckets are allocated when the histogram is created, so recording never allocates.
+ * <p>
+ * A histogram has a single writer: only one thread at a time may invoke {@link #record(long)} or {@link #add(LatencyHistogram)}.
+ * Recording is done via ordered writes (see {@link java.util.concurrent.atomic.AtomicLongArray#lazySet(int, long)}),
+ * which cost the same as plain writes on common hardware, so other threads may read the histogram at any time without locks
+ * and observe all values recorded before, possibly except for the most recent ones.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe for readers, a single writer is allowed (see above).
+ */
+public final class LatencyHistogram {
+  private final static int SUB_BUCKET_BITS;
+  private final static int SUB_BUCKETS;
+  private final static int BUCKETS;
+  private final AtomicLongArray counts;
+  private final AtomicLong count;
+  private final AtomicLong sum;
+  private final AtomicLong max;
+
+  static {
+    SUB_BUCKET_BITS = 4;
+    SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;// the highest bit of a non-negative long is always 0
+  }
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    counts = new AtomicLongArray(BUCKETS);
+    count = new AtomicLong();
+    sum = new AtomicLong();
+    max = new AtomicLong();
+  }
+
+  /**
+   * Records a value. Negative values are recorded as {@code 0}.
+   * The method neither allocates, nor locks, nor performs atomic read-modify-write operations.
+   *
+   * @param value A value to record.
+   */
+  public final void record(final long value) {
+    record(value, 1);
+  }
+
+  /**
+   * Records a value as if it was recorded {@code times} times, e.g. because it's a sample that represents {@code times} values.
+   * Negative values are recorded as {@code 0}.
+   * The method neither allocates, nor locks, nor performs atomic read-modify-write operations.
+   *
+   * @param value A value to record.
+   * @param times How many times the value is recorded. Must be positive.
+   */
+  public final void record(final long value, final int times) {
+    final long nonNegativeValue = value < 0 ? 0 : value;
+    final int index = index(nonNegativeValue);
+    counts.lazySet(index, counts.get(index) + times);
+    count.lazySet(count.get() + times);
+    sum.lazySet(sum.get() + times * nonNegativeValue);
+    if (nonNegativeValue > max.get()) {
+      max.lazySet(nonNegativeValue);
+    }
+  }
+
+  /**
+   * Adds all values recorded by {@code histogram} to this histogram.
+   *
+   * @param histogram A histogram to add. Must be not {@code null}. May be concurrently modified by its writer.
+   */
+  public final void add(final LatencyHistogram histogram) {
+    if (histogram == null) {
+      throw new NullPointerException("The argument 'histogram' is null");
+    }
+    long addedCount = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      final long bucketCount = histogram.counts.get(i);
+      if (bucketCount != 0) {
+        counts.lazySet(i, counts.get(i) + bucketCount);
+        addedCount += bucketCount;
+      }
+    }
+    count.lazySet(count.get() + addedCount);// the count is consistent with buckets even if the histogram is being modified
+    sum.lazySet(sum.get() + histogram.sum.get());
+    final long histogramMax = histogram.max.get();
+    if (histogramMax > max.get()) {
+      max.lazySet(histogramMax);
+    }
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return The number of recorded values.
+   */
+  public final long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the maximal recorded value.
+   *
+   * @return The maximal recorded value, or {@code 0} if there are no values.
+   */
+  public final long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the arithmetic mean of recorded values.
+   *
+   * @return The mean, or {@code 0} if there are no values.
+   */
+  public final double getMean() {
+    final long count = this.count.get();
+    return count == 0 ? 0 : (double)sum.get() / count;
+  }
+
+  /**
+   * Returns a value such that {@code percentile} percents of recorded values are less than or equal to it,
+   * within the precision of the histogram (see {@link LatencyHistogram}).
+   *
+   * @param percentile A percentile, e.g. {@code 99.9}. Must be within {@code [0, 100]}.
+   *
+   * @return The value at the percentile, or {@code 0} if there are no values.
+   */
+  public final long getValueAtPercentile(final double percentile) {
+    if ((percentile < 0) || (percentile > 100)) {
+      throw new IllegalArgumentException("The argument 'percentile' must be within [0, 100]");
+    }
+    final long count = this.count.get();
+    final long rank = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+    long result = 0;
+    long cumulativeCount = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      cumulativeCount += counts.get(i);
+      if (cumulativeCount >= rank) {
+        result = Math.min(highestValue(i), max.get());
+        break;
+      }
+    }
+    return result;
+  }
+
+  private final static int index(final long value) {
+    final int result;
+    if (value < SUB_BUCKETS) {
+      result = (int)value;
+    } else {
+      final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+      final int shift = exponent - SUB_BUCKET_BITS;
+      result = (shift + 1) * SUB_BUCKETS + (int)((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+    return result;
+  }
+
+  private final static long highestValue(final int index) {
+    final long result;
+    if (index < SUB_BUCKETS) {
+      result = index;
+    } else {
+      final int shift = index / SUB_BUCKETS - 1;
+      final long lowestValue = (long)(SUB_BUCKETS | (index & (SUB_BUCKETS - 1))) << shift;
+      result = lowestValue + ((1L << shift) - 1);
+    }
+    return result;
+  }
+
+  @Override
+  public final String toString() {
+    return getClass().getSimpleName() + "(count=" + getCount() + ", max=" + getMax() + ")";
+  }
+}
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Collects latencies of methods instrumented by {@link LatencyProfilingTransformer}.
+ * A method is registered once, when its class is transformed (see {@link #registerMethod(String)}), and gets an integer identifier
+ * that is embedded into the injected code, so recording a latency (see {@link #start()} and {@link #record(int, long)}) involves
+ * neither method names, nor maps, nor boxing.
+ * <p>
+ * Every thread records into its own {@link LatencyHistogram}s, so recording involves neither locks, nor atomic read-modify-write operations,
+ * nor contention between threads. A histogram is allocated when a thread completes a method for the first time,
+ * all subsequent recordings don't allocate.
+ * Histograms of all threads are merged when statistics is read (see {@link #getLatencies()}), which can be done at any time by any thread.
+ * Histograms of terminated threads are merged into shared histograms and are released (see {@link ThreadRecorderRegistry}),
+ * so memory is not leaked when threads come and go, even if statistics is never read.
+ * <p>
+ * Invocations may be sampled (see {@link #setSamplingInterval(int)}): with the sampling interval {@code N},
+ * an invocation is measured with the probability {@code 1/N} and is recorded as {@code N} invocations with the same latency,
+ * so counts and the distribution of latencies are unbiased estimates. An invocation that is not sampled doesn't read the clock,
+ * which is what dominates the overhead of profiling if the clock source of the OS is slow (e.g. in some virtual machines).
+ * The interval an invocation is recorded with is the one it was sampled with: {@link #start()} encodes it into the returned value,
+ * so changing the interval at run time doesn't skew invocations that are in progress
+ * (unless the interval is changed more than {@code 15} times during a single invocation).
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class LatencyProfiler {
+  /**
+   * Histograms of a single thread.
+   * <p>
+   * Instantiability: allowed only from inside {@link LatencyProfiler} class.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: a single writer (the owning thread) and multiple readers are allowed.
+   */
+  private final static class ThreadRecorder {
+    private volatile LatencyHistogram[] histograms;// method identifier -> histogram, the array is replaced only by the owning thread
+
+    private ThreadRecorder() {
+      histograms = new LatencyHistogram[0];
+    }
+
+    private final LatencyHistogram histogram(final int methodId) {
+      final LatencyHistogram[] histograms = this.histograms;
+      final LatencyHistogram histogram = methodId < histograms.length ? histograms[methodId] : null;
+      return histogram == null ? newHistogram(methodId) : histogram;
+    }
+
+    private final LatencyHistogram newHistogram(final int methodId) {
+      final LatencyHistogram[] histograms = methodId < this.histograms.length
+          ? this.histograms
+          : Arrays.copyOf(this.histograms, Math.max(methodId + 1, 2 * this.histograms.length));
+      final LatencyHistogram result = new LatencyHistogram();
+      histograms[methodId] = result;
+      this.histograms = histograms;// publishes the new histogram to readers
+      return result;
+    }
+  }
+
+  private final static long NOT_SAMPLED;// the value returned by start() if the invocation is not sampled
+  private final static int INTERVAL_SLOT_SHIFT;// a value returned by start() is the interval slot followed by nanoseconds since ORIGIN_NANOS
+  private final static long ELAPSED_NANOS_MASK;
+  private final static long ORIGIN_NANOS;
+  private final static int[] INTERVALS;// interval slot -> sampling interval, the current slot is samplingSlot
+  private final static ThreadRecorderRegistry<ThreadRecorder> RECORDERS;// its monitor guards terminatedThreadsHistograms
+  private final static IdentifierRegistry<String> METHOD_NAMES;
+  private static volatile int samplingSlot;// written only inside synchronized setSamplingInterval(int) after INTERVALS
+  private static LatencyHistogram[] terminatedThreadsHistograms;
+
+  static {
+    NOT_SAMPLED = Long.MIN_VALUE;// values returned for sampled invocations are non-negative
+    INTERVAL_SLOT_SHIFT = 59;// 2^59 nanoseconds are more than 18 years
+    ELAPSED_NANOS_MASK = (1L << INTERVAL_SLOT_SHIFT) - 1;
+    ORIGIN_NANOS = System.nanoTime();
+    INTERVALS = new int[1 << (Long.SIZE - 1 - INTERVAL_SLOT_SHIFT)];
+    INTERVALS[0] = 1;
+    samplingSlot = 0;
+    RECORDERS = new ThreadRecorderRegistry<ThreadRecorder>(new ThreadRecorderRegistry.RecorderLifecycle<ThreadRecorder>() {
+      public final ThreadRecorder newRecorder() {
+        return new ThreadRecorder();
+      }
+
+      public final void retire(final ThreadRecorder recorder) {
+        final LatencyHistogram[] histograms = recorder.histograms;
+        if (terminatedThreadsHistograms.length < histograms.length) {
+          terminatedThreadsHistograms = Arrays.copyOf(terminatedThreadsHistograms, histograms.length);
+        }
+        for (int i = 0; i < histograms.length; i++) {
+          if (histograms[i] != null) {
+            if (terminatedThreadsHistograms[i] == null) {
+              terminatedThreadsHistograms[i] = new LatencyHistogram();
+            }
+            terminatedThreadsHistograms[i].add(histograms[i]);
+          }
+        }
+      }
+    });
+    METHOD_NAMES = new IdentifierRegistry<String>();
+    terminatedThreadsHistograms = new LatencyHistogram[0];
+  }
+
+  /**
+   * Registers a method and returns its identifier. Every invocation registers a new method, even if the name was already registered,
+   * e.g. because a class with the same name was loaded by another class loader.
+   *
+   * @param methodName A name of the method that is used in statistics. Must be not {@code null}.
+   *
+   * @return The identifier of the method that must be passed to {@link #record(int, long)}.
+   */
+  public final static int registerMethod(final String methodName) {
+    if (methodName == null) {
+      throw new NullPointerException("The argument 'methodName' is null");
+    }
+    return METHOD_NAMES.register(methodName);
+  }
+
+  /**
+   * Marks the start of an invocation of an instrumented method. This method is invoked by the code injected by
+   * {@link LatencyProfilingTransformer} when an instrumented method is entered.
+   *
+   * @return If the invocation is sampled, a non-negative value that encodes the start time and the current sampling interval,
+   * otherwise a special value. The value must be passed to {@link #record(int, long)}.
+   */
+  public final static long start() {
+    final int slot = samplingSlot;
+    final int samplingInterval = INTERVALS[slot];
+    return ((samplingInterval == 1) || (ThreadLocalRandom.current()
+        .nextInt(samplingInterval) == 0)) ? ((long)slot << INTERVAL_SLOT_SHIFT) | (System.nanoTime() - ORIGIN_NANOS) : NOT_SAMPLED;
+  }
+
+  /**
+   * Records a latency of an invocation of the method if the invocation is sampled. This method is invoked by the code injected by
+   * {@link LatencyProfilingTransformer} when an instrumented method completes, either normally or abruptly.
+   *
+   * @param methodId The identifier of the method (see {@link #registerMethod(String)}).
+   * @param start The value returned by the corresponding invocation of {@link #start()}.
+   */
+  public final static void record(final int methodId, final long start) {
+    if (start != NOT_SAMPLED) {
+      final long latency = System.nanoTime() - ORIGIN_NANOS - (start & ELAPSED_NANOS_MASK);
+      RECORDERS.get()
+          .histogram(methodId)
+          .record(latency, INTERVALS[(int)(start >>> INTERVAL_SLOT_SHIFT)]);
+    }
+  }
+
+  /**
+   * Specifies the sampling interval, see {@link LatencyProfiler}. Can be changed at any time, the default is {@code 1}.
+   * Invocations that are in progress are recorded with the interval they were sampled with.
+   *
+   * @param samplingInterval {@code 1} if every invocation must be measured, otherwise the mean number of invocations per measured one.
+   * Must be positive.
+   */
+  public final static synchronized void setSamplingInterval(final int samplingInterval) {
+    if (samplingInterval <= 0) {
+      throw new IllegalArgumentException("The argument 'samplingInterval' must be positive");
+    }
+    final int slot = (samplingSlot + 1) & (INTERVALS.length - 1);// the least recently used slot
+    INTERVALS[slot] = samplingInterval;
+    samplingSlot = slot;// publishes the interval
+  }
+
+  /**
+   * Returns the sampling interval.
+   *
+   * @return The sampling interval.
+   *
+   * @see #setSamplingInterval(int)
+   */
+  public final static int getSamplingInterval() {
+    return INTERVALS[samplingSlot];
+  }
+
+  /**
+   * Merges histograms of all threads and returns statistics of all methods that completed at least once.
+   * Invocations that are being recorded concurrently with this method may be not taken into account.
+   *
+   * @return Statistics in the order methods were registered.
+   */
+  public final static List<MethodLatency> getLatencies() {
+    final List<String> methodNames = METHOD_NAMES.getAll();
+    final LatencyHistogram[] merged = new LatencyHistogram[methodNames.size()];
+    synchronized (RECORDERS) {
+      final List<ThreadRecorder> recorders = RECORDERS.retireTerminatedThreads();
+      for (int i = 0; i < methodNames.size(); i++) {
+        merged[i] = new LatencyHistogram();
+        if ((i < terminatedThreadsHistograms.length) && (terminatedThreadsHistograms[i] != null)) {
+          merged[i].add(terminatedThreadsHistograms[i]);
+        }
+      }
+      for (final ThreadRecorder recorder : recorders) {
+        final LatencyHistogram[] histograms = recorder.histograms;
+        for (int i = 0; i < Math.min(histograms.length, methodNames.size()); i++) {
+          if (histograms[i] != null) {
+            merged[i].add(histograms[i]);
+          }
+        }
+      }
+    }
+    final List<MethodLatency> result = new ArrayList<MethodLatency>();
+    for (int i = 0; i < methodNames.size(); i++) {
+      if (merged[i].getCount() > 0) {
+        result.add(new MethodLatency(methodNames.get(i), merged[i]));
+      }
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns a human-readable report of {@link #getLatencies()}, one method per line.
+   *
+   * @return The report.
+   */
+  public final static String report() {
+    final StringBuilder result = new StringBuilder("Method latencies (sampling interval ").append(getSamplingInterval())
+        .append("):");
+    for (final MethodLatency latency : getLatencies()) {
+      result.append(System.lineSeparator())
+          .append(latency);
+    }
+    return result.toString();
+  }
+
+  private LatencyProfiler() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
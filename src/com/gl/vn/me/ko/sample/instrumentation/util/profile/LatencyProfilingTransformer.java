@@ -0,0 +1,70 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.regex.Pattern;
+import javassist.CtClass;
+import javassist.CtMethod;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Injects measurement of latency into methods selected by a pattern. Every declared non-abstract and non-native method
+ * (constructors and static initializers are not instrumented) of a class matched by the {@link ClassNameFilter},
+ * which long name (see {@link javassist.CtMethod#getLongName()}, e.g. {@code "com.example.Handler.handle(java.lang.String,int)"})
+ * matches the pattern, is registered in {@link LatencyProfiler} and its body is transformed to something like
+ * <blockquote>
+ *
+ * <pre>
+ * {
+ * 	long start = LatencyProfiler.start();
+ * 	try {
+ * 		...// the original body
+ * 	} finally {
+ * 		LatencyProfiler.record(methodId, start);
+ * 	}
+ * }
+ * </pre>
+ *
+ * </blockquote>
+ * where {@code methodId} is a constant (see {@link LatencyProfiler} for sampling of invocations).
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class LatencyProfilingTransformer extends AbstractMethodProfilingTransformer {
+  private final static Logger LOGGER;
+  private final static String PROFILER_CLASS_NAME;
+  private final static String START_VARIABLE_NAME;// name of the local variable that holds the start of an invocation
+
+  static {
+    LOGGER = Logger.getLogger(LatencyProfilingTransformer.class);
+    PROFILER_CLASS_NAME = LatencyProfiler.class.getName();
+    START_VARIABLE_NAME = "$latencyProfilerStart";
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes which methods are profiled. Must be not {@code null}.
+   * Classes that can't see {@link LatencyProfiler} (e.g. classes defined by the bootstrap class loader
+   * if the profiler is not on the boot class path) must not be matched.
+   * @param methodPattern Specifies methods to profile, must match the whole long name of a method. Must be not {@code null}.
+   */
+  public LatencyProfilingTransformer(final ClassNameFilter classNameFilter, final Pattern methodPattern) {
+    super(classNameFilter, methodPattern);
+  }
+
+  /**
+   * Transformation is described in the description of {@link LatencyProfilingTransformer} class.
+   */
+  @Override
+  final void instrument(final CtMethod ctMethod, final String methodName) throws Exception {
+    final int methodId = LatencyProfiler.registerMethod(methodName);
+    AsyncLog.debug(LOGGER, "Profiling latency of the method '{}' with identifier {}", methodName, methodId);
+    ctMethod.addLocalVariable(START_VARIABLE_NAME, CtClass.longType);
+    // the finally block is inserted first, so it doesn't cover the code that initializes the variable, otherwise the class fails verification
+    ctMethod.insertAfter(PROFILER_CLASS_NAME + ".record(" + methodId + ", " + START_VARIABLE_NAME + ");", true);
+    ctMethod.insertBefore(START_VARIABLE_NAME + " = " + PROFILER_CLASS_NAME + ".start();");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.Locale;
+
+/**
+ * Statistics of bytes allocated by a method profiled by {@link AllocatedBytesProfiler}.
+ * <p>
+ * Instantiability: allowed only from inside {@link AllocatedBytesProfiler} class.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class MethodAllocation {
+  private final String methodName;
+  private final long calls;
+  private final long inclusiveBytes;
+  private final long exclusiveBytes;
+  private final double seconds;
+
+  MethodAllocation(final String methodName, final long calls, final long inclusiveBytes, final long exclusiveBytes, final double seconds) {
+    this.methodName = methodName;
+    this.calls = calls;
+    this.inclusiveBytes = inclusiveBytes;
+    this.exclusiveBytes = exclusiveBytes;
+    this.seconds = seconds;
+  }
+
+  /**
+   * Returns the name of the method as it was registered via {@link AllocatedBytesProfiler#registerMethod(String)}.
+   *
+   * @return The name of the method.
+   */
+  public final String getMethodName() {
+    return methodName;
+  }
+
+  /**
+   * Returns the number of completed invocations, including invocations completed abruptly.
+   *
+   * @return The number of invocations.
+   */
+  public final long getCalls() {
+    return calls;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the method and by all methods it invoked.
+   *
+   * @return The inclusive number of bytes.
+   */
+  public final long getInclusiveBytes() {
+    return inclusiveBytes;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the method and by methods it invoked that are not instrumented.
+   *
+   * @return The exclusive number of bytes.
+   */
+  public final long getExclusiveBytes() {
+    return exclusiveBytes;
+  }
+
+  /**
+   * Returns the mean inclusive number of bytes per invocation.
+   *
+   * @return Bytes per invocation.
+   */
+  public final double getInclusiveBytesPerCall() {
+    return (double)inclusiveBytes / calls;
+  }
+
+  /**
+   * Returns the mean exclusive number of bytes per invocation.
+   *
+   * @return Bytes per invocation.
+   */
+  public final double getExclusiveBytesPerCall() {
+    return (double)exclusiveBytes / calls;
+  }
+
+  /**
+   * Returns the inclusive allocation rate over the time since the profiler was initialized.
+   *
+   * @return Bytes per second.
+   */
+  public final double getInclusiveBytesPerSecond() {
+    return seconds > 0 ? inclusiveBytes / seconds : 0;
+  }
+
+  /**
+   * Returns the exclusive allocation rate over the time since the profiler was initialized.
+   *
+   * @return Bytes per second.
+   */
+  public final double getExclusiveBytesPerSecond() {
+    return seconds > 0 ? exclusiveBytes / seconds : 0;
+  }
+
+  @Override
+  public final String toString() {
+    return String.format(Locale.ENGLISH, "%s calls=%d inclusive=%d B (%.0f B/call, %.0f B/s) exclusive=%d B (%.0f B/call, %.0f B/s)",
+        methodName, calls, inclusiveBytes, getInclusiveBytesPerCall(), getInclusiveBytesPerSecond(), exclusiveBytes, getExclusiveBytesPerCall(),
+        getExclusiveBytesPerSecond());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.Locale;
+
+/**
+ * Latency statistics of a method profiled by {@link LatencyProfiler}. All latencies are in nanoseconds
+ * and have the precision of {@link LatencyHistogram}.
+ * <p>
+ * Instantiability: allowed only from inside {@link LatencyProfiler} class.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class MethodLatency {
+  private final String methodName;
+  private final long count;
+  private final double mean;
+  private final long p50;
+  private final long p99;
+  private final long p999;
+  private final long max;
+
+  MethodLatency(final String methodName, final LatencyHistogram histogram) {
+    this.methodName = methodName;
+    count = histogram.getCount();
+    mean = histogram.getMean();
+    p50 = histogram.getValueAtPercentile(50);
+    p99 = histogram.getValueAtPercentile(99);
+    p999 = histogram.getValueAtPercentile(99.9);
+    max = histogram.getMax();
+  }
+
+  /**
+   * Returns the name of the method as it was registered via {@link LatencyProfiler#registerMethod(String)}.
+   *
+   * @return The name of the method.
+   */
+  public final String getMethodName() {
+    return methodName;
+  }
+
+  /**
+   * Returns the number of completed invocations, including invocations completed abruptly.
+   *
+   * @return The number of invocations.
+   */
+  public final long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the mean latency.
+   *
+   * @return The mean latency in nanoseconds.
+   */
+  public final double getMean() {
+    return mean;
+  }
+
+  /**
+   * Returns the median latency.
+   *
+   * @return The 50th percentile of latency in nanoseconds.
+   */
+  public final long getP50() {
+    return p50;
+  }
+
+  /**
+   * Returns the 99th percentile of latency.
+   *
+   * @return The 99th percentile of latency in nanoseconds.
+   */
+  public final long getP99() {
+    return p99;
+  }
+
+  /**
+   * Returns the 99.9th percentile of latency.
+   *
+   * @return The 99.9th percentile of latency in nanoseconds.
+   */
+  public final long getP999() {
+    return p999;
+  }
+
+  /**
+   * Returns the maximal latency.
+   *
+   * @return The maximal latency in nanoseconds.
+   */
+  public final long getMax() {
+    return max;
+  }
+
+  @Override
+  public final String toString() {
+    return String.format(Locale.ENGLISH, "%s count=%d mean=%.0f p50=%d p99=%d p999=%d max=%d ns", methodName, count, mean, p50, p99, p999, max);
+  }
+}
\ No newline at end of file
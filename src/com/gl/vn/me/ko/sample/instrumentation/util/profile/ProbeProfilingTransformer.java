@@ -0,0 +1,76 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.regex.Pattern;
+import javassist.CtClass;
+import javassist.CtMethod;
+import org.apache.log4j.Logger;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.log.AsyncLog;
+
+/**
+ * Injects probes into methods selected by a pattern. Methods are selected as described in {@link LatencyProfilingTransformer},
+ * every selected method gets a probe registered in {@link ProbeRegistry} under the long name of the method, and its body is transformed to
+ * something like
+ * <blockquote>
+ *
+ * <pre>
+ * {
+ * 	long start = System.nanoTime();
+ * 	try {
+ * 		...// the original body
+ * 	} finally {
+ * 		ProbeRegistry.record(probeId, start);
+ * 	}
+ * }
+ * </pre>
+ *
+ * </blockquote>
+ * where {@code probeId} is a constant. Unlike {@link LatencyProfilingTransformer}, which keeps histograms on the Java heap,
+ * only the number of invocations, the total and the maximal time are recorded, but they can be read by other processes
+ * (see {@link ProbeTable}).
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ProbeProfilingTransformer extends AbstractMethodProfilingTransformer {
+  private final static Logger LOGGER;
+  private final static String REGISTRY_CLASS_NAME;
+  private final static String START_VARIABLE_NAME;// name of the local variable that holds the start of an invocation
+
+  static {
+    LOGGER = Logger.getLogger(ProbeProfilingTransformer.class);
+    REGISTRY_CLASS_NAME = ProbeRegistry.class.getName();
+    START_VARIABLE_NAME = "$probeStart";
+  }
+
+  /**
+   * Creates a transformer.
+   *
+   * @param classNameFilter Specifies classes which methods are probed. Must be not {@code null}.
+   * Classes that can't see {@link ProbeRegistry} (e.g. classes defined by the bootstrap class loader
+   * if the registry is not on the boot class path) must not be matched.
+   * @param methodPattern Specifies methods to probe, must match the whole long name of a method. Must be not {@code null}.
+   *
+   * @throws java.lang.IllegalStateException If {@link ProbeRegistry} isn't initialized.
+   */
+  public ProbeProfilingTransformer(final ClassNameFilter classNameFilter, final Pattern methodPattern) throws IllegalStateException {
+    super(classNameFilter, methodPattern);
+    if (ProbeRegistry.getTable() == null) {
+      throw new IllegalStateException("The probe registry isn't initialized");
+    }
+  }
+
+  /**
+   * Transformation is described in the description of {@link ProbeProfilingTransformer} class.
+   */
+  @Override
+  final void instrument(final CtMethod ctMethod, final String methodName) throws Exception {
+    final int probeId = ProbeRegistry.register(methodName);
+    AsyncLog.debug(LOGGER, "Probing the method '{}' with identifier {}", methodName, probeId);
+    ctMethod.addLocalVariable(START_VARIABLE_NAME, CtClass.longType);
+    // the finally block is inserted first, so it doesn't cover the code that initializes the variable, otherwise the class fails verification
+    ctMethod.insertAfter(REGISTRY_CLASS_NAME + ".record(" + probeId + ", " + START_VARIABLE_NAME + ");", true);
+    ctMethod.insertBefore(START_VARIABLE_NAME + " = System.nanoTime();");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.annotation.Nullable;
+
+/**
+ * Gives probes injected by {@link ProbeProfilingTransformer} compact integer identifiers and records their hits in the {@link ProbeTable}
+ * of the current process. A probe is registered once, when its class is transformed (see {@link #register(String)}), and its identifier
+ * is embedded into the injected code, so recording a hit (see {@link #hit(int)} and {@link #record(int, long)}) involves neither names,
+ * nor maps, nor objects on the Java heap: counters are updated directly in the memory-mapped file, where other processes,
+ * e.g. {@link ProbeTableReader}, read them.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ProbeRegistry {
+  /**
+   * Suffix of names of files of probe tables created via {@link #init(Path, int)}.
+   * Value of this constant is {@value} .
+   */
+  public final static String FILE_SUFFIX = ".probes";
+  @Nullable
+  private static volatile ProbeTable table;
+
+  /**
+   * Creates the probe table of the current process in {@code directory}. The name of the file is the identifier of the process
+   * followed by {@link #FILE_SUFFIX}, so tables of different processes can share the directory.
+   *
+   * @param directory A directory for the file of the table. Must be not {@code null}. It's created if it doesn't exist.
+   * @param capacity The maximal number of probes (see {@link ProbeTable#create(Path, int)}).
+   *
+   * @return The created table.
+   *
+   * @throws java.io.IOException If the table can't be created.
+   * @throws java.lang.IllegalStateException If the registry is already initialized.
+   */
+  public final static synchronized ProbeTable init(final Path directory, final int capacity) throws IOException, IllegalStateException {
+    if (directory == null) {
+      throw new NullPointerException("The argument 'directory' is null");
+    } else if (table != null) {
+      throw new IllegalStateException("The probe registry is already initialized");
+    }
+    Files.createDirectories(directory);
+    final ProbeTable result = ProbeTable.create(directory.resolve(ProcessHandle.current()
+        .pid() + FILE_SUFFIX), capacity);
+    table = result;
+    return result;
+  }
+
+  /**
+   * Returns the probe table of the current process.
+   *
+   * @return The table, or {@code null} if the registry isn't initialized.
+   */
+  @Nullable
+  public final static ProbeTable getTable() {
+    return table;
+  }
+
+  /**
+   * Registers a probe and returns its identifier.
+   *
+   * @param name A name of the probe. Must be not {@code null}.
+   *
+   * @return The identifier of the probe that must be passed to {@link #hit(int)} or {@link #record(int, long)}.
+   *
+   * @throws java.lang.IllegalStateException If the registry isn't initialized or the table is full.
+   */
+  public final static int register(final String name) throws IllegalStateException {
+    final ProbeTable table = ProbeRegistry.table;
+    if (table == null) {
+      throw new IllegalStateException("The probe registry isn't initialized");
+    }
+    return table.register(name);
+  }
+
+  /**
+   * Counts a hit of the probe.
+   *
+   * @param probeId The identifier of the probe (see {@link #register(String)}).
+   */
+  @SuppressWarnings("null")
+  public final static void hit(final int probeId) {
+    table.increment(probeId);// not null, because the probe is registered
+  }
+
+  /**
+   * Counts a hit of the probe and the time since {@code startNanos}. This method is invoked by the code injected by
+   * {@link ProbeProfilingTransformer} when an instrumented method completes, either normally or abruptly.
+   *
+   * @param probeId The identifier of the probe (see {@link #register(String)}).
+   * @param startNanos The value of {@link System#nanoTime()} at the start of the hit.
+   */
+  @SuppressWarnings("null")
+  public final static void record(final int probeId, final long startNanos) {
+    table.record(probeId, System.nanoTime() - startNanos);// not null, because the probe is registered
+  }
+
+  private ProbeRegistry() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
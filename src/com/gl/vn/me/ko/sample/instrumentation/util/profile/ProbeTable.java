@@ -0,0 +1,321 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A table of probe counters in a memory-mapped file, similar to the {@code hsperfdata} files of HotSpot.
+ * A JVM creates a table (see {@link #create(Path, int)}) and updates it, other processes open the same file (see {@link #open(Path)})
+ * and read it at any time, without attaching to the JVM, so reading involves neither safepoints, nor garbage collection of the JVM.
+ * <p>
+ * The file consists of a header of 64 bytes followed by slots of 256 bytes, one slot per probe.
+ * The header contains the magic number, the version of the layout, the capacity in slots, the size of a slot, the identifier of the process,
+ * the time the table was created and the number of registered probes. A slot contains the number of hits, the total and the maximal time
+ * in nanoseconds in its first cache line, and the name of the probe (the length and UTF-8 bytes, truncated to 190 bytes)
+ * in other cache lines, so counters of different probes never share a cache line, and updates of counters never share a cache line
+ * with data that is only read. Numbers are in the native byte order, because the file is only read on the same host.
+ * Counters are updated via atomic operations, and a probe is counted in the header only after its name is written,
+ * so readers never see partially registered probes.
+ * <p>
+ * Instantiability: via {@link #create(Path, int)} and {@link #open(Path)}.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ProbeTable {
+  private final static int MAGIC;
+  private final static int VERSION;
+  private final static int HEADER_BYTES;
+  private final static int SLOT_BYTES;
+  private final static int MAX_CAPACITY;
+  private final static int MAX_NAME_BYTES;// maximal length of the name of a probe in UTF-8 bytes
+  private final static int MAGIC_OFFSET;
+  private final static int VERSION_OFFSET;
+  private final static int CAPACITY_OFFSET;
+  private final static int SLOT_BYTES_OFFSET;
+  private final static int PID_OFFSET;
+  private final static int START_MILLIS_OFFSET;
+  private final static int PROBE_COUNT_OFFSET;
+  private final static int COUNT_OFFSET;// offsets within a slot
+  private final static int TOTAL_NANOS_OFFSET;
+  private final static int MAX_NANOS_OFFSET;
+  private final static int NAME_LENGTH_OFFSET;
+  private final static int NAME_OFFSET;
+  private final static VarHandle INT_VIEW;
+  private final static VarHandle LONG_VIEW;
+  private final Path file;
+  private final ByteBuffer buffer;
+  private final boolean writable;
+  private final int capacity;
+
+  static {
+    MAGIC = 0x50524F42;// "PROB"
+    VERSION = 1;
+    HEADER_BYTES = 64;
+    SLOT_BYTES = 256;
+    MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES;// a file can't be mapped as a whole if it's larger
+    MAGIC_OFFSET = 0;
+    VERSION_OFFSET = 4;
+    CAPACITY_OFFSET = 8;
+    SLOT_BYTES_OFFSET = 12;
+    PID_OFFSET = 16;
+    START_MILLIS_OFFSET = 24;
+    PROBE_COUNT_OFFSET = 32;
+    COUNT_OFFSET = 0;
+    TOTAL_NANOS_OFFSET = 8;
+    MAX_NANOS_OFFSET = 16;
+    NAME_LENGTH_OFFSET = 64;
+    NAME_OFFSET = 66;
+    MAX_NAME_BYTES = SLOT_BYTES - NAME_OFFSET;
+    INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+  }
+
+  private ProbeTable(final Path file, final ByteBuffer buffer, final boolean writable, final int capacity) {
+    this.file = file;
+    this.buffer = buffer;
+    this.writable = writable;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Creates a file and a table in it for the current process. The file is overwritten if it exists.
+   *
+   * @param file The file of the table. Must be not {@code null}.
+   * @param capacity The maximal number of probes. Must be positive and not greater than {@code 8388607}.
+   *
+   * @return A writable table without probes.
+   *
+   * @throws java.io.IOException If the file can't be created or mapped.
+   */
+  public final static ProbeTable create(final Path file, final int capacity) throws IOException {
+    if (file == null) {
+      throw new NullPointerException("The argument 'file' is null");
+    } else if ((capacity <= 0) || (capacity > MAX_CAPACITY)) {
+      throw new IllegalArgumentException("The argument 'capacity' must be positive and not greater than " + MAX_CAPACITY);
+    }
+    final ByteBuffer buffer;
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long)capacity * SLOT_BYTES);// the mapping outlives the channel
+    }
+    INT_VIEW.set(buffer, VERSION_OFFSET, VERSION);
+    INT_VIEW.set(buffer, CAPACITY_OFFSET, capacity);
+    INT_VIEW.set(buffer, SLOT_BYTES_OFFSET, SLOT_BYTES);
+    LONG_VIEW.set(buffer, PID_OFFSET, ProcessHandle.current()
+        .pid());
+    LONG_VIEW.set(buffer, START_MILLIS_OFFSET, System.currentTimeMillis());
+    INT_VIEW.set(buffer, PROBE_COUNT_OFFSET, 0);
+    INT_VIEW.setVolatile(buffer, MAGIC_OFFSET, MAGIC);// the header is valid only after the magic number is written
+    return new ProbeTable(file, buffer, true, capacity);
+  }
+
+  /**
+   * Opens a table created by {@link #create(Path, int)}, possibly by another process, for reading.
+   *
+   * @param file The file of the table. Must be not {@code null}.
+   *
+   * @return A read-only table.
+   *
+   * @throws java.io.IOException If the file can't be mapped or isn't a valid table.
+   */
+  public final static ProbeTable open(final Path file) throws IOException {
+    if (file == null) {
+      throw new NullPointerException("The argument 'file' is null");
+    }
+    final ByteBuffer buffer;
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size < HEADER_BYTES) {
+        throw new IOException("The file '" + file + "' is not a probe table");
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+    final boolean initialized = (int)INT_VIEW.getVolatile(buffer, MAGIC_OFFSET) == MAGIC;// read first, so the rest of the header is complete
+    final int capacity = (int)INT_VIEW.get(buffer, CAPACITY_OFFSET);
+    if (!initialized || ((int)INT_VIEW.get(buffer, VERSION_OFFSET) != VERSION) ||
+        ((int)INT_VIEW.get(buffer, SLOT_BYTES_OFFSET) != SLOT_BYTES) || (capacity <= 0) || (capacity > MAX_CAPACITY) ||
+        (buffer.capacity() < HEADER_BYTES + (long)capacity * SLOT_BYTES)) {
+      throw new IOException("The file '" + file + "' is not a probe table of version " + VERSION);
+    }
+    return new ProbeTable(file, buffer, false, capacity);
+  }
+
+  /**
+   * Registers a probe and returns its identifier. Every invocation registers a new probe, even if the name was already registered.
+   *
+   * @param name A name of the probe. Must be not {@code null}. Names longer than 190 UTF-8 bytes are truncated.
+   *
+   * @return The identifier of the probe, identifiers are assigned sequentially starting from {@code 0}.
+   *
+   * @throws java.lang.IllegalStateException If the table is read-only or full.
+   */
+  public final synchronized int register(final String name) throws IllegalStateException {
+    if (name == null) {
+      throw new NullPointerException("The argument 'name' is null");
+    } else if (!writable) {
+      throw new IllegalStateException("The probe table '" + file + "' is read-only");
+    }
+    final int result = getProbeCount();
+    if (result == capacity) {
+      throw new IllegalStateException("The probe table '" + file + "' is full, its capacity is " + capacity);
+    }
+    final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    int length = Math.min(bytes.length, MAX_NAME_BYTES);
+    while ((length < bytes.length) && (length > 0) && ((bytes[length] & 0xC0) == 0x80)) {// doesn't split a multi-byte character
+      length--;
+    }
+    final int slotOffset = slotOffset(result);
+    buffer.putShort(slotOffset + NAME_LENGTH_OFFSET, (short)length);
+    for (int i = 0; i < length; i++) {
+      buffer.put(slotOffset + NAME_OFFSET + i, bytes[i]);
+    }
+    INT_VIEW.setVolatile(buffer, PROBE_COUNT_OFFSET, result + 1);// publishes the probe to readers
+    return result;
+  }
+
+  /**
+   * Counts a hit of the probe.
+   *
+   * @param probeId The identifier of the probe (see {@link #register(String)}).
+   */
+  public final void increment(final int probeId) {
+    getAndAdd(slotOffset(probeId) + COUNT_OFFSET, 1);
+  }
+
+  /**
+   * Counts a hit of the probe that took {@code nanos}.
+   *
+   * @param probeId The identifier of the probe (see {@link #register(String)}).
+   * @param nanos Time in nanoseconds.
+   */
+  public final void record(final int probeId, final long nanos) {
+    final int slotOffset = slotOffset(probeId);
+    getAndAdd(slotOffset + COUNT_OFFSET, 1);
+    getAndAdd(slotOffset + TOTAL_NANOS_OFFSET, nanos);
+    long max = (long)LONG_VIEW.getVolatile(buffer, slotOffset + MAX_NANOS_OFFSET);
+    while ((nanos > max) && !(boolean)LONG_VIEW.compareAndSet(buffer, slotOffset + MAX_NANOS_OFFSET, max, nanos)) {
+      max = (long)LONG_VIEW.getVolatile(buffer, slotOffset + MAX_NANOS_OFFSET);
+    }
+  }
+
+  /**
+   * Returns the file of the table.
+   *
+   * @return The file of the table.
+   */
+  public final Path getFile() {
+    return file;
+  }
+
+  /**
+   * Returns the identifier of the process that created the table.
+   *
+   * @return The identifier of the process.
+   */
+  public final long getPid() {
+    return (long)LONG_VIEW.get(buffer, PID_OFFSET);
+  }
+
+  /**
+   * Returns the time the table was created.
+   *
+   * @return The time in milliseconds since the epoch.
+   */
+  public final long getStartMillis() {
+    return (long)LONG_VIEW.get(buffer, START_MILLIS_OFFSET);
+  }
+
+  /**
+   * Returns the maximal number of probes.
+   *
+   * @return The capacity of the table.
+   */
+  public final int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of registered probes. Probes with identifiers less than the returned number can be read.
+   *
+   * @return The number of registered probes.
+   */
+  public final int getProbeCount() {
+    return (int)INT_VIEW.getVolatile(buffer, PROBE_COUNT_OFFSET);
+  }
+
+  /**
+   * Returns the name of the probe.
+   *
+   * @param probeId The identifier of a registered probe.
+   *
+   * @return The name of the probe, possibly truncated.
+   */
+  public final String getName(final int probeId) {
+    final int slotOffset = slotOffset(checkRegistered(probeId));
+    final byte[] bytes = new byte[buffer.getShort(slotOffset + NAME_LENGTH_OFFSET)];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(slotOffset + NAME_OFFSET + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the number of hits of the probe.
+   *
+   * @param probeId The identifier of a registered probe.
+   *
+   * @return The number of hits.
+   */
+  public final long getCount(final int probeId) {
+    return (long)LONG_VIEW.getVolatile(buffer, slotOffset(checkRegistered(probeId)) + COUNT_OFFSET);
+  }
+
+  /**
+   * Returns the total time of hits of the probe recorded via {@link #record(int, long)}.
+   *
+   * @param probeId The identifier of a registered probe.
+   *
+   * @return The total time in nanoseconds.
+   */
+  public final long getTotalNanos(final int probeId) {
+    return (long)LONG_VIEW.getVolatile(buffer, slotOffset(checkRegistered(probeId)) + TOTAL_NANOS_OFFSET);
+  }
+
+  /**
+   * Returns the maximal time of a hit of the probe recorded via {@link #record(int, long)}.
+   *
+   * @param probeId The identifier of a registered probe.
+   *
+   * @return The maximal time in nanoseconds.
+   */
+  public final long getMaxNanos(final int probeId) {
+    return (long)LONG_VIEW.getVolatile(buffer, slotOffset(checkRegistered(probeId)) + MAX_NANOS_OFFSET);
+  }
+
+  private final int checkRegistered(final int probeId) {
+    if ((probeId < 0) || (probeId >= getProbeCount())) {
+      throw new IllegalArgumentException("The probe " + probeId + " is not registered");
+    }
+    return probeId;
+  }
+
+  private final long getAndAdd(final int offset, final long delta) {
+    return (long)LONG_VIEW.getAndAdd(buffer, offset, delta);
+  }
+
+  private final static int slotOffset(final int probeId) {
+    return HEADER_BYTES + probeId * SLOT_BYTES;
+  }
+
+  @Override
+  public final String toString() {
+    return "file=" + file + ", pid=" + getPid() + ", probes=" + getProbeCount() + "/" + capacity;
+  }
+}
\ No newline at end of file
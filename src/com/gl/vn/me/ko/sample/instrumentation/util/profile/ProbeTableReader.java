@@ -0,0 +1,160 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Reads probe tables (see {@link ProbeTable}) of all live JVMs that created them in a directory (see {@link ProbeRegistry#init(Path, int)})
+ * and prints probes aggregated by name over the JVMs. Tables are only read, JVMs are not attached to and don't take part in reading.
+ * Tables of processes that are not alive (e.g. crashed) are ignored.
+ * <p>
+ * Usage:<br>
+ * {@code java com.gl.vn.me.ko.sample.instrumentation.util.profile.ProbeTableReader <directory> [<interval in seconds>]}<br>
+ * If the interval is specified, the tool prints probes every interval until it's terminated, together with rates of hits during the interval,
+ * otherwise it prints probes once. The tool only needs its own class files on the class path,
+ * e.g. {@code instrumentation-util.jar}.
+ * <p>
+ * Instantiability: forbidden.<br>
+ * Thread safety: not applicable.
+ */
+public final class ProbeTableReader {
+  /**
+   * Aggregated values of probes with the same name.
+   * <p>
+   * Instantiability: allowed only from inside {@link ProbeTableReader} class.<br>
+   * Mutability: mutable.<br>
+   * Thread safety: not thread-safe.
+   */
+  private final static class Aggregate {
+    private final String name;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private int jvms;
+
+    private Aggregate(final String name) {
+      this.name = name;
+    }
+  }
+
+  private final static Map<Path, ProbeTable> TABLES;// tables that are mapped, they are mapped once, because a mapping is released only by GC
+
+  static {
+    TABLES = new HashMap<Path, ProbeTable>();
+  }
+
+  /**
+   * Tool entry point. See {@link ProbeTableReader} for the description of arguments.
+   *
+   * @param args Command-line arguments.
+   *
+   * @throws java.lang.Exception If something goes wrong.
+   */
+  public final static void main(final String[] args) throws Exception {
+    if ((args.length < 1) || (args.length > 2)) {
+      System.err.println("Usage: java " + ProbeTableReader.class.getName() + " <directory> [<interval in seconds>]");
+      System.exit(1);// any return code different from 0 is treated as abnormal termination
+    }
+    final Path directory = Paths.get(args[0]);
+    if (args.length == 1) {
+      print(read(directory), null, 0);
+    } else {
+      final long intervalMillis = Math.round(Double.parseDouble(args[1]) * 1000);
+      Map<String, Aggregate> previous = null;
+      long previousNanos = 0;
+      while (true) {
+        final long nanos = System.nanoTime();
+        final Map<String, Aggregate> current = read(directory);
+        print(current, previous, (nanos - previousNanos) / 1e9);
+        previous = current;
+        previousNanos = nanos;
+        Thread.sleep(intervalMillis);
+      }
+    }
+  }
+
+  private final static Map<String, Aggregate> read(final Path directory) throws IOException {
+    try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + ProbeRegistry.FILE_SUFFIX)) {
+      for (final Path file : files) {
+        if (!TABLES.containsKey(file)) {
+          try {
+            TABLES.put(file, ProbeTable.open(file));
+          } catch (final IOException e) {
+            System.err.println("Skipping '" + file + "': " + e.getMessage());// e.g. the file is being created
+          }
+        }
+      }
+    }
+    final Map<String, Aggregate> result = new LinkedHashMap<String, Aggregate>();
+    final StringBuilder jvms = new StringBuilder();
+    for (final Iterator<ProbeTable> iterator = TABLES.values()
+        .iterator(); iterator.hasNext(); ) {
+      final ProbeTable table = iterator.next();
+      if (ProcessHandle.of(table.getPid())
+          .isPresent() && Files.exists(table.getFile())) {
+        final int probeCount = table.getProbeCount();
+        for (int i = 0; i < probeCount; i++) {
+          final String name = table.getName(i);
+          Aggregate aggregate = result.get(name);
+          if (aggregate == null) {
+            aggregate = new Aggregate(name);
+            result.put(name, aggregate);
+          }
+          aggregate.count += table.getCount(i);
+          aggregate.totalNanos += table.getTotalNanos(i);
+          aggregate.maxNanos = Math.max(aggregate.maxNanos, table.getMaxNanos(i));
+          aggregate.jvms++;
+        }
+        jvms.append(' ')
+            .append(table.getPid())
+            .append('(')
+            .append(probeCount)
+            .append(" probes)");
+      } else {
+        iterator.remove();// the process has terminated
+      }
+    }
+    System.out.println(Instant.now() + " JVMs:" + (jvms.length() == 0 ? " none" : jvms));
+    return result;
+  }
+
+  private final static void print(final Map<String, Aggregate> current, @Nullable final Map<String, Aggregate> previous,
+      final double seconds) {
+    final List<Aggregate> aggregates = new ArrayList<Aggregate>(current.values());
+    Collections.sort(aggregates, new Comparator<Aggregate>() {
+      public final int compare(final Aggregate aggregate1, final Aggregate aggregate2) {
+        return Long.compare(aggregate2.totalNanos, aggregate1.totalNanos);
+      }
+    });
+    for (final Aggregate aggregate : aggregates) {
+      if (aggregate.count > 0) {
+        final StringBuilder line = new StringBuilder(String.format(Locale.ENGLISH, "%s calls=%d mean=%.0f max=%d ns jvms=%d", aggregate.name,
+            aggregate.count, (double)aggregate.totalNanos / aggregate.count, aggregate.maxNanos, aggregate.jvms));
+        if (previous != null) {
+          final Aggregate previousAggregate = previous.get(aggregate.name);
+          final long previousCount = previousAggregate == null ? 0 : previousAggregate.count;
+          line.append(String.format(Locale.ENGLISH, " rate=%.1f/s", Math.max(0, aggregate.count - previousCount) / seconds));
+        }
+        System.out.println(line);
+      }
+    }
+  }
+
+  private ProbeTableReader() {
+    throw new UnsupportedOperationException("The class is not designed to be instantiated");
+  }
+}
\ No newline at end of file
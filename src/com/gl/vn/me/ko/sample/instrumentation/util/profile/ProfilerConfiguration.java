@@ -0,0 +1,364 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nullable;
+import com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter;
+import com.gl.vn.me.ko.sample.instrumentation.util.ClassNameFilter.ClassLoaderScope;
+
+/**
+ * Configuration of profilers of this package, which is read from system properties (see {@link #fromSystemProperties()}).
+ * A profiler is enabled by specifying packages which classes it profiles (or a directory of the probe table for probes),
+ * and all other properties have defaults. All properties are parsed and validated when the configuration is read,
+ * so a misspelled value is reported before any class is transformed.
+ * <p>
+ * Instantiability: allowed only via {@link #fromSystemProperties()}.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class ProfilerConfiguration {
+  /**
+   * Name of the system property that specifies comma-separated names of packages which classes are profiled by
+   * {@link LatencyProfilingTransformer}, e.g. {@code "com.gl.vn.me.ko.sample.instrumentation.example"}.
+   * Subpackages are profiled too.
+   */
+  public final static String LATENCY_PROFILER_PACKAGES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.latencyProfiler.packages";
+  /**
+   * Name of the system property that specifies a regular expression that selects methods profiled by {@link LatencyProfilingTransformer}
+   * (see {@link LatencyProfilingTransformer#LatencyProfilingTransformer(ClassNameFilter, Pattern)}). The default is {@code ".*"}.
+   */
+  public final static String LATENCY_PROFILER_METHODS_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.latencyProfiler.methods";
+  /**
+   * Name of the system property that specifies the sampling interval of {@link LatencyProfiler}
+   * (see {@link LatencyProfiler#setSamplingInterval(int)}). The default is {@code 1}.
+   */
+  public final static String LATENCY_PROFILER_SAMPLING_INTERVAL_PROPERTY =
+      "com.gl.vn.me.ko.sample.instrumentation.latencyProfiler.samplingInterval";
+  /**
+   * Name of the system property that specifies comma-separated names of packages which allocations are counted by
+   * {@link AllocationProfilingTransformer}, e.g. {@code "com.gl.vn.me.ko.sample.instrumentation.example"}.
+   * Subpackages are profiled too.
+   */
+  public final static String ALLOCATION_PROFILER_PACKAGES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.allocationProfiler.packages";
+  /**
+   * Name of the system property that specifies the sampling interval of {@link AllocationProfiler}
+   * (see {@link AllocationProfiler#setSamplingInterval(int)}). The default is {@code 1}.
+   */
+  public final static String ALLOCATION_PROFILER_SAMPLING_INTERVAL_PROPERTY =
+      "com.gl.vn.me.ko.sample.instrumentation.allocationProfiler.samplingInterval";
+  /**
+   * Name of the system property that specifies how many allocation sites are reported (see {@link AllocationProfiler#report(int)}).
+   * The default is {@code 20}.
+   */
+  public final static String ALLOCATION_PROFILER_TOP_SITES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.allocationProfiler.topSites";
+  /**
+   * Name of the system property that specifies comma-separated names of packages which classes are profiled by
+   * {@link AllocatedBytesProfilingTransformer}, e.g. {@code "com.gl.vn.me.ko.sample.instrumentation.example"}.
+   * Subpackages are profiled too.
+   */
+  public final static String ALLOCATED_BYTES_PROFILER_PACKAGES_PROPERTY =
+      "com.gl.vn.me.ko.sample.instrumentation.allocatedBytesProfiler.packages";
+  /**
+   * Name of the system property that specifies a regular expression that selects methods profiled by
+   * {@link AllocatedBytesProfilingTransformer}
+   * (see {@link AllocatedBytesProfilingTransformer#AllocatedBytesProfilingTransformer(ClassNameFilter, Pattern)}). The default is {@code ".*"}.
+   */
+  public final static String ALLOCATED_BYTES_PROFILER_METHODS_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.allocatedBytesProfiler.methods";
+  /**
+   * Name of the system property that specifies comma-separated names of packages which writes of fields are counted by
+   * {@link FieldWriteProfilingTransformer}, e.g. {@code "com.gl.vn.me.ko.sample.instrumentation.example"}.
+   * Subpackages are profiled too.
+   */
+  public final static String FIELD_WRITE_PROFILER_PACKAGES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.fieldWriteProfiler.packages";
+  /**
+   * Name of the system property that specifies a regular expression that selects fields watched by {@link FieldWriteProfilingTransformer}
+   * (see {@link FieldWriteProfilingTransformer#FieldWriteProfilingTransformer(ClassNameFilter, Pattern, Pattern)}).
+   * The default is {@code ".*"}.
+   */
+  public final static String FIELD_WRITE_PROFILER_FIELDS_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.fieldWriteProfiler.fields";
+  /**
+   * Name of the system property that specifies a regular expression that selects fields that are not watched by
+   * {@link FieldWriteProfilingTransformer}
+   * (see {@link FieldWriteProfilingTransformer#FieldWriteProfilingTransformer(ClassNameFilter, Pattern, Pattern)}).
+   * No fields are excluded by default.
+   */
+  public final static String FIELD_WRITE_PROFILER_EXCLUDED_FIELDS_PROPERTY =
+      "com.gl.vn.me.ko.sample.instrumentation.fieldWriteProfiler.excludedFields";
+  /**
+   * Name of the system property that specifies the sampling interval of {@link FieldWriteProfiler}
+   * (see {@link FieldWriteProfiler#setSamplingInterval(int)}). The default is {@code 1}.
+   */
+  public final static String FIELD_WRITE_PROFILER_SAMPLING_INTERVAL_PROPERTY =
+      "com.gl.vn.me.ko.sample.instrumentation.fieldWriteProfiler.samplingInterval";
+  /**
+   * Name of the system property that specifies how many fields are reported (see {@link FieldWriteProfiler#report(int)}).
+   * The default is {@code 20}.
+   */
+  public final static String FIELD_WRITE_PROFILER_TOP_FIELDS_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.fieldWriteProfiler.topFields";
+  /**
+   * Name of the system property that specifies a directory for the memory-mapped probe table of the JVM (see {@link ProbeRegistry}),
+   * e.g. {@code "/tmp/probes"}. Probes are injected by {@link ProbeProfilingTransformer}.
+   */
+  public final static String PROBES_DIRECTORY_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.probes.directory";
+  /**
+   * Name of the system property that specifies comma-separated names of packages which methods are probed by
+   * {@link ProbeProfilingTransformer}. Subpackages are probed too. Must be specified if {@value #PROBES_DIRECTORY_PROPERTY} is specified.
+   */
+  public final static String PROBES_PACKAGES_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.probes.packages";
+  /**
+   * Name of the system property that specifies a regular expression that selects methods probed by {@link ProbeProfilingTransformer}
+   * (see {@link ProbeProfilingTransformer#ProbeProfilingTransformer(ClassNameFilter, Pattern)}). The default is {@code ".*"}.
+   */
+  public final static String PROBES_METHODS_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.probes.methods";
+  /**
+   * Name of the system property that specifies the maximal number of probes (see {@link ProbeTable#create(Path, int)}).
+   * The default is {@code 4096}.
+   */
+  public final static String PROBES_CAPACITY_PROPERTY = "com.gl.vn.me.ko.sample.instrumentation.probes.capacity";
+  private final static String ALL;// the default regular expression
+  private final static int DEFAULT_TOP;
+  private final static int PROBES_DEFAULT_CAPACITY;
+  @Nullable
+  private final String[] latencyPackagePrefixes;
+  private final Pattern latencyMethods;
+  private final int latencySamplingInterval;
+  @Nullable
+  private final String[] allocationPackagePrefixes;
+  private final int allocationSamplingInterval;
+  private final int allocationTopSites;
+  @Nullable
+  private final String[] allocatedBytesPackagePrefixes;
+  private final Pattern allocatedBytesMethods;
+  @Nullable
+  private final String[] fieldWritePackagePrefixes;
+  private final Pattern fieldWriteFields;
+  @Nullable
+  private final Pattern fieldWriteExcludedFields;
+  private final int fieldWriteSamplingInterval;
+  private final int fieldWriteTopFields;
+  @Nullable
+  private final Path probesDirectory;
+  @Nullable
+  private final String[] probesPackagePrefixes;
+  private final Pattern probesMethods;
+  private final int probesCapacity;
+
+  static {
+    ALL = ".*";
+    DEFAULT_TOP = 20;
+    PROBES_DEFAULT_CAPACITY = 4096;
+  }
+
+  private ProfilerConfiguration(final Properties properties) {
+    latencyPackagePrefixes = getPackagePrefixes(properties, LATENCY_PROFILER_PACKAGES_PROPERTY);
+    latencyMethods = getPattern(properties, LATENCY_PROFILER_METHODS_PROPERTY, ALL);
+    latencySamplingInterval = getPositiveInt(properties, LATENCY_PROFILER_SAMPLING_INTERVAL_PROPERTY, 1);
+    allocationPackagePrefixes = getPackagePrefixes(properties, ALLOCATION_PROFILER_PACKAGES_PROPERTY);
+    allocationSamplingInterval = getPositiveInt(properties, ALLOCATION_PROFILER_SAMPLING_INTERVAL_PROPERTY, 1);
+    allocationTopSites = getPositiveInt(properties, ALLOCATION_PROFILER_TOP_SITES_PROPERTY, DEFAULT_TOP);
+    allocatedBytesPackagePrefixes = getPackagePrefixes(properties, ALLOCATED_BYTES_PROFILER_PACKAGES_PROPERTY);
+    allocatedBytesMethods = getPattern(properties, ALLOCATED_BYTES_PROFILER_METHODS_PROPERTY, ALL);
+    fieldWritePackagePrefixes = getPackagePrefixes(properties, FIELD_WRITE_PROFILER_PACKAGES_PROPERTY);
+    fieldWriteFields = getPattern(properties, FIELD_WRITE_PROFILER_FIELDS_PROPERTY, ALL);
+    fieldWriteExcludedFields = properties.getProperty(FIELD_WRITE_PROFILER_EXCLUDED_FIELDS_PROPERTY) == null
+        ? null
+        : getPattern(properties, FIELD_WRITE_PROFILER_EXCLUDED_FIELDS_PROPERTY, ALL);
+    fieldWriteSamplingInterval = getPositiveInt(properties, FIELD_WRITE_PROFILER_SAMPLING_INTERVAL_PROPERTY, 1);
+    fieldWriteTopFields = getPositiveInt(properties, FIELD_WRITE_PROFILER_TOP_FIELDS_PROPERTY, DEFAULT_TOP);
+    final String probesDirectory = properties.getProperty(PROBES_DIRECTORY_PROPERTY);
+    this.probesDirectory = probesDirectory == null ? null : Paths.get(probesDirectory);
+    probesPackagePrefixes = getPackagePrefixes(properties, PROBES_PACKAGES_PROPERTY);
+    if ((probesDirectory != null) && (probesPackagePrefixes == null)) {
+      throw new IllegalArgumentException("The system property '" + PROBES_PACKAGES_PROPERTY + "' must be specified if the system property '" +
+          PROBES_DIRECTORY_PROPERTY + "' is specified");
+    }
+    probesMethods = getPattern(properties, PROBES_METHODS_PROPERTY, ALL);
+    probesCapacity = getPositiveInt(properties, PROBES_CAPACITY_PROPERTY, PROBES_DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Reads the configuration from the system properties.
+   *
+   * @return A new configuration.
+   *
+   * @throws java.lang.IllegalArgumentException If a value of a system property is incorrect.
+   */
+  public final static ProfilerConfiguration fromSystemProperties() throws IllegalArgumentException {
+    return new ProfilerConfiguration(System.getProperties());
+  }
+
+  /**
+   * Checks if at least one profiler is enabled.
+   *
+   * @return {@code true} if {@link #createTransformers()} returns a non-empty array.
+   */
+  public final boolean isAnyProfilerEnabled() {
+    return (latencyPackagePrefixes != null) || (allocationPackagePrefixes != null) || (allocatedBytesPackagePrefixes != null) ||
+        (fieldWritePackagePrefixes != null) || (probesDirectory != null);
+  }
+
+  /**
+   * Applies sampling intervals to the enabled profilers, creates the probe table (see {@link ProbeRegistry#init(Path, int)}) if probes
+   * are enabled, and creates transformers of the enabled profilers in the following order: {@link LatencyProfilingTransformer},
+   * {@link AllocationProfilingTransformer}, {@link AllocatedBytesProfilingTransformer}, {@link FieldWriteProfilingTransformer},
+   * {@link ProbeProfilingTransformer}. Transformers never transform classes of the bootstrap class loader,
+   * because it can't see the profilers. The method may be invoked only once, because the probe table can't be created twice.
+   *
+   * @return Transformers of the enabled profilers, possibly an empty array.
+   *
+   * @throws java.io.IOException If the probe table can't be created.
+   */
+  public final AbstractTransformer[] createTransformers() throws IOException {
+    final List<AbstractTransformer> result = new ArrayList<AbstractTransformer>();
+    if (latencyPackagePrefixes != null) {
+      LatencyProfiler.setSamplingInterval(latencySamplingInterval);
+      result.add(new LatencyProfilingTransformer(notBootstrapFilter(latencyPackagePrefixes), latencyMethods));
+    }
+    if (allocationPackagePrefixes != null) {
+      AllocationProfiler.setSamplingInterval(allocationSamplingInterval);
+      result.add(new AllocationProfilingTransformer(notBootstrapFilter(allocationPackagePrefixes)));
+    }
+    if (allocatedBytesPackagePrefixes != null) {
+      result.add(new AllocatedBytesProfilingTransformer(notBootstrapFilter(allocatedBytesPackagePrefixes), allocatedBytesMethods));
+    }
+    if (fieldWritePackagePrefixes != null) {
+      FieldWriteProfiler.setSamplingInterval(fieldWriteSamplingInterval);
+      result.add(new FieldWriteProfilingTransformer(notBootstrapFilter(fieldWritePackagePrefixes), fieldWriteFields, fieldWriteExcludedFields));
+    }
+    if ((probesDirectory != null) && (probesPackagePrefixes != null)) {
+      ProbeRegistry.init(probesDirectory, probesCapacity);
+      result.add(new ProbeProfilingTransformer(notBootstrapFilter(probesPackagePrefixes), probesMethods));
+    }
+    return result.toArray(new AbstractTransformer[result.size()]);
+  }
+
+  /**
+   * Returns reports of the enabled profilers, e.g. to be logged when the JVM shuts down.
+   * The probe table isn't reported, because it's read by {@link ProbeTableReader} from another process.
+   *
+   * @return Unmodifiable list of reports of the enabled profilers in the order of {@link #createTransformers()}.
+   */
+  public final List<String> reports() {
+    final List<String> result = new ArrayList<String>();
+    if (latencyPackagePrefixes != null) {
+      result.add(LatencyProfiler.report());
+    }
+    if (allocationPackagePrefixes != null) {
+      result.add(AllocationProfiler.report(allocationTopSites));
+    }
+    if (allocatedBytesPackagePrefixes != null) {
+      result.add(AllocatedBytesProfiler.report());
+    }
+    if (fieldWritePackagePrefixes != null) {
+      result.add(FieldWriteProfiler.report(fieldWriteTopFields));
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  @Override
+  public final String toString() {
+    final StringBuilder result = new StringBuilder(getClass().getSimpleName()).append('(');
+    if (latencyPackagePrefixes != null) {
+      result.append("latency: packages ")
+          .append(Arrays.toString(latencyPackagePrefixes))
+          .append(", methods '")
+          .append(latencyMethods)
+          .append("', sampling interval ")
+          .append(latencySamplingInterval)
+          .append("; ");
+    }
+    if (allocationPackagePrefixes != null) {
+      result.append("allocation: packages ")
+          .append(Arrays.toString(allocationPackagePrefixes))
+          .append(", sampling interval ")
+          .append(allocationSamplingInterval)
+          .append("; ");
+    }
+    if (allocatedBytesPackagePrefixes != null) {
+      result.append("allocated bytes: packages ")
+          .append(Arrays.toString(allocatedBytesPackagePrefixes))
+          .append(", methods '")
+          .append(allocatedBytesMethods)
+          .append("'; ");
+    }
+    if (fieldWritePackagePrefixes != null) {
+      result.append("field writes: packages ")
+          .append(Arrays.toString(fieldWritePackagePrefixes))
+          .append(", fields '")
+          .append(fieldWriteFields)
+          .append("' excluding '")
+          .append(fieldWriteExcludedFields)
+          .append("', sampling interval ")
+          .append(fieldWriteSamplingInterval)
+          .append("; ");
+    }
+    if (probesDirectory != null) {
+      result.append("probes: directory '")
+          .append(probesDirectory)
+          .append("', packages ")
+          .append(Arrays.toString(probesPackagePrefixes))
+          .append(", methods '")
+          .append(probesMethods)
+          .append("', capacity ")
+          .append(probesCapacity)
+          .append("; ");
+    }
+    return result.append(')')
+        .toString();
+  }
+
+  private final static ClassNameFilter notBootstrapFilter(final String[] packagePrefixes) {
+    return ClassNameFilter.forPackages(packagePrefixes)
+        .withClassLoaderScope(ClassLoaderScope.NOT_BOOTSTRAP);
+  }
+
+  /**
+   * Returns internal names of the packages, each followed by {@code '/'}, or {@code null} if the property isn't specified.
+   */
+  @Nullable
+  private final static String[] getPackagePrefixes(final Properties properties, final String name) {
+    final String property = properties.getProperty(name);
+    final String[] result = property == null ? null : property.split(",");
+    if (result != null) {
+      for (int i = 0; i < result.length; i++) {
+        result[i] = result[i].trim()
+            .replace('.', '/') + "/";
+      }
+    }
+    return result;
+  }
+
+  private final static Pattern getPattern(final Properties properties, final String name, final String defaultRegex) {
+    final String regex = properties.getProperty(name, defaultRegex);
+    final Pattern result;
+    try {
+      result = Pattern.compile(regex);
+    } catch (final PatternSyntaxException e) {
+      throw new IllegalArgumentException("The value '" + regex + "' is incorrect for the system property '" + name + "'", e);
+    }
+    return result;
+  }
+
+  private final static int getPositiveInt(final Properties properties, final String name, final int defaultValue) {
+    final String property = properties.getProperty(name);
+    final int result;
+    try {
+      result = property == null ? defaultValue : Integer.parseInt(property);
+    } catch (final NumberFormatException e) {
+      throw new IllegalArgumentException("The value '" + property + "' is incorrect for the system property '" + name + "'", e);
+    }
+    if (result <= 0) {
+      throw new IllegalArgumentException("The value '" + property + "' is incorrect for the system property '" + name + "'");
+    }
+    return result;
+  }
+}
@@ -0,0 +1,74 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that is cheap to update concurrently, like {@link java.util.concurrent.atomic.LongAdder}.
+ * The value is split into stripes; a thread always updates the same stripe, which is chosen by the identifier of the thread,
+ * and stripes are placed in different cache lines, so threads that update different stripes don't contend.
+ * The value of the counter is the sum of the stripes.
+ * <p>
+ * Unlike {@link java.util.concurrent.atomic.LongAdder}, which allocates stripes when it detects contention,
+ * all stripes are allocated when the counter is created, so updating a counter never allocates.
+ * The number of stripes is the number of available processors rounded up to a power of two, but no more than 16.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ */
+public final class StripedCounter {
+  private final static int STRIPES;
+  private final static int STRIPE_MASK;
+  private final static int PADDING;// number of longs in a cache line, so every stripe is in its own cache line
+  private final AtomicLongArray cells;
+
+  static {
+    final int maxStripes = 16;
+    final int processors = Runtime.getRuntime()
+        .availableProcessors();
+    STRIPES = Math.min(maxStripes, Math.max(1, Integer.highestOneBit(processors - 1) << 1));// the next power of 2
+    STRIPE_MASK = STRIPES - 1;
+    PADDING = 8;
+  }
+
+  /**
+   * Creates a counter with the value {@code 0}.
+   */
+  public StripedCounter() {
+    cells = new AtomicLongArray(STRIPES * PADDING);
+  }
+
+  /**
+   * Adds {@code delta} to the counter.
+   *
+   * @param delta A value to add.
+   */
+  public final void add(final long delta) {
+    cells.getAndAdd(stripe() * PADDING, delta);
+  }
+
+  /**
+   * Returns the current value of the counter. Updates that are concurrent with this method may be not taken into account.
+   *
+   * @return The value of the counter.
+   */
+  public final long sum() {
+    long result = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      result += cells.get(i * PADDING);
+    }
+    return result;
+  }
+
+  private final static int stripe() {
+    final long threadId = Thread.currentThread()
+        .getId();
+    final int hash = (int)(threadId ^ (threadId >>> 32)) * 0x9E3779B9;// spreads sequential identifiers over stripes
+    return (hash ^ (hash >>> 16)) & STRIPE_MASK;
+  }
+
+  @Override
+  public final String toString() {
+    return String.valueOf(sum());
+  }
+}
\ No newline at end of file
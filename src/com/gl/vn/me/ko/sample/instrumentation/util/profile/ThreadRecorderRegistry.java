@@ -0,0 +1,147 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps per-thread recorders of a profiler, so every thread records only into its own recorder, and releases recorders of terminated threads
+ * after their data is merged into data of the profiler (see {@link RecorderLifecycle#retire(Object)}).
+ * Recorders of terminated threads are retired when the profiler reads data (see {@link #retireTerminatedThreads()}), and also
+ * when a new thread obtains its recorder once the number of recorders has doubled since the previous retirement,
+ * so memory is not leaked when threads come and go, even if data is never read. The cost of retirement is amortized over
+ * registrations of recorders, and obtaining the recorder of a thread that already has one costs a {@link ThreadLocal#get()}.
+ * <p>
+ * The monitor of a registry guards data merged from recorders of terminated threads: {@link RecorderLifecycle#retire(Object)}
+ * is invoked while holding the monitor, and the profiler must hold it while reading such data.
+ * <p>
+ * Instantiability: allowed.<br>
+ * Mutability: mutable.<br>
+ * Thread safety: thread-safe.
+ *
+ * @param <R> A type of recorders.
+ */
+public final class ThreadRecorderRegistry<R> {
+  /**
+   * Creates recorders and merges data of retired ones.
+   * <p>
+   * Thread safety: {@link #newRecorder()} is invoked concurrently by threads that obtain their recorders,
+   * {@link #retire(Object)} is invoked only while holding the monitor of the registry.
+   *
+   * @param <R> A type of recorders.
+   */
+  public static interface RecorderLifecycle<R> {
+    /**
+     * Creates a recorder for the current thread.
+     *
+     * @return A new recorder.
+     */
+    R newRecorder();
+
+    /**
+     * Merges data of a recorder of a terminated thread into data of the profiler. The thread recorded nothing after it has terminated,
+     * and the recorder is released after this method returns.
+     *
+     * @param recorder A recorder of a terminated thread.
+     */
+    void retire(R recorder);
+  }
+
+  /**
+   * A recorder together with the thread that owns it.
+   * <p>
+   * Instantiability: allowed only from inside {@link ThreadRecorderRegistry} class.<br>
+   * Mutability: immutable.<br>
+   * Thread safety: thread-safe.
+   */
+  private final static class Registration<R> {
+    private final WeakReference<Thread> thread;
+    private final R recorder;
+
+    private Registration(final Thread thread, final R recorder) {
+      this.thread = new WeakReference<Thread>(thread);
+      this.recorder = recorder;
+    }
+
+    private final boolean isTerminated() {
+      final Thread thread = this.thread.get();
+      return (thread == null) || !thread.isAlive();
+    }
+  }
+
+  private final static int MIN_RETIREMENT_THRESHOLD;
+  private final RecorderLifecycle<R> lifecycle;
+  private final ThreadLocal<R> recorder;
+  private final Queue<Registration<R>> registrations;// recorders of threads that may be alive
+  private final AtomicInteger size;
+  private volatile int retirementThreshold;// the number of recorders that triggers retirement of recorders of terminated threads
+
+  static {
+    MIN_RETIREMENT_THRESHOLD = 64;
+  }
+
+  /**
+   * Creates an empty registry.
+   *
+   * @param lifecycle Creates recorders and merges data of retired ones. Must be not {@code null}.
+   */
+  public ThreadRecorderRegistry(final RecorderLifecycle<R> lifecycle) {
+    if (lifecycle == null) {
+      throw new NullPointerException("The argument 'lifecycle' is null");
+    }
+    this.lifecycle = lifecycle;
+    recorder = new ThreadLocal<R>() {
+      @Override
+      protected final R initialValue() {
+        return register();
+      }
+    };
+    registrations = new ConcurrentLinkedQueue<Registration<R>>();
+    size = new AtomicInteger();
+    retirementThreshold = MIN_RETIREMENT_THRESHOLD;
+  }
+
+  /**
+   * Returns the recorder of the current thread, the recorder is created when the thread invokes the method for the first time.
+   *
+   * @return The recorder of the current thread.
+   */
+  public final R get() {
+    return recorder.get();
+  }
+
+  /**
+   * Retires recorders of terminated threads (see {@link RecorderLifecycle#retire(Object)}) and returns recorders of threads
+   * that may be alive. The caller must hold the monitor of the registry while reading data merged from retired recorders.
+   *
+   * @return Recorders that were not retired. Other threads may record into them concurrently.
+   */
+  public final synchronized List<R> retireTerminatedThreads() {
+    final List<R> result = new ArrayList<R>();
+    for (final Iterator<Registration<R>> iterator = registrations.iterator(); iterator.hasNext(); ) {
+      final Registration<R> registration = iterator.next();
+      if (registration.isTerminated()) {// the thread recorded nothing after it has terminated
+        lifecycle.retire(registration.recorder);
+        iterator.remove();
+        size.decrementAndGet();
+      } else {
+        result.add(registration.recorder);
+      }
+    }
+    retirementThreshold = Math.max(MIN_RETIREMENT_THRESHOLD, 2 * size.get());
+    return result;
+  }
+
+  private final R register() {
+    final R result = lifecycle.newRecorder();
+    registrations.add(new Registration<R>(Thread.currentThread(), result));
+    if (size.incrementAndGet() >= retirementThreshold) {
+      retireTerminatedThreads();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,11 @@
+/**
+ * Contains profilers that collect data from code injected by class file transformers
+ * and can be reused as is or with modifications for other applications.
+ * <p>
+ * Transformers of this package never transform classes of this package, because profilers must not profile themselves.
+ * Instrumented methods or sites are registered in a profiler when their classes are transformed, and identifiers assigned by the profiler
+ * are embedded into the injected code, so results of the transformers are never cached
+ * (see {@link com.gl.vn.me.ko.sample.instrumentation.util.AbstractTransformer#getVersionFingerprint()}).
+ */
+@javax.annotation.ParametersAreNonnullByDefault
+package com.gl.vn.me.ko.sample.instrumentation.util.profile;
\ No newline at end of file
@@ -0,0 +1,344 @@
+package com.gl.vn.me.ko.sample.instrumentation.util.proxy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.CodeVisitor;
+import org.objectweb.asm.Constants;
+import org.objectweb.asm.Type;
+
+/**
+ * Creates proxy objects that implement an interface by delegating to another implementation of the interface,
+ * and route only selected (intercepted) methods to an {@link java.lang.reflect.InvocationHandler}.
+ * <p>
+ * {@link java.lang.reflect.Proxy} routes every method to the invocation handler, which boxes arguments into an array and usually invokes
+ * the method on the original object via {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+ * A factory instead generates a hidden class (see {@link java.lang.invoke.MethodHandles.Lookup#defineHiddenClass(byte[], boolean,
+ * java.lang.invoke.MethodHandles.Lookup.ClassOption...)}) in which every method that isn't intercepted directly invokes
+ * the same method of the delegate via {@code invokeinterface} instruction, so the JIT compiler can inline the invocation.
+ * Intercepted methods are invoked the same way {@link java.lang.reflect.Proxy} invokes them:
+ * {@link java.lang.reflect.InvocationHandler#invoke(Object, Method, Object[])} is called with the proxy object,
+ * the intercepted {@link java.lang.reflect.Method} and boxed arguments. Unlike {@link java.lang.reflect.Proxy},
+ * an exception thrown by the handler is propagated as is, even if it is a checked exception that isn't declared by the method.
+ * Methods {@link Object#equals(Object)}, {@link Object#hashCode()} and {@link Object#toString()} are delegated (or intercepted) too.
+ * <p>
+ * The class is generated only once, when a factory is created, so a factory should be reused, e.g. stored in a {@code static final} field:
+ * <blockquote>
+ *
+ * <pre>
+ * private static final DelegatingProxyFactory&lt;Map&gt; FACTORY = DelegatingProxyFactory.newFactory(MethodHandles.lookup(), Map.class,
+ * 		Map.class.getMethod(&quot;get&quot;, Object.class));
+ * ...
+ * Map proxy = FACTORY.newProxyInstance(map, handler);
+ * </pre>
+ *
+ * </blockquote>
+ * Classes are generated via ASM framework (the same one CGLib uses), so the generation doesn't need Javassist framework.
+ * <p>
+ * Instantiability: allowed only via {@link #newFactory(java.lang.invoke.MethodHandles.Lookup, Class, Method...)} method.<br>
+ * Mutability: immutable.<br>
+ * Thread safety: thread-safe.
+ *
+ * @param <T> Type of the proxied interface.
+ */
+public final class DelegatingProxyFactory<T> {
+  private final static String DELEGATE_FIELD_NAME;
+  private final static String HANDLER_FIELD_NAME;
+  private final static String INTERCEPTED_METHODS_FIELD_NAME;
+  private final static String OBJECT_INTERNAL_NAME;
+  private final static String HANDLER_INTERNAL_NAME;
+  private final static String HANDLER_DESCRIPTOR;
+  private final static String INTERCEPTED_METHODS_DESCRIPTOR;
+  private final static String INVOKE_DESCRIPTOR;
+  private final static Method[] OBJECT_METHODS;// methods of java.lang.Object that are delegated
+
+  private final Class<T> proxiedInterface;
+  private final MethodHandle constructor;// (Object delegate, InvocationHandler handler)Object
+
+  static {
+    DELEGATE_FIELD_NAME = "delegate";
+    HANDLER_FIELD_NAME = "handler";
+    INTERCEPTED_METHODS_FIELD_NAME = "interceptedMethods";
+    OBJECT_INTERNAL_NAME = Type.getInternalName(Object.class);
+    HANDLER_INTERNAL_NAME = Type.getInternalName(InvocationHandler.class);
+    HANDLER_DESCRIPTOR = Type.getDescriptor(InvocationHandler.class);
+    INTERCEPTED_METHODS_DESCRIPTOR = Type.getDescriptor(Method[].class);
+    try {
+      INVOKE_DESCRIPTOR = Type.getMethodDescriptor(InvocationHandler.class.getMethod("invoke", Object.class, Method.class, Object[].class));
+      OBJECT_METHODS = new Method[] {Object.class.getMethod("equals", Object.class), Object.class.getMethod("hashCode"),
+          Object.class.getMethod("toString")};
+    } catch (final NoSuchMethodException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * Generates a proxy class and creates a factory of its instances.
+   *
+   * @param <T> Type of the proxied interface.
+   * @param lookup A lookup object with full privilege access, e.g. {@link java.lang.invoke.MethodHandles#lookup()}.
+   * The proxy class is defined as a hidden class in the package and the class loader of the lookup class,
+   * so {@code proxiedInterface} must be accessible from the lookup class. Must be not {@code null}.
+   * @param proxiedInterface The interface that proxy objects implement. Must be not {@code null}.
+   * @param interceptedMethods Methods of {@code proxiedInterface} (or methods {@link Object#equals(Object)}, {@link Object#hashCode()}
+   * and {@link Object#toString()}) that are routed to the handler. A method is identified by its name and parameter types,
+   * so it doesn't matter which of the interfaces declares it. Must be not {@code null}, can be empty.
+   *
+   * @return A new factory.
+   *
+   * @throws IllegalAccessException If {@code lookup} doesn't have full privilege access.
+   * @throws IllegalArgumentException If {@code proxiedInterface} isn't an interface or an intercepted method isn't a method of the proxy class.
+   */
+  public final static <T> DelegatingProxyFactory<T> newFactory(
+      final MethodHandles.Lookup lookup,
+      final Class<T> proxiedInterface,
+      final Method... interceptedMethods) throws IllegalAccessException {
+    if (lookup == null) {
+      throw new NullPointerException("The first argument 'lookup' is null");
+    } else if (proxiedInterface == null) {
+      throw new NullPointerException("The second argument 'proxiedInterface' is null");
+    } else if (interceptedMethods == null) {
+      throw new NullPointerException("The third argument 'interceptedMethods' is null");
+    } else if (!proxiedInterface.isInterface()) {
+      throw new IllegalArgumentException("The second argument 'proxiedInterface' " + proxiedInterface.getName() + " is not an interface");
+    }
+    final Map<String, Method> methods = collectMethods(proxiedInterface);
+    final Method[] intercepted = new Method[interceptedMethods.length];
+    for (int i = 0; i < interceptedMethods.length; i++) {
+      final Method interceptedMethod = interceptedMethods[i];
+      if (interceptedMethod == null) {
+        throw new NullPointerException("The third argument 'interceptedMethods' contains null element");
+      }
+      final Method method = methods.get(signature(interceptedMethod));
+      if (method == null) {
+        throw new IllegalArgumentException("Method " + interceptedMethod + " is not a method of " + proxiedInterface.getName());
+      }
+      intercepted[i] = method;
+    }
+    final String className = lookup.lookupClass()
+        .getPackageName()
+        .replace('.', '/') + "/" + proxiedInterface.getSimpleName() + "$$DelegatingProxy";
+    final byte[] bytes = generate(className, proxiedInterface, methods, intercepted);
+    final MethodHandles.Lookup proxyLookup = lookup.defineHiddenClass(bytes, true);
+    final Class<?> proxyClass = proxyLookup.lookupClass();
+    final MethodHandle constructor;
+    try {
+      proxyLookup.findStaticSetter(proxyClass, INTERCEPTED_METHODS_FIELD_NAME, Method[].class)
+          .invoke(intercepted);
+      constructor = proxyLookup.findConstructor(proxyClass, MethodType.methodType(Void.TYPE, proxiedInterface, InvocationHandler.class))
+          .asType(MethodType.methodType(Object.class, Object.class, InvocationHandler.class));
+    } catch (final RuntimeException | Error | IllegalAccessException e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new RuntimeException(e);
+    }
+    return new DelegatingProxyFactory<T>(proxiedInterface, constructor);
+  }
+
+  /**
+   * Collects all methods that the proxy class implements, keyed by {@link #signature(Method)}.
+   */
+  private final static Map<String, Method> collectMethods(final Class<?> proxiedInterface) {
+    final Map<String, Method> result = new LinkedHashMap<String, Method>();
+    for (final Method method : OBJECT_METHODS) {
+      result.put(signature(method), method);
+    }
+    for (final Method method : proxiedInterface.getMethods()) {
+      if (!Modifier.isStatic(method.getModifiers())) {
+        final String signature = signature(method);
+        if (!result.containsKey(signature)) {
+          result.put(signature, method);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns name and descriptor of the method, e.g. {@code get(Ljava/lang/Object;)Ljava/lang/Object;}.
+   */
+  private final static String signature(final Method method) {
+    return method.getName() + Type.getMethodDescriptor(method);
+  }
+
+  private final static byte[] generate(
+      final String className,
+      final Class<?> proxiedInterface,
+      final Map<String, Method> methods,
+      final Method[] interceptedMethods) {
+    final String interfaceInternalName = Type.getInternalName(proxiedInterface);
+    final String interfaceDescriptor = Type.getDescriptor(proxiedInterface);
+    final ClassWriter classWriter = new ClassWriter(true);// computes maximal stack size and number of local variables
+    classWriter.visit(Constants.V1_5, Constants.ACC_PUBLIC | Constants.ACC_FINAL | Constants.ACC_SUPER | Constants.ACC_SYNTHETIC, className,
+        OBJECT_INTERNAL_NAME, new String[] {interfaceInternalName}, null);
+    classWriter.visitField(Constants.ACC_PRIVATE | Constants.ACC_FINAL, DELEGATE_FIELD_NAME, interfaceDescriptor, null, null);
+    classWriter.visitField(Constants.ACC_PRIVATE | Constants.ACC_FINAL, HANDLER_FIELD_NAME, HANDLER_DESCRIPTOR, null, null);
+    classWriter.visitField(Constants.ACC_PRIVATE | Constants.ACC_STATIC, INTERCEPTED_METHODS_FIELD_NAME, INTERCEPTED_METHODS_DESCRIPTOR, null,
+        null);
+    final CodeVisitor constructor = classWriter.visitMethod(Constants.ACC_PUBLIC, "<init>",
+        Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] {Type.getType(proxiedInterface), Type.getType(InvocationHandler.class)}), null, null);
+    constructor.visitVarInsn(Constants.ALOAD, 0);
+    constructor.visitMethodInsn(Constants.INVOKESPECIAL, OBJECT_INTERNAL_NAME, "<init>", "()V");
+    constructor.visitVarInsn(Constants.ALOAD, 0);
+    constructor.visitVarInsn(Constants.ALOAD, 1);
+    constructor.visitFieldInsn(Constants.PUTFIELD, className, DELEGATE_FIELD_NAME, interfaceDescriptor);
+    constructor.visitVarInsn(Constants.ALOAD, 0);
+    constructor.visitVarInsn(Constants.ALOAD, 2);
+    constructor.visitFieldInsn(Constants.PUTFIELD, className, HANDLER_FIELD_NAME, HANDLER_DESCRIPTOR);
+    constructor.visitInsn(Constants.RETURN);
+    constructor.visitMaxs(0, 0);
+    for (final Method method : methods.values()) {
+      int interceptedMethodIndex = -1;
+      for (int i = 0; i < interceptedMethods.length; i++) {
+        if (interceptedMethods[i] == method) {
+          interceptedMethodIndex = i;
+          break;
+        }
+      }
+      final String descriptor = Type.getMethodDescriptor(method);
+      final Type[] argTypes = Type.getArgumentTypes(method);
+      final Type returnType = Type.getReturnType(method);
+      final CodeVisitor code = classWriter.visitMethod(Constants.ACC_PUBLIC, method.getName(), descriptor, null, null);
+      if (interceptedMethodIndex >= 0) {
+        code.visitVarInsn(Constants.ALOAD, 0);
+        code.visitFieldInsn(Constants.GETFIELD, className, HANDLER_FIELD_NAME, HANDLER_DESCRIPTOR);
+        code.visitVarInsn(Constants.ALOAD, 0);
+        code.visitFieldInsn(Constants.GETSTATIC, className, INTERCEPTED_METHODS_FIELD_NAME, INTERCEPTED_METHODS_DESCRIPTOR);
+        pushInt(code, interceptedMethodIndex);
+        code.visitInsn(Constants.AALOAD);
+        pushInt(code, argTypes.length);
+        code.visitTypeInsn(Constants.ANEWARRAY, OBJECT_INTERNAL_NAME);
+        for (int i = 0, slot = 1; i < argTypes.length; slot += argTypes[i].getSize(), i++) {
+          code.visitInsn(Constants.DUP);
+          pushInt(code, i);
+          code.visitVarInsn(argTypes[i].getOpcode(Constants.ILOAD), slot);
+          box(code, argTypes[i]);
+          code.visitInsn(Constants.AASTORE);
+        }
+        code.visitMethodInsn(Constants.INVOKEINTERFACE, HANDLER_INTERNAL_NAME, "invoke", INVOKE_DESCRIPTOR);
+        unbox(code, returnType);
+      } else {
+        code.visitVarInsn(Constants.ALOAD, 0);
+        code.visitFieldInsn(Constants.GETFIELD, className, DELEGATE_FIELD_NAME, interfaceDescriptor);
+        for (int i = 0, slot = 1; i < argTypes.length; slot += argTypes[i].getSize(), i++) {
+          code.visitVarInsn(argTypes[i].getOpcode(Constants.ILOAD), slot);
+        }
+        if (method.getDeclaringClass() == Object.class) {
+          code.visitMethodInsn(Constants.INVOKEVIRTUAL, OBJECT_INTERNAL_NAME, method.getName(), descriptor);
+        } else {
+          code.visitMethodInsn(Constants.INVOKEINTERFACE, interfaceInternalName, method.getName(), descriptor);
+        }
+      }
+      code.visitInsn(returnType.getOpcode(Constants.IRETURN));
+      code.visitMaxs(0, 0);
+    }
+    classWriter.visitEnd();
+    return classWriter.toByteArray();
+  }
+
+  private final static void pushInt(final CodeVisitor code, final int value) {
+    if (value <= 5) {
+      code.visitInsn(Constants.ICONST_0 + value);
+    } else if (value <= Byte.MAX_VALUE) {
+      code.visitIntInsn(Constants.BIPUSH, value);
+    } else {
+      code.visitIntInsn(Constants.SIPUSH, value);
+    }
+  }
+
+  /**
+   * Returns internal name of the wrapper class of the primitive type, or {@code null} if the type isn't primitive.
+   */
+  @Nullable
+  private final static String wrapperInternalName(final Type type) {
+    final Class<?> wrapper;
+    final int sort = type.getSort();
+    if (sort == Type.BOOLEAN) {
+      wrapper = Boolean.class;
+    } else if (sort == Type.CHAR) {
+      wrapper = Character.class;
+    } else if (sort == Type.BYTE) {
+      wrapper = Byte.class;
+    } else if (sort == Type.SHORT) {
+      wrapper = Short.class;
+    } else if (sort == Type.INT) {
+      wrapper = Integer.class;
+    } else if (sort == Type.FLOAT) {
+      wrapper = Float.class;
+    } else if (sort == Type.LONG) {
+      wrapper = Long.class;
+    } else if (sort == Type.DOUBLE) {
+      wrapper = Double.class;
+    } else {
+      wrapper = null;
+    }
+    return wrapper == null ? null : Type.getInternalName(wrapper);
+  }
+
+  /**
+   * Replaces a value of the type on top of the operand stack with a reference to the boxed value.
+   */
+  private final static void box(final CodeVisitor code, final Type type) {
+    final String wrapperInternalName = wrapperInternalName(type);
+    if (wrapperInternalName != null) {
+      code.visitMethodInsn(Constants.INVOKESTATIC, wrapperInternalName, "valueOf", "(" + type.getDescriptor() + ")L" + wrapperInternalName + ";");
+    }
+  }
+
+  /**
+   * Replaces a reference on top of the operand stack with a value of the type, e.g. with an unboxed value.
+   */
+  private final static void unbox(final CodeVisitor code, final Type type) {
+    final String wrapperInternalName = wrapperInternalName(type);
+    if (type.getSort() == Type.VOID) {
+      code.visitInsn(Constants.POP);
+    } else if (wrapperInternalName != null) {
+      code.visitTypeInsn(Constants.CHECKCAST, wrapperInternalName);
+      code.visitMethodInsn(Constants.INVOKEVIRTUAL, wrapperInternalName, type.getClassName() + "Value", "()" + type.getDescriptor());
+    } else if (!OBJECT_INTERNAL_NAME.equals(type.getInternalName())) {
+      code.visitTypeInsn(Constants.CHECKCAST, type.getSort() == Type.ARRAY ? type.getDescriptor() : type.getInternalName());
+    }
+  }
+
+  private DelegatingProxyFactory(final Class<T> proxiedInterface, final MethodHandle constructor) {
+    this.proxiedInterface = proxiedInterface;
+    this.constructor = constructor;
+  }
+
+  /**
+   * Creates a proxy object.
+   *
+   * @param delegate An object to which methods that aren't intercepted are delegated. Must be not {@code null}.
+   * @param handler A handler of intercepted methods. Must be not {@code null}.
+   *
+   * @return A new proxy object.
+   */
+  public final T newProxyInstance(final T delegate, final InvocationHandler handler) {
+    if (delegate == null) {
+      throw new NullPointerException("The first argument 'delegate' is null");
+    } else if (handler == null) {
+      throw new NullPointerException("The second argument 'handler' is null");
+    }
+    final Object proxy;
+    try {
+      proxy = constructor.invokeExact((Object)delegate, handler);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new RuntimeException(e);
+    }
+    return proxiedInterface.cast(proxy);
+  }
+
+  @Override
+  public final String toString() {
+    return getClass().getSimpleName() + "(proxiedInterface=" + proxiedInterface.getName() + ")";
+  }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+/**
+ * Contains utility classes that generate proxy classes without reflective dispatch
+ * that are used in examples and can be reused as is or with modifications for other applications.
+ */
+@javax.annotation.ParametersAreNonnullByDefault
+package com.gl.vn.me.ko.sample.instrumentation.util.proxy;
\ No newline at end of file